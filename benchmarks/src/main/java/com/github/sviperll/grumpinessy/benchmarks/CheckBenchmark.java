@@ -0,0 +1,87 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.benchmarks;
+
+import com.github.sviperll.grumpinessy.testing.CheckDriver;
+import com.puppycrawl.tools.checkstyle.JavaParser;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.FileContents;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a single grumpinessy check running over a pre-parsed tree.
+ * <p>
+ * Parsing is done once during setup, so that only
+ * {@code beginTree}, {@code visitToken}, {@code leaveToken} and {@code finishTree} calls
+ * are measured.
+ * Run with {@code -prof gc} (default for {@link BenchmarkMain}) to see allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckBenchmark {
+    @Param({
+        "MembersOrderCheck",
+        "MethodCallLineBreaksCheck",
+        "MethodCallChainLineBreaksCheck",
+        "NessesaryBracesCheck",
+        "IfElseSameBracesCheck",
+        "NoImportsOfHigherPackagesCheck",
+        "GrumpinessyCheck"
+    })
+    public String check;
+
+    @Param({"REALISTIC", "LARGE"})
+    public SourceCorpus source;
+
+    private CheckDriver driver;
+    private FileContents contents;
+    private DetailAST root;
+
+    @Setup
+    public void setUp() throws CheckstyleException {
+        driver = CheckDriver.of(check);
+        String text = source.source();
+        contents = new FileContents(new FileText(new File("Source.java"), text.lines().toList()));
+        root = JavaParser.parse(contents);
+    }
+
+    @Benchmark
+    public int visit() {
+        return driver.run(contents, root);
+    }
+}
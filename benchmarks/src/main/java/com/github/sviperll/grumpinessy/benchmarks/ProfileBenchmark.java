@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.benchmarks;
+
+import com.github.sviperll.grumpinessy.profile.ProfileTier;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the whole grumpinessy {@code checkstyle.xml} profile end to end.
+ * <p>
+ * Every {@link ProfileTier} of the profile is measured separately.
+ * <p>
+ * Every invocation reads, parses and checks the same set of files with a single
+ * configured {@link Checker}, just like the maven-checkstyle-plugin does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProfileBenchmark {
+    private static final String CONFIGURATION = "com/github/sviperll/grumpinessy/checkstyle.xml";
+
+    @Param({"REALISTIC", "LARGE"})
+    public SourceCorpus source;
+
+    @Param({"4"})
+    public int fileCount;
+
+    @Param({"FAST", "FULL"})
+    public ProfileTier tier;
+
+    private Path directory;
+    private List<File> files;
+    private Checker checker;
+
+    @Setup
+    public void setUp() throws IOException, CheckstyleException {
+        directory = Files.createTempDirectory("grumpinessy-benchmark");
+        String text = source.source();
+        files = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            Path file = directory.resolve("Source" + i + ".java");
+            Files.writeString(file, text, StandardCharsets.UTF_8);
+            files.add(file.toFile());
+        }
+        Configuration configuration = tier.loadConfiguration(
+                CONFIGURATION,
+                new PropertiesExpander(System.getProperties())
+        );
+        checker = new Checker();
+        checker.setModuleClassLoader(Checker.class.getClassLoader());
+        checker.configure(configuration);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        checker.destroy();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int profile() throws CheckstyleException {
+        return checker.process(files);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Java sources that benchmarks are run against.
+ * <p>
+ * The realistic source is a hand-written class that mixes
+ * both compliant and violating code for every grumpinessy check.
+ * Large source is generated and repeats similar constructs many times in a single class.
+ */
+public enum SourceCorpus {
+    REALISTIC {
+        @Override
+        String source() {
+            try (InputStream stream = SourceCorpus.class.getResourceAsStream(REALISTIC_RESOURCE)) {
+                if (stream == null) {
+                    throw new IllegalStateException(REALISTIC_RESOURCE + ": resource not found");
+                }
+                return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    },
+    LARGE {
+        @Override
+        String source() {
+            return generate(LARGE_MEMBER_GROUPS);
+        }
+    };
+
+    private static final String REALISTIC_RESOURCE = "realistic-sample.java.txt";
+    private static final int LARGE_MEMBER_GROUPS = 500;
+
+    /**
+     * Generates a single class with the given number of member groups.
+     * <p>
+     * Each group consists of a constant, a field, several methods with
+     * if/else-ladders, loops, multi-line argument lists and method call chains
+     * and, once in a while, a nested class.
+     * Every tenth group contains violations so that reporting code paths are exercised too.
+     */
+    static String generate(int memberGroups) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("package com.example.generated.large;\n\n");
+        builder.append("import com.example.generated.Base;\n");
+        builder.append("import com.example.generated.large.part.Part;\n");
+        builder.append("import java.util.ArrayList;\n");
+        builder.append("import java.util.List;\n\n");
+        builder.append("public class Large {\n");
+        for (int i = 0; i < memberGroups; i++) {
+            appendGroup(builder, i, i % 10 == 9);
+        }
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    private static void appendGroup(StringBuilder builder, int i, boolean withViolations) {
+        builder.append("    static final int CONSTANT_").append(i);
+        builder.append(" = ").append(i).append(";\n");
+        builder.append("    private int field").append(i).append(";\n\n");
+        builder.append("    int branch").append(i).append("(int x, List<String> list) {\n");
+        builder.append("        if (x < ").append(i).append(") {\n");
+        builder.append("            return list.size();\n");
+        builder.append("        } else if (x == ").append(i).append(") {\n");
+        builder.append("            return field").append(i).append(";\n");
+        if (withViolations) {
+            builder.append("        } else\n");
+            builder.append("            return list.stream()\n");
+            builder.append("                    .mapToInt(String::length)\n");
+            builder.append("                    .sum();\n");
+        } else {
+            builder.append("        } else {\n");
+            builder.append("            return x;\n");
+            builder.append("        }\n");
+        }
+        builder.append("    }\n\n");
+        builder.append("    List<String> chain").append(i).append("(List<String> list) {\n");
+        builder.append("        List<String> result = new ArrayList<>();\n");
+        builder.append("        for (String s : list)\n");
+        builder.append("            result.add(s.trim());\n");
+        if (withViolations) {
+            builder.append("        return result.stream().map(String::trim)\n");
+            builder.append("                .filter(s -> !s.isEmpty()).toList();\n");
+        } else {
+            builder.append("        return result.stream()\n");
+            builder.append("                .map(String::trim)\n");
+            builder.append("                .filter(s -> !s.isEmpty())\n");
+            builder.append("                .toList();\n");
+        }
+        builder.append("    }\n\n");
+        builder.append("    String call").append(i).append("(String a, String b) {\n");
+        if (withViolations) {
+            builder.append("        return String.format(\n");
+            builder.append("                \"%s-%s\", a, b);\n");
+        } else {
+            builder.append("        return String.format(\n");
+            builder.append("                \"%s-%s\",\n");
+            builder.append("                a,\n");
+            builder.append("                b\n");
+            builder.append("        );\n");
+        }
+        builder.append("    }\n\n");
+        if (withViolations) {
+            builder.append("    static int late").append(i).append(" = 0;\n\n");
+        }
+        if (i % 50 == 0) {
+            builder.append("    static class Nested").append(i).append(" {\n");
+            builder.append("        private final int value = ").append(i).append(";\n\n");
+            builder.append("        int value() {\n");
+            builder.append("            while (value < 0)\n");
+            builder.append("                return 0;\n");
+            builder.append("            return value;\n");
+            builder.append("        }\n");
+            builder.append("    }\n\n");
+        }
+    }
+
+    abstract String source();
+}
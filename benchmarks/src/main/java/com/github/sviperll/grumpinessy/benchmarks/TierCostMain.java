@@ -0,0 +1,100 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.benchmarks;
+
+import com.github.sviperll.grumpinessy.profile.ProfileTier;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import java.io.IOException;
+
+/**
+ * Records cost of every {@link ProfileTier} and guards the latency budget of the fast tier.
+ * <p>
+ * Every tier checks the same files as {@link ProfileBenchmark} does,
+ * cost is the best time of several runs per file.
+ * Budget of the fast tier is a fraction of the cost of the full tier, so
+ * it does not depend on the speed of the machine.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp target/benchmarks.jar com.github.sviperll.grumpinessy.benchmarks.TierCostMain \
+ *     [fast tier budget as a fraction of full tier]
+ * </pre>
+ * Exit code is the number of sources, where fast tier is over budget.
+ */
+public class TierCostMain {
+    private static final double DEFAULT_BUDGET = 0.25;
+    private static final int FILE_COUNT = 4;
+    private static final int WARMUP_RUNS = 10;
+    private static final int RUNS = 10;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    public static void main(String[] args) throws IOException, CheckstyleException {
+        double budget = args.length == 0 ? DEFAULT_BUDGET : Double.parseDouble(args[0]);
+        int failureCount = 0;
+        for (SourceCorpus source : SourceCorpus.values()) {
+            long fullNanos = measure(source, ProfileTier.FULL);
+            long fastNanos = measure(source, ProfileTier.FAST);
+            double fraction = (double) fastNanos / fullNanos;
+            System.out.printf(
+                    "%-10s full %10.3f ms per file, fast %10.3f ms per file (%.1f%% of full)%n",
+                    source,
+                    fullNanos / NANOS_PER_MILLI,
+                    fastNanos / NANOS_PER_MILLI,
+                    fraction * 100
+            );
+            if (fraction > budget) {
+                failureCount++;
+                System.out.printf(
+                        "FAILED %s: fast tier costs %.1f%% of full tier, budget is %.1f%%%n",
+                        source,
+                        fraction * 100,
+                        budget * 100
+                );
+            }
+        }
+        System.exit(failureCount);
+    }
+
+    /**
+     * Returns the best time of checking a single file.
+     */
+    private static long measure(SourceCorpus source, ProfileTier tier)
+            throws IOException, CheckstyleException {
+        ProfileBenchmark benchmark = new ProfileBenchmark();
+        benchmark.source = source;
+        benchmark.fileCount = FILE_COUNT;
+        benchmark.tier = tier;
+        benchmark.setUp();
+        try {
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                benchmark.profile();
+            }
+            long bestNanos = Long.MAX_VALUE;
+            for (int i = 0; i < RUNS; i++) {
+                long startNanos = System.nanoTime();
+                benchmark.profile();
+                bestNanos = Math.min(bestNanos, System.nanoTime() - startNanos);
+            }
+            return bestNanos / FILE_COUNT;
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.nativeimage;
+
+import com.google.common.reflect.ClassPath;
+import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.ModuleFactory;
+import com.puppycrawl.tools.checkstyle.PackageNamesLoader;
+import com.puppycrawl.tools.checkstyle.PackageObjectFactory;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.JavadocTokenTypes;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Command line to generate GraalVM native-image configuration for Checkstyle modules.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp ... com.github.sviperll.grumpinessy.nativeimage.NativeImageConfigurationMain \
+ *     output-directory configuration[,configuration...]
+ * </pre>
+ * Checkstyle creates modules named in configuration files
+ * and configures their properties by reflection,
+ * and reads messages and DTDs as class path resources.
+ * Native executable can do all of this only for classes and resources
+ * listed in {@code reflect-config.json} and {@code resource-config.json},
+ * both files are written to the output directory.
+ * <p>
+ * Listed are all modules of the given configurations and all public grumpinessy modules,
+ * all classes from packages of these modules, because checks like {@code Indentation}
+ * create their helpers by reflection,
+ * messages of these packages, Checkstyle's DTDs and SARIF templates and
+ * configurations themselves, when they are class path resources.
+ */
+public class NativeImageConfigurationMain {
+    private static final int USAGE_EXIT_CODE = -1;
+    private static final String GRUMPINESSY_PACKAGE = "com.github.sviperll.grumpinessy";
+    private static final String CHECKSTYLE_PACKAGE = "com.puppycrawl.tools.checkstyle";
+    private static final Set<String> LOGGING_CLASSES = Set.of(
+            "org.apache.commons.logging.impl.LogFactoryImpl",
+            "org.apache.commons.logging.impl.Jdk14Logger"
+    );
+
+    public static void main(String[] args) throws IOException, CheckstyleException {
+        if (args.length != 2) {
+            System.err.println(
+                    "Usage: NativeImageConfigurationMain <output directory>"
+                    + " <configuration>[,<configuration>...]"
+            );
+            System.exit(USAGE_EXIT_CODE);
+        } else {
+            run(Path.of(args[0]), args[1].split(","));
+        }
+    }
+
+    private static void run(Path output, String[] configurations)
+            throws IOException, CheckstyleException {
+        ClassLoader classLoader = NativeImageConfigurationMain.class.getClassLoader();
+        ClassPath classPath = ClassPath.from(classLoader);
+        ModuleFactory factory = new PackageObjectFactory(
+                PackageNamesLoader.getPackageNames(classLoader),
+                classLoader
+        );
+        Set<Class<?>> modules = new TreeSet<>((a, b) -> a.getName().compareTo(b.getName()));
+        Set<String> resources = new TreeSet<>();
+        for (String location : configurations) {
+            URL resource = classLoader.getResource(location.trim());
+            if (resource != null) {
+                resources.add(location.trim());
+            }
+            Configuration configuration = ConfigurationLoader.loadConfiguration(
+                    resource == null ? location.trim() : resource.toString(),
+                    new PropertiesExpander(System.getProperties()),
+                    ConfigurationLoader.IgnoredModulesOptions.OMIT
+            );
+            addModules(configuration, factory, modules);
+        }
+        Set<ClassPath.ClassInfo> grumpinessyClasses =
+                classPath.getTopLevelClassesRecursive(GRUMPINESSY_PACKAGE);
+        for (ClassPath.ClassInfo info : grumpinessyClasses) {
+            Class<?> type = info.load();
+            if (isModule(type)) {
+                modules.add(type);
+            }
+        }
+
+        Map<String, Set<Access>> reflection = new TreeMap<>();
+        Set<String> packages = new TreeSet<>();
+        packages.add(CHECKSTYLE_PACKAGE);
+        packages.add(GRUMPINESSY_PACKAGE);
+        for (Class<?> module : modules) {
+            packages.add(module.getPackageName());
+            for (Class<?> type = module; type != Object.class; type = type.getSuperclass()) {
+                access(reflection, type.getName()).addAll(
+                        EnumSet.of(Access.PUBLIC_CONSTRUCTORS, Access.PUBLIC_METHODS)
+                );
+            }
+        }
+        for (String packageName : packages) {
+            for (ClassPath.ClassInfo info : classPath.getTopLevelClasses(packageName)) {
+                access(reflection, info.getName()).add(Access.DECLARED_CONSTRUCTORS);
+            }
+        }
+        access(reflection, TokenTypes.class.getName()).add(Access.PUBLIC_FIELDS);
+        access(reflection, JavadocTokenTypes.class.getName()).add(Access.PUBLIC_FIELDS);
+        for (String logging : LOGGING_CLASSES) {
+            access(reflection, logging).add(Access.PUBLIC_CONSTRUCTORS);
+        }
+
+        for (ClassPath.ResourceInfo info : classPath.getResources()) {
+            String name = info.getResourceName();
+            int slash = name.lastIndexOf('/');
+            String packageName = slash < 0 ? "" : name.substring(0, slash).replace('/', '.');
+            String fileName = name.substring(slash + 1);
+            boolean isCheckstyleResource = packageName.startsWith(CHECKSTYLE_PACKAGE)
+                    && (fileName.endsWith(".dtd")
+                            || fileName.endsWith(".template")
+                            || fileName.equals("tokentypes.properties"));
+            boolean isMessages = packages.contains(packageName)
+                    && fileName.startsWith("messages")
+                    && fileName.endsWith(".properties");
+            if (isCheckstyleResource || isMessages) {
+                resources.add(name);
+            }
+        }
+
+        Files.createDirectories(output);
+        Files.writeString(
+                output.resolve("reflect-config.json"),
+                reflectConfig(reflection),
+                StandardCharsets.UTF_8
+        );
+        Files.writeString(
+                output.resolve("resource-config.json"),
+                resourceConfig(resources),
+                StandardCharsets.UTF_8
+        );
+        System.out.printf(
+                "Native image configuration for %d modules, %d classes and %d resources: %s%n",
+                modules.size(),
+                reflection.size(),
+                resources.size(),
+                output
+        );
+    }
+
+    private static void addModules(
+            Configuration configuration,
+            ModuleFactory factory,
+            Set<Class<?>> modules
+    ) throws CheckstyleException {
+        modules.add(factory.createModule(configuration.getName()).getClass());
+        for (Configuration child : configuration.getChildren()) {
+            addModules(child, factory, modules);
+        }
+    }
+
+    private static boolean isModule(Class<?> type) {
+        return Modifier.isPublic(type.getModifiers())
+                && !Modifier.isAbstract(type.getModifiers())
+                && AbstractAutomaticBean.class.isAssignableFrom(type);
+    }
+
+    private static Set<Access> access(Map<String, Set<Access>> reflection, String className) {
+        return reflection.computeIfAbsent(className, name -> EnumSet.noneOf(Access.class));
+    }
+
+    private static String reflectConfig(Map<String, Set<Access>> reflection) {
+        StringBuilder json = new StringBuilder();
+        json.append("[\n");
+        String separator = "";
+        for (Map.Entry<String, Set<Access>> entry : reflection.entrySet()) {
+            json.append(separator).append("  {\"name\": ").append(quote(entry.getKey()));
+            for (Access access : entry.getValue()) {
+                json.append(", ").append(quote(access.key)).append(": true");
+            }
+            json.append("}");
+            separator = ",\n";
+        }
+        json.append("\n]\n");
+        return json.toString();
+    }
+
+    private static String resourceConfig(Set<String> resources) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"resources\": {\n    \"includes\": [\n");
+        String separator = "";
+        for (String resource : resources) {
+            json.append(separator)
+                    .append("      {\"pattern\": ")
+                    .append(quote("\\Q" + resource + "\\E"))
+                    .append("}");
+            separator = ",\n";
+        }
+        json.append("\n    ]\n  }\n}\n");
+        return json.toString();
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private enum Access {
+        DECLARED_CONSTRUCTORS("allDeclaredConstructors"),
+        PUBLIC_CONSTRUCTORS("allPublicConstructors"),
+        PUBLIC_METHODS("allPublicMethods"),
+        PUBLIC_FIELDS("allPublicFields");
+
+        private final String key;
+
+        Access(String key) {
+            this.key = key;
+        }
+    }
+}
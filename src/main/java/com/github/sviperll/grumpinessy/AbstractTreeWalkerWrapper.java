@@ -0,0 +1,201 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.DefaultContext;
+import com.puppycrawl.tools.checkstyle.ModuleFactory;
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.AbstractFileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.ExternalResourceHolder;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * Base class for drop-in replacements of Checkstyle's TreeWalker, that wrap a TreeWalker.
+ * <p>
+ * Configuration of the module, except for its own properties, and
+ * all the child modules are passed to the wrapped TreeWalker.
+ * Subclasses can substitute child modules with already configured instances.
+ */
+public abstract class AbstractTreeWalkerWrapper
+        extends AbstractFileSetCheck
+        implements ExternalResourceHolder {
+    private static final String PREPARED_MODULE_PREFIX = "grumpinessy.prepared.";
+
+    private final TreeWalker treeWalker = new TreeWalker();
+    private final Set<String> ownProperties;
+    private final Map<String, Object> preparedModules = new HashMap<>();
+    private DefaultConfiguration treeWalkerConfiguration = null;
+    private ModuleFactory moduleFactory = null;
+
+    /**
+     * Creates wrapper, properties with the given names are not passed to the wrapped TreeWalker.
+     */
+    protected AbstractTreeWalkerWrapper(Set<String> ownProperties) {
+        this.ownProperties = ownProperties;
+        setFileExtensions("java");
+    }
+
+    public void setModuleFactory(ModuleFactory moduleFactory) {
+        this.moduleFactory = moduleFactory;
+    }
+
+    /**
+     * Passed to the wrapped TreeWalker along with the rest of the configuration.
+     */
+    public void setSkipFileOnJavaParseException(boolean skipFileOnJavaParseException) {
+    }
+
+    /**
+     * Passed to the wrapped TreeWalker along with the rest of the configuration.
+     */
+    public void setJavaParseExceptionSeverity(SeverityLevel javaParseExceptionSeverity) {
+    }
+
+    @Override
+    public void init() {
+        try {
+            configure(treeWalker, treeWalkerConfiguration);
+        } catch (CheckstyleException ex) {
+            throw new IllegalStateException("Unable to configure TreeWalker", ex);
+        }
+        treeWalker.init();
+    }
+
+    @Override
+    public void beginProcessing(String charset) {
+        treeWalker.setMessageDispatcher(getMessageDispatcher());
+        treeWalker.beginProcessing(charset);
+    }
+
+    @Override
+    public void finishProcessing() {
+        treeWalker.finishProcessing();
+    }
+
+    @Override
+    public void destroy() {
+        treeWalker.destroy();
+        super.destroy();
+    }
+
+    @Override
+    public Set<String> getExternalResourceLocations() {
+        return treeWalker.getExternalResourceLocations();
+    }
+
+    @Override
+    protected void finishLocalSetup() throws CheckstyleException {
+        super.finishLocalSetup();
+        Configuration configuration = getConfiguration();
+        treeWalkerConfiguration = new DefaultConfiguration("TreeWalker");
+        for (String name : configuration.getPropertyNames()) {
+            if (!ownProperties.contains(name)) {
+                treeWalkerConfiguration.addProperty(name, configuration.getProperty(name));
+            }
+        }
+        configuration.getMessages().forEach(treeWalkerConfiguration::addMessage);
+    }
+
+    @Override
+    protected final void setupChild(Configuration childConfiguration) throws CheckstyleException {
+        treeWalkerConfiguration.addChild(prepareChild(childConfiguration));
+    }
+
+    /**
+     * Returns configuration of a child module to pass to the wrapped TreeWalker.
+     * <p>
+     * Child module can be substituted with an instance registered with
+     * {@link #registerPreparedModule(Object)}.
+     * By default the child configuration is passed as is.
+     */
+    protected Configuration prepareChild(
+            Configuration childConfiguration
+    ) throws CheckstyleException {
+        return childConfiguration;
+    }
+
+    /**
+     * Registers already configured module and returns configuration, that makes
+     * the wrapped TreeWalker use the given instance as is.
+     */
+    protected final Configuration registerPreparedModule(Object module) {
+        String name = PREPARED_MODULE_PREFIX + preparedModules.size();
+        preparedModules.put(name, module);
+        return new DefaultConfiguration(name);
+    }
+
+    /**
+     * Creates module with the factory, that was passed by Checker,
+     * registered prepared modules take precedence.
+     */
+    protected final Object createModule(String name) throws CheckstyleException {
+        Object module = preparedModules.remove(name);
+        return module != null ? module : moduleFactory.createModule(name);
+    }
+
+    /**
+     * Returns another TreeWalker with the same configuration as the wrapped one,
+     * but with only the given child modules.
+     */
+    protected final TreeWalker createTreeWalker(
+            List<Configuration> children
+    ) throws CheckstyleException {
+        DefaultConfiguration configuration = new DefaultConfiguration("TreeWalker");
+        for (String name : treeWalkerConfiguration.getPropertyNames()) {
+            configuration.addProperty(name, treeWalkerConfiguration.getProperty(name));
+        }
+        treeWalkerConfiguration.getMessages().forEach(configuration::addMessage);
+        children.forEach(configuration::addChild);
+        TreeWalker result = new TreeWalker();
+        configure(result, configuration);
+        result.init();
+        return result;
+    }
+
+    protected final SortedSet<Violation> processWithTreeWalker(
+            File file,
+            FileText fileText
+    ) throws CheckstyleException {
+        return treeWalker.process(file, fileText);
+    }
+
+    private void configure(
+            TreeWalker walker,
+            Configuration configuration
+    ) throws CheckstyleException {
+        DefaultContext context = new DefaultContext();
+        context.add("moduleFactory", (ModuleFactory) this::createModule);
+        context.add("severity", getSeverity());
+        context.add("tabWidth", String.valueOf(getTabWidth()));
+        walker.contextualize(context);
+        walker.configure(configuration);
+    }
+}
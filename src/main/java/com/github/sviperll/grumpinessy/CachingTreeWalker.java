@@ -0,0 +1,299 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextAware;
+import com.github.sviperll.grumpinessy.diff.ChangedLines;
+import com.github.sviperll.grumpinessy.fix.Fixes;
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import com.puppycrawl.tools.checkstyle.checks.SuppressWarningsHolder;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * TreeWalker that remembers violations of every checked file in a persistent cache.
+ * <p>
+ * Cache is keyed by file content and path, by changed lines of the file given by the runner,
+ * by the hash of the configuration of this module including external resources,
+ * like suppression files, and by versions of Checkstyle and grumpinessy.
+ * Unchanged files are neither parsed nor visited, their cached violations are replayed instead.
+ * Holder modules, like {@code SuppressWarningsHolder}, that collect data for Checker's filters
+ * instead of reporting violations, still run on unchanged files, so that
+ * replayed violations are filtered the same way as violations of checked files.
+ * Holders need the syntax tree, so with holders configured unchanged files are still parsed and
+ * the cache saves only the time of the checks.
+ * Data of holders isn't cached, since filters consult it for violations of every module.
+ * Cache is bypassed while fixes are collected, since replayed violations come without fixes.
+ */
+public class CachingTreeWalker extends AbstractTreeWalkerWrapper implements RunContextAware {
+    private static final String CACHE_FILE_PROPERTY = "cacheFile";
+    private static final String MAX_CACHE_SIZE_PROPERTY = "maxCacheSize";
+    private static final long DEFAULT_MAX_CACHE_SIZE = 64L * 1024 * 1024;
+    private static final int CHARS_PER_DIGEST_UPDATE = 4096;
+    private static String codeVersion = null;
+
+    private static synchronized String codeVersion() {
+        if (codeVersion == null) {
+            MessageDigest digest = sha256();
+            update(digest, TreeWalker.class.getPackage().getImplementationVersion());
+            CodeSource source = CachingTreeWalker.class.getProtectionDomain().getCodeSource();
+            if (source != null) {
+                try {
+                    updateWithFiles(digest, Path.of(source.getLocation().toURI()));
+                } catch (URISyntaxException | IOException | IllegalArgumentException ex) {
+                    update(digest, source.getLocation().toString());
+                }
+            }
+            codeVersion = toHex(digest.digest());
+        }
+        return codeVersion;
+    }
+
+    private static void updateWithFiles(MessageDigest digest, Path path) throws IOException {
+        if (Files.isRegularFile(path)) {
+            digest.update(Files.readAllBytes(path));
+        } else if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.walk(path)) {
+                for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                    update(digest, path.relativize(file).toString());
+                    digest.update(Files.readAllBytes(file));
+                }
+            }
+        }
+    }
+
+    private static void updateWithConfiguration(
+            MessageDigest digest,
+            Configuration configuration
+    ) throws CheckstyleException {
+        update(digest, configuration.getName());
+        String[] names = configuration.getPropertyNames();
+        Arrays.sort(names);
+        for (String name : names) {
+            if (!name.equals(CACHE_FILE_PROPERTY) && !name.equals(MAX_CACHE_SIZE_PROPERTY)) {
+                update(digest, name);
+                update(digest, configuration.getProperty(name));
+            }
+        }
+        Map<String, String> messages = new TreeMap<>(configuration.getMessages());
+        for (Map.Entry<String, String> message : messages.entrySet()) {
+            update(digest, message.getKey());
+            update(digest, message.getValue());
+        }
+        for (Configuration child : configuration.getChildren()) {
+            updateWithConfiguration(digest, child);
+        }
+        update(digest, "");
+    }
+
+    private static void updateWithResource(MessageDigest digest, String location) {
+        update(digest, location);
+        try {
+            URL url = CommonUtil.getUriByFilename(location).toURL();
+            try (InputStream stream = url.openStream()) {
+                digest.update(stream.readAllBytes());
+            }
+        } catch (CheckstyleException | IOException ex) {
+            // Missing resource is reported by the check that uses it
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 should always be available", ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+    private final MessageDigest digest = sha256();
+    private final ByteBuffer chars = ByteBuffer.allocate(CHARS_PER_DIGEST_UPDATE * 2);
+    private final List<Configuration> holders = new ArrayList<>();
+    private Path cacheFile = null;
+    private long maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+    private byte[] configurationHash = null;
+    private RunContext runContext = new RunContext();
+    private ResultCache cache = null;
+    private TreeWalker holderWalker = null;
+
+    public CachingTreeWalker() {
+        super(Set.of(CACHE_FILE_PROPERTY, MAX_CACHE_SIZE_PROPERTY));
+    }
+
+    public void setCacheFile(String cacheFile) {
+        this.cacheFile = Path.of(cacheFile);
+    }
+
+    public void setMaxCacheSize(long maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    @Override
+    public void setRunContext(RunContext runContext) {
+        this.runContext = runContext;
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        if (!holders.isEmpty()) {
+            try {
+                holderWalker = createTreeWalker(holders);
+            } catch (CheckstyleException ex) {
+                throw new IllegalStateException("Unable to configure TreeWalker", ex);
+            }
+        }
+    }
+
+    @Override
+    public void beginProcessing(String charset) {
+        super.beginProcessing(charset);
+        if (holderWalker != null) {
+            holderWalker.setMessageDispatcher(getMessageDispatcher());
+            holderWalker.beginProcessing(charset);
+        }
+        if (cacheFile != null) {
+            MessageDigest configurationDigest = sha256();
+            update(configurationDigest, codeVersion());
+            update(configurationDigest, charset);
+            update(configurationDigest, Locale.getDefault().toString());
+            try {
+                updateWithConfiguration(configurationDigest, getConfiguration());
+            } catch (CheckstyleException ex) {
+                throw new IllegalStateException("Unable to read configuration", ex);
+            }
+            for (String location : getExternalResourceLocations().stream().sorted().toList()) {
+                updateWithResource(configurationDigest, location);
+            }
+            configurationHash = configurationDigest.digest();
+            cache = ResultCache.open(runContext, cacheFile);
+        }
+    }
+
+    @Override
+    public void finishProcessing() {
+        super.finishProcessing();
+        if (holderWalker != null) {
+            holderWalker.finishProcessing();
+        }
+        if (cache != null) {
+            ResultCache finishedCache = cache;
+            cache = null;
+            finishedCache.close(maxCacheSize);
+        }
+    }
+
+    @Override
+    protected void processFiltered(File file, FileText fileText) throws CheckstyleException {
+        if (cache == null || runContext.get(Fixes.class) != null) {
+            addViolations(processWithTreeWalker(file, fileText));
+        } else {
+            ResultCache.Key key = key(file, fileText);
+            SortedSet<Violation> violations = cache.get(key);
+            if (violations == null) {
+                violations = processWithTreeWalker(file, fileText);
+                cache.put(key, violations);
+            } else if (holderWalker != null) {
+                holderWalker.process(file, fileText);
+            }
+            addViolations(violations);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (holderWalker != null) {
+            holderWalker.destroy();
+        }
+        super.destroy();
+    }
+
+    /**
+     * Remembers holder modules, that should run even when violations are replayed from cache.
+     */
+    @Override
+    protected Configuration prepareChild(
+            Configuration childConfiguration
+    ) throws CheckstyleException {
+        if (createModule(childConfiguration.getName()) instanceof SuppressWarningsHolder) {
+            holders.add(childConfiguration);
+        }
+        return childConfiguration;
+    }
+
+    private ResultCache.Key key(File file, FileText fileText) {
+        digest.reset();
+        digest.update(configurationHash);
+        update(digest, file.getAbsolutePath());
+        update(digest, ChangedLines.scopeOf(runContext, file.getAbsolutePath()).toString());
+        CharSequence text = fileText.getFullText();
+        for (int start = 0; start < text.length(); start += CHARS_PER_DIGEST_UPDATE) {
+            int end = Math.min(text.length(), start + CHARS_PER_DIGEST_UPDATE);
+            chars.clear();
+            for (int i = start; i < end; i++) {
+                chars.putChar(text.charAt(i));
+            }
+            chars.flip();
+            digest.update(chars);
+        }
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+        return new ResultCache.Key(hash.getLong(), hash.getLong());
+    }
+}
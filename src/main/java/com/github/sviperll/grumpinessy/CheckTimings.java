@@ -0,0 +1,101 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import java.util.Arrays;
+
+/**
+ * Time, allocation, token visit and violation counters of a single check.
+ */
+final class CheckTimings {
+    private final String name;
+    private final String className;
+    private long nanos = 0;
+    private long allocatedBytes = 0;
+    private long violationCount = 0;
+    private long fileCount = 0;
+    private long[] visitCounts = new long[0];
+
+    CheckTimings(String name, String className) {
+        this.name = name;
+        this.className = className;
+    }
+
+    String name() {
+        return name;
+    }
+
+    String className() {
+        return className;
+    }
+
+    long nanos() {
+        return nanos;
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    long violationCount() {
+        return violationCount;
+    }
+
+    long fileCount() {
+        return fileCount;
+    }
+
+    /**
+     * Returns visit counts indexed by token type, array may be shorter than the number of tokens.
+     */
+    long[] visitCounts() {
+        return visitCounts;
+    }
+
+    void addTime(long elapsedNanos, long elapsedAllocatedBytes) {
+        nanos += elapsedNanos;
+        allocatedBytes += elapsedAllocatedBytes;
+    }
+
+    void addVisit(int tokenType) {
+        if (tokenType >= visitCounts.length) {
+            visitCounts = Arrays.copyOf(visitCounts, tokenType + 1);
+        }
+        visitCounts[tokenType]++;
+    }
+
+    void addFile(int violations) {
+        fileCount++;
+        violationCount += violations;
+    }
+
+    void addAll(CheckTimings timings) {
+        nanos += timings.nanos;
+        allocatedBytes += timings.allocatedBytes;
+        violationCount += timings.violationCount;
+        fileCount += timings.fileCount;
+        if (timings.visitCounts.length > visitCounts.length) {
+            visitCounts = Arrays.copyOf(visitCounts, timings.visitCounts.length);
+        }
+        for (int i = 0; i < timings.visitCounts.length; i++) {
+            visitCounts[i] += timings.visitCounts[i];
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import java.util.Arrays;
+
+/**
+ * Compact snapshot of a syntax tree.
+ * <p>
+ * Nodes are numbered in pre-order and every property of a node is stored
+ * in a primitive array indexed by this number:
+ * type, line, column, parent, first child, next sibling and
+ * the end of the subtree, so that descendants of a node are numbered
+ * from {@code index + 1} up to {@link #subtreeEnd(int)} exclusive.
+ * The first child of each of the types, that checks look up again and again,
+ * like parentheses, dots, statement lists and modifiers, is precomputed for every node.
+ * <p>
+ * Source extent of a node is the smallest span of source code that covers
+ * the node itself and all of it's descendants.
+ * Extents are computed with a single bottom-up pass over the numbered nodes.
+ * <p>
+ * Snapshot is built with two linear passes and
+ * each lookup takes constant time independently of the size of the subtree.
+ * Checks map a visited {@link DetailAST} to its number once and
+ * navigate the snapshot instead of chasing pointers of the tree.
+ * Snapshot is not cached, checks keep it until {@code finishTree} and
+ * {@link CompactTreeCheck} lets several checks share a single snapshot of a file.
+ */
+final class CompactTree {
+    /**
+     * Number, that denotes absence of a node.
+     */
+    static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Types of children, that are precomputed for every node.
+     */
+    private static final int[] SLOT_TYPES = {
+        TokenTypes.LPAREN,
+        TokenTypes.RPAREN,
+        TokenTypes.DOT,
+        TokenTypes.SLIST,
+        TokenTypes.MODIFIERS,
+        TokenTypes.ELIST,
+        TokenTypes.PARAMETERS,
+        TokenTypes.RECORD_COMPONENTS
+    };
+    private static final int[] SLOTS_BY_TYPE = slotsByType();
+
+    /**
+     * Returns snapshot of the tree with the given root.
+     * <p>
+     * Siblings of the root are indexed as well,
+     * so the argument is expected to be a root passed to {@code beginTree} method of a check.
+     */
+    static CompactTree of(DetailAST root) {
+        return index(root);
+    }
+
+    private static int[] slotsByType() {
+        int[] slots = new int[Arrays.stream(SLOT_TYPES).max().orElseThrow() + 1];
+        Arrays.fill(slots, NONE);
+        for (int slot = 0; slot < SLOT_TYPES.length; slot++) {
+            slots[SLOT_TYPES[slot]] = slot;
+        }
+        return slots;
+    }
+
+    private static int slotOf(int type) {
+        return type < SLOTS_BY_TYPE.length ? SLOTS_BY_TYPE[type] : NONE;
+    }
+
+    /**
+     * Numbers nodes in pre-order, recording only the parent of each node.
+     */
+    private static CompactTree index(DetailAST root) {
+        DetailAST[] nodes = new DetailAST[INITIAL_CAPACITY];
+        int[] parents = new int[INITIAL_CAPACITY];
+        int size = 0;
+        int parent = NONE;
+        DetailAST node = root;
+        while (node != null) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                parents = Arrays.copyOf(parents, size * 2);
+            }
+            nodes[size] = node;
+            parents[size] = parent;
+            DetailAST next = node.getFirstChild();
+            if (next != null) {
+                parent = size;
+            } else {
+                int current = size;
+                next = node.getNextSibling();
+                while (next == null && parents[current] != NONE) {
+                    current = parents[current];
+                    next = nodes[current].getNextSibling();
+                }
+                parent = parents[current];
+            }
+            size++;
+            node = next;
+        }
+        return new CompactTree(Arrays.copyOf(nodes, size), Arrays.copyOf(parents, size));
+    }
+
+    /**
+     * Encodes line and column as a single value.
+     * <p>
+     * Encoded values compare in the same order as (line, column) pairs.
+     */
+    private static long location(int line, int column) {
+        return ((long) line << 32) | ((column ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    private static int lineOf(long location) {
+        return (int) (location >> 32);
+    }
+
+    private static int columnOf(long location) {
+        return (int) location ^ Integer.MIN_VALUE;
+    }
+
+    private static int hash(DetailAST node) {
+        int hash = System.identityHashCode(node);
+        return hash ^ (hash >>> 16);
+    }
+
+    private final DetailAST[] nodes;
+    private final int[] types;
+    private final int[] lines;
+    private final int[] columns;
+    private final int[] parents;
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+    private final int[] subtreeEnds;
+
+    /**
+     * First child of each of {@link #SLOT_TYPES}, stored side by side for each node.
+     */
+    private final int[] slots;
+
+    /**
+     * Start and end locations of each node, stored side by side.
+     */
+    private final long[] spans;
+
+    private final DetailAST[] keys;
+    private final int[] indexes;
+
+    private CompactTree(DetailAST[] nodes, int[] parents) {
+        int size = nodes.length;
+        this.nodes = nodes;
+        this.parents = parents;
+        types = new int[size];
+        lines = new int[size];
+        columns = new int[size];
+        spans = new long[size * 2];
+        for (int index = 0; index < size; index++) {
+            types[index] = nodes[index].getType();
+            lines[index] = nodes[index].getLineNo();
+            columns[index] = nodes[index].getColumnNo();
+            spans[index * 2] = location(lines[index], columns[index]);
+            spans[index * 2 + 1] = spans[index * 2];
+        }
+        subtreeEnds = new int[size];
+        slots = new int[size * SLOT_TYPES.length];
+        Arrays.fill(slots, NONE);
+        // Descendants are numbered after their ancestors, so
+        // every node is complete before it is merged into its parent
+        for (int index = size - 1; index >= 0; index--) {
+            subtreeEnds[index] = Math.max(subtreeEnds[index], index + 1);
+            int parent = parents[index];
+            if (parent != NONE) {
+                subtreeEnds[parent] = Math.max(subtreeEnds[parent], subtreeEnds[index]);
+                spans[parent * 2] = Math.min(spans[parent * 2], spans[index * 2]);
+                spans[parent * 2 + 1] = Math.max(spans[parent * 2 + 1], spans[index * 2 + 1]);
+                int slot = slotOf(types[index]);
+                if (slot != NONE) {
+                    slots[parent * SLOT_TYPES.length + slot] = index;
+                }
+            }
+        }
+        firstChildren = new int[size];
+        nextSiblings = new int[size];
+        for (int index = 0; index < size; index++) {
+            int next = index + 1;
+            firstChildren[index] = next < size && parents[next] == index ? next : NONE;
+            int end = subtreeEnds[index];
+            nextSiblings[index] = end < size && parents[end] == parents[index] ? end : NONE;
+        }
+        keys = new DetailAST[Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1];
+        indexes = new int[keys.length];
+        int mask = keys.length - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = hash(nodes[index]) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = nodes[index];
+            indexes[slot] = index;
+        }
+    }
+
+    /**
+     * Returns number of the given node.
+     *
+     * @throws IllegalArgumentException if node is not part of this tree
+     */
+    int indexOf(DetailAST node) {
+        int mask = keys.length - 1;
+        int slot = hash(node) & mask;
+        while (keys[slot] != node) {
+            if (keys[slot] == null) {
+                throw new IllegalArgumentException(
+                        String.format("Node is not indexed: %s: %s", node.getType(), node.getText())
+                );
+            }
+            slot = (slot + 1) & mask;
+        }
+        return indexes[slot];
+    }
+
+    /**
+     * Returns node with the given number, to report violations.
+     */
+    DetailAST node(int index) {
+        return nodes[index];
+    }
+
+    int type(int index) {
+        return types[index];
+    }
+
+    int line(int index) {
+        return lines[index];
+    }
+
+    int column(int index) {
+        return columns[index];
+    }
+
+    int parent(int index) {
+        return parents[index];
+    }
+
+    int firstChild(int index) {
+        return firstChildren[index];
+    }
+
+    int nextSibling(int index) {
+        return nextSiblings[index];
+    }
+
+    /**
+     * Returns number after the last descendant of the given node.
+     */
+    int subtreeEnd(int index) {
+        return subtreeEnds[index];
+    }
+
+    /**
+     * Returns the first child of the given type, like {@link DetailAST#findFirstToken(int)}.
+     */
+    int firstChild(int index, int type) {
+        int slot = slotOf(type);
+        if (slot != NONE)
+            return slots[index * SLOT_TYPES.length + slot];
+        int child = firstChildren[index];
+        while (child != NONE && types[child] != type) {
+            child = nextSiblings[child];
+        }
+        return child;
+    }
+
+    int startLine(int index) {
+        return lineOf(spans[index * 2]);
+    }
+
+    int startColumn(int index) {
+        return columnOf(spans[index * 2]);
+    }
+
+    int endLine(int index) {
+        return lineOf(spans[index * 2 + 1]);
+    }
+
+    int endColumn(int index) {
+        return columnOf(spans[index * 2 + 1]);
+    }
+
+    boolean isMultiline(int index) {
+        return lineOf(spans[index * 2]) < lineOf(spans[index * 2 + 1]);
+    }
+
+    int startLine(DetailAST node) {
+        return startLine(indexOf(node));
+    }
+
+    int startColumn(DetailAST node) {
+        return startColumn(indexOf(node));
+    }
+
+    int endLine(DetailAST node) {
+        return endLine(indexOf(node));
+    }
+
+    int endColumn(DetailAST node) {
+        return endColumn(indexOf(node));
+    }
+}
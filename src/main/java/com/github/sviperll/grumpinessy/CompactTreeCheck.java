@@ -0,0 +1,35 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+
+/**
+ * Check, that navigates {@link CompactTree} of a file and can reuse a snapshot built by others.
+ * <p>
+ * Check keeps the snapshot only until {@code finishTree} is called.
+ */
+interface CompactTreeCheck {
+    /**
+     * Begins checking of the tree with the given root using the given snapshot of it,
+     * instead of indexing the tree once again.
+     */
+    void beginTree(DetailAST rootAST, CompactTree tree);
+}
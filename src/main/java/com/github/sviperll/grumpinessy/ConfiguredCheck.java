@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.ExternalResourceHolder;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import com.puppycrawl.tools.checkstyle.utils.TokenUtil;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.stream.IntStream;
+
+/**
+ * Wraps an already configured check, so that TreeWalker can't configure it again.
+ * <p>
+ * TreeWalker contextualizes and configures every child module it creates,
+ * which would reset severity and custom messages of a check, that is configured in advance.
+ * Wrapper receives this configuration instead and delegates all calls to the wrapped check.
+ */
+class ConfiguredCheck extends AbstractCheck implements ExternalResourceHolder {
+    /**
+     * Returns tokens, that the given configured check is going to be subscribed to.
+     */
+    private static int[] effectiveTokens(AbstractCheck check) {
+        Set<String> tokenNames = check.getTokenNames();
+        if (tokenNames.isEmpty())
+            return check.getDefaultTokens();
+        IntStream configuredTokens = tokenNames.stream().mapToInt(TokenUtil::getTokenId);
+        IntStream requiredTokens = Arrays.stream(check.getRequiredTokens());
+        return IntStream.concat(configuredTokens, requiredTokens).distinct().toArray();
+    }
+
+    private final AbstractCheck check;
+    private final int[] tokens;
+
+    ConfiguredCheck(AbstractCheck check) {
+        this.check = check;
+        this.tokens = effectiveTokens(check);
+    }
+
+    @Override
+    public int[] getDefaultTokens() {
+        return tokens.clone();
+    }
+
+    @Override
+    public int[] getAcceptableTokens() {
+        return tokens.clone();
+    }
+
+    @Override
+    public int[] getRequiredTokens() {
+        return tokens.clone();
+    }
+
+    @Override
+    public boolean isCommentNodesRequired() {
+        return check.isCommentNodesRequired();
+    }
+
+    @Override
+    public Set<String> getExternalResourceLocations() {
+        if (check instanceof ExternalResourceHolder holder)
+            return holder.getExternalResourceLocations();
+        return Set.of();
+    }
+
+    @Override
+    public void init() {
+        check.init();
+    }
+
+    @Override
+    public void destroy() {
+        check.destroy();
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        check.setFileContents(getFileContents());
+        check.clearViolations();
+        check.beginTree(rootAST);
+    }
+
+    @Override
+    public void visitToken(DetailAST ast) {
+        check.visitToken(ast);
+    }
+
+    @Override
+    public void leaveToken(DetailAST ast) {
+        check.leaveToken(ast);
+    }
+
+    @Override
+    public void finishTree(DetailAST rootAST) {
+        check.finishTree(rootAST);
+    }
+
+    @Override
+    public SortedSet<Violation> getViolations() {
+        return check.getViolations();
+    }
+}
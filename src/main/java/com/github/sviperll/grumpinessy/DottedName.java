@@ -0,0 +1,102 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import java.util.Arrays;
+
+/**
+ * Segments of a dotted name, like package name or import, read directly from a syntax tree.
+ * <p>
+ * Segments are texts of identifier nodes, so no new strings are created while reading.
+ * The buffer is reused between reads.
+ */
+final class DottedName {
+    private String[] segments = new String[16];
+    private int length = 0;
+
+    /**
+     * Reads segments of a name represented by a {@code DOT} or by an {@code IDENT} node.
+     */
+    void read(DetailAST name) {
+        length = 0;
+        DetailAST node = name;
+        while (node.getType() == TokenTypes.DOT) {
+            append(node.getFirstChild().getNextSibling().getText());
+            node = node.getFirstChild();
+        }
+        append(node.getText());
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            String segment = segments[i];
+            segments[i] = segments[j];
+            segments[j] = segment;
+        }
+    }
+
+    void clear() {
+        length = 0;
+    }
+
+    int length() {
+        return length;
+    }
+
+    String segment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * Returns the underlying buffer, only first {@link #length()} elements are meaningful.
+     */
+    String[] segments() {
+        return segments;
+    }
+
+    /**
+     * Tells whether the first segments of this name are the same as
+     * the first segments of the given name.
+     */
+    boolean startsWith(DottedName prefix, int prefixLength) {
+        if (prefixLength > length)
+            return false;
+        for (int i = 0; i < prefixLength; i++) {
+            if (!segments[i].equals(prefix.segments[i]))
+                return false;
+        }
+        return true;
+    }
+
+    String toString(int prefixLength) {
+        return String.join(".", Arrays.asList(segments).subList(0, prefixLength));
+    }
+
+    @Override
+    public String toString() {
+        return toString(length);
+    }
+
+    private void append(String segment) {
+        if (length == segments.length) {
+            segments = Arrays.copyOf(segments, length * 2);
+        }
+        segments[length++] = segment;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextAware;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Runs all grumpinessy checks as a single TreeWalker module.
+ * <p>
+ * Union of tokens of enabled checks is registered once and
+ * each token is dispatched through a table indexed by token type
+ * to only those checks that are interested in it.
+ * Per-file state, like {@link CompactTree}, is computed once and shared between checks
+ * for the duration of a single file.
+ * <p>
+ * Violations are reported on behalf of individual checks, so
+ * messages and check names are identical to running each check as a separate module.
+ */
+public class GrumpinessyCheck
+        extends AbstractCheck
+        implements LexicalPrecondition, RunContextAware {
+    private static final AbstractCheck[] NO_CHECKS = {};
+
+    private final NoImportsOfHigherPackagesCheck noImportsOfHigherPackages =
+            new NoImportsOfHigherPackagesCheck();
+    private final MembersOrderCheck membersOrder = new MembersOrderCheck();
+    private final MethodCallLineBreaksCheck methodCallLineBreaks = new MethodCallLineBreaksCheck();
+    private final MethodCallChainLineBreaksCheck methodCallChainLineBreaks =
+            new MethodCallChainLineBreaksCheck();
+    private final IfElseSameBracesCheck ifElseSameBraces = new IfElseSameBracesCheck();
+    private final NessesaryBracesCheck nessesaryBraces = new NessesaryBracesCheck();
+    private boolean checkNoImportsOfHigherPackages = true;
+    private boolean checkMembersOrder = true;
+    private boolean checkMethodCallLineBreaks = true;
+    private boolean checkMethodCallChainLineBreaks = true;
+    private boolean checkIfElseSameBraces = true;
+    private boolean checkNessesaryBraces = true;
+    private AbstractCheck[] checks = NO_CHECKS;
+    private AbstractCheck[][] checksByToken = {};
+
+    public void setCheckNoImportsOfHigherPackages(boolean checkNoImportsOfHigherPackages) {
+        this.checkNoImportsOfHigherPackages = checkNoImportsOfHigherPackages;
+    }
+
+    public void setCheckMembersOrder(boolean checkMembersOrder) {
+        this.checkMembersOrder = checkMembersOrder;
+    }
+
+    public void setCheckMethodCallLineBreaks(boolean checkMethodCallLineBreaks) {
+        this.checkMethodCallLineBreaks = checkMethodCallLineBreaks;
+    }
+
+    public void setCheckMethodCallChainLineBreaks(boolean checkMethodCallChainLineBreaks) {
+        this.checkMethodCallChainLineBreaks = checkMethodCallChainLineBreaks;
+    }
+
+    public void setCheckIfElseSameBraces(boolean checkIfElseSameBraces) {
+        this.checkIfElseSameBraces = checkIfElseSameBraces;
+    }
+
+    public void setCheckNessesaryBraces(boolean checkNessesaryBraces) {
+        this.checkNessesaryBraces = checkNessesaryBraces;
+    }
+
+    public void setStaticVariableOrdinal(int staticVariableOrdinal) {
+        membersOrder.setStaticVariableOrdinal(staticVariableOrdinal);
+    }
+
+    public void setStaticInitializerOrdinal(int staticInitializerOrdinal) {
+        membersOrder.setStaticInitializerOrdinal(staticInitializerOrdinal);
+    }
+
+    public void setStaticMethodOrdinal(int staticMethodOrdinal) {
+        membersOrder.setStaticMethodOrdinal(staticMethodOrdinal);
+    }
+
+    public void setInstanceVariableOrdinal(int instanceVariableOrdinal) {
+        membersOrder.setInstanceVariableOrdinal(instanceVariableOrdinal);
+    }
+
+    public void setConstructorOrdinal(int constructorOrdinal) {
+        membersOrder.setConstructorOrdinal(constructorOrdinal);
+    }
+
+    public void setInstanceInitializerOrdinal(int instanceInitializerOrdinal) {
+        membersOrder.setInstanceInitializerOrdinal(instanceInitializerOrdinal);
+    }
+
+    public void setInstanceMethodOrdinal(int instanceMethodOrdinal) {
+        membersOrder.setInstanceMethodOrdinal(instanceMethodOrdinal);
+    }
+
+    public void setInnerClassOrdinal(int innerClassOrdinal) {
+        membersOrder.setInnerClassOrdinal(innerClassOrdinal);
+    }
+
+    public void setStaticNetstedClassOrdinal(int staticNetstedClassOrdinal) {
+        membersOrder.setStaticNetstedClassOrdinal(staticNetstedClassOrdinal);
+    }
+
+    public void setPublicOrdinal(int publicOrdinal) {
+        membersOrder.setPublicOrdinal(publicOrdinal);
+    }
+
+    public void setProtectedOrdinal(int protectedOrdinal) {
+        membersOrder.setProtectedOrdinal(protectedOrdinal);
+    }
+
+    public void setPackagePrivateOrdinal(int packagePrivateOrdinal) {
+        membersOrder.setPackagePrivateOrdinal(packagePrivateOrdinal);
+    }
+
+    public void setPrivateOrdinal(int privateOrdinal) {
+        membersOrder.setPrivateOrdinal(privateOrdinal);
+    }
+
+    public void setBreakWholeChain(boolean breakWholeChain) {
+        methodCallChainLineBreaks.setBreakWholeChain(breakWholeChain);
+    }
+
+    @Override
+    public void setRunContext(RunContext runContext) {
+        membersOrder.setRunContext(runContext);
+        methodCallLineBreaks.setRunContext(runContext);
+        methodCallChainLineBreaks.setRunContext(runContext);
+        ifElseSameBraces.setRunContext(runContext);
+        nessesaryBraces.setRunContext(runContext);
+    }
+
+    @Override
+    public int[] getDefaultTokens() {
+        return enabledChecks().stream()
+                .flatMapToInt(check -> Arrays.stream(check.getDefaultTokens()))
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    @Override
+    public int[] getAcceptableTokens() {
+        return getDefaultTokens();
+    }
+
+    @Override
+    public int[] getRequiredTokens() {
+        return getDefaultTokens();
+    }
+
+    /**
+     * Tells whether any enabled check may report violations,
+     * checks without lexical precondition always may.
+     */
+    @Override
+    public boolean mayViolate(LexicalSummary summary) {
+        for (AbstractCheck check : checks) {
+            if (!(check instanceof LexicalPrecondition precondition)
+                    || precondition.mayViolate(summary))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void init() {
+        List<List<AbstractCheck>> builder = new ArrayList<>();
+        for (AbstractCheck check : checks) {
+            check.init();
+            for (int token : check.getDefaultTokens()) {
+                while (builder.size() <= token) {
+                    builder.add(new ArrayList<>());
+                }
+                builder.get(token).add(check);
+            }
+        }
+        checksByToken =
+                builder.stream()
+                        .map(tokenChecks -> tokenChecks.toArray(NO_CHECKS))
+                        .toArray(AbstractCheck[][]::new);
+    }
+
+    @Override
+    public void destroy() {
+        for (AbstractCheck check : checks) {
+            check.destroy();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void beginTree(DetailAST rootAST) {
+        CompactTree tree = null;
+        for (AbstractCheck check : checks) {
+            check.setFileContents(getFileContents());
+            check.clearViolations();
+            if (check instanceof CompactTreeCheck treeCheck) {
+                if (tree == null) {
+                    tree = CompactTree.of(rootAST);
+                }
+                treeCheck.beginTree(rootAST, tree);
+            } else {
+                check.beginTree(rootAST);
+            }
+        }
+    }
+
+    @Override
+    public void visitToken(DetailAST ast) {
+        for (AbstractCheck check : checksByToken[ast.getType()]) {
+            check.visitToken(ast);
+        }
+    }
+
+    @Override
+    public void leaveToken(DetailAST ast) {
+        for (AbstractCheck check : checksByToken[ast.getType()]) {
+            check.leaveToken(ast);
+        }
+    }
+
+    @Override
+    public void finishTree(DetailAST rootAST) {
+        for (AbstractCheck check : checks) {
+            check.finishTree(rootAST);
+        }
+    }
+
+    @Override
+    public SortedSet<Violation> getViolations() {
+        SortedSet<Violation> result = new TreeSet<>(super.getViolations());
+        for (AbstractCheck check : checks) {
+            result.addAll(check.getViolations());
+        }
+        return result;
+    }
+
+    @Override
+    protected void finishLocalSetup() throws CheckstyleException {
+        List<AbstractCheck> enabled = enabledChecks();
+        for (AbstractCheck check : enabled) {
+            DefaultConfiguration configuration =
+                    new DefaultConfiguration(check.getClass().getName());
+            for (Map.Entry<String, String> message : getCustomMessages().entrySet()) {
+                configuration.addMessage(message.getKey(), message.getValue());
+            }
+            check.configure(configuration);
+            check.setSeverity(getSeverity());
+            check.setTabWidth(getTabWidth());
+            if (getId() != null) {
+                check.setId(getId());
+            }
+        }
+        checks = enabled.toArray(NO_CHECKS);
+    }
+
+    private List<AbstractCheck> enabledChecks() {
+        List<AbstractCheck> result = new ArrayList<>();
+        if (checkNoImportsOfHigherPackages) {
+            result.add(noImportsOfHigherPackages);
+        }
+        if (checkMembersOrder) {
+            result.add(membersOrder);
+        }
+        if (checkMethodCallLineBreaks) {
+            result.add(methodCallLineBreaks);
+        }
+        if (checkMethodCallChainLineBreaks) {
+            result.add(methodCallChainLineBreaks);
+        }
+        if (checkIfElseSameBraces) {
+            result.add(ifElseSameBraces);
+        }
+        if (checkNessesaryBraces) {
+            result.add(nessesaryBraces);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.puppycrawl.tools.checkstyle.api.AbstractFileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.ExternalResourceHolder;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Runs {@link NoImportsOfHigherPackagesCheck} and {@link PackageLayeringCheck}
+ * on the header of a file without building syntax tree.
+ * <p>
+ * Header is read with {@link ImportHeader}, that stops at the first type declaration.
+ * Violations are reported with the same messages and on behalf of the same checks as
+ * when the checks are run under {@code TreeWalker}, so existing suppressions continue to work.
+ */
+public class HeaderImportsCheck extends AbstractFileSetCheck implements ExternalResourceHolder {
+    private static final String[] NO_SEGMENTS = new String[0];
+
+    private static String[] segments(String name) {
+        return name.isEmpty() ? NO_SEGMENTS : name.split("\\.");
+    }
+
+    private final List<LayeringRules.Rule> rules = new ArrayList<>();
+    private boolean checkNoImportsOfHigherPackages = true;
+    private String file = null;
+    private LayeringRules compiledRules = null;
+
+    public HeaderImportsCheck() {
+        setFileExtensions("java");
+    }
+
+    public void setCheckNoImportsOfHigherPackages(boolean checkNoImportsOfHigherPackages) {
+        this.checkNoImportsOfHigherPackages = checkNoImportsOfHigherPackages;
+    }
+
+    /**
+     * Adds layering rules in the format of {@link PackageLayeringCheck}.
+     */
+    public void setRules(String rules) {
+        this.rules.addAll(LayeringRules.parse(rules));
+    }
+
+    /**
+     * Sets file with layering rules in the format of {@link PackageLayeringCheck}.
+     */
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    @Override
+    public Set<String> getExternalResourceLocations() {
+        return file == null ? Set.of() : Set.of(file);
+    }
+
+    @Override
+    protected void finishLocalSetup() throws CheckstyleException {
+        super.finishLocalSetup();
+        if (file != null) {
+            try {
+                String text = Files.readString(Path.of(file), StandardCharsets.UTF_8);
+                rules.addAll(LayeringRules.parse(text));
+            } catch (IOException | IllegalArgumentException ex) {
+                throw new CheckstyleException(file + ": unable to read layering rules", ex);
+            }
+        }
+        compiledRules = LayeringRules.compile(rules);
+    }
+
+    @Override
+    protected void processFiltered(File file, FileText fileText) {
+        ImportHeader header = ImportHeader.scan(fileText.getFullText());
+        String packageName = header.packageName();
+        String[] packageSegments = segments(packageName);
+        compiledRules.enterPackage(packageSegments, packageSegments.length);
+        SortedSet<Violation> violations = new TreeSet<>();
+        for (ImportHeader.Import imported : header.imports()) {
+            String[] importedSegments = segments(imported.name());
+            int importedPackageLength = importedSegments.length - 1;
+            if (checkNoImportsOfHigherPackages
+                    && !imported.isStatic()
+                    && importedPackageLength > 0
+                    && importedPackageLength < packageSegments.length
+                    && isPrefix(importedSegments, packageSegments, importedPackageLength)) {
+                violations.add(
+                        violation(
+                                imported,
+                                NoImportsOfHigherPackagesCheck.class,
+                                "import.of.higher.package",
+                                imported.name().substring(0, imported.name().lastIndexOf('.')),
+                                packageName
+                        )
+                );
+            }
+            // Static imports name a member of a type in addition to the type itself
+            int typeSegments = imported.isStatic() ? 2 : 1;
+            LayeringRules.Rule rule = compiledRules.findViolatedRule(
+                    importedSegments,
+                    Math.max(0, importedSegments.length - typeSegments)
+            );
+            if (rule != null) {
+                violations.add(
+                        violation(
+                                imported,
+                                PackageLayeringCheck.class,
+                                "import.violates.layering.rule",
+                                imported.name(),
+                                packageName,
+                                rule.toString()
+                        )
+                );
+            }
+        }
+        addViolations(violations);
+    }
+
+    private boolean isPrefix(String[] prefix, String[] name, int prefixLength) {
+        for (int i = 0; i < prefixLength; i++) {
+            if (!prefix[i].equals(name[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Creates violation positioned like the violation of a check, that visits the import token.
+     */
+    private Violation violation(
+            ImportHeader.Import imported,
+            Class<?> check,
+            String key,
+            Object... arguments
+    ) {
+        String line = getFileContents().getLine(imported.line() - 1);
+        return new Violation(
+                imported.line(),
+                1 + CommonUtil.lengthExpandedTabs(line, imported.column(), getTabWidth()),
+                imported.column(),
+                imported.isStatic() ? TokenTypes.STATIC_IMPORT : TokenTypes.IMPORT,
+                getMessageBundle(),
+                key,
+                arguments,
+                getSeverityLevel(),
+                getId(),
+                check,
+                getCustomMessages().get(key)
+        );
+    }
+}
@@ -19,11 +19,29 @@
 
 package com.github.sviperll.grumpinessy;
 
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextAware;
+import com.github.sviperll.grumpinessy.diff.ChangedLines;
+import com.github.sviperll.grumpinessy.diff.LineRanges;
+import com.github.sviperll.grumpinessy.fix.Fixes;
+import com.github.sviperll.grumpinessy.fix.TextEdit;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import java.util.ArrayList;
+import java.util.List;
 
-public class IfElseSameBracesCheck extends AbstractCheck {
+public class IfElseSameBracesCheck
+        extends AbstractCheck
+        implements LexicalPrecondition, RunContextAware, CompactTreeCheck {
+    private RunContext runContext = new RunContext();
+    private LineRanges changedLines = LineRanges.ALL;
+    private CompactTree tree = null;
+
+    @Override
+    public void setRunContext(RunContext runContext) {
+        this.runContext = runContext;
+    }
 
     @Override
     public int[] getDefaultTokens() {
@@ -43,14 +61,61 @@ public class IfElseSameBracesCheck extends AbstractCheck {
     }
 
     @Override
-    public void visitToken(DetailAST elseNode) {
-        DetailAST ifNode = elseNode.getParent();
-        boolean isElseIf = elseNode.getFirstChild().getType() == TokenTypes.LITERAL_IF;
-        DetailAST alternative = isElseIf ? elseNode.getFirstChild() : elseNode;
-        boolean ifHasBraces = ifNode.findFirstToken(TokenTypes.SLIST) != null;
-        boolean alternativeHasBraces = alternative.findFirstToken(TokenTypes.SLIST) != null;
+    public boolean mayViolate(LexicalSummary summary) {
+        return summary.hasElse() && summary.hasBracelessStatement();
+    }
+
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        beginTree(rootAST, CompactTree.of(rootAST));
+    }
+
+    @Override
+    public void beginTree(DetailAST rootAST, CompactTree tree) {
+        changedLines = ChangedLines.scopeOf(runContext, getFilePath());
+        this.tree = tree;
+    }
+
+    @Override
+    public void finishTree(DetailAST rootAST) {
+        tree = null;
+    }
+
+    @Override
+    public void visitToken(DetailAST ast) {
+        int elseNode = tree.indexOf(ast);
+        int ifNode = tree.parent(elseNode);
+        if (!changedLines.intersects(tree.line(ifNode), tree.line(tree.firstChild(elseNode))))
+            return;
+        boolean isElseIf = tree.type(tree.firstChild(elseNode)) == TokenTypes.LITERAL_IF;
+        int alternative = isElseIf ? tree.firstChild(elseNode) : elseNode;
+        boolean ifHasBraces = tree.firstChild(ifNode, TokenTypes.SLIST) != CompactTree.NONE;
+        boolean alternativeHasBraces =
+                tree.firstChild(alternative, TokenTypes.SLIST) != CompactTree.NONE;
         if (ifHasBraces != alternativeHasBraces) {
-            log(elseNode, "if.else.should.both.have.braces");
+            String key = "if.else.should.both.have.braces";
+            log(ast, key);
+            Fixes fixes = runContext.get(Fixes.class);
+            if (fixes != null) {
+                List<TextEdit> edits = addBraces(ifNode, alternative);
+                fixes.add(SourceEdits.fix(this, ast.getLineNo(), key, edits));
+            }
+        }
+    }
+
+    /**
+     * Builds edits, that enclose bodies without braces in braces.
+     */
+    private List<TextEdit> addBraces(int ifNode, int alternative) {
+        List<TextEdit> edits = new ArrayList<>();
+        for (int statement : new int[] {ifNode, alternative}) {
+            int body = tree.type(statement) == TokenTypes.LITERAL_ELSE
+                    ? tree.firstChild(statement)
+                    : tree.nextSibling(tree.firstChild(statement, TokenTypes.RPAREN));
+            if (tree.type(body) != TokenTypes.SLIST) {
+                edits.addAll(SourceEdits.wrapInBraces(this, tree, statement, body));
+            }
         }
+        return edits;
     }
 }
@@ -0,0 +1,385 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Package declaration and imports of a source file, read without building syntax tree.
+ * <p>
+ * Only the header of a file is tokenized: comments, annotations, {@code package} and
+ * {@code import} statements.
+ * Scanning stops at the first token, that can't belong to the header,
+ * usually at the start of the first type declaration, so
+ * the cost doesn't depend on the size of the rest of the file.
+ * When read from a file, text is decoded in small chunks until the header ends.
+ */
+final class ImportHeader {
+    private static final int BUFFER_SIZE = 4096;
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    /**
+     * Scans the header of the given source text.
+     */
+    static ImportHeader scan(CharSequence text) {
+        ImportHeader header = new ImportHeader(text, null);
+        header.scan();
+        return header;
+    }
+
+    /**
+     * Reads the header of the given file, the rest of the file is not read.
+     */
+    static ImportHeader read(Path file, Charset charset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            StringBuilder text = new StringBuilder();
+            ImportHeader header = new ImportHeader(text, new Input(channel, charset, text));
+            header.scan();
+            return header;
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private final CharSequence text;
+    private final Input input;
+    private final List<Import> imports = new ArrayList<>();
+    private String packageName = "";
+    private int packageLine = 0;
+    private int position = 0;
+    private int line = 1;
+    private int lineStart = 0;
+    private int tokenStart = 0;
+    private int tokenLine = 1;
+    private int tokenColumn = 0;
+
+    private ImportHeader(CharSequence text, Input input) {
+        this.text = text;
+        this.input = input;
+    }
+
+    /**
+     * Returns declared package name, empty for the default package.
+     */
+    String packageName() {
+        return packageName;
+    }
+
+    /**
+     * Returns line of the package declaration, 0 for the default package.
+     */
+    int packageLine() {
+        return packageLine;
+    }
+
+    /**
+     * Returns all imports in the order of declaration, on-demand imports end with {@code .*}.
+     */
+    List<Import> imports() {
+        return imports;
+    }
+
+    private void scan() {
+        if (isAvailable(0) && text.charAt(0) == BYTE_ORDER_MARK) {
+            position++;
+            lineStart++;
+        }
+        boolean isHeader = true;
+        Token token = next();
+        while (isHeader) {
+            if (token == Token.AT) {
+                token = skipAnnotation();
+            } else if (token == Token.WORD && (isWord("package") || isWord("import"))) {
+                isHeader = readStatement();
+                token = next();
+            } else if (token == Token.SEMICOLON) {
+                token = next();
+            } else {
+                isHeader = false;
+            }
+        }
+    }
+
+    /**
+     * Reads package declaration or import, that starts with the current token.
+     *
+     * @return false, when the statement is not valid
+     */
+    private boolean readStatement() {
+        boolean isPackage = isWord("package");
+        int statementLine = tokenLine;
+        int statementColumn = tokenColumn;
+        Token token = next();
+        boolean isStatic = !isPackage && token == Token.WORD && isWord("static");
+        if (isStatic) {
+            token = next();
+        }
+        StringBuilder name = new StringBuilder();
+        boolean isSegmentExpected = true;
+        while (token != Token.SEMICOLON) {
+            boolean isValid = isSegmentExpected
+                    ? token == Token.WORD || token == Token.STAR
+                    : token == Token.DOT;
+            if (!isValid)
+                return false;
+            name.append(text, tokenStart, position);
+            isSegmentExpected = !isSegmentExpected;
+            token = next();
+        }
+        if (isSegmentExpected)
+            return false;
+        if (isPackage) {
+            packageName = name.toString();
+            packageLine = statementLine;
+        } else {
+            imports.add(new Import(name.toString(), isStatic, statementLine, statementColumn));
+        }
+        return true;
+    }
+
+    /**
+     * Skips annotation, that starts after the current {@code @} token.
+     *
+     * @return the token after the annotation
+     */
+    private Token skipAnnotation() {
+        Token token = next();
+        if (token != Token.WORD || isWord("interface"))
+            return Token.OTHER;
+        token = next();
+        while (token == Token.DOT) {
+            if (next() != Token.WORD)
+                return Token.OTHER;
+            token = next();
+        }
+        if (token == Token.LEFT_PAREN) {
+            int depth = 1;
+            while (depth > 0 && token != Token.END) {
+                token = next();
+                if (token == Token.LEFT_PAREN) {
+                    depth++;
+                } else if (token == Token.RIGHT_PAREN) {
+                    depth--;
+                }
+            }
+            token = next();
+        }
+        return token;
+    }
+
+    /**
+     * Skips whitespace and comments and reads the next token.
+     */
+    private Token next() {
+        skipWhitespaceAndComments();
+        tokenStart = position;
+        tokenLine = line;
+        tokenColumn = position - lineStart;
+        if (!isAvailable(position))
+            return Token.END;
+        char c = text.charAt(position);
+        if (Character.isJavaIdentifierStart(c)) {
+            while (isAvailable(position) && Character.isJavaIdentifierPart(text.charAt(position))) {
+                position++;
+            }
+            return Token.WORD;
+        } else if (c == '"' || c == '\'') {
+            skipLiteral(c);
+            return Token.OTHER;
+        } else {
+            position++;
+            return switch (c) {
+                case '.' -> Token.DOT;
+                case '*' -> Token.STAR;
+                case ';' -> Token.SEMICOLON;
+                case '@' -> Token.AT;
+                case '(' -> Token.LEFT_PAREN;
+                case ')' -> Token.RIGHT_PAREN;
+                default -> Token.OTHER;
+            };
+        }
+    }
+
+    private void skipWhitespaceAndComments() {
+        boolean isSkipped = true;
+        while (isSkipped && isAvailable(position)) {
+            char c = text.charAt(position);
+            if (Character.isWhitespace(c)) {
+                skipChar();
+            } else if (c == '/' && isAvailable(position + 1) && text.charAt(position + 1) == '/') {
+                while (isAvailable(position) && !isLineBreak(text.charAt(position))) {
+                    position++;
+                }
+            } else if (c == '/' && isAvailable(position + 1) && text.charAt(position + 1) == '*') {
+                position += 2;
+                skipUntil("*/", false);
+            } else {
+                isSkipped = false;
+            }
+        }
+    }
+
+    private void skipLiteral(char quote) {
+        if (startsWith("\"\"\"")) {
+            position += 3;
+            skipUntil("\"\"\"", true);
+        } else {
+            position++;
+            while (isAvailable(position)
+                    && text.charAt(position) != quote
+                    && !isLineBreak(text.charAt(position))) {
+                position += text.charAt(position) == '\\' ? 2 : 1;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Skips characters up to and including the given terminator.
+     *
+     * @param hasEscapes tells whether backslash escapes the next character
+     */
+    private void skipUntil(String terminator, boolean hasEscapes) {
+        while (isAvailable(position) && !startsWith(terminator)) {
+            boolean isEscape = hasEscapes && text.charAt(position) == '\\';
+            skipChar();
+            if (isEscape && isAvailable(position)) {
+                skipChar();
+            }
+        }
+        position += terminator.length();
+    }
+
+    private void skipChar() {
+        char c = text.charAt(position);
+        position++;
+        boolean isCarriageReturnBeforeNewline = c == '\r'
+                && isAvailable(position)
+                && text.charAt(position) == '\n';
+        if (isLineBreak(c) && !isCarriageReturnBeforeNewline) {
+            line++;
+            lineStart = position;
+        }
+    }
+
+    private boolean isWord(String word) {
+        return position - tokenStart == word.length() && startsWith(tokenStart, word);
+    }
+
+    private boolean startsWith(String prefix) {
+        return startsWith(position, prefix);
+    }
+
+    private boolean startsWith(int start, String prefix) {
+        if (!isAvailable(start + prefix.length() - 1))
+            return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(start + i) != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r';
+    }
+
+    /**
+     * Tells whether the character with the given index exists, reads more input if needed.
+     */
+    private boolean isAvailable(int index) {
+        boolean isRead = true;
+        while (index >= text.length() && isRead) {
+            isRead = input != null && input.read();
+        }
+        return index < text.length();
+    }
+
+    /**
+     * Import declaration.
+     *
+     * @param name dotted name, on-demand imports end with {@code .*}
+     * @param isStatic tells whether the import is static
+     * @param line line of the {@code import} keyword
+     * @param column column of the {@code import} keyword, the index of its first character
+     */
+    record Import(String name, boolean isStatic, int line, int column) {
+    }
+
+    private enum Token {
+        WORD, DOT, STAR, SEMICOLON, AT, LEFT_PAREN, RIGHT_PAREN, OTHER, END
+    }
+
+    /**
+     * Decodes a file in small chunks and appends decoded characters to the text.
+     */
+    private static class Input {
+        private final FileChannel channel;
+        private final CharsetDecoder decoder;
+        private final StringBuilder text;
+        private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        private boolean isFinished = false;
+
+        Input(FileChannel channel, Charset charset, StringBuilder text) {
+            this.channel = channel;
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.text = text;
+        }
+
+        /**
+         * Decodes the next chunk.
+         *
+         * @return false, when the end of file was already reached
+         */
+        boolean read() {
+            if (isFinished)
+                return false;
+            try {
+                int count = channel.read(bytes);
+                bytes.flip();
+                chars.clear();
+                decoder.decode(bytes, chars, count < 0);
+                if (count < 0) {
+                    decoder.flush(chars);
+                    isFinished = true;
+                }
+                bytes.compact();
+                chars.flip();
+                text.append(chars);
+                return true;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
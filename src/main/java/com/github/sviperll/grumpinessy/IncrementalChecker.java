@@ -0,0 +1,648 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.fix.TextEdit;
+import com.github.sviperll.grumpinessy.io.ViolationCodec;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.DefaultContext;
+import com.puppycrawl.tools.checkstyle.ModuleFactory;
+import com.puppycrawl.tools.checkstyle.PackageNamesLoader;
+import com.puppycrawl.tools.checkstyle.PackageObjectFactory;
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Checks a source file and re-checks it after every edit, for editor integrations.
+ * <p>
+ * After an edit only the innermost type declaration or
+ * method, constructor or initializer, whose body contains the edit, is parsed and checked.
+ * Such unit is parsed after the package declaration and the headers of enclosing types,
+ * so checks see the same nesting, modifiers and annotations as in the whole file.
+ * Violations outside of the unit are kept, their lines and columns are shifted by the edit,
+ * so the cost of a re-check depends on the size of the unit and not on the size of the file.
+ * <p>
+ * Checks of the order of members, like {@code MembersOrderCheck}, compare a member with
+ * its siblings, that are not part of the unit.
+ * Their violations are replaced only inside of the body of the unit,
+ * since the unit header and its siblings are not changed by an edit of the body.
+ * Checks, like {@code UnusedImports}, whose violations depend on the whole file,
+ * are not run on units, their violations are kept and
+ * the result of a re-check is {@linkplain Result#isComplete() incomplete}, so
+ * {@link #check(File, String)} should be called, when an editor is idle.
+ * The whole file is checked when an edit is outside of unit bodies,
+ * when the unit doesn't start its line or
+ * when the unit is no longer parsed as a single declaration after the edit.
+ * <p>
+ * Only checks of {@code TreeWalker} are run and
+ * violations are returned before filters of {@code Checker} are applied.
+ */
+public class IncrementalChecker implements AutoCloseable {
+    private static final String UNITS_MODULE = "grumpinessy.units";
+    private static final Pattern LINE_TERMINATOR = Pattern.compile("\\r\\n|\\r|\\n");
+
+    /**
+     * Checks, that report a member, when it's out of place among its siblings.
+     */
+    private static final Set<String> BODY_SCOPED_CHECKS = Set.of(
+            "GrumpinessyCheck",
+            "MembersOrderCheck",
+            "DeclarationOrderCheck",
+            "OverloadMethodsDeclarationOrderCheck",
+            "InnerTypeLastCheck",
+            "EqualsHashCodeCheck",
+            "CovariantEqualsCheck",
+            "OneTopLevelClassCheck",
+            "OuterTypeNumberCheck",
+            "OuterTypeFilenameCheck"
+    );
+
+    /**
+     * Checks, whose violations inside or outside of a unit depend on the rest of the file.
+     */
+    private static final Set<String> FILE_SCOPED_CHECKS = Set.of(
+            "UnusedImportsCheck",
+            "HiddenFieldCheck",
+            "RequireThisCheck",
+            "FinalClassCheck",
+            "ClassFanOutComplexityCheck",
+            "ClassDataAbstractionCouplingCheck",
+            "MultipleStringLiteralsCheck"
+    );
+
+    /**
+     * Checks, whose messages mention line numbers, that are not updated, when violations are moved.
+     */
+    private static final Set<String> LINE_REFERENCING_CHECKS = Set.of(
+            "CommentsIndentationCheck",
+            "OverloadMethodsDeclarationOrderCheck",
+            "MethodCallLineBreaksCheck"
+    );
+
+    /**
+     * Filters, that suppress violations inside of a unit by comments outside of it.
+     */
+    private static final Set<String> FILE_SCOPED_FILTERS = Set.of("SuppressionCommentFilter");
+
+    /**
+     * Returns configuration of the {@code TreeWalker} module of the given Checker configuration.
+     */
+    private static Configuration treeWalkerOf(Configuration configuration)
+            throws CheckstyleException {
+        for (Configuration child : configuration.getChildren()) {
+            boolean isTreeWalker = child.getName().equals("TreeWalker")
+                    || child.getName().equals(TreeWalker.class.getName());
+            if (isTreeWalker)
+                return child;
+        }
+        throw new CheckstyleException(configuration.getName() + ": TreeWalker is not configured");
+    }
+
+    private static String property(Configuration configuration, String name, String defaultValue)
+            throws CheckstyleException {
+        boolean isSet = Arrays.asList(configuration.getPropertyNames()).contains(name);
+        return isSet ? configuration.getProperty(name) : defaultValue;
+    }
+
+    private static DefaultConfiguration copyWithoutChildren(Configuration configuration)
+            throws CheckstyleException {
+        DefaultConfiguration copy = new DefaultConfiguration(configuration.getName());
+        for (String name : configuration.getPropertyNames()) {
+            copy.addProperty(name, configuration.getProperty(name));
+        }
+        configuration.getMessages().forEach(copy::addMessage);
+        return copy;
+    }
+
+    private static List<String> lines(String text) {
+        return List.of(LINE_TERMINATOR.split(text, -1));
+    }
+
+    /**
+     * Returns lines as read by Checkstyle,
+     * that doesn't see an empty line after the last line break.
+     */
+    private static FileText fileText(File file, List<String> lines) {
+        boolean hasFinalLineBreak = lines.size() > 1 && lines.get(lines.size() - 1).isEmpty();
+        return new FileText(file, hasFinalLineBreak ? lines.subList(0, lines.size() - 1) : lines);
+    }
+
+    /**
+     * Runs checks of the given TreeWalker, failures of checks are reported like Checker does.
+     */
+    private static SortedSet<Violation> process(
+            TreeWalker treeWalker,
+            File file,
+            List<String> lines
+    ) throws CheckstyleException {
+        try {
+            return treeWalker.process(file, fileText(file, lines));
+        } catch (RuntimeException ex) {
+            throw new CheckstyleException(
+                    "Exception was thrown while processing " + file.getPath(),
+                    ex
+            );
+        }
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static List<String> apply(List<String> lines, TextEdit edit) {
+        if (edit.endLine() > lines.size()
+                || edit.endColumn() > lines.get(edit.endLine() - 1).length()) {
+            throw new IllegalArgumentException("Edit is outside of the text: " + edit);
+        }
+        String[] replacement = edit.replacement().split("\n", -1);
+        replacement[0] = lines.get(edit.startLine() - 1).substring(0, edit.startColumn())
+                + replacement[0];
+        replacement[replacement.length - 1] += lines.get(edit.endLine() - 1)
+                .substring(edit.endColumn());
+        List<String> result = new ArrayList<>(
+                lines.size() - (edit.endLine() - edit.startLine()) + replacement.length
+        );
+        result.addAll(lines.subList(0, edit.startLine() - 1));
+        result.addAll(Arrays.asList(replacement));
+        result.addAll(lines.subList(edit.endLine(), lines.size()));
+        return result;
+    }
+
+    /**
+     * Returns position of the violation,
+     * violations without column are positioned at the line start.
+     */
+    private static long positionOf(Violation violation) {
+        return SourceUnits.position(violation.getLineNo(), violation.getColumnCharIndex());
+    }
+
+    /**
+     * Tells whether violation is positioned between the given positions.
+     * <p>
+     * Violation without column is inside when its line is inside.
+     */
+    private static boolean isInside(Violation violation, long start, long end) {
+        if (violation.getColumnNo() == 0) {
+            return SourceUnits.line(start) <= violation.getLineNo()
+                    && violation.getLineNo() <= SourceUnits.line(end);
+        }
+        long position = positionOf(violation);
+        return start <= position && position < end;
+    }
+
+    private final Map<String, Class<?>> sourceClasses = new HashMap<>();
+    private final ClassLoader classLoader;
+    private final SourceUnits.Collector fileUnits = new SourceUnits.Collector();
+    private final SourceUnits.Collector unitUnits = new SourceUnits.Collector();
+    private final TreeWalker fileTreeWalker;
+    private final TreeWalker unitTreeWalker;
+    private final int tabWidth;
+    private final boolean hasFileScopedChecks;
+    private final boolean hasFileScopedFilters;
+
+    /**
+     * Creates checker with {@code TreeWalker} module of the given Checker configuration.
+     */
+    public IncrementalChecker(
+            Configuration configuration,
+            ClassLoader classLoader
+    ) throws CheckstyleException {
+        this.classLoader = classLoader;
+        Configuration treeWalker = treeWalkerOf(configuration);
+        ModuleFactory factory = new PackageObjectFactory(
+                PackageNamesLoader.getPackageNames(classLoader),
+                classLoader
+        );
+        DefaultConfiguration fileConfiguration = copyWithoutChildren(treeWalker);
+        DefaultConfiguration unitConfiguration = copyWithoutChildren(treeWalker);
+        boolean isFileScopedCheckFound = false;
+        boolean isFileScopedFilterFound = false;
+        for (Configuration child : treeWalker.getChildren()) {
+            String name = factory.createModule(child.getName()).getClass().getSimpleName();
+            fileConfiguration.addChild(child);
+            if (FILE_SCOPED_CHECKS.contains(name)) {
+                isFileScopedCheckFound = true;
+            } else {
+                unitConfiguration.addChild(child);
+            }
+            isFileScopedFilterFound = isFileScopedFilterFound || FILE_SCOPED_FILTERS.contains(name);
+        }
+        fileConfiguration.addChild(new DefaultConfiguration(UNITS_MODULE));
+        unitConfiguration.addChild(new DefaultConfiguration(UNITS_MODULE));
+        hasFileScopedChecks = isFileScopedCheckFound;
+        hasFileScopedFilters = isFileScopedFilterFound;
+        DefaultContext context = new DefaultContext();
+        context.add(
+                "severity",
+                property(configuration, "severity", SeverityLevel.ERROR.getName())
+        );
+        tabWidth = Integer.parseInt(
+                property(
+                        configuration,
+                        "tabWidth",
+                        String.valueOf(CommonUtil.DEFAULT_TAB_WIDTH)
+                )
+        );
+        context.add("tabWidth", String.valueOf(tabWidth));
+        String charset = property(configuration, "charset", StandardCharsets.UTF_8.name());
+        fileTreeWalker = createTreeWalker(fileConfiguration, context, factory, fileUnits);
+        unitTreeWalker = createTreeWalker(unitConfiguration, context, factory, unitUnits);
+        fileTreeWalker.beginProcessing(charset);
+        unitTreeWalker.beginProcessing(charset);
+    }
+
+    /**
+     * Checks the whole file with the given text.
+     *
+     * @throws CheckstyleException when text can't be parsed
+     */
+    public synchronized Result check(File file, String text) throws CheckstyleException {
+        return check(file, lines(text));
+    }
+
+    /**
+     * Applies edit to the text of the previous result and re-checks the innermost unit,
+     * whose body contains the edit.
+     *
+     * @param previous result of a check of the text before the edit
+     * @param edit text edit, positions of the edit refer to the text before the edit
+     * @throws CheckstyleException when text can't be parsed after the edit
+     * @throws IllegalArgumentException when edit is outside of the text
+     */
+    public synchronized Result recheck(
+            Result previous,
+            TextEdit edit
+    ) throws CheckstyleException {
+        List<String> lines = apply(previous.lines(), edit);
+        Shift shift = new Shift(edit);
+        SourceUnits.Unit unit = hasFileScopedFilters
+                ? null
+                : previous.units.innermostContaining(shift.start, shift.oldEnd);
+        if (unit == null)
+            return check(previous.file(), lines);
+        Fragment fragment = new Fragment(unit, shift.apply(unit.bodyEnd()), lines);
+        if (!fragment.isAligned())
+            return check(previous.file(), lines);
+        SortedSet<Violation> unitViolations;
+        try {
+            unitViolations = process(unitTreeWalker, previous.file(), fragment.lines);
+        } catch (CheckstyleException ex) {
+            return check(previous.file(), lines);
+        }
+        List<SourceUnits.Unit> units = fragment.units(unitUnits.result());
+        if (units == null)
+            return check(previous.file(), lines);
+
+        SortedSet<Violation> violations = new TreeSet<>();
+        boolean hasOutdatedMessages = false;
+        for (Violation violation : previous.violations) {
+            String name = simpleName(violation.getSourceName());
+            boolean isReplaced;
+            if (FILE_SCOPED_CHECKS.contains(name)) {
+                long position = positionOf(violation);
+                isReplaced = violation.getColumnNo() > 0
+                        && shift.start <= position
+                        && position < shift.oldEnd;
+            } else if (BODY_SCOPED_CHECKS.contains(name)) {
+                isReplaced = isInside(violation, unit.bodyStart(), unit.bodyEnd());
+            } else {
+                isReplaced = isInside(violation, unit.start(), unit.end());
+            }
+            if (!isReplaced) {
+                Violation moved = moved(violation, shift.apply(positionOf(violation)), lines);
+                hasOutdatedMessages = hasOutdatedMessages
+                        || moved.getLineNo() != violation.getLineNo()
+                        && LINE_REFERENCING_CHECKS.contains(name);
+                violations.add(moved);
+            }
+        }
+        for (Violation violation : unitViolations) {
+            if (BODY_SCOPED_CHECKS.contains(simpleName(violation.getSourceName()))) {
+                if (isInside(violation, unit.bodyStart(), shift.apply(unit.bodyEnd()))) {
+                    violations.add(violation);
+                }
+            } else if (isInside(violation, unit.start(), shift.apply(unit.end()))) {
+                violations.add(violation);
+            }
+        }
+
+        for (SourceUnits.Unit other : previous.units.units()) {
+            boolean isNested = other != unit
+                    && unit.start() <= other.start()
+                    && other.end() <= unit.end();
+            if (!isNested && other != unit) {
+                units.add(
+                        new SourceUnits.Unit(
+                                other.type(),
+                                shift.apply(other.start()),
+                                shift.apply(other.declarationStart()),
+                                shift.apply(other.bodyStart()),
+                                shift.apply(other.bodyEnd()),
+                                other.prefix(),
+                                other.depth()
+                        )
+                );
+            }
+        }
+        units.sort(SourceUnits.Unit.ORDER);
+        return new Result(
+                new FileText(previous.file(), lines),
+                violations,
+                new SourceUnits(units),
+                !hasFileScopedChecks && !hasOutdatedMessages && previous.isComplete()
+        );
+    }
+
+    @Override
+    public synchronized void close() {
+        fileTreeWalker.finishProcessing();
+        unitTreeWalker.finishProcessing();
+        fileTreeWalker.destroy();
+        unitTreeWalker.destroy();
+    }
+
+    private Result check(File file, List<String> lines) throws CheckstyleException {
+        SortedSet<Violation> violations = process(fileTreeWalker, file, lines);
+        return new Result(new FileText(file, lines), violations, fileUnits.result(), true);
+    }
+
+    private TreeWalker createTreeWalker(
+            Configuration configuration,
+            DefaultContext context,
+            ModuleFactory factory,
+            SourceUnits.Collector collector
+    ) throws CheckstyleException {
+        DefaultContext treeWalkerContext = new DefaultContext();
+        context.getAttributeNames()
+                .forEach(name -> treeWalkerContext.add(name, context.get(name)));
+        treeWalkerContext.add(
+                "moduleFactory",
+                (ModuleFactory) name -> name.equals(UNITS_MODULE)
+                        ? collector
+                        : factory.createModule(name)
+        );
+        TreeWalker treeWalker = new TreeWalker();
+        treeWalker.contextualize(treeWalkerContext);
+        treeWalker.configure(configuration);
+        treeWalker.init();
+        return treeWalker;
+    }
+
+    /**
+     * Returns violation moved to the given position, column is recomputed for the given text.
+     * <p>
+     * Violation without column is moved to the line of the given position only.
+     */
+    private Violation moved(Violation violation, long position, List<String> lines) {
+        int line = SourceUnits.line(position);
+        boolean hasColumn = violation.getColumnNo() > 0;
+        int columnCharIndex = hasColumn
+                ? SourceUnits.column(position)
+                : violation.getColumnCharIndex();
+        if (line == violation.getLineNo() && columnCharIndex == violation.getColumnCharIndex())
+            return violation;
+        int column = !hasColumn || columnCharIndex == violation.getColumnCharIndex()
+                ? violation.getColumnNo()
+                : 1 + CommonUtil.lengthExpandedTabs(lines.get(line - 1), columnCharIndex, tabWidth);
+        return new Violation(
+                line,
+                column,
+                columnCharIndex,
+                violation.getTokenType(),
+                null,
+                violation.getKey(),
+                null,
+                violation.getSeverityLevel(),
+                violation.getModuleId(),
+                sourceClasses.computeIfAbsent(violation.getSourceName(), this::loadClass),
+                ViolationCodec.quoteMessageFormat(violation.getViolation())
+        );
+    }
+
+    private Class<?> loadClass(String name) {
+        try {
+            return ViolationCodec.loadClass(name, classLoader);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Checked text with its violations and units.
+     */
+    public static final class Result {
+        /**
+         * Checked file and its lines, with an empty last line after a final line break.
+         */
+        private final FileText source;
+        private final SortedSet<Violation> violations;
+        private final SourceUnits units;
+        private final boolean isComplete;
+
+        private Result(
+                FileText source,
+                SortedSet<Violation> violations,
+                SourceUnits units,
+                boolean isComplete
+        ) {
+            this.source = source;
+            this.violations = violations;
+            this.units = units;
+            this.isComplete = isComplete;
+        }
+
+        public File file() {
+            return source.getFile();
+        }
+
+        /**
+         * Returns checked text, line breaks are replaced with {@code \n}.
+         */
+        public String text() {
+            return String.join("\n", lines());
+        }
+
+        public SortedSet<Violation> violations() {
+            return Collections.unmodifiableSortedSet(violations);
+        }
+
+        /**
+         * Tells whether violations of all checks are up to date.
+         * <p>
+         * Result of a re-check is incomplete when
+         * violations of checks, that depend on the whole file, were kept without re-checking, or
+         * when moved violations mention line numbers in their messages.
+         */
+        public boolean isComplete() {
+            return isComplete;
+        }
+
+        private List<String> lines() {
+            return List.of(source.toLinesArray());
+        }
+    }
+
+    /**
+     * Positions of a text edit.
+     */
+    private static final class Shift {
+        private final long start;
+        private final long oldEnd;
+        private final long newEnd;
+
+        Shift(TextEdit edit) {
+            String[] replacement = edit.replacement().split("\n", -1);
+            String lastLine = replacement[replacement.length - 1];
+            start = SourceUnits.position(edit.startLine(), edit.startColumn());
+            oldEnd = SourceUnits.position(edit.endLine(), edit.endColumn());
+            newEnd = SourceUnits.position(
+                    edit.startLine() + replacement.length - 1,
+                    (replacement.length == 1 ? edit.startColumn() : 0) + lastLine.length()
+            );
+        }
+
+        /**
+         * Returns position in the edited text of a position in the text before the edit.
+         * <p>
+         * Positions before the end of the replaced span are not changed.
+         */
+        long apply(long position) {
+            if (position < oldEnd)
+                return position;
+            int line = SourceUnits.line(position);
+            int column = SourceUnits.column(position);
+            if (line == SourceUnits.line(oldEnd)) {
+                column += SourceUnits.column(newEnd) - SourceUnits.column(oldEnd);
+            }
+            return SourceUnits.position(
+                    line + SourceUnits.line(newEnd) - SourceUnits.line(oldEnd),
+                    column
+            );
+        }
+    }
+
+    /**
+     * Text of a unit, that is parsed without the rest of the file.
+     * <p>
+     * Unit is preceded by its prefix and followed by closing braces of enclosing types.
+     * Fragment is padded with empty lines after the prefix and
+     * keeps indentation of the first line of the unit, so
+     * lines and columns of the unit in the fragment and in the file are the same, and
+     * so are line numbers mentioned in violation messages.
+     */
+    private static final class Fragment {
+        private final SourceUnits.Unit unit;
+        private final long bodyEnd;
+        private final List<String> lines = new ArrayList<>();
+        private boolean isIndented = true;
+
+        /**
+         * Creates fragment with the given unit, whose body ends at the given position.
+         */
+        Fragment(SourceUnits.Unit unit, long bodyEnd, List<String> fileLines) {
+            this.unit = unit;
+            this.bodyEnd = bodyEnd;
+            String[] prefix = unit.prefix().split("\\n", -1);
+            lines.addAll(Arrays.asList(prefix).subList(0, prefix.length - 1));
+            int startLine = SourceUnits.line(unit.start());
+            int endLine = SourceUnits.line(bodyEnd);
+            while (lines.size() < startLine - 1) {
+                lines.add("");
+            }
+            for (int line = startLine; line <= endLine; line++) {
+                String text = fileLines.get(line - 1);
+                int to = line == endLine ? SourceUnits.column(bodyEnd) + 1 : text.length();
+                if (line == startLine) {
+                    isIndented = text.substring(0, SourceUnits.column(unit.start())).isBlank();
+                    lines.add(text.substring(0, to));
+                } else {
+                    lines.add(text.substring(0, to));
+                }
+            }
+            for (int i = 0; i < unit.depth(); i++) {
+                lines.add("}");
+            }
+        }
+
+        /**
+         * Tells whether the unit starts on the same line and column in the fragment and in the file
+         * and is preceded by indentation only, so that checks see the same line.
+         * <p>
+         * Unit is not aligned, when the prefix doesn't fit before the unit,
+         * because header of the enclosing type ends on the first line of the unit, or
+         * when the unit starts after another member on the same line.
+         */
+        boolean isAligned() {
+            return isIndented
+                    && unit.prefix().split("\\n", -1).length <= SourceUnits.line(unit.start());
+        }
+
+        /**
+         * Returns units of the fragment, except for the enclosing types,
+         * or null when the fragment doesn't consist of the unit only.
+         */
+        List<SourceUnits.Unit> units(SourceUnits fragmentUnits) {
+            List<SourceUnits.Unit> result = new ArrayList<>();
+            boolean isSameUnit = false;
+            int sameDepthCount = 0;
+            for (SourceUnits.Unit fragmentUnit : fragmentUnits.units()) {
+                if (fragmentUnit.depth() == unit.depth()) {
+                    sameDepthCount++;
+                    isSameUnit = fragmentUnit.type() == unit.type()
+                            && fragmentUnit.declarationStart() == unit.declarationStart()
+                            && fragmentUnit.bodyStart() == unit.bodyStart()
+                            && fragmentUnit.bodyEnd() == bodyEnd;
+                    result.add(
+                            new SourceUnits.Unit(
+                                    unit.type(),
+                                    unit.start(),
+                                    unit.declarationStart(),
+                                    unit.bodyStart(),
+                                    bodyEnd,
+                                    unit.prefix(),
+                                    unit.depth()
+                            )
+                    );
+                } else if (fragmentUnit.depth() > unit.depth()) {
+                    result.add(fragmentUnit);
+                }
+            }
+            return sameDepthCount == 1 && isSameUnit ? result : null;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import java.lang.management.ManagementFactory;
+import java.util.SortedSet;
+
+/**
+ * Wraps an already configured check and measures every call of the check.
+ * <p>
+ * Allocation is measured with per-thread allocation counter when JVM supports it.
+ */
+final class InstrumentedCheck extends ConfiguredCheck {
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCountingThreads();
+
+    private static com.sun.management.ThreadMXBean allocationCountingThreads() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()
+                && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private final CheckTimings timings;
+    private long startNanos = 0;
+    private long startAllocatedBytes = 0;
+
+    InstrumentedCheck(AbstractCheck check, CheckTimings timings) {
+        super(check);
+        this.timings = timings;
+    }
+
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        start();
+        super.beginTree(rootAST);
+        stop();
+    }
+
+    @Override
+    public void visitToken(DetailAST ast) {
+        timings.addVisit(ast.getType());
+        start();
+        super.visitToken(ast);
+        stop();
+    }
+
+    @Override
+    public void leaveToken(DetailAST ast) {
+        start();
+        super.leaveToken(ast);
+        stop();
+    }
+
+    @Override
+    public void finishTree(DetailAST rootAST) {
+        start();
+        super.finishTree(rootAST);
+        stop();
+    }
+
+    @Override
+    public SortedSet<Violation> getViolations() {
+        SortedSet<Violation> violations = super.getViolations();
+        timings.addFile(violations.size());
+        return violations;
+    }
+
+    private void start() {
+        startAllocatedBytes = allocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    private void stop() {
+        long nanos = System.nanoTime() - startNanos;
+        timings.addTime(nanos, allocatedBytes() - startAllocatedBytes);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextAware;
+import com.puppycrawl.tools.checkstyle.DefaultContext;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * TreeWalker that measures time, allocation, token visits and violations of every check.
+ * <p>
+ * Only grumpinessy checks are measured by default,
+ * other checks are measured when {@code instrumentAllChecks} property is set.
+ * Measurements of all checks and of the slowest files are written into report file,
+ * when processing is finished.
+ * Measurements of instances, that run in parallel for the same run of the parallel runner,
+ * are merged into a single report.
+ */
+public class InstrumentedTreeWalker
+        extends AbstractTreeWalkerWrapper
+        implements RunContextAware {
+    private static final String REPORT_FILE_PROPERTY = "reportFile";
+    private static final String REPORT_FORMAT_PROPERTY = "reportFormat";
+    private static final String INSTRUMENT_ALL_CHECKS_PROPERTY = "instrumentAllChecks";
+    private static final String SLOWEST_FILE_COUNT_PROPERTY = "slowestFileCount";
+    private static final int DEFAULT_SLOWEST_FILE_COUNT = 100;
+    private static final String GRUMPINESSY_PACKAGE_PREFIX =
+            InstrumentedTreeWalker.class.getPackageName() + ".";
+
+    private final Map<String, CheckTimings> checks = new LinkedHashMap<>();
+    private Path reportFile = null;
+    private TimingReport.Format reportFormat = TimingReport.Format.JSON;
+    private boolean instrumentAllChecks = false;
+    private int slowestFileCount = DEFAULT_SLOWEST_FILE_COUNT;
+    private RunContext runContext = new RunContext();
+    private TimingReport report = null;
+
+    public InstrumentedTreeWalker() {
+        super(
+                Set.of(
+                        REPORT_FILE_PROPERTY,
+                        REPORT_FORMAT_PROPERTY,
+                        INSTRUMENT_ALL_CHECKS_PROPERTY,
+                        SLOWEST_FILE_COUNT_PROPERTY
+                )
+        );
+    }
+
+    public void setReportFile(String reportFile) {
+        this.reportFile = Path.of(reportFile);
+    }
+
+    /**
+     * Sets format of report file, either {@code json} or {@code prometheus}.
+     */
+    public void setReportFormat(String reportFormat) {
+        this.reportFormat = TimingReport.Format.valueOf(reportFormat.toUpperCase(Locale.ROOT));
+    }
+
+    public void setInstrumentAllChecks(boolean instrumentAllChecks) {
+        this.instrumentAllChecks = instrumentAllChecks;
+    }
+
+    public void setSlowestFileCount(int slowestFileCount) {
+        this.slowestFileCount = slowestFileCount;
+    }
+
+    @Override
+    public void setRunContext(RunContext runContext) {
+        this.runContext = runContext;
+    }
+
+    @Override
+    public void beginProcessing(String charset) {
+        super.beginProcessing(charset);
+        if (reportFile != null) {
+            report = TimingReport.open(runContext, reportFile, reportFormat, slowestFileCount);
+        }
+    }
+
+    @Override
+    public void finishProcessing() {
+        super.finishProcessing();
+        if (report != null) {
+            TimingReport finishedReport = report;
+            report = null;
+            finishedReport.close(checks);
+            checks.clear();
+        }
+    }
+
+    @Override
+    protected Configuration prepareChild(
+            Configuration childConfiguration
+    ) throws CheckstyleException {
+        Object module = createModule(childConfiguration.getName());
+        if (!(module instanceof AbstractCheck check) || !isInstrumented(check))
+            return childConfiguration;
+        DefaultContext context = new DefaultContext();
+        context.add("severity", getSeverity());
+        context.add("tabWidth", String.valueOf(getTabWidth()));
+        check.contextualize(context);
+        check.configure(childConfiguration);
+        CheckTimings timings = new CheckTimings(label(check), check.getClass().getName());
+        checks.put(timings.name(), timings);
+        return registerPreparedModule(new InstrumentedCheck(check, timings));
+    }
+
+    @Override
+    protected void processFiltered(File file, FileText fileText) throws CheckstyleException {
+        long startNanos = System.nanoTime();
+        SortedSet<Violation> violations = processWithTreeWalker(file, fileText);
+        long nanos = System.nanoTime() - startNanos;
+        if (report != null) {
+            report.addFile(file.getPath(), nanos, violations.size());
+        }
+        addViolations(violations);
+    }
+
+    private boolean isInstrumented(AbstractCheck check) {
+        return instrumentAllChecks
+                || check.getClass().getName().startsWith(GRUMPINESSY_PACKAGE_PREFIX);
+    }
+
+    /**
+     * Returns check id or class name, that is made unique among checks of this module.
+     */
+    private String label(AbstractCheck check) {
+        String name = check.getId() != null ? check.getId() : check.getClass().getSimpleName();
+        String label = name;
+        for (int i = 2; checks.containsKey(label); i++) {
+            label = name + "#" + i;
+        }
+        return label;
+    }
+}
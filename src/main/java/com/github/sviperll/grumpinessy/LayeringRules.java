@@ -0,0 +1,208 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Package layering rules compiled into package pattern tries.
+ * <p>
+ * There are two kinds of rules:
+ * <pre>
+ * **.domain.** must not import **.infra.**, **.web.**
+ * **.api.** may only import **.api.**, java.**
+ * </pre>
+ * Left hand side is matched against the package of the checked file and
+ * right hand side is matched against the package of each import.
+ * <p>
+ * One trie holds left hand sides of all rules and
+ * is consulted once per file to find applicable rules.
+ * Another trie holds right hand sides of all rules and is consulted once per import.
+ * Instances keep reusable matching state and are not thread-safe.
+ */
+final class LayeringRules {
+    private static final Pattern RULE_PATTERN =
+            Pattern.compile("(\\S+)\\s+(must\\s+not|may\\s+only)\\s+import\\s+(\\S.*)");
+    private static final Pattern RULE_SEPARATOR = Pattern.compile("[;\\n]");
+    private static final Pattern TARGET_SEPARATOR = Pattern.compile("\\s*,\\s*");
+
+    /**
+     * Parses rules separated by semicolons or by line breaks.
+     * Blank rules and comments, starting with {@code #} and going to the end of line, are ignored.
+     *
+     * @throws IllegalArgumentException if some rule is not valid
+     */
+    static List<Rule> parse(String text) {
+        List<Rule> rules = new ArrayList<>();
+        for (String line : RULE_SEPARATOR.split(text.replaceAll("#[^\\n]*", ""))) {
+            String rule = line.strip();
+            if (!rule.isEmpty()) {
+                rules.add(parseRule(rule));
+            }
+        }
+        return rules;
+    }
+
+    static LayeringRules compile(List<Rule> rules) {
+        PackagePatternTrie packages = new PackagePatternTrie();
+        PackagePatternTrie imports = new PackagePatternTrie();
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            packages.add(rule.packagePattern(), i);
+            for (String[] importPattern : rule.importPatterns()) {
+                imports.add(importPattern, i);
+            }
+        }
+        return new LayeringRules(List.copyOf(rules), packages, imports);
+    }
+
+    private static Rule parseRule(String text) {
+        Matcher matcher = RULE_PATTERN.matcher(text);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(
+                    text + ": rule should have form \"<package> must not import <packages>\""
+                    + " or \"<package> may only import <packages>\""
+            );
+        }
+        String[] packagePattern = parsePattern(text, matcher.group(1));
+        boolean isAllowList = matcher.group(2).startsWith("may");
+        List<String[]> importPatterns = new ArrayList<>();
+        for (String target : TARGET_SEPARATOR.split(matcher.group(3).strip())) {
+            importPatterns.add(parsePattern(text, target));
+        }
+        return new Rule(packagePattern, isAllowList, importPatterns);
+    }
+
+    private static String[] parsePattern(String rule, String pattern) {
+        String[] segments = pattern.split("\\.", -1);
+        if (!PackagePatternTrie.isValidPattern(segments)) {
+            throw new IllegalArgumentException(
+                    rule + ": " + pattern + " is not a valid package pattern,"
+                    + " pattern should consist of identifiers, * and ** separated by dots"
+            );
+        }
+        return segments;
+    }
+
+    private final List<Rule> rules;
+    private final PackagePatternTrie packages;
+    private final PackagePatternTrie imports;
+    private final boolean[] isApplicable;
+    private final boolean[] isMatched;
+    private int[] applicable = new int[8];
+    private int applicableCount = 0;
+    private int applicableAllowListCount = 0;
+
+    private LayeringRules(
+            List<Rule> rules,
+            PackagePatternTrie packages,
+            PackagePatternTrie imports
+    ) {
+        this.rules = rules;
+        this.packages = packages;
+        this.imports = imports;
+        this.isApplicable = new boolean[rules.size()];
+        this.isMatched = new boolean[rules.size()];
+    }
+
+    /**
+     * Selects rules that apply to a file in the given package.
+     */
+    void enterPackage(String[] name, int length) {
+        for (int i = 0; i < applicableCount; i++) {
+            isApplicable[applicable[i]] = false;
+        }
+        applicableCount = 0;
+        applicableAllowListCount = 0;
+        int count = packages.match(name, length);
+        if (count > applicable.length) {
+            applicable = new int[count];
+        }
+        for (int i = 0; i < count; i++) {
+            int index = packages.matchedValue(i);
+            isApplicable[index] = true;
+            applicable[applicableCount++] = index;
+            if (rules.get(index).isAllowList()) {
+                applicableAllowListCount++;
+            }
+        }
+    }
+
+    /**
+     * Finds a rule applicable to the current package,
+     * that is violated by import of the given package.
+     *
+     * @return violated rule or null if import is allowed
+     */
+    Rule findViolatedRule(String[] name, int length) {
+        if (applicableCount == 0)
+            return null;
+        int count = imports.match(name, length);
+        int satisfiedAllowListCount = 0;
+        for (int i = 0; i < count; i++) {
+            int index = imports.matchedValue(i);
+            if (isApplicable[index]) {
+                Rule rule = rules.get(index);
+                if (!rule.isAllowList()) {
+                    return rule;
+                }
+                satisfiedAllowListCount++;
+            }
+        }
+        if (satisfiedAllowListCount == applicableAllowListCount)
+            return null;
+        return findUnsatisfiedAllowList(count);
+    }
+
+    private Rule findUnsatisfiedAllowList(int matchedCount) {
+        for (int i = 0; i < matchedCount; i++) {
+            isMatched[imports.matchedValue(i)] = true;
+        }
+        Rule result = null;
+        for (int i = 0; i < applicableCount && result == null; i++) {
+            Rule rule = rules.get(applicable[i]);
+            if (rule.isAllowList() && !isMatched[applicable[i]]) {
+                result = rule;
+            }
+        }
+        Arrays.fill(isMatched, false);
+        return result;
+    }
+
+    record Rule(String[] packagePattern, boolean isAllowList, List<String[]> importPatterns) {
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.join(".", packagePattern));
+            builder.append(isAllowList ? " may only import " : " must not import ");
+            for (int i = 0; i < importPatterns.size(); i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(String.join(".", importPatterns.get(i)));
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Facts about a source file, that are collected from its characters without building syntax tree.
+ * <p>
+ * Text is scanned once, comments, string, text block and character literals are skipped.
+ * Facts are conservative: when a fact is false, syntax tree can't contain the described construct,
+ * when a fact is true, syntax tree may or may not contain it.
+ * Checks use these facts to tell that a file can't violate them, see {@link LexicalPrecondition}.
+ */
+final class LexicalSummary {
+    private static final int NO_LINE = 0;
+
+    /**
+     * Scans the given source text.
+     */
+    static LexicalSummary scan(CharSequence text) {
+        LexicalSummary summary = new LexicalSummary(text);
+        summary.scan();
+        return summary;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r';
+    }
+
+    private final CharSequence text;
+    private final List<String> imports = new ArrayList<>();
+    private String packageName = "";
+    private boolean hasStaticImports = false;
+    private boolean hasMultilineParentheses = false;
+    private boolean hasChainLineBreak = false;
+    private boolean hasElse = false;
+    private boolean hasBracelessStatement = false;
+    private int position = 0;
+    private int line = 1;
+    private int parenDepth = 0;
+    private int braceDepth = 0;
+    private int angleDepth = 0;
+    private int[] dotLines = new int[16];
+    private Expected expected = Expected.NOTHING;
+    private int conditionDepth = 0;
+    private boolean isWhileAfterBrace = false;
+    private char previous = 0;
+    private StringBuilder name = null;
+    private boolean isImport = false;
+    private boolean isStaticImport = false;
+
+    private LexicalSummary(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Tells whether some parentheses span several lines.
+     */
+    boolean hasMultilineParentheses() {
+        return hasMultilineParentheses;
+    }
+
+    /**
+     * Tells whether two member selections may belong to the same chain and are on different lines.
+     */
+    boolean hasChainLineBreak() {
+        return hasChainLineBreak;
+    }
+
+    boolean hasElse() {
+        return hasElse;
+    }
+
+    /**
+     * Tells whether some {@code if}, {@code else}, {@code for} or {@code while}
+     * may have a body without braces.
+     */
+    boolean hasBracelessStatement() {
+        return hasBracelessStatement;
+    }
+
+    /**
+     * Returns declared package name, empty for the default package.
+     */
+    String packageName() {
+        return packageName;
+    }
+
+    /**
+     * Returns names of single-type and on-demand imports, static imports are not included.
+     * <p>
+     * On-demand imports end with {@code .*}.
+     */
+    List<String> imports() {
+        return imports;
+    }
+
+    /**
+     * Tells whether there are any imports, including static imports.
+     */
+    boolean hasImports() {
+        return !imports.isEmpty() || hasStaticImports;
+    }
+
+    private void scan() {
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '\n' || c == '\r') {
+                skipLineBreak();
+            } else if (Character.isWhitespace(c)) {
+                position++;
+            } else if (startsWith("//")) {
+                skipLineComment();
+            } else if (startsWith("/*")) {
+                skipBlockComment();
+            } else {
+                token(c);
+                previous = c;
+            }
+        }
+    }
+
+    private void token(char c) {
+        if (Character.isJavaIdentifierStart(c)) {
+            int start = position;
+            while (position < text.length()
+                    && Character.isJavaIdentifierPart(text.charAt(position))) {
+                position++;
+            }
+            word(start, position);
+        } else {
+            expectBefore(c, false);
+            if (c == '"' && startsWith("\"\"\"")) {
+                skipTextBlock();
+            } else if (c == '"' || c == '\'') {
+                skipLiteral(c);
+            } else if (isDigit(c) || c == '.' && isDigit(charAt(position + 1))) {
+                skipNumber();
+            } else if (startsWith("...")) {
+                position += 3;
+            } else {
+                position++;
+                punctuation(c);
+            }
+        }
+    }
+
+    private void word(int start, int end) {
+        boolean isIf = isWord(start, end, "if");
+        expectBefore(text.charAt(start), isIf);
+        if (name != null) {
+            if (isImport && name.isEmpty() && isWord(start, end, "static")) {
+                isStaticImport = true;
+            } else {
+                name.append(text, start, end);
+            }
+        } else if (isIf || isWord(start, end, "for") || isWord(start, end, "while")) {
+            if (expected == Expected.CONDITION_END) {
+                // Statement inside of a condition, like a lambda body, is not tracked
+                hasBracelessStatement = true;
+            } else {
+                expected = Expected.CONDITION;
+                isWhileAfterBrace = previous == '}' && isWord(start, end, "while");
+            }
+        } else if (isWord(start, end, "else")) {
+            hasElse = true;
+            if (expected == Expected.CONDITION_END) {
+                hasBracelessStatement = true;
+            } else {
+                expected = Expected.ELSE_BODY;
+            }
+        } else if (braceDepth == 0 && parenDepth == 0) {
+            boolean isPackage = isWord(start, end, "package");
+            if (isPackage || isWord(start, end, "import")) {
+                name = new StringBuilder();
+                isImport = !isPackage;
+                isStaticImport = false;
+            }
+        }
+    }
+
+    /**
+     * Tracks bodies of statements, that are expected to start with a brace.
+     */
+    private void expectBefore(char c, boolean isIf) {
+        switch (expected) {
+            case CONDITION -> {
+                if (c == '(') {
+                    expected = Expected.CONDITION_END;
+                    conditionDepth = parenDepth;
+                } else {
+                    expected = Expected.NOTHING;
+                }
+            }
+            case BODY -> {
+                // Semicolon after while, that follows a closing brace, ends do-while statement
+                if (c != '{' && !(c == ';' && isWhileAfterBrace)) {
+                    hasBracelessStatement = true;
+                }
+                expected = Expected.NOTHING;
+            }
+            case ELSE_BODY -> {
+                if (c != '{' && !isIf) {
+                    hasBracelessStatement = true;
+                }
+                expected = Expected.NOTHING;
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void punctuation(char c) {
+        switch (c) {
+            case '(' -> {
+                parenDepth++;
+                if (parenDepth == dotLines.length) {
+                    dotLines = Arrays.copyOf(dotLines, parenDepth * 2);
+                }
+                dotLines[parenDepth] = NO_LINE;
+            }
+            case ')' -> {
+                if (parenDepth > 0) {
+                    parenDepth--;
+                }
+                if (expected == Expected.CONDITION_END && parenDepth == conditionDepth) {
+                    expected = Expected.BODY;
+                }
+            }
+            case '.' -> {
+                if (name != null) {
+                    name.append(c);
+                }
+                int dotLine = dotLines[parenDepth];
+                if (dotLine != NO_LINE && dotLine != line) {
+                    hasChainLineBreak = true;
+                }
+                dotLines[parenDepth] = line;
+            }
+            case ';' -> {
+                dotLines[parenDepth] = NO_LINE;
+                angleDepth = 0;
+                if (name != null) {
+                    finishName();
+                }
+            }
+            case '{' -> {
+                dotLines[parenDepth] = NO_LINE;
+                angleDepth = 0;
+                braceDepth++;
+            }
+            case '}' -> {
+                dotLines[parenDepth] = NO_LINE;
+                angleDepth = 0;
+                if (braceDepth > 0) {
+                    braceDepth--;
+                }
+            }
+            case '*' -> {
+                dotLines[parenDepth] = NO_LINE;
+                if (name != null) {
+                    name.append(c);
+                }
+            }
+            case '<' -> angleDepth++;
+            case '>' -> {
+                if (angleDepth > 0) {
+                    angleDepth--;
+                }
+            }
+            case '?', '&' -> {
+                // Wildcards and bounds of type arguments, like .<Map<String, ?>>of(),
+                // are not operators, any less-than sign is conservatively taken for type arguments
+                if (angleDepth == 0) {
+                    dotLines[parenDepth] = NO_LINE;
+                }
+            }
+            case '=', '+', '-', '/', '%', '|', '^', '!', ':' -> {
+                // Operators separate operands, so dots around them don't belong to the same chain
+                dotLines[parenDepth] = NO_LINE;
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void finishName() {
+        if (!isImport) {
+            packageName = name.toString();
+        } else if (isStaticImport) {
+            hasStaticImports = true;
+        } else {
+            imports.add(name.toString());
+        }
+        name = null;
+    }
+
+    private void skipLineBreak() {
+        if (text.charAt(position) == '\r' && charAt(position + 1) == '\n') {
+            position++;
+        }
+        position++;
+        line++;
+        if (parenDepth > 0) {
+            hasMultilineParentheses = true;
+        }
+    }
+
+    private void skipLineComment() {
+        while (position < text.length() && !isLineBreak(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private void skipBlockComment() {
+        position += 2;
+        skipUntil("*/");
+    }
+
+    private void skipTextBlock() {
+        position += 3;
+        skipUntil("\"\"\"");
+    }
+
+    /**
+     * Skips characters up to and including the given terminator, escaped characters are skipped.
+     */
+    private void skipUntil(String terminator) {
+        while (position < text.length() && !startsWith(terminator)) {
+            char c = text.charAt(position);
+            if (isLineBreak(c)) {
+                skipLineBreak();
+            } else if (c == '\\' && position + 1 < text.length()
+                    && !isLineBreak(text.charAt(position + 1))) {
+                position += 2;
+            } else {
+                position++;
+            }
+        }
+        position = Math.min(text.length(), position + terminator.length());
+    }
+
+    /**
+     * Skips string or character literal, unterminated literal ends at the end of line.
+     */
+    private void skipLiteral(char quote) {
+        position++;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (isLineBreak(c))
+                return;
+            position += c == '\\' ? 2 : 1;
+            if (c == quote)
+                return;
+        }
+        position = text.length();
+    }
+
+    private void skipNumber() {
+        position++;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '.')
+                return;
+            position++;
+        }
+    }
+
+    private boolean isWord(int start, int end, String word) {
+        return end - start == word.length() && startsWith(start, word);
+    }
+
+    private boolean startsWith(String prefix) {
+        return startsWith(position, prefix);
+    }
+
+    private boolean startsWith(int start, String prefix) {
+        if (start + prefix.length() > text.length())
+            return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(start + i) != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private char charAt(int index) {
+        return index < text.length() ? text.charAt(index) : 0;
+    }
+
+    private enum Expected {
+        NOTHING,
+        CONDITION,
+        CONDITION_END,
+        BODY,
+        ELSE_BODY
+    }
+}
@@ -19,17 +19,88 @@
 
 package com.github.sviperll.grumpinessy;
 
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextAware;
+import com.github.sviperll.grumpinessy.fix.Fixes;
+import com.github.sviperll.grumpinessy.fix.TextEdit;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
-import java.util.ArrayDeque;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class MembersOrderCheck
+        extends AbstractCheck
+        implements CompactTreeCheck, RunContextAware {
+    private static final int KIND_COUNT = Kind.values().length;
+    private static final int VISIBILITY_COUNT = Visibility.values().length;
+
+    /**
+     * Positions of members, indexed by {@link #position(boolean, Kind)}.
+     */
+    private static final int[] POSITIONS = {
+        position(true, Kind.VARIABLE),
+        position(true, Kind.INITIALIZER),
+        position(true, Kind.METHOD),
+        position(false, Kind.VARIABLE),
+        position(false, Kind.CONSTRUCTOR),
+        position(false, Kind.INITIALIZER),
+        position(false, Kind.METHOD),
+        position(false, Kind.CLASS),
+        position(true, Kind.CLASS),
+    };
+
+    private static int position(boolean isStatic, Kind kind) {
+        return (isStatic ? KIND_COUNT : 0) + kind.ordinal();
+    }
+
+    private static boolean isStaticPosition(int position) {
+        return position >= KIND_COUNT;
+    }
+
+    private static Kind kindOfPosition(int position) {
+        return Kind.values()[position % KIND_COUNT];
+    }
 
-public class MembersOrderCheck extends AbstractCheck {
+    private static String describe(int position) {
+        boolean isStatic = isStaticPosition(position);
+        return switch (kindOfPosition(position)) {
+            case VARIABLE -> (isStatic ? "static " : "") + "variable";
+            case INITIALIZER -> (isStatic ? "static " : "") + "initializer";
+            case CONSTRUCTOR -> "constructor";
+            case METHOD -> (isStatic ? "static " : "") + "method";
+            case CLASS -> isStatic
+                ? "static nested class or nested interface, nested enum or nested record"
+                : "inner class";
+        };
+    }
+
+    /**
+     * Lists descriptions of items grouped by their ordinals.
+     * <p>
+     * Items with the same ordinal are joined with "or" and groups are joined with "then".
+     */
+    private static String describeOrder(
+            int[] items,
+            IntFunction<String> description,
+            int[] ordinals
+    ) {
+        return IntStream.of(items)
+                .map(item -> ordinals[item])
+                .distinct()
+                .sorted()
+                .mapToObj(
+                        ordinal -> IntStream.of(items)
+                                .filter(item -> ordinals[item] == ordinal)
+                                .mapToObj(description)
+                                .collect(Collectors.joining(" or "))
+                )
+                .collect(Collectors.joining("; then "));
+    }
 
     private int staticVariableOrdinal = 1;
     private int staticInitializerOrdinal = 2;
@@ -40,8 +111,18 @@ public class MembersOrderCheck extends AbstractCheck {
     private int instanceMethodOrdinal = 7;
     private int innerClassOrdinal = 8;
     private int staticNetstedClassOrdinal = 9;
+    private int publicOrdinal = 0;
+    private int protectedOrdinal = 0;
+    private int packagePrivateOrdinal = 0;
+    private int privateOrdinal = 0;
+    private RunContext runContext = new RunContext();
     private InitializedCheck initializedCheck = null;
 
+    @Override
+    public void setRunContext(RunContext runContext) {
+        this.runContext = runContext;
+    }
+
     public void setStaticVariableOrdinal(int staticVariableOrdinal) {
         this.staticVariableOrdinal = staticVariableOrdinal;
     }
@@ -78,6 +159,22 @@ public class MembersOrderCheck extends AbstractCheck {
         this.staticNetstedClassOrdinal = staticNetstedClassOrdinal;
     }
 
+    public void setPublicOrdinal(int publicOrdinal) {
+        this.publicOrdinal = publicOrdinal;
+    }
+
+    public void setProtectedOrdinal(int protectedOrdinal) {
+        this.protectedOrdinal = protectedOrdinal;
+    }
+
+    public void setPackagePrivateOrdinal(int packagePrivateOrdinal) {
+        this.packagePrivateOrdinal = packagePrivateOrdinal;
+    }
+
+    public void setPrivateOrdinal(int privateOrdinal) {
+        this.privateOrdinal = privateOrdinal;
+    }
+
     @Override
     public int[] getDefaultTokens() {
         return new int[] {
@@ -108,41 +205,38 @@ public class MembersOrderCheck extends AbstractCheck {
 
     @Override
     public void init() {
-        Map<Positioned, Integer> builder = new HashMap<>();
-        builder.put(new Positioned(true, Kind.VARIABLE), staticVariableOrdinal);
-        builder.put(new Positioned(true, Kind.INITIALIZER), staticInitializerOrdinal);
-        builder.put(new Positioned(true, Kind.METHOD), staticMethodOrdinal);
-        builder.put(new Positioned(false, Kind.VARIABLE), instanceVariableOrdinal);
-        builder.put(new Positioned(false, Kind.CONSTRUCTOR), constructorOrdinal);
-        builder.put(new Positioned(false, Kind.INITIALIZER), instanceInitializerOrdinal);
-        builder.put(new Positioned(false, Kind.METHOD), instanceMethodOrdinal);
-        builder.put(new Positioned(false, Kind.CLASS), innerClassOrdinal);
-        builder.put(new Positioned(true, Kind.CLASS), staticNetstedClassOrdinal);
-        Map<Positioned, Integer> mapping = Map.copyOf(builder);
-        Comparator<Positioned> comparator = Comparator.comparingInt(mapping::get);
-        String order =
-                mapping.keySet()
-                        .stream()
-                        .collect(
-                                Collectors.groupingBy(
-                                        mapping::get,
-                                        Collectors.mapping(
-                                                Object::toString,
-                                                Collectors.joining(" or ")
-                                        )
-                                )
-                        )
-                        .entrySet()
-                        .stream()
-                        .sorted(Comparator.comparing(Entry::getKey))
-                        .map(Entry::getValue)
-                        .collect(Collectors.joining("; then "));
-        initializedCheck = new InitializedCheck(this, comparator, order);
+        int[] positionOrdinals = new int[KIND_COUNT * 2];
+        positionOrdinals[position(true, Kind.VARIABLE)] = staticVariableOrdinal;
+        positionOrdinals[position(true, Kind.INITIALIZER)] = staticInitializerOrdinal;
+        positionOrdinals[position(true, Kind.METHOD)] = staticMethodOrdinal;
+        positionOrdinals[position(false, Kind.VARIABLE)] = instanceVariableOrdinal;
+        positionOrdinals[position(false, Kind.CONSTRUCTOR)] = constructorOrdinal;
+        positionOrdinals[position(false, Kind.INITIALIZER)] = instanceInitializerOrdinal;
+        positionOrdinals[position(false, Kind.METHOD)] = instanceMethodOrdinal;
+        positionOrdinals[position(false, Kind.CLASS)] = innerClassOrdinal;
+        positionOrdinals[position(true, Kind.CLASS)] = staticNetstedClassOrdinal;
+        int[] visibilityOrdinals = new int[VISIBILITY_COUNT];
+        visibilityOrdinals[Visibility.PUBLIC.ordinal()] = publicOrdinal;
+        visibilityOrdinals[Visibility.PROTECTED.ordinal()] = protectedOrdinal;
+        visibilityOrdinals[Visibility.PACKAGE_PRIVATE.ordinal()] = packagePrivateOrdinal;
+        visibilityOrdinals[Visibility.PRIVATE.ordinal()] = privateOrdinal;
+        Ranks ranks = new Ranks(positionOrdinals, visibilityOrdinals);
+        initializedCheck = new InitializedCheck(this, ranks);
     }
 
     @Override
     public void beginTree(DetailAST rootAST) {
-        initializedCheck.beginTree(rootAST);
+        beginTree(rootAST, CompactTree.of(rootAST));
+    }
+
+    @Override
+    public void beginTree(DetailAST rootAST, CompactTree tree) {
+        initializedCheck.beginTree(tree, runContext.get(Fixes.class));
+    }
+
+    @Override
+    public void finishTree(DetailAST rootAST) {
+        initializedCheck.finishTree();
     }
 
     @Override
@@ -155,67 +249,258 @@ public class MembersOrderCheck extends AbstractCheck {
         initializedCheck.leaveToken(ast);
     }
 
+    /**
+     * Precomputed ranks and descriptions of members.
+     * <p>
+     * Each member is encoded as a single int, that combines it's position and visibility.
+     * Ranks and descriptions are looked up by this code, so
+     * no objects are allocated per member.
+     */
+    private static class Ranks {
+        private final int[] positionOrdinals;
+        private final int[] visibilityOrdinals;
+        private final boolean isVisibilityRanked;
+        private final String[] descriptions;
+        private String order = null;
+
+        private Ranks(int[] positionOrdinals, int[] visibilityOrdinals) {
+            this.positionOrdinals = positionOrdinals;
+            this.visibilityOrdinals = visibilityOrdinals;
+            this.isVisibilityRanked = Arrays.stream(visibilityOrdinals).distinct().count() > 1;
+            this.descriptions = new String[positionOrdinals.length * VISIBILITY_COUNT];
+            for (int position : POSITIONS) {
+                for (Visibility visibility : Visibility.values()) {
+                    int member = member(position, visibility);
+                    descriptions[member] =
+                            isVisibilityRanked && kindOfPosition(position) != Kind.INITIALIZER
+                                    ? visibility.description() + " " + describe(position)
+                                    : describe(position);
+                }
+            }
+        }
+
+        int member(int position, Visibility visibility) {
+            return position * VISIBILITY_COUNT + visibility.ordinal();
+        }
+
+        int compare(int member1, int member2) {
+            boolean isForward = isInOrder(member1, member2);
+            boolean isBackward = isInOrder(member2, member1);
+            return isForward == isBackward ? 0 : isForward ? -1 : 1;
+        }
+
+        boolean isInOrder(int previous, int current) {
+            int previousOrdinal = positionOrdinals[previous / VISIBILITY_COUNT];
+            int currentOrdinal = positionOrdinals[current / VISIBILITY_COUNT];
+            if (previousOrdinal != currentOrdinal)
+                return previousOrdinal < currentOrdinal;
+            return visibilityOrdinals[previous % VISIBILITY_COUNT]
+                    <= visibilityOrdinals[current % VISIBILITY_COUNT];
+        }
+
+        String describeMember(int member) {
+            return descriptions[member];
+        }
+
+        /**
+         * Describes expected order of members.
+         * <p>
+         * Description is only needed to report a violation, so it is built on first use.
+         */
+        String describeOrder() {
+            if (order == null) {
+                order = MembersOrderCheck.describeOrder(
+                        POSITIONS,
+                        MembersOrderCheck::describe,
+                        positionOrdinals
+                );
+                if (isVisibilityRanked) {
+                    Visibility[] visibilities = Visibility.values();
+                    int[] items = IntStream.range(0, VISIBILITY_COUNT).toArray();
+                    order += ", and within each of them: " + MembersOrderCheck.describeOrder(
+                            items,
+                            item -> visibilities[item].description(),
+                            visibilityOrdinals
+                    );
+                }
+            }
+            return order;
+        }
+    }
+
     private static class InitializedCheck {
-        private final ArrayDeque<StackFrame> stack = new ArrayDeque<>();
-        private Positioned previous = null;
-        private boolean parentForcesVariablesToBeStatic = false;
+        private static final int NO_MEMBER = -1;
+        private static final int NO_PARENT = -1;
+        private static final int NO_VIOLATION = 0;
+        private static final String WRONG_MEMBER_ORDER = "wrong.member.order";
+
+        private static boolean isMember(int type) {
+            return switch (type) {
+                case TokenTypes.CLASS_DEF,
+                        TokenTypes.INTERFACE_DEF,
+                        TokenTypes.ANNOTATION_DEF,
+                        TokenTypes.ENUM_DEF,
+                        TokenTypes.RECORD_DEF,
+                        TokenTypes.INSTANCE_INIT,
+                        TokenTypes.STATIC_INIT,
+                        TokenTypes.CTOR_DEF,
+                        TokenTypes.COMPACT_CTOR_DEF,
+                        TokenTypes.METHOD_DEF,
+                        TokenTypes.VARIABLE_DEF -> true;
+                default -> false;
+            };
+        }
+
         private final AbstractCheck reporter;
-        private final Comparator<Positioned> comparator;
-        private final String order;
-
-        private InitializedCheck(
-                AbstractCheck reporter,
-                Comparator<Positioned> comparator,
-                String order
-        ) {
+        private final Ranks ranks;
+        private int previous = NO_MEMBER;
+        private int parentType = NO_PARENT;
+        private int violationLine = NO_VIOLATION;
+        private CompactTree tree = null;
+        private Fixes fixes = null;
+        private int[] stack = new int[48];
+        private int depth = 0;
+
+        private InitializedCheck(AbstractCheck reporter, Ranks ranks) {
             this.reporter = reporter;
-            this.comparator = comparator;
-            this.order = order;
+            this.ranks = ranks;
+        }
+
+        /**
+         * Begins checking of a tree, fixes are proposed only when the given fixes are not null.
+         */
+        void beginTree(CompactTree tree, Fixes fixes) {
+            previous = NO_MEMBER;
+            parentType = NO_PARENT;
+            violationLine = NO_VIOLATION;
+            this.tree = tree;
+            this.fixes = fixes;
+            depth = 0;
         }
 
-        void beginTree(DetailAST rootAST) {
-            previous = null;
-            parentForcesVariablesToBeStatic = false;
+        void finishTree() {
+            tree = null;
+            fixes = null;
         }
 
         void visitToken(DetailAST ast) {
-            if (ast.getType() == TokenTypes.OBJBLOCK) {
-                stack.push(new StackFrame(previous, parentForcesVariablesToBeStatic));
-                previous = null;
-                DetailAST parent = ast.getParent();
-                parentForcesVariablesToBeStatic =
-                        parent != null && (
-                                parent.getType() == TokenTypes.INTERFACE_DEF
-                                || parent.getType() == TokenTypes.ANNOTATION_DEF
-                        );
+            int node = tree.indexOf(ast);
+            if (tree.type(node) == TokenTypes.OBJBLOCK) {
+                if (depth + 3 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[depth++] = previous;
+                stack[depth++] = parentType;
+                stack[depth++] = violationLine;
+                previous = NO_MEMBER;
+                violationLine = NO_VIOLATION;
+                int parent = tree.parent(node);
+                parentType = parent == CompactTree.NONE ? NO_PARENT : tree.type(parent);
                 return;
             }
-            DetailAST parent = ast.getParent();
-            if (parent == null || parent.getType() != TokenTypes.OBJBLOCK)
+            int parent = tree.parent(node);
+            if (parent == CompactTree.NONE || tree.type(parent) != TokenTypes.OBJBLOCK)
                 return;
-            Positioned current = toPositioned(ast);
-            if (previous != null && comparator.compare(previous, current) > 0) {
-                reporter.log(ast, "wrong.member.order", previous, current, order);
+            int current = member(node);
+            if (previous != NO_MEMBER && !ranks.isInOrder(previous, current)) {
+                if (violationLine == NO_VIOLATION) {
+                    violationLine = ast.getLineNo();
+                }
+                reporter.log(
+                        ast,
+                        WRONG_MEMBER_ORDER,
+                        ranks.describeMember(previous),
+                        ranks.describeMember(current),
+                        ranks.describeOrder()
+                );
             }
             previous = current;
         }
 
         void leaveToken(DetailAST ast) {
             if (ast.getType() == TokenTypes.OBJBLOCK) {
-                StackFrame stackFrame = stack.pop();
-                previous = stackFrame.previous();
-                parentForcesVariablesToBeStatic = stackFrame.parentForcesVariablesToBeStatic;
+                if (violationLine != NO_VIOLATION && fixes != null) {
+                    proposeReordering(tree.indexOf(ast));
+                }
+                violationLine = stack[--depth];
+                parentType = stack[--depth];
+                previous = stack[--depth];
+            }
+        }
+
+        private int member(int node) {
+            Kind kind = Kind.of(tree.type(node));
+            return ranks.member(position(isStatic(node), kind), visibility(node));
+        }
+
+        /**
+         * Proposes to sort members of the given block, keeping members of the same rank in place.
+         * <p>
+         * Each member is moved as a block of lines together with comments that precede it,
+         * blank lines between members stay in place.
+         * Nothing is proposed, when some member shares a line with
+         * another member or with braces of the block.
+         */
+        private void proposeReordering(int objBlock) {
+            List<Integer> members = new ArrayList<>();
+            int firstLine = 0;
+            int lastLine = 0;
+            int previousNode = tree.firstChild(objBlock);
+            int node = tree.nextSibling(previousNode);
+            for (; node != CompactTree.NONE; node = tree.nextSibling(node)) {
+                if (isMember(tree.type(node))) {
+                    if (tree.startLine(node) <= tree.endLine(previousNode))
+                        return;
+                    if (members.isEmpty()) {
+                        firstLine = tree.endLine(previousNode) + 1;
+                    }
+                    members.add(node);
+                    lastLine = tree.endLine(node);
+                } else if (tree.type(node) == TokenTypes.RCURLY) {
+                    if (!members.isEmpty() && tree.line(node) <= lastLine)
+                        return;
+                } else if (!members.isEmpty()) {
+                    return;
+                }
+                previousNode = node;
+            }
+            int[] starts = new int[members.size()];
+            int[] contentStarts = new int[members.size()];
+            for (int i = 0; i < members.size(); i++) {
+                starts[i] = i == 0 ? firstLine : tree.endLine(members.get(i - 1)) + 1;
+                contentStarts[i] = starts[i];
+                while (reporter.getLine(contentStarts[i] - 1).isBlank()) {
+                    contentStarts[i]++;
+                }
+            }
+            List<Integer> sorted = new ArrayList<>(members);
+            sorted.sort((member1, member2) -> ranks.compare(member(member1), member(member2)));
+            StringBuilder replacement = new StringBuilder();
+            for (int i = 0; i < sorted.size(); i++) {
+                // Blank lines stay in place, members move with their comments
+                appendLines(replacement, starts[i], contentStarts[i] - 1);
+                int index = members.indexOf(sorted.get(i));
+                appendLines(replacement, contentStarts[index], tree.endLine(sorted.get(i)));
             }
+            TextEdit edit = new TextEdit(firstLine, 0, lastLine + 1, 0, replacement.toString());
+            fixes.add(SourceEdits.fix(reporter, violationLine, WRONG_MEMBER_ORDER, List.of(edit)));
         }
 
-        private Positioned toPositioned(DetailAST ast) {
-            return new Positioned(isStatic(ast), Kind.fromAst(ast));
+        private void appendLines(StringBuilder builder, int firstLine, int lastLine) {
+            for (int line = firstLine; line <= lastLine; line++) {
+                builder.append(reporter.getLine(line - 1)).append('\n');
+            }
+        }
+
+        private boolean parentForcesVariablesToBeStatic() {
+            return parentType == TokenTypes.INTERFACE_DEF
+                    || parentType == TokenTypes.ANNOTATION_DEF;
         }
 
-        private boolean isStatic(DetailAST ast) {
-            return switch (ast.getType()) {
+        private boolean isStatic(int node) {
+            return switch (tree.type(node)) {
                 case TokenTypes.CLASS_DEF ->
-                        parentForcesVariablesToBeStatic || hasStaticModifier(ast);
+                        parentForcesVariablesToBeStatic() || hasStaticModifier(node);
                 case TokenTypes.INTERFACE_DEF -> true;
                 case TokenTypes.ANNOTATION_DEF -> true;
                 case TokenTypes.ENUM_DEF -> true;
@@ -224,28 +509,56 @@ public class MembersOrderCheck extends AbstractCheck {
                 case TokenTypes.STATIC_INIT -> true;
                 case TokenTypes.CTOR_DEF -> false;
                 case TokenTypes.COMPACT_CTOR_DEF -> false;
-                case TokenTypes.METHOD_DEF -> hasStaticModifier(ast);
+                case TokenTypes.METHOD_DEF -> hasStaticModifier(node);
                 case TokenTypes.VARIABLE_DEF ->
-                        parentForcesVariablesToBeStatic || hasStaticModifier(ast);
+                        parentForcesVariablesToBeStatic() || hasStaticModifier(node);
                 default -> throw new UnsupportedOperationException(
-                        String.format("Unknown syntax node: %s: %s", ast.getType(), ast.getText())
+                        String.format(
+                                "Unknown syntax node: %s: %s",
+                                tree.type(node),
+                                tree.node(node).getText()
+                        )
                 );
             };
         }
 
-        private boolean hasStaticModifier(DetailAST ast) {
-            DetailAST modifiers = ast.findFirstToken(TokenTypes.MODIFIERS);
-            return modifiers != null && modifiers.findFirstToken(TokenTypes.LITERAL_STATIC) != null;
+        /**
+         * Determines visibility of a member, taking implicit modifiers into account.
+         * <p>
+         * Members of interfaces and annotations are public and
+         * enum constructors are private unless declared otherwise.
+         * Initializers have no access modifiers and are treated as package-private.
+         */
+        private Visibility visibility(int node) {
+            if (hasModifier(node, TokenTypes.LITERAL_PUBLIC))
+                return Visibility.PUBLIC;
+            if (hasModifier(node, TokenTypes.LITERAL_PROTECTED))
+                return Visibility.PROTECTED;
+            if (hasModifier(node, TokenTypes.LITERAL_PRIVATE))
+                return Visibility.PRIVATE;
+            if (parentForcesVariablesToBeStatic())
+                return Visibility.PUBLIC;
+            if (parentType == TokenTypes.ENUM_DEF && tree.type(node) == TokenTypes.CTOR_DEF)
+                return Visibility.PRIVATE;
+            return Visibility.PACKAGE_PRIVATE;
         }
 
-        record StackFrame(Positioned previous, boolean parentForcesVariablesToBeStatic) {}
+        private boolean hasStaticModifier(int node) {
+            return hasModifier(node, TokenTypes.LITERAL_STATIC);
+        }
+
+        private boolean hasModifier(int node, int modifier) {
+            int modifiers = tree.firstChild(node, TokenTypes.MODIFIERS);
+            return modifiers != CompactTree.NONE
+                    && tree.firstChild(modifiers, modifier) != CompactTree.NONE;
+        }
     }
 
     enum Kind {
         VARIABLE, INITIALIZER, CONSTRUCTOR, METHOD, CLASS;
 
-        static Kind fromAst(DetailAST ast) {
-            return switch (ast.getType()) {
+        static Kind of(int type) {
+            return switch (type) {
                 case TokenTypes.CLASS_DEF -> Kind.CLASS;
                 case TokenTypes.INTERFACE_DEF -> Kind.CLASS;
                 case TokenTypes.ANNOTATION_DEF -> Kind.CLASS;
@@ -258,23 +571,21 @@ public class MembersOrderCheck extends AbstractCheck {
                 case TokenTypes.METHOD_DEF -> Kind.METHOD;
                 case TokenTypes.VARIABLE_DEF -> Kind.VARIABLE;
                 default -> throw new UnsupportedOperationException(
-                        String.format("Unknown syntax node: %s: %s", ast.getType(), ast.getText())
+                        "Unknown syntax node type: " + type
                 );
             };
         }
     }
 
-    record Positioned(boolean isStatic, Kind kind) {
-        @Override
-        public String toString() {
-            return switch (kind) {
-                case VARIABLE -> (isStatic ? "static " : "") + "variable";
-                case INITIALIZER -> (isStatic ? "static " : "") + "initializer";
-                case CONSTRUCTOR -> "constructor";
-                case METHOD -> (isStatic ? "static " : "") + "method";
-                case CLASS -> isStatic
-                    ? "static nested class or nested interface, nested enum or nested record"
-                    : "inner class";
+    enum Visibility {
+        PUBLIC, PROTECTED, PACKAGE_PRIVATE, PRIVATE;
+
+        String description() {
+            return switch (this) {
+                case PUBLIC -> "public";
+                case PROTECTED -> "protected";
+                case PACKAGE_PRIVATE -> "package-private";
+                case PRIVATE -> "private";
             };
         }
     }
@@ -19,113 +19,201 @@
 
 package com.github.sviperll.grumpinessy;
 
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextAware;
+import com.github.sviperll.grumpinessy.diff.ChangedLines;
+import com.github.sviperll.grumpinessy.diff.LineRanges;
+import com.github.sviperll.grumpinessy.fix.Fixes;
+import com.github.sviperll.grumpinessy.fix.TextEdit;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Stream;
 
-public class MethodCallChainLineBreaksCheck extends AbstractCheck {
-    private static CodeSpan getCodeSpan(DetailAST ast) {
-        Location location = new Location(ast.getLineNo(), ast.getColumnNo());
-        CodeSpan span = new CodeSpan(location, location);
-        return Stream.iterate(ast.getFirstChild(), Objects::nonNull, DetailAST::getNextSibling)
-                .map(MethodCallChainLineBreaksCheck::getCodeSpan)
-                .reduce(span, CodeSpan::cover);
+public class MethodCallChainLineBreaksCheck
+        extends AbstractCheck
+        implements LexicalPrecondition, RunContextAware, CompactTreeCheck {
+    private boolean breakWholeChain = false;
+    private CompactTree tree = null;
+    private RunContext runContext = new RunContext();
+    private LineRanges changedLines = LineRanges.ALL;
+    private int[] calls = new int[16];
+    private int[] dotLines = new int[16];
+    private int chainLine = 0;
+
+    /**
+     * Requires each call of a chain to be on its own line, as soon as chain has any line break.
+     * <p>
+     * By default only the neighbourhood of each line break is checked.
+     */
+    public void setBreakWholeChain(boolean breakWholeChain) {
+        this.breakWholeChain = breakWholeChain;
     }
 
-    private static boolean isMethodCall(DetailAST ast) {
-        return ast.getType() == TokenTypes.METHOD_CALL;
+    @Override
+    public void setRunContext(RunContext runContext) {
+        this.runContext = runContext;
     }
 
-    private static int getDotLine(DetailAST call) {
-        return call.findFirstToken(TokenTypes.DOT).getLineNo();
+    @Override
+    public int[] getDefaultTokens() {
+        return new int[] {TokenTypes.METHOD_CALL};
     }
 
-    private static DetailAST getTarget(DetailAST call) {
-        DetailAST dot = call.findFirstToken(TokenTypes.DOT);
-        return dot == null ? null : dot.getFirstChild();
+    @Override
+    public int[] getAcceptableTokens() {
+        return getDefaultTokens();
     }
 
-    private static boolean isMultilineCall(DetailAST call) {
-        DetailAST dot = call.findFirstToken(TokenTypes.DOT);
-        DetailAST rparen = call.findFirstToken(TokenTypes.RPAREN);
-        return dot != null && rparen != null && dot.getLineNo() != rparen.getLineNo();
+    @Override
+    public int[] getRequiredTokens() {
+        return getDefaultTokens();
     }
 
-    private static boolean hasDot(DetailAST ast) {
-        return ast.findFirstToken(TokenTypes.DOT) != null;
+    @Override
+    public boolean mayViolate(LexicalSummary summary) {
+        return summary.hasChainLineBreak();
     }
 
     @Override
-    public int[] getDefaultTokens() {
-        return new int[] {TokenTypes.METHOD_CALL};
+    public void beginTree(DetailAST rootAST) {
+        beginTree(rootAST, CompactTree.of(rootAST));
     }
 
     @Override
-    public int[] getAcceptableTokens() {
-        return getDefaultTokens();
+    public void beginTree(DetailAST rootAST, CompactTree tree) {
+        this.tree = tree;
+        changedLines = ChangedLines.scopeOf(runContext, getFilePath());
     }
 
     @Override
-    public int[] getRequiredTokens() {
-        return getDefaultTokens();
+    public void finishTree(DetailAST rootAST) {
+        tree = null;
     }
 
     @Override
     public void visitToken(DetailAST ast) {
-        List<DetailAST> calls = new ArrayList<>();
-        while (ast != null && isMethodCall(ast) && hasDot(ast) && calls.size() < 3) {
-            calls.add(ast);
-            ast = getTarget(ast);
-        }
-        if (calls.size() == 2 && getDotLine(calls.get(0)) != getDotLine(calls.get(1))) {
-            DetailAST call = calls.get(1);
-            DetailAST dot = call.findFirstToken(TokenTypes.DOT);
-            DetailAST target = getTarget(call);
-            CodeSpan span = getCodeSpan(target);
-            if (isMultilineCall(call) && span.end().line() == dot.getLineNo()) {
-                log(call, "line.break.is.required.complex.first.method.call.in.chain");
+        int call = tree.indexOf(ast);
+        int dot = tree.firstChild(call, TokenTypes.DOT);
+        if (dot == CompactTree.NONE
+                || isChainedFurther(call)
+                || !changedLines.intersects(tree.startLine(call), tree.endLine(call)))
+            return;
+        chainLine = tree.startLine(call);
+        int size = 0;
+        while (dot != CompactTree.NONE) {
+            if (size == calls.length) {
+                calls = Arrays.copyOf(calls, size * 2);
+                dotLines = Arrays.copyOf(dotLines, size * 2);
             }
+            calls[size] = call;
+            dotLines[size] = tree.line(dot);
+            size++;
+            call = tree.firstChild(dot);
+            dot = isMethodCall(call) ? tree.firstChild(call, TokenTypes.DOT) : CompactTree.NONE;
         }
-        if (calls.size() < 3)
-            return;
-        int[] callLines =
-                calls.stream()
-                        .mapToInt(MethodCallChainLineBreaksCheck::getDotLine)
-                        .toArray();
-        if (callLines[0] == callLines[1] && callLines[1] != callLines[2]) {
-            log(calls.get(0), "multiple.method.calls.in.chain.on.same.line");
+        if (size >= 2) {
+            checkFirstCall(size);
         }
-        if (callLines[0] != callLines[1] && callLines[1] == callLines[2]) {
-            log(calls.get(1), "multiple.method.calls.in.chain.on.same.line");
+        if (breakWholeChain) {
+            checkWholeChain(size);
+        } else {
+            checkLineBreaks(size);
         }
     }
 
-    record Location(int line, int column) implements Comparable<Location> {
-        private static final Comparator<Location> COMPARATOR =
-                Comparator.comparingInt(Location::line).thenComparingInt(Location::column);
-        static Location min(Location location1, Location location2) {
-            return location1.compareTo(location2) <= 0 ? location1 : location2;
+    private boolean isMethodCall(int node) {
+        return tree.type(node) == TokenTypes.METHOD_CALL;
+    }
+
+    private int getTarget(int call) {
+        int dot = tree.firstChild(call, TokenTypes.DOT);
+        return dot == CompactTree.NONE ? CompactTree.NONE : tree.firstChild(dot);
+    }
+
+    private boolean isMultilineCall(int call) {
+        int dot = tree.firstChild(call, TokenTypes.DOT);
+        int rparen = tree.firstChild(call, TokenTypes.RPAREN);
+        return dot != CompactTree.NONE
+                && rparen != CompactTree.NONE
+                && tree.line(dot) != tree.line(rparen);
+    }
+
+    /**
+     * Tells whether the given call with a dot is a target of another call with a dot.
+     * <p>
+     * Such call is analyzed as part of the chain that starts at the outermost call.
+     */
+    private boolean isChainedFurther(int call) {
+        int parent = tree.parent(call);
+        return parent != CompactTree.NONE
+                && tree.type(parent) == TokenTypes.DOT
+                && tree.firstChild(parent) == call
+                && tree.parent(parent) != CompactTree.NONE
+                && isMethodCall(tree.parent(parent));
+    }
+
+    /**
+     * Checks the first call of the chain.
+     * <p>
+     * Calls are stored from the outermost to the innermost one,
+     * so the first call of the chain is the last one.
+     */
+    private void checkFirstCall(int size) {
+        int first = calls[size - 1];
+        if (dotLines[size - 2] != dotLines[size - 1]
+                && isMultilineCall(first)
+                && tree.endLine(getTarget(first)) == dotLines[size - 1]) {
+            report(first, "line.break.is.required.complex.first.method.call.in.chain");
         }
+    }
 
-        static Location max(Location location1, Location location2) {
-            return location1.compareTo(location2) >= 0 ? location1 : location2;
+    /**
+     * Checks that calls around each line break are on their own lines.
+     */
+    private void checkLineBreaks(int size) {
+        for (int i = 0; i + 2 < size; i++) {
+            if (dotLines[i] == dotLines[i + 1] && dotLines[i + 1] != dotLines[i + 2]) {
+                report(calls[i], "multiple.method.calls.in.chain.on.same.line");
+            }
+            if (dotLines[i] != dotLines[i + 1] && dotLines[i + 1] == dotLines[i + 2]) {
+                report(calls[i + 1], "multiple.method.calls.in.chain.on.same.line");
+            }
         }
+    }
 
-        @Override
-        public int compareTo(Location that) {
-            return COMPARATOR.compare(this, that);
+    /**
+     * Checks that every call is on its own line when the chain has any line break.
+     */
+    private void checkWholeChain(int size) {
+        if (dotLines[0] == dotLines[size - 1])
+            return;
+        for (int i = 0; i + 1 < size; i++) {
+            if (dotLines[i] == dotLines[i + 1]) {
+                report(calls[i], "multiple.method.calls.in.chain.on.same.line");
+            }
         }
     }
-    record CodeSpan(Location start, Location end) {
-        static CodeSpan cover(CodeSpan span1, CodeSpan span2) {
-            Location start = Location.min(span1.start(), span2.start());
-            Location end = Location.max(span1.end(), span2.end());
-            return new CodeSpan(start, end);
+
+    /**
+     * Reports violation for the given call, fix puts the dot of the call on a new line.
+     */
+    private void report(int call, String key) {
+        log(tree.node(call), key);
+        Fixes fixes = runContext.get(Fixes.class);
+        if (fixes != null) {
+            int dot = tree.firstChild(call, TokenTypes.DOT);
+            String indentation = SourceEdits.indentationOf(this, chainLine)
+                    + SourceEdits.CONTINUATION_INDENTATION;
+            TextEdit edit = SourceEdits.lineBreakBefore(
+                    this,
+                    tree.line(dot),
+                    tree.column(dot),
+                    indentation
+            );
+            List<TextEdit> edits = edit == null ? List.of() : List.of(edit);
+            fixes.add(SourceEdits.fix(this, tree.line(call), key, edits));
         }
     }
 }
@@ -19,11 +19,30 @@
 
 package com.github.sviperll.grumpinessy;
 
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextAware;
+import com.github.sviperll.grumpinessy.diff.ChangedLines;
+import com.github.sviperll.grumpinessy.diff.LineRanges;
+import com.github.sviperll.grumpinessy.fix.Fixes;
+import com.github.sviperll.grumpinessy.fix.TextEdit;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
-public class MethodCallLineBreaksCheck extends AbstractCheck {
+public class MethodCallLineBreaksCheck
+        extends AbstractCheck
+        implements LexicalPrecondition, RunContextAware, CompactTreeCheck {
+    private RunContext runContext = new RunContext();
+    private LineRanges changedLines = LineRanges.ALL;
+    private CompactTree tree = null;
+
+    @Override
+    public void setRunContext(RunContext runContext) {
+        this.runContext = runContext;
+    }
 
     @Override
     public int[] getDefaultTokens() {
@@ -46,67 +65,138 @@ public class MethodCallLineBreaksCheck extends AbstractCheck {
         return getDefaultTokens();
     }
 
+    @Override
+    public boolean mayViolate(LexicalSummary summary) {
+        return summary.hasMultilineParentheses();
+    }
+
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        beginTree(rootAST, CompactTree.of(rootAST));
+    }
+
+    @Override
+    public void beginTree(DetailAST rootAST, CompactTree tree) {
+        changedLines = ChangedLines.scopeOf(runContext, getFilePath());
+        this.tree = tree;
+    }
+
+    @Override
+    public void finishTree(DetailAST rootAST) {
+        tree = null;
+    }
+
     @Override
     public void visitToken(DetailAST ast) {
-        int leftParensLine = getLeftParens(ast);
-        int rightParensLine = getRightParens(ast);
-        if (leftParensLine != rightParensLine) {
+        int node = tree.indexOf(ast);
+        int leftParensLine = getLeftParens(node);
+        int rightParensLine = getRightParens(node);
+        if (leftParensLine != rightParensLine
+                && changedLines.intersects(leftParensLine, rightParensLine)) {
             int expectedLineNo = leftParensLine + 1;
-            DetailAST parameters = getParameters(ast);
-            if (parameters != null) {
-                DetailAST parameter = parameters.getFirstChild();
-                while (parameter != null) {
-                    if (parameter.getLineNo() < expectedLineNo) {
-                        log(
-                                ast,
-                                "multiple.arguments.on.one.line",
-                                parameter.getLineNo(),
-                                expectedLineNo,
-                                leftParensLine,
-                                rightParensLine
-                        );
+            int parameters = getParameters(node);
+            if (parameters != CompactTree.NONE) {
+                int parameter = tree.firstChild(parameters);
+                while (parameter != CompactTree.NONE) {
+                    if (tree.line(parameter) < expectedLineNo) {
+                        report(node, tree.line(parameter), expectedLineNo);
                         return;
                     }
-                    expectedLineNo = parameter.getLineNo() + 1;
-                    parameter = parameter.getNextSibling();
-                    if (parameter != null && parameter.getType() == TokenTypes.COMMA) {
-                        expectedLineNo = parameter.getLineNo() + 1;
-                        parameter = parameter.getNextSibling();
+                    expectedLineNo = tree.line(parameter) + 1;
+                    parameter = tree.nextSibling(parameter);
+                    if (parameter != CompactTree.NONE
+                            && tree.type(parameter) == TokenTypes.COMMA) {
+                        expectedLineNo = tree.line(parameter) + 1;
+                        parameter = tree.nextSibling(parameter);
                     }
                 }
             }
             if (rightParensLine < expectedLineNo) {
-                log(
-                        ast,
-                        "multiple.arguments.on.one.line",
-                        rightParensLine,
-                        expectedLineNo,
-                        leftParensLine,
-                        rightParensLine
-                );
+                report(node, rightParensLine, expectedLineNo);
+            }
+        }
+    }
+
+    private void report(int node, int lineNo, int expectedLineNo) {
+        String key = "multiple.arguments.on.one.line";
+        int leftParensLine = getLeftParens(node);
+        int rightParensLine = getRightParens(node);
+        log(tree.node(node), key, lineNo, expectedLineNo, leftParensLine, rightParensLine);
+        Fixes fixes = runContext.get(Fixes.class);
+        if (fixes != null) {
+            List<TextEdit> edits = lineBreaks(node, leftParensLine);
+            fixes.add(SourceEdits.fix(this, tree.line(node), key, edits));
+        }
+    }
+
+    /**
+     * Builds edits, that put each parameter and right parens on their own lines.
+     */
+    private List<TextEdit> lineBreaks(int node, int leftParensLine) {
+        String indentation = SourceEdits.indentationOf(this, leftParensLine);
+        String parameterIndentation = indentation + SourceEdits.CONTINUATION_INDENTATION;
+        List<TextEdit> edits = new ArrayList<>();
+        int previousLine = leftParensLine;
+        int parameters = getParameters(node);
+        int parameter = parameters == CompactTree.NONE
+                ? CompactTree.NONE
+                : tree.firstChild(parameters);
+        while (parameter != CompactTree.NONE) {
+            if (tree.type(parameter) == TokenTypes.COMMA) {
+                previousLine = tree.line(parameter);
+            } else {
+                if (tree.startLine(parameter) == previousLine) {
+                    edits.add(
+                            SourceEdits.lineBreakBefore(
+                                    this,
+                                    previousLine,
+                                    tree.startColumn(parameter),
+                                    parameterIndentation
+                            )
+                    );
+                }
+                previousLine = tree.endLine(parameter);
             }
+            parameter = tree.nextSibling(parameter);
+        }
+        int rparen = tree.firstChild(node, TokenTypes.RPAREN);
+        if (rparen != CompactTree.NONE && tree.line(rparen) == previousLine) {
+            edits.add(
+                    SourceEdits.lineBreakBefore(
+                            this,
+                            previousLine,
+                            tree.column(rparen),
+                            indentation
+                    )
+            );
         }
+        edits.removeIf(Objects::isNull);
+        return edits;
     }
 
-    private int getLeftParens(DetailAST ast) {
-        DetailAST lparen = ast.findFirstToken(TokenTypes.LPAREN);
-        return lparen == null ? ast.getLineNo() : lparen.getLineNo();
+    private int getLeftParens(int node) {
+        int lparen = tree.firstChild(node, TokenTypes.LPAREN);
+        return tree.line(lparen == CompactTree.NONE ? node : lparen);
     }
 
-    private int getRightParens(DetailAST ast) {
-        DetailAST rparen = ast.findFirstToken(TokenTypes.RPAREN);
-        return rparen == null ? ast.getLineNo() : rparen.getLineNo();
+    private int getRightParens(int node) {
+        int rparen = tree.firstChild(node, TokenTypes.RPAREN);
+        return tree.line(rparen == CompactTree.NONE ? node : rparen);
     }
 
-    private DetailAST getParameters(DetailAST ast) {
-        return switch (ast.getType()) {
+    private int getParameters(int node) {
+        return switch (tree.type(node)) {
             case TokenTypes.METHOD_CALL, TokenTypes.LITERAL_NEW ->
-                ast.findFirstToken(TokenTypes.ELIST);
+                tree.firstChild(node, TokenTypes.ELIST);
             case TokenTypes.METHOD_DEF, TokenTypes.CTOR_DEF ->
-                ast.findFirstToken(TokenTypes.PARAMETERS);
-            case TokenTypes.RECORD_DEF -> ast.findFirstToken(TokenTypes.RECORD_COMPONENTS);
+                tree.firstChild(node, TokenTypes.PARAMETERS);
+            case TokenTypes.RECORD_DEF -> tree.firstChild(node, TokenTypes.RECORD_COMPONENTS);
             default -> throw new UnsupportedOperationException(
-                    String.format("Unsupported syntax %s: %s", ast.getType(), ast.getText())
+                    String.format(
+                            "Unsupported syntax %s: %s",
+                            tree.type(node),
+                            tree.node(node).getText()
+                    )
             );
         };
     }
@@ -19,24 +19,25 @@
 
 package com.github.sviperll.grumpinessy;
 
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextAware;
+import com.github.sviperll.grumpinessy.diff.ChangedLines;
+import com.github.sviperll.grumpinessy.diff.LineRanges;
+import com.github.sviperll.grumpinessy.fix.Fixes;
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
-import java.util.Objects;
-import java.util.stream.Stream;
 
-public class NessesaryBracesCheck extends AbstractCheck {
+public class NessesaryBracesCheck
+        extends AbstractCheck
+        implements LexicalPrecondition, RunContextAware, CompactTreeCheck {
+    private CompactTree tree = null;
+    private RunContext runContext = new RunContext();
+    private LineRanges changedLines = LineRanges.ALL;
 
-    private static boolean isMultilineNode(DetailAST node) {
-        LineSpan span = getLineSpan(node);
-        return span.start() < span.end();
-    }
-
-    private static LineSpan getLineSpan(DetailAST node) {
-        LineSpan span = new LineSpan(node.getLineNo(), node.getLineNo());
-        return Stream.iterate(node.getFirstChild(), Objects::nonNull, DetailAST::getNextSibling)
-                .map(NessesaryBracesCheck::getLineSpan)
-                .reduce(span, LineSpan::cover);
+    @Override
+    public void setRunContext(RunContext runContext) {
+        this.runContext = runContext;
     }
 
     @Override
@@ -60,29 +61,58 @@ public class NessesaryBracesCheck extends AbstractCheck {
     }
 
     @Override
-    public void visitToken(DetailAST node) {
-        DetailAST body = switch (node.getType()) {
+    public boolean mayViolate(LexicalSummary summary) {
+        return summary.hasBracelessStatement();
+    }
+
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        beginTree(rootAST, CompactTree.of(rootAST));
+    }
+
+    @Override
+    public void beginTree(DetailAST rootAST, CompactTree tree) {
+        this.tree = tree;
+        changedLines = ChangedLines.scopeOf(runContext, getFilePath());
+    }
+
+    @Override
+    public void finishTree(DetailAST rootAST) {
+        tree = null;
+    }
+
+    @Override
+    public void visitToken(DetailAST ast) {
+        int node = tree.indexOf(ast);
+        int body = switch (tree.type(node)) {
             case TokenTypes.LITERAL_IF, TokenTypes.LITERAL_FOR, TokenTypes.LITERAL_WHILE ->
-                    node.findFirstToken(TokenTypes.RPAREN).getNextSibling();
-            case TokenTypes.LITERAL_ELSE -> node.getFirstChild();
+                    tree.nextSibling(tree.firstChild(node, TokenTypes.RPAREN));
+            case TokenTypes.LITERAL_ELSE -> tree.firstChild(node);
             default ->
                     throw new UnsupportedOperationException(
-                            "unsupported node type: " + node.getType()
+                            "unsupported node type: " + tree.type(node)
                     );
         };
         boolean isElseIf =
-                node.getType() == TokenTypes.LITERAL_ELSE
-                        && body.getType() == TokenTypes.LITERAL_IF;
-        if (!isElseIf && body.getType() != TokenTypes.SLIST && isMultilineNode(body)) {
-            log(body, "braces.are.mandatory.for.multiline");
-        }
-    }
-
-    record LineSpan(int start, int end) {
-        static LineSpan cover(LineSpan span1, LineSpan span2) {
-            int start = Math.min(span1.start(), span2.start());
-            int end = Math.max(span1.end(), span2.end());
-            return new LineSpan(start, end);
+                tree.type(node) == TokenTypes.LITERAL_ELSE
+                        && tree.type(body) == TokenTypes.LITERAL_IF;
+        if (!isElseIf
+                && tree.type(body) != TokenTypes.SLIST
+                && changedLines.intersects(tree.line(node), tree.endLine(body))
+                && tree.isMultiline(body)) {
+            String key = "braces.are.mandatory.for.multiline";
+            log(tree.node(body), key);
+            Fixes fixes = runContext.get(Fixes.class);
+            if (fixes != null) {
+                fixes.add(
+                        SourceEdits.fix(
+                                this,
+                                tree.line(body),
+                                key,
+                                SourceEdits.wrapInBraces(this, tree, node, body)
+                        )
+                );
+            }
         }
     }
 }
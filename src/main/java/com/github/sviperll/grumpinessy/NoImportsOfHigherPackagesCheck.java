@@ -23,8 +23,9 @@ import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
 
-public class NoImportsOfHigherPackagesCheck extends AbstractCheck {
-    private String packageName;
+public class NoImportsOfHigherPackagesCheck extends AbstractCheck implements LexicalPrecondition {
+    private final DottedName packageName = new DottedName();
+    private final DottedName importedName = new DottedName();
 
     @Override
     public int[] getDefaultTokens() {
@@ -41,65 +42,47 @@ public class NoImportsOfHigherPackagesCheck extends AbstractCheck {
         return new int[] {TokenTypes.IMPORT, TokenTypes.PACKAGE_DEF};
     }
 
+    @Override
+    public boolean mayViolate(LexicalSummary summary) {
+        String packageName = summary.packageName();
+        for (String imported : summary.imports()) {
+            int lastDot = imported.lastIndexOf('.');
+            if (lastDot > 0 && packageName.regionMatches(0, imported, 0, lastDot + 1))
+                return true;
+        }
+        return false;
+    }
+
     @Override
     public void beginTree(DetailAST rootAST) {
-        packageName = null;
+        packageName.clear();
     }
 
     @Override
     public void visitToken(DetailAST ast) {
         if (ast.getType() == TokenTypes.PACKAGE_DEF) {
-            packageName = readEnclosedDot(ast);
-        } else if (ast.getType() == TokenTypes.IMPORT) {
-            DetailAST dot = ast.findFirstToken(TokenTypes.DOT);
-            if (dot != null) {
-                String importedPackage = readEnclosedDot(dot);
-                if (packageName != null && packageName.startsWith(importedPackage + ".")) {
-                    log(ast, "import.of.higher.package", importedPackage, packageName);
-                }
+            DetailAST name = ast.findFirstToken(TokenTypes.DOT);
+            if (name == null) {
+                name = ast.findFirstToken(TokenTypes.IDENT);
             }
-        }
-    }
-
-    private String readEnclosedDot(DetailAST ast) {
-        DottedIdentifierReader reader = new DottedIdentifierReader();
-        reader.appendEnclosedDot(ast);
-        return reader.toString();
-    }
-
-    private static class DottedIdentifierReader {
-
-        private final StringBuilder builder = new StringBuilder();
-
-        private void appendEnclosedDot(DetailAST ast) {
-            DetailAST dot = ast.findFirstToken(TokenTypes.DOT);
-            if (dot != null) {
-                appendDot(dot);
-            } else {
-                DetailAST ident = ast.findFirstToken(TokenTypes.IDENT);
-                if (ident != null) {
-                    builder.append(ident.getText());
-                }
+            if (name != null) {
+                packageName.read(name);
             }
-        }
-
-        private void appendDot(DetailAST ast) {
+        } else if (ast.getType() == TokenTypes.IMPORT) {
             DetailAST dot = ast.findFirstToken(TokenTypes.DOT);
             if (dot != null) {
-                appendDot(dot);
-                builder.append(".");
-            }
-            DetailAST ident = ast.findFirstToken(TokenTypes.IDENT);
-            if (ident != null) {
-                builder.append(ident.getText());
+                importedName.read(dot);
+                int importedPackageLength = importedName.length() - 1;
+                if (importedPackageLength < packageName.length()
+                        && packageName.startsWith(importedName, importedPackageLength)) {
+                    log(
+                            ast,
+                            "import.of.higher.package",
+                            importedName.toString(importedPackageLength),
+                            packageName.toString()
+                    );
+                }
             }
         }
-
-        @Override
-        public String toString() {
-            return builder.toString();
-        }
-
     }
-
 }
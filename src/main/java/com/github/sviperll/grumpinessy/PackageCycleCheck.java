@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextAware;
+import com.github.sviperll.grumpinessy.crossfile.CrossFileState;
+import com.puppycrawl.tools.checkstyle.api.AbstractFileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * Checks that packages of the whole project have no dependency cycles.
+ * <p>
+ * Every file contributes package dependencies to a {@link PackageGraph}, that are
+ * read from package declaration and imports by {@link ImportHeader}.
+ * Cycles are searched for after all files are processed, every strongly connected group of
+ * packages is reported once at an import, that belongs to the cycle.
+ * <p>
+ * Graph is kept in {@code cacheFile} between runs, when the property is set, so
+ * files skipped by Checkstyle's own cache or checked in an earlier run still contribute:
+ * removed files are forgotten and files modified since then are read again.
+ * Modules of several Checkers created from the same configuration for the same run
+ * share a single graph through {@link RunContext},
+ * when all of them are configured before processing starts,
+ * cycles are reported by the module, that finishes processing last.
+ * When a shard of the project is checked, dependencies are collected into
+ * {@link CrossFileState} of the run and cycles are reported, when shards are merged.
+ */
+public class PackageCycleCheck extends AbstractFileSetCheck implements RunContextAware {
+    private Path cacheFile = null;
+    private Charset charset = Charset.defaultCharset();
+    private RunContext runContext = new RunContext();
+    private PackageGraph graph = null;
+
+    public PackageCycleCheck() {
+        setFileExtensions("java");
+    }
+
+    public void setCacheFile(String cacheFile) {
+        this.cacheFile = Path.of(cacheFile).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void setRunContext(RunContext runContext) {
+        this.runContext = runContext;
+    }
+
+    @Override
+    public void beginProcessing(String charset) {
+        super.beginProcessing(charset);
+        this.charset = Charset.forName(charset);
+        if (graph == null) {
+            openGraph();
+        }
+    }
+
+    @Override
+    public void finishProcessing() {
+        super.finishProcessing();
+        PackageGraph finishedGraph = graph;
+        graph = null;
+        CrossFileState state = runContext.get(CrossFileState.class);
+        if (state != null && state.isCollecting()) {
+            finishedGraph.finish(state);
+            return;
+        }
+        for (PackageGraph.Cycle cycle : finishedGraph.finish(charset)) {
+            log(cycle.line(), "package.dependency.cycle", String.join(" -> ", cycle.packages()));
+            fireErrors(cycle.path());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        if (graph != null) {
+            graph.close();
+            graph = null;
+        }
+    }
+
+    /**
+     * Joins the shared graph as early as possible, so that
+     * modules of other Checkers can't finish processing before this module starts.
+     */
+    @Override
+    protected void finishLocalSetup() {
+        openGraph();
+    }
+
+    @Override
+    protected void processFiltered(File file, FileText fileText) {
+        ImportHeader header = ImportHeader.scan(fileText.getFullText());
+        graph.put(file.getAbsolutePath(), file.lastModified(), header);
+    }
+
+    private void openGraph() {
+        graph = PackageGraph.open(
+                runContext,
+                cacheFile == null ? getConfiguration() : cacheFile,
+                cacheFile
+        );
+    }
+}
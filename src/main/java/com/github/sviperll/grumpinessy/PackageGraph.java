@@ -0,0 +1,574 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.crossfile.CrossFileState;
+import com.github.sviperll.grumpinessy.io.AtomicFiles;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Package dependencies of a whole project, collected from package declarations and imports.
+ * <p>
+ * Package names are interned into integer ids and every source file contributes
+ * the distinct packages it imports, together with the line of the first such import.
+ * Contribution of a file is replaced, when the file is checked again, so
+ * the graph is updated incrementally and can be kept in a file between runs.
+ * Adjacency is built as sorted arrays of ids only when cycles are searched for.
+ * <p>
+ * Modules of different Checkers of the same run share a single instance
+ * for the same key through {@link RunContext},
+ * cycles are searched for when the last of them finishes processing.
+ * Modules of different processes, that check shards of the same project, share contributions
+ * through {@link CrossFileState}.
+ */
+final class PackageGraph {
+    private static final int MAGIC = 0x47525047;
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Returns graph shared by all modules of the run with the same key,
+     * graph is read from the given file, when the file is not null, and
+     * contributions of shards are added, when the run has merging {@link CrossFileState}.
+     * Every call should be paired with a call to {@link #finish(Charset)},
+     * to {@link #finish(CrossFileState)} or to {@link #close()}.
+     */
+    static PackageGraph open(RunContext runContext, Object key, Path file) {
+        List<Object> sharedKey = List.of(PackageGraph.class, key);
+        return runContext.acquire(sharedKey, () -> create(runContext, sharedKey, file));
+    }
+
+    private static PackageGraph create(RunContext runContext, Object key, Path file) {
+        PackageGraph graph = new PackageGraph(runContext, key, file);
+        if (file != null && Files.isRegularFile(file)) {
+            graph.load();
+        }
+        CrossFileState state = runContext.get(CrossFileState.class);
+        if (state != null && !state.isCollecting()) {
+            graph.restore(state);
+        }
+        return graph;
+    }
+
+    /**
+     * Returns package of the imported type or static member, on-demand imports end with {@code .*}.
+     * <p>
+     * Package consists of segments before the first capitalized one, by naming convention,
+     * or of all segments but the last one, when no segment is capitalized.
+     */
+    static String packageOf(String imported) {
+        boolean isOnDemand = imported.endsWith(".*");
+        String name = isOnDemand ? imported.substring(0, imported.length() - 2) : imported;
+        for (int start = 0; start < name.length(); start = name.indexOf('.', start) + 1) {
+            if (Character.isUpperCase(name.charAt(start)))
+                return name.substring(0, Math.max(0, start - 1));
+            if (name.indexOf('.', start) < 0)
+                break;
+        }
+        return isOnDemand ? name : name.substring(0, Math.max(0, name.lastIndexOf('.')));
+    }
+
+    private static long edge(int from, int to) {
+        return (long) from << 32 | to;
+    }
+
+    private final RunContext runContext;
+    private final Object key;
+    private final Path file;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Source> sources = new HashMap<>();
+
+    private PackageGraph(RunContext runContext, Object key, Path file) {
+        this.runContext = runContext;
+        this.key = key;
+        this.file = file;
+    }
+
+    /**
+     * Replaces contribution of the source file with the given absolute path.
+     */
+    synchronized void put(String path, long modified, ImportHeader header) {
+        sources.put(path, source(modified, header));
+    }
+
+    /**
+     * Marks the end of processing for a single user.
+     * <p>
+     * When the last user finishes, files that were not checked by any user are refreshed:
+     * removed files are forgotten and modified files are read again with the given charset.
+     * Then the graph is written to its file, if any.
+     *
+     * @return cycles of the whole graph for the last user and an empty list for the others
+     */
+    List<Cycle> finish(Charset charset) {
+        if (!close())
+            return List.of();
+        synchronized (this) {
+            refresh(charset);
+            if (file != null) {
+                write();
+            }
+            return cycles();
+        }
+    }
+
+    /**
+     * Marks the end of processing of a shard for a single user.
+     * <p>
+     * When the last user finishes, contributions of checked files are added to the given state,
+     * neither cycles are searched for, nor the graph file is written,
+     * that is done by the process, that merges all shards.
+     */
+    void finish(CrossFileState state) {
+        if (close()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                writeChecked(output);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            state.addPackageGraph(bytes.toByteArray());
+        }
+    }
+
+    /**
+     * Releases the graph without finishing processing.
+     *
+     * @return true, when there are no more users
+     */
+    boolean close() {
+        return runContext.release(key);
+    }
+
+    /**
+     * Adds contributions of all shards as contributions of checked files.
+     */
+    private void restore(CrossFileState state) {
+        for (byte[] bytes : state.packageGraphs()) {
+            try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                readChecked(input);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * Writes contributions of checked files, packages are written by name.
+     */
+    private synchronized void writeChecked(DataOutputStream output) throws IOException {
+        List<Map.Entry<String, Source>> checked = sources.entrySet()
+                .stream()
+                .filter(entry -> entry.getValue().isChecked())
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        output.writeInt(checked.size());
+        for (Map.Entry<String, Source> entry : checked) {
+            Source source = entry.getValue();
+            output.writeUTF(entry.getKey());
+            output.writeLong(source.modified());
+            output.writeUTF(names.get(source.packageId()));
+            output.writeInt(source.targets().length);
+            for (int i = 0; i < source.targets().length; i++) {
+                output.writeUTF(names.get(source.targets()[i]));
+                output.writeInt(source.lines()[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds contributions written by {@link #writeChecked(DataOutputStream)},
+     * as if files were checked by this process.
+     */
+    private synchronized void readChecked(DataInputStream input) throws IOException {
+        int sourceCount = input.readInt();
+        for (int i = 0; i < sourceCount; i++) {
+            String path = input.readUTF();
+            long modified = input.readLong();
+            int packageId = intern(input.readUTF());
+            int count = input.readInt();
+            int[] targets = new int[count];
+            int[] lines = new int[count];
+            for (int j = 0; j < count; j++) {
+                targets[j] = intern(input.readUTF());
+                lines[j] = input.readInt();
+            }
+            sources.put(path, new Source(packageId, modified, true, targets, lines));
+        }
+    }
+
+    private Source source(long modified, ImportHeader header) {
+        int packageId = intern(header.packageName());
+        List<ImportHeader.Import> imports = header.imports();
+        int[] targets = new int[imports.size()];
+        int[] lines = new int[imports.size()];
+        int count = 0;
+        for (int i = 0; i < imports.size(); i++) {
+            int target = intern(packageOf(imports.get(i).name()));
+            boolean isNew = target != packageId;
+            for (int j = 0; isNew && j < count; j++) {
+                isNew = targets[j] != target;
+            }
+            if (isNew) {
+                targets[count] = target;
+                lines[count] = imports.get(i).line();
+                count++;
+            }
+        }
+        return new Source(
+                packageId,
+                modified,
+                true,
+                Arrays.copyOf(targets, count),
+                Arrays.copyOf(lines, count)
+        );
+    }
+
+    private int intern(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    private void refresh(Charset charset) {
+        Iterator<Map.Entry<String, Source>> iterator = sources.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Source> entry = iterator.next();
+            if (!entry.getValue().isChecked()) {
+                File sourceFile = new File(entry.getKey());
+                long modified = sourceFile.lastModified();
+                if (modified == 0) {
+                    iterator.remove();
+                } else if (modified != entry.getValue().modified()) {
+                    try {
+                        ImportHeader header = ImportHeader.read(sourceFile.toPath(), charset);
+                        entry.setValue(source(modified, header));
+                    } catch (IOException ex) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds strongly connected components with more than one package.
+     * <p>
+     * Every component is reported once, as a single cycle through its alphabetically first
+     * package, that goes along its alphabetically first dependency inside of the component and
+     * returns back by the shortest path.
+     */
+    private List<Cycle> cycles() {
+        Adjacency adjacency = adjacency();
+        int[] components = components(adjacency);
+        int[] representatives = new int[names.size()];
+        Arrays.fill(representatives, -1);
+        for (int node = 0; node < names.size(); node++) {
+            int component = components[node];
+            if (component >= 0
+                    && (representatives[component] < 0
+                        || names.get(node).compareTo(names.get(representatives[component])) < 0)) {
+                representatives[component] = node;
+            }
+        }
+        Map<Long, Cycle> cycles = new HashMap<>();
+        for (int from : representatives) {
+            if (from >= 0) {
+                int to = -1;
+                for (int i = adjacency.offsets()[from]; i < adjacency.offsets()[from + 1]; i++) {
+                    int target = adjacency.targets()[i];
+                    if (components[target] == components[from]
+                            && (to < 0 || names.get(target).compareTo(names.get(to)) < 0)) {
+                        to = target;
+                    }
+                }
+                List<String> packages = new ArrayList<>();
+                packages.add(names.get(from));
+                for (int node : shortestPath(adjacency, components, to, from)) {
+                    packages.add(names.get(node));
+                }
+                cycles.put(edge(from, to), new Cycle(packages, null, 0));
+            }
+        }
+        locate(cycles);
+        return cycles.values()
+                .stream()
+                .sorted(Comparator.comparing(cycle -> cycle.packages().get(0)))
+                .toList();
+    }
+
+    /**
+     * Finds the first file in the order of paths, that contains the first dependency of a cycle.
+     */
+    private void locate(Map<Long, Cycle> cycles) {
+        for (Map.Entry<String, Source> entry : sources.entrySet()) {
+            Source source = entry.getValue();
+            for (int i = 0; i < source.targets().length; i++) {
+                long edge = edge(source.packageId(), source.targets()[i]);
+                Cycle cycle = cycles.get(edge);
+                if (cycle != null
+                        && (cycle.path() == null || entry.getKey().compareTo(cycle.path()) < 0)) {
+                    int line = source.lines()[i];
+                    cycles.put(edge, new Cycle(cycle.packages(), entry.getKey(), line));
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds distinct dependencies of every package, sorted by package id.
+     */
+    private Adjacency adjacency() {
+        int edgeCount = 0;
+        for (Source source : sources.values()) {
+            edgeCount += source.targets().length;
+        }
+        long[] edges = new long[edgeCount];
+        edgeCount = 0;
+        for (Source source : sources.values()) {
+            for (int target : source.targets()) {
+                edges[edgeCount++] = edge(source.packageId(), target);
+            }
+        }
+        Arrays.sort(edges);
+        int[] offsets = new int[names.size() + 1];
+        int[] targets = new int[edgeCount];
+        int targetCount = 0;
+        for (int i = 0; i < edgeCount; i++) {
+            if (i == 0 || edges[i] != edges[i - 1]) {
+                offsets[(int) (edges[i] >>> 32) + 1]++;
+                targets[targetCount++] = (int) edges[i];
+            }
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        return new Adjacency(offsets, Arrays.copyOf(targets, targetCount));
+    }
+
+    /**
+     * Runs Tarjan's algorithm with an explicit stack, so that long paths can't overflow it.
+     *
+     * @return component of every package or -1 for packages, that are not part of any cycle
+     */
+    private int[] components(Adjacency adjacency) {
+        int[] offsets = adjacency.offsets();
+        int nodeCount = names.size();
+        int[] index = new int[nodeCount];
+        int[] low = new int[nodeCount];
+        int[] components = new int[nodeCount];
+        boolean[] isOnStack = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];
+        int[] callNodes = new int[nodeCount];
+        int[] callEdges = new int[nodeCount];
+        Arrays.fill(index, -1);
+        Arrays.fill(components, -1);
+        int counter = 0;
+        int componentCount = 0;
+        int stackSize = 0;
+        for (int root = 0; root < nodeCount; root++) {
+            int depth = 0;
+            int next = index[root] < 0 ? root : -1;
+            while (next >= 0 || depth > 0) {
+                if (next >= 0) {
+                    index[next] = counter;
+                    low[next] = counter;
+                    counter++;
+                    stack[stackSize++] = next;
+                    isOnStack[next] = true;
+                    callNodes[depth] = next;
+                    callEdges[depth] = offsets[next];
+                    depth++;
+                    next = -1;
+                } else {
+                    int node = callNodes[depth - 1];
+                    int edge = callEdges[depth - 1];
+                    if (edge < offsets[node + 1]) {
+                        callEdges[depth - 1]++;
+                        int target = adjacency.targets()[edge];
+                        if (index[target] < 0) {
+                            next = target;
+                        } else if (isOnStack[target]) {
+                            low[node] = Math.min(low[node], index[target]);
+                        }
+                    } else {
+                        depth--;
+                        if (low[node] == index[node]) {
+                            boolean isCycle = stack[stackSize - 1] != node;
+                            int member = -1;
+                            while (member != node) {
+                                member = stack[--stackSize];
+                                isOnStack[member] = false;
+                                components[member] = isCycle ? componentCount : -1;
+                            }
+                            componentCount += isCycle ? 1 : 0;
+                        }
+                        if (depth > 0) {
+                            int caller = callNodes[depth - 1];
+                            low[caller] = Math.min(low[caller], low[node]);
+                        }
+                    }
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Finds the shortest path inside of a component with a breadth-first search.
+     *
+     * @return packages of the path, including both ends
+     */
+    private List<Integer> shortestPath(Adjacency adjacency, int[] components, int start, int end) {
+        Map<Integer, Integer> previous = new HashMap<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        previous.put(start, start);
+        queue.add(start);
+        while (!queue.isEmpty() && !previous.containsKey(end)) {
+            int node = queue.remove();
+            for (int i = adjacency.offsets()[node]; i < adjacency.offsets()[node + 1]; i++) {
+                int target = adjacency.targets()[i];
+                if (components[target] == components[start] && !previous.containsKey(target)) {
+                    previous.put(target, node);
+                    queue.add(target);
+                }
+            }
+        }
+        List<Integer> path = new ArrayList<>();
+        for (int node = end; node != start; node = previous.get(node)) {
+            path.add(node);
+        }
+        path.add(start);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Reads the graph file, unreadable file is treated as an empty graph.
+     */
+    private void load() {
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file))
+        )) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION)
+                return;
+            int nameCount = input.readInt();
+            for (int i = 0; i < nameCount; i++) {
+                intern(input.readUTF());
+            }
+            int sourceCount = input.readInt();
+            for (int i = 0; i < sourceCount; i++) {
+                String path = input.readUTF();
+                long modified = input.readLong();
+                int packageId = input.readInt();
+                int count = input.readInt();
+                int[] targets = new int[count];
+                int[] lines = new int[count];
+                for (int j = 0; j < count; j++) {
+                    targets[j] = input.readInt();
+                    lines[j] = input.readInt();
+                }
+                sources.put(path, new Source(packageId, modified, false, targets, lines));
+            }
+        } catch (IOException | RuntimeException ex) {
+            ids.clear();
+            names.clear();
+            sources.clear();
+        }
+    }
+
+    private void write() {
+        try {
+            AtomicFiles.write(file, this::writeTo);
+        } catch (IOException ex) {
+            throw new IllegalStateException(file + ": unable to write package graph", ex);
+        }
+    }
+
+    private void writeTo(OutputStream stream) throws IOException {
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(names.size());
+        for (String name : names) {
+            output.writeUTF(name);
+        }
+        output.writeInt(sources.size());
+        for (Map.Entry<String, Source> entry : sources.entrySet()) {
+            Source source = entry.getValue();
+            output.writeUTF(entry.getKey());
+            output.writeLong(source.modified());
+            output.writeInt(source.packageId());
+            output.writeInt(source.targets().length);
+            for (int i = 0; i < source.targets().length; i++) {
+                output.writeInt(source.targets()[i]);
+                output.writeInt(source.lines()[i]);
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * Packages of a cycle, the first package is repeated at the end.
+     *
+     * @param packages names of packages
+     * @param path file that contains the import of the second package from the first one
+     * @param line line of the import
+     */
+    record Cycle(List<String> packages, String path, int line) {
+    }
+
+    private record Source(
+            int packageId,
+            long modified,
+            boolean isChecked,
+            int[] targets,
+            int[] lines
+    ) {
+    }
+
+    private record Adjacency(int[] offsets, int[] targets) {
+    }
+}
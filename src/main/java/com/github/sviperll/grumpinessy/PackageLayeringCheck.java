@@ -0,0 +1,134 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.ExternalResourceHolder;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class PackageLayeringCheck
+        extends AbstractCheck
+        implements ExternalResourceHolder, LexicalPrecondition {
+    private final List<LayeringRules.Rule> rules = new ArrayList<>();
+    private final DottedName packageName = new DottedName();
+    private final DottedName importedName = new DottedName();
+    private String file = null;
+    private LayeringRules compiledRules = null;
+
+    @Override
+    public int[] getDefaultTokens() {
+        return new int[] {TokenTypes.PACKAGE_DEF, TokenTypes.IMPORT, TokenTypes.STATIC_IMPORT};
+    }
+
+    @Override
+    public int[] getAcceptableTokens() {
+        return getDefaultTokens();
+    }
+
+    @Override
+    public int[] getRequiredTokens() {
+        return getDefaultTokens();
+    }
+
+    public void setRules(String rules) {
+        this.rules.addAll(LayeringRules.parse(rules));
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    @Override
+    public Set<String> getExternalResourceLocations() {
+        return file == null ? Set.of() : Set.of(file);
+    }
+
+    @Override
+    public void init() {
+        compiledRules = LayeringRules.compile(rules);
+    }
+
+    @Override
+    public boolean mayViolate(LexicalSummary summary) {
+        return summary.hasImports();
+    }
+
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        packageName.clear();
+        compiledRules.enterPackage(packageName.segments(), 0);
+    }
+
+    @Override
+    public void visitToken(DetailAST ast) {
+        if (ast.getType() == TokenTypes.PACKAGE_DEF) {
+            DetailAST name = ast.findFirstToken(TokenTypes.DOT);
+            if (name == null) {
+                name = ast.findFirstToken(TokenTypes.IDENT);
+            }
+            if (name != null) {
+                packageName.read(name);
+                compiledRules.enterPackage(packageName.segments(), packageName.length());
+            }
+        } else {
+            DetailAST name = ast.findFirstToken(TokenTypes.DOT);
+            if (name != null) {
+                importedName.read(name);
+                // Static imports name a member of a type in addition to the type itself
+                int typeSegments = ast.getType() == TokenTypes.STATIC_IMPORT ? 2 : 1;
+                int importedPackageLength = Math.max(0, importedName.length() - typeSegments);
+                LayeringRules.Rule rule = compiledRules.findViolatedRule(
+                        importedName.segments(),
+                        importedPackageLength
+                );
+                if (rule != null) {
+                    log(
+                            ast,
+                            "import.violates.layering.rule",
+                            importedName.toString(),
+                            packageName.toString(),
+                            rule.toString()
+                    );
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void finishLocalSetup() throws CheckstyleException {
+        if (file != null) {
+            try {
+                String text = Files.readString(Path.of(file), StandardCharsets.UTF_8);
+                rules.addAll(LayeringRules.parse(text));
+            } catch (IOException | IllegalArgumentException ex) {
+                throw new CheckstyleException(file + ": unable to read layering rules", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trie of package name patterns.
+ * <p>
+ * Pattern is a sequence of dot-separated segments, where each segment is either
+ * an identifier, {@code *} that matches any single segment or
+ * {@code **} that matches any number of segments including none.
+ * Every pattern is added with an integer value and
+ * matching a name yields values of all the patterns that match the whole name.
+ * <p>
+ * Names are matched segment by segment by following trie edges,
+ * so the cost of matching depends on the length of the name
+ * and on the number of wildcards that apply to it, but not on the number of patterns.
+ * Instances keep reusable matching state and are not thread-safe.
+ */
+final class PackagePatternTrie {
+    private static final String ANY_SEGMENT = "*";
+    private static final String ANY_SEGMENTS = "**";
+
+    static boolean isValidPattern(String[] segments) {
+        for (String segment : segments) {
+            if (!segment.equals(ANY_SEGMENT)
+                    && !segment.equals(ANY_SEGMENTS)
+                    && !isIdentifier(segment)) {
+                return false;
+            }
+        }
+        return segments.length > 0;
+    }
+
+    private static boolean isIdentifier(String segment) {
+        if (segment.isEmpty() || !Character.isJavaIdentifierStart(segment.charAt(0)))
+            return false;
+        for (int i = 1; i < segment.length(); i++) {
+            if (!Character.isJavaIdentifierPart(segment.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private final Node root = new Node(false);
+    private int valueCount = 0;
+    private Node[] states = new Node[8];
+    private Node[] nextStates = new Node[8];
+    private int stateCount = 0;
+    private int nextStateCount = 0;
+    private int step = 0;
+    private int[] valueSteps = new int[0];
+    private int[] values = new int[8];
+    private int matchedCount = 0;
+
+    /**
+     * Adds pattern with the given non-negative value.
+     *
+     * @throws IllegalArgumentException if pattern is not valid
+     */
+    void add(String[] pattern, int value) {
+        if (!isValidPattern(pattern) || value < 0) {
+            throw new IllegalArgumentException(String.join(".", pattern) + ": invalid pattern");
+        }
+        Node node = root;
+        for (String segment : pattern) {
+            node = node.child(segment);
+        }
+        node.values = Arrays.copyOf(node.values, node.values.length + 1);
+        node.values[node.values.length - 1] = value;
+        if (value >= valueCount) {
+            valueCount = value + 1;
+            valueSteps = new int[valueCount];
+        }
+    }
+
+    /**
+     * Matches the first {@code length} segments of the given name.
+     *
+     * @return the number of distinct values of matching patterns,
+     *     that are available with {@link #matchedValue(int)} until the next call
+     */
+    int match(String[] name, int length) {
+        stateCount = 0;
+        nextStateCount = 0;
+        nextStep();
+        addNextState(root);
+        for (int i = 0; i < length && nextStateCount > 0; i++) {
+            swapStates();
+            nextStep();
+            String segment = name[i];
+            for (int j = 0; j < stateCount; j++) {
+                Node state = states[j];
+                if (state.isAnySegments) {
+                    addNextState(state);
+                }
+                if (state.anySegment != null) {
+                    addNextState(state.anySegment);
+                }
+                Node child = state.children.get(segment);
+                if (child != null) {
+                    addNextState(child);
+                }
+            }
+        }
+        matchedCount = 0;
+        for (int j = 0; j < nextStateCount; j++) {
+            for (int value : nextStates[j].values) {
+                if (valueSteps[value] != step) {
+                    valueSteps[value] = step;
+                    if (matchedCount == values.length) {
+                        values = Arrays.copyOf(values, matchedCount * 2);
+                    }
+                    values[matchedCount++] = value;
+                }
+            }
+        }
+        return matchedCount;
+    }
+
+    int matchedValue(int index) {
+        return values[index];
+    }
+
+    private void nextStep() {
+        step++;
+        if (step == Integer.MAX_VALUE) {
+            step = 1;
+            clearSteps(root);
+            Arrays.fill(valueSteps, 0);
+        }
+    }
+
+    private void swapStates() {
+        Node[] swap = states;
+        states = nextStates;
+        nextStates = swap;
+        stateCount = nextStateCount;
+        nextStateCount = 0;
+    }
+
+    private void addNextState(Node state) {
+        if (state.step != step) {
+            state.step = step;
+            if (nextStateCount == nextStates.length) {
+                nextStates = Arrays.copyOf(nextStates, nextStateCount * 2);
+            }
+            nextStates[nextStateCount++] = state;
+            if (state.anySegments != null) {
+                addNextState(state.anySegments);
+            }
+        }
+    }
+
+    private void clearSteps(Node node) {
+        node.step = 0;
+        for (Node child : node.children.values()) {
+            clearSteps(child);
+        }
+        if (node.anySegment != null) {
+            clearSteps(node.anySegment);
+        }
+        if (node.anySegments != null) {
+            clearSteps(node.anySegments);
+        }
+    }
+
+    private static class Node {
+        private final boolean isAnySegments;
+        private final Map<String, Node> children = new HashMap<>();
+        private Node anySegment = null;
+        private Node anySegments = null;
+        private int[] values = new int[0];
+        private int step = 0;
+
+        Node(boolean isAnySegments) {
+            this.isAnySegments = isAnySegments;
+        }
+
+        Node child(String segment) {
+            if (segment.equals(ANY_SEGMENT)) {
+                if (anySegment == null) {
+                    anySegment = new Node(false);
+                }
+                return anySegment;
+            } else if (segment.equals(ANY_SEGMENTS)) {
+                if (anySegments == null) {
+                    anySegments = new Node(true);
+                }
+                return anySegments;
+            } else {
+                return children.computeIfAbsent(segment, key -> new Node(false));
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.puppycrawl.tools.checkstyle.DefaultContext;
+import com.puppycrawl.tools.checkstyle.TreeWalkerFilter;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TreeWalker that skips parsing of files that can't violate any of its checks.
+ * <p>
+ * Text of every file is scanned into {@link LexicalSummary} before parsing.
+ * When every check can tell from the summary that the file has no violations,
+ * syntax tree is neither built nor walked.
+ * Prefiltering is only possible when all checks are grumpinessy checks with
+ * {@link LexicalPrecondition}, any other check disables it and
+ * the module behaves exactly as a plain TreeWalker.
+ * Syntax errors of skipped files are not reported.
+ */
+public class PrefilteringTreeWalker extends AbstractTreeWalkerWrapper {
+    private final List<LexicalPrecondition> preconditions = new ArrayList<>();
+    private boolean isPrefiltered = true;
+
+    public PrefilteringTreeWalker() {
+        super(Set.of());
+    }
+
+    @Override
+    protected Configuration prepareChild(
+            Configuration childConfiguration
+    ) throws CheckstyleException {
+        Object module = createModule(childConfiguration.getName());
+        if (module instanceof TreeWalkerFilter)
+            return childConfiguration;
+        if (!(module instanceof AbstractCheck check)
+                || !(module instanceof LexicalPrecondition precondition)) {
+            isPrefiltered = false;
+            return childConfiguration;
+        }
+        DefaultContext context = new DefaultContext();
+        context.add("severity", getSeverity());
+        context.add("tabWidth", String.valueOf(getTabWidth()));
+        check.contextualize(context);
+        check.configure(childConfiguration);
+        preconditions.add(precondition);
+        return registerPreparedModule(new ConfiguredCheck(check));
+    }
+
+    @Override
+    protected void processFiltered(File file, FileText fileText) throws CheckstyleException {
+        if (!isPrefiltered || mayViolate(LexicalSummary.scan(fileText.getFullText()))) {
+            addViolations(processWithTreeWalker(file, fileText));
+        }
+    }
+
+    private boolean mayViolate(LexicalSummary summary) {
+        for (LexicalPrecondition precondition : preconditions) {
+            if (precondition.mayViolate(summary))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.io.AtomicFiles;
+import com.github.sviperll.grumpinessy.io.ViolationCodec;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Violations of previously checked files stored in a memory-mapped file.
+ * <p>
+ * File consists of a header and of a sequence of entries.
+ * Each entry holds a 128-bit key, the generation, when the entry was last used, and
+ * serialized violations.
+ * Only keys are read when the file is opened, violations are decoded when they are requested.
+ * Generation of used entries is updated in place and new entries are appended to the file,
+ * entry count in the header is updated only after new entries are written.
+ * When the file would grow larger than the size limit, it is rewritten with
+ * the most recently used entries, that fit into three quarters of the limit, so
+ * that following runs can append again.
+ * <p>
+ * Cache is a pure optimization: unreadable or corrupt file is treated as an empty cache and
+ * failure to write the file leaves results of the run uncached.
+ * <p>
+ * Modules that run in different threads for the same run share a single instance
+ * for the same file through {@link RunContext}, so that their entries are written together.
+ */
+final class ResultCache {
+    private static final int MAGIC = 0x47525543;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+    private static final int GENERATION_OFFSET = 8;
+    private static final int COUNT_OFFSET = GENERATION_OFFSET + 8;
+    private static final int ENTRY_HEADER_SIZE = 8 + 8 + 8 + 4;
+    private static final int ENTRY_GENERATION_OFFSET = 16;
+    private static final int ENTRY_LENGTH_OFFSET = ENTRY_GENERATION_OFFSET + 8;
+
+    /**
+     * Opens cache file, non-existent file is an empty cache.
+     * Every call should be paired with a call to {@link #close(long)}.
+     */
+    static ResultCache open(RunContext runContext, Path path) {
+        Path absolutePath = path.toAbsolutePath().normalize();
+        List<Object> key = List.of(ResultCache.class, absolutePath);
+        return runContext.acquire(key, () -> create(runContext, key, absolutePath));
+    }
+
+    private static ResultCache create(RunContext runContext, Object key, Path path) {
+        ResultCache cache = new ResultCache(runContext, key, path);
+        if (Files.isRegularFile(path)) {
+            cache.load();
+        }
+        return cache;
+    }
+
+    private static byte[] encode(SortedSet<Violation> violations) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(violations.size());
+            for (Violation violation : violations) {
+                ViolationCodec.writeViolation(output, violation);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static SortedSet<Violation> decode(byte[] bytes) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        SortedSet<Violation> violations = new TreeSet<>();
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            violations.add(ViolationCodec.readViolation(input, ResultCache.class.getClassLoader()));
+        }
+        return violations;
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                // Nothing can be done and cache is optional anyway
+            }
+        }
+    }
+
+    private final RunContext runContext;
+    private final Object key;
+    private final Path path;
+    private final Map<Key, Integer> offsets = new HashMap<>();
+    private final Map<Key, byte[]> added = new HashMap<>();
+    private long generation = 1;
+    private int count = 0;
+    private int end = HEADER_SIZE;
+    private FileChannel channel = null;
+    private MappedByteBuffer buffer = null;
+
+    private ResultCache(RunContext runContext, Object key, Path path) {
+        this.runContext = runContext;
+        this.key = key;
+        this.path = path;
+    }
+
+    /**
+     * Returns cached violations or null when there are none.
+     */
+    synchronized SortedSet<Violation> get(Key key) {
+        Integer offset = offsets.get(key);
+        if (offset == null)
+            return null;
+        byte[] entry = new byte[buffer.getInt(offset + ENTRY_LENGTH_OFFSET)];
+        buffer.get(offset + ENTRY_HEADER_SIZE, entry);
+        SortedSet<Violation> violations;
+        try {
+            violations = decode(entry);
+        } catch (IOException | RuntimeException ex) {
+            // Corrupt entry is treated as a missing one
+            offsets.remove(key);
+            return null;
+        }
+        buffer.putLong(offset + ENTRY_GENERATION_OFFSET, generation);
+        return violations;
+    }
+
+    synchronized void put(Key key, SortedSet<Violation> violations) {
+        added.put(key, encode(violations));
+    }
+
+    /**
+     * Writes new entries, if any, and closes the file, when the last user closes the cache.
+     * Least recently used entries are evicted to keep the file under the given size.
+     */
+    void close(long maxSize) {
+        if (runContext.release(key)) {
+            closeFile(maxSize);
+        }
+    }
+
+    private synchronized void closeFile(long maxSize) {
+        try {
+            long addedSize = 0;
+            for (byte[] value : added.values()) {
+                addedSize += ENTRY_HEADER_SIZE + value.length;
+            }
+            if (buffer != null && !added.isEmpty() && end + addedSize <= maxSize) {
+                append(addedSize);
+            } else if (!added.isEmpty() || buffer != null && buffer.capacity() > maxSize) {
+                write(maxSize - maxSize / 4);
+            }
+        } catch (IOException ex) {
+            // Cache is optional, results of this run are just not cached
+        } finally {
+            closeQuietly(channel);
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    /**
+     * Writes new entries after the last entry of the file, and then updates entry count,
+     * so that the file is never seen with a partially written entry.
+     */
+    private void append(long addedSize) throws IOException {
+        ByteBuffer entries = ByteBuffer.allocate(Math.toIntExact(addedSize));
+        for (Map.Entry<Key, byte[]> entry : added.entrySet()) {
+            entries.putLong(entry.getKey().high());
+            entries.putLong(entry.getKey().low());
+            entries.putLong(generation);
+            entries.putInt(entry.getValue().length);
+            entries.put(entry.getValue());
+        }
+        entries.flip();
+        long position = end;
+        while (entries.hasRemaining()) {
+            position += channel.write(entries, position);
+        }
+        channel.force(false);
+        buffer.putInt(COUNT_OFFSET, count + added.size());
+        buffer.force();
+    }
+
+    /**
+     * Rewrites the file with the most recently used entries, that fit into the given size.
+     */
+    private void write(long size) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<Key, byte[]> entry : added.entrySet()) {
+            entries.add(new Entry(entry.getKey(), generation, -1, entry.getValue()));
+        }
+        for (Map.Entry<Key, Integer> entry : offsets.entrySet()) {
+            if (!added.containsKey(entry.getKey())) {
+                int offset = entry.getValue();
+                long used = buffer.getLong(offset + ENTRY_GENERATION_OFFSET);
+                entries.add(new Entry(entry.getKey(), used, offset, null));
+            }
+        }
+        entries.sort(Comparator.comparingLong(Entry::generation).reversed());
+        long writtenSize = HEADER_SIZE;
+        int writtenCount = 0;
+        while (writtenCount < entries.size()) {
+            long entrySize = ENTRY_HEADER_SIZE + entryLength(entries.get(writtenCount));
+            if (writtenSize + entrySize > size)
+                break;
+            writtenSize += entrySize;
+            writtenCount++;
+        }
+        List<Entry> written = entries.subList(0, writtenCount);
+        Files.createDirectories(path.getParent());
+        AtomicFiles.write(path, output -> writeEntries(output, written));
+    }
+
+    private void writeEntries(OutputStream stream, List<Entry> entries) throws IOException {
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeLong(generation);
+        output.writeInt(entries.size());
+        for (Entry entry : entries) {
+            output.writeLong(entry.key().high());
+            output.writeLong(entry.key().low());
+            output.writeLong(entry.generation());
+            output.writeInt(entryLength(entry));
+            if (entry.value() != null) {
+                output.write(entry.value());
+            } else {
+                byte[] value = new byte[entryLength(entry)];
+                buffer.get(entry.offset() + ENTRY_HEADER_SIZE, value);
+                output.write(value);
+            }
+        }
+        output.flush();
+    }
+
+    private void load() {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            readIndex();
+            generation++;
+            buffer.putLong(GENERATION_OFFSET, generation);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException
+                 | IndexOutOfBoundsException ex) {
+            closeQuietly(channel);
+            channel = null;
+            buffer = null;
+            offsets.clear();
+            generation = 1;
+            count = 0;
+            end = HEADER_SIZE;
+        }
+    }
+
+    /**
+     * Reads offsets of all entries, the generation of the last run that used this file,
+     * entry count and the end of the last entry.
+     */
+    private void readIndex() {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION)
+            throw new IllegalArgumentException("Not a cache file");
+        generation = buffer.getLong(GENERATION_OFFSET);
+        count = buffer.getInt(COUNT_OFFSET);
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            Key key = new Key(buffer.getLong(offset), buffer.getLong(offset + 8));
+            int length = buffer.getInt(offset + ENTRY_LENGTH_OFFSET);
+            if (length < 0 || offset + ENTRY_HEADER_SIZE + length > buffer.limit())
+                throw new IllegalArgumentException("Truncated cache file");
+            offsets.put(key, offset);
+            offset += ENTRY_HEADER_SIZE + length;
+        }
+        end = offset;
+    }
+
+    private int entryLength(Entry entry) {
+        if (entry.value() != null)
+            return entry.value().length;
+        return buffer.getInt(entry.offset() + ENTRY_LENGTH_OFFSET);
+    }
+
+    record Key(long high, long low) {
+    }
+
+    private record Entry(Key key, long generation, int offset, byte[] value) {
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.fix.Fix;
+import com.github.sviperll.grumpinessy.fix.TextEdit;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds edits, that fix violations of grumpinessy checks.
+ * <p>
+ * Layout of inserted code follows the style of grumpinessy checkstyle configuration:
+ * blocks are indented by four spaces and continuation lines by eight spaces.
+ */
+final class SourceEdits {
+    static final String BLOCK_INDENTATION = "    ";
+    static final String CONTINUATION_INDENTATION = "        ";
+
+    /**
+     * Returns fix of a violation reported by the given check on the given line.
+     */
+    static Fix fix(AbstractCheck check, int line, String key, List<TextEdit> edits) {
+        return new Fix(check.getFilePath(), line, check.getClass().getName(), key, edits);
+    }
+
+    /**
+     * Returns leading whitespace of the given line.
+     */
+    static String indentationOf(AbstractCheck check, int lineNo) {
+        String line = check.getLine(lineNo - 1);
+        int end = 0;
+        while (end < line.length() && Character.isWhitespace(line.charAt(end))) {
+            end++;
+        }
+        return line.substring(0, end);
+    }
+
+    /**
+     * Moves text that starts at the given position to a new line with the given indentation.
+     * <p>
+     * Whitespace before the position is removed.
+     *
+     * @return edit or null, when the position is already the first non-whitespace position
+     */
+    static TextEdit lineBreakBefore(
+            AbstractCheck check,
+            int lineNo,
+            int column,
+            String indentation
+    ) {
+        String line = check.getLine(lineNo - 1);
+        int start = column;
+        while (start > 0 && Character.isWhitespace(line.charAt(start - 1))) {
+            start--;
+        }
+        if (start == 0)
+            return null;
+        return new TextEdit(lineNo, start, lineNo, column, "\n" + indentation);
+    }
+
+    /**
+     * Encloses the body of the given statement in braces.
+     *
+     * @param statement {@code if}, {@code for} or {@code while} statement or {@code else} clause
+     * @param body body statement of the given statement
+     */
+    static List<TextEdit> wrapInBraces(
+            AbstractCheck check,
+            CompactTree tree,
+            int statement,
+            int body
+    ) {
+        int opening = tree.type(statement) == TokenTypes.LITERAL_ELSE
+                ? statement
+                : tree.firstChild(statement, TokenTypes.RPAREN);
+        int openingLine = tree.line(opening);
+        int openingEnd = tree.column(opening) + tree.node(opening).getText().length();
+        String indentation = indentationOf(check, tree.line(statement));
+        List<TextEdit> edits = new ArrayList<>();
+        if (tree.startLine(body) == openingLine) {
+            edits.add(
+                    new TextEdit(
+                            openingLine,
+                            openingEnd,
+                            openingLine,
+                            tree.startColumn(body),
+                            " {\n" + indentation + BLOCK_INDENTATION
+                    )
+            );
+        } else {
+            edits.add(TextEdit.insert(openingLine, openingEnd, " {"));
+        }
+        int last = body;
+        int next = tree.nextSibling(body);
+        if (next != CompactTree.NONE && tree.type(next) == TokenTypes.SEMI) {
+            last = next;
+        }
+        int lastToken = lastToken(tree, last);
+        int lastTokenEnd = endColumn(tree, lastToken);
+        int alternative = tree.type(statement) == TokenTypes.LITERAL_IF
+                ? tree.firstChild(statement, TokenTypes.LITERAL_ELSE)
+                : CompactTree.NONE;
+        if (alternative != CompactTree.NONE
+                && isBlankBetween(check, tree, lastToken, alternative)) {
+            // Else follows the closing brace on the same line, as RightCurly check requires
+            edits.add(
+                    new TextEdit(
+                            tree.line(lastToken),
+                            lastTokenEnd,
+                            tree.line(alternative),
+                            tree.column(alternative),
+                            "\n" + indentation + "} "
+                    )
+            );
+        } else {
+            edits.add(
+                    TextEdit.insert(tree.line(lastToken), lastTokenEnd, "\n" + indentation + "}")
+            );
+        }
+        return edits;
+    }
+
+    private static int endColumn(CompactTree tree, int token) {
+        return tree.column(token) + tree.node(token).getText().length();
+    }
+
+    /**
+     * Tells whether there is nothing but whitespace between the given tokens,
+     * that are on the same or on adjacent lines.
+     */
+    private static boolean isBlankBetween(AbstractCheck check, CompactTree tree, int from, int to) {
+        String fromLine = check.getLine(tree.line(from) - 1);
+        int fromEnd = endColumn(tree, from);
+        if (tree.line(to) == tree.line(from))
+            return fromLine.substring(fromEnd, tree.column(to)).isBlank();
+        return tree.line(to) == tree.line(from) + 1
+                && fromLine.substring(fromEnd).isBlank()
+                && check.getLine(tree.line(to) - 1).substring(0, tree.column(to)).isBlank();
+    }
+
+    /**
+     * Returns the node of the given subtree, that comes last in source code.
+     * <p>
+     * Descendants are preferred, since imaginary nodes share location with their descendants.
+     */
+    private static int lastToken(CompactTree tree, int root) {
+        int endLine = tree.endLine(root);
+        int endColumn = tree.endColumn(root);
+        int node = root;
+        int child = tree.firstChild(node);
+        while (child != CompactTree.NONE) {
+            if (tree.endLine(child) == endLine && tree.endColumn(child) == endColumn) {
+                node = child;
+                child = tree.firstChild(node);
+            } else {
+                child = tree.nextSibling(child);
+            }
+        }
+        return node;
+    }
+
+    private SourceEdits() {
+    }
+}
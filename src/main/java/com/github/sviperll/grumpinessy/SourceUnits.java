@@ -0,0 +1,278 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Declarations of a source file, that can be parsed and checked without the rest of the file.
+ * <p>
+ * Unit is a type declaration or a method, constructor or initializer with a body.
+ * Local and anonymous classes are not units, they are part of the enclosing unit.
+ * Unit starts right after the preceding declaration or brace, so
+ * that it includes its Javadoc and other comments before the declaration.
+ * Every unit keeps the package declaration and the headers of enclosing types as a prefix,
+ * so that unit parsed after this prefix has the same nesting, modifiers, annotations and
+ * indentation, as in the whole file.
+ * <p>
+ * Positions are lines and columns, encoded with {@link #position(int, int)},
+ * columns count characters, like columns of syntax nodes.
+ */
+final class SourceUnits {
+    /**
+     * Encodes line and column as a single value.
+     * <p>
+     * Encoded values compare in the same order as (line, column) pairs.
+     */
+    static long position(int line, int column) {
+        return ((long) line << 32) | column;
+    }
+
+    static int line(long position) {
+        return (int) (position >> 32);
+    }
+
+    static int column(long position) {
+        return (int) position;
+    }
+
+    private static boolean isType(DetailAST node) {
+        return node.getType() == TokenTypes.CLASS_DEF
+                || node.getType() == TokenTypes.INTERFACE_DEF
+                || node.getType() == TokenTypes.ENUM_DEF
+                || node.getType() == TokenTypes.RECORD_DEF
+                || node.getType() == TokenTypes.ANNOTATION_DEF;
+    }
+
+    /**
+     * Returns body of a method, constructor or initializer or null when there is no body.
+     */
+    private static DetailAST blockOf(DetailAST node) {
+        boolean hasBlock = node.getType() == TokenTypes.METHOD_DEF
+                || node.getType() == TokenTypes.CTOR_DEF
+                || node.getType() == TokenTypes.COMPACT_CTOR_DEF
+                || node.getType() == TokenTypes.STATIC_INIT
+                || node.getType() == TokenTypes.INSTANCE_INIT;
+        return hasBlock ? node.findFirstToken(TokenTypes.SLIST) : null;
+    }
+
+    private static long positionOf(DetailAST node) {
+        return position(node.getLineNo(), node.getColumnNo());
+    }
+
+    private final List<Unit> units;
+
+    /**
+     * Creates units from the given list, that should be sorted by start position.
+     */
+    SourceUnits(List<Unit> units) {
+        this.units = units;
+    }
+
+    List<Unit> units() {
+        return units;
+    }
+
+    /**
+     * Returns the innermost unit, whose body contains the given span, or null when there is none.
+     */
+    Unit innermostContaining(long start, long end) {
+        Unit result = null;
+        for (Unit unit : units) {
+            if (unit.start() > start)
+                break;
+            if (unit.bodyStart() <= start && end <= unit.bodyEnd()) {
+                result = unit;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Unit of a source file.
+     *
+     * @param type token type of the declaration
+     * @param start start of the line after the preceding declaration or brace,
+     *              or position right after it when the declaration starts on the same line
+     * @param declarationStart position of the first token of the declaration
+     * @param bodyStart position after the opening brace of the body
+     * @param bodyEnd position of the closing brace of the body
+     * @param prefix package declaration and headers of enclosing types, one per line
+     * @param depth number of enclosing types
+     */
+    record Unit(
+            int type,
+            long start,
+            long declarationStart,
+            long bodyStart,
+            long bodyEnd,
+            String prefix,
+            int depth
+    ) {
+        static final Comparator<Unit> ORDER = Comparator.comparingLong(Unit::start)
+                .thenComparingInt(Unit::depth);
+
+        /**
+         * Position after the closing brace of the body.
+         */
+        long end() {
+            return bodyEnd + 1;
+        }
+    }
+
+    /**
+     * Check that collects units of every checked file instead of reporting violations.
+     */
+    static class Collector extends AbstractCheck {
+        private final List<Unit> units = new ArrayList<>();
+        private CompactTree tree = null;
+
+        @Override
+        public int[] getDefaultTokens() {
+            return new int[0];
+        }
+
+        @Override
+        public int[] getAcceptableTokens() {
+            return new int[0];
+        }
+
+        @Override
+        public int[] getRequiredTokens() {
+            return new int[0];
+        }
+
+        @Override
+        public void beginTree(DetailAST rootAST) {
+            units.clear();
+            tree = CompactTree.of(rootAST);
+            DetailAST node = rootAST.getType() == TokenTypes.COMPILATION_UNIT
+                    ? rootAST.getFirstChild()
+                    : rootAST;
+            String prefix = "";
+            long previousEnd = position(1, 0);
+            for (; node != null; node = node.getNextSibling()) {
+                if (node.getType() == TokenTypes.PACKAGE_DEF) {
+                    prefix = text(start(node), end(node)) + "\n";
+                } else if (isType(node)) {
+                    collect(node, unitStart(previousEnd, node), prefix, 0);
+                }
+                previousEnd = end(node);
+            }
+            units.sort(Unit.ORDER);
+            tree = null;
+        }
+
+        /**
+         * Returns units of the most recently checked file.
+         */
+        SourceUnits result() {
+            return new SourceUnits(List.copyOf(units));
+        }
+
+        private void collect(DetailAST type, long start, String prefix, int depth) {
+            DetailAST body = type.findFirstToken(TokenTypes.OBJBLOCK);
+            long bodyStart = positionOf(body.getFirstChild()) + 1;
+            units.add(
+                    new Unit(
+                            type.getType(),
+                            start,
+                            start(type),
+                            bodyStart,
+                            positionOf(body.getLastChild()),
+                            prefix,
+                            depth
+                    )
+            );
+            String indentation = getLine(line(start(type)) - 1)
+                    .substring(0, column(start(type)))
+                    .replaceAll("[^\\t]", " ");
+            String header = indentation
+                    + text(start(type), bodyStart)
+                    + (type.getType() == TokenTypes.ENUM_DEF ? ";" : "");
+            String memberPrefix = prefix + header + "\n";
+            long previousEnd = bodyStart;
+            for (DetailAST member = body.getFirstChild().getNextSibling();
+                    member != null;
+                    member = member.getNextSibling()) {
+                DetailAST block = blockOf(member);
+                if (isType(member)) {
+                    collect(member, unitStart(previousEnd, member), memberPrefix, depth + 1);
+                } else if (block != null) {
+                    units.add(
+                            new Unit(
+                                    member.getType(),
+                                    unitStart(previousEnd, member),
+                                    start(member),
+                                    positionOf(block) + 1,
+                                    positionOf(block.getLastChild()),
+                                    memberPrefix,
+                                    depth + 1
+                            )
+                    );
+                }
+                previousEnd = end(member);
+            }
+        }
+
+        /**
+         * Returns start of a unit, that includes leading comments and javadoc of the declaration,
+         * but not trailing comments of the preceding declaration.
+         */
+        private long unitStart(long previousEnd, DetailAST declaration) {
+            return line(start(declaration)) > line(previousEnd)
+                    ? position(line(previousEnd) + 1, 0)
+                    : previousEnd;
+        }
+
+        private long start(DetailAST node) {
+            return position(tree.startLine(node), tree.startColumn(node));
+        }
+
+        /**
+         * Returns position after a node, that ends with a semicolon, a comma or a brace.
+         */
+        private long end(DetailAST node) {
+            return position(tree.endLine(node), tree.endColumn(node) + 1);
+        }
+
+        /**
+         * Returns text between the given positions, lines are separated with {@code \n}.
+         */
+        private String text(long start, long end) {
+            StringBuilder text = new StringBuilder();
+            for (int line = line(start); line <= line(end); line++) {
+                String lineText = getLine(line - 1);
+                int from = line == line(start) ? column(start) : 0;
+                int to = line == line(end) ? column(end) : lineText.length();
+                if (line > line(start)) {
+                    text.append('\n');
+                }
+                text.append(lineText, from, to);
+            }
+            return text.toString();
+        }
+    }
+}
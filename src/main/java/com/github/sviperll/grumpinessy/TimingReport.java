@@ -0,0 +1,261 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.io.Json;
+import com.puppycrawl.tools.checkstyle.utils.TokenUtil;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Timings of checks and of files collected during a single run and written into a report file.
+ * <p>
+ * Modules that run in different threads for the same run share a single instance
+ * for the same report file through {@link RunContext}, so that the report covers all threads.
+ */
+final class TimingReport {
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final Comparator<FileTiming> SLOWEST_FIRST =
+            Comparator.comparingLong(FileTiming::nanos).reversed().thenComparing(FileTiming::file);
+
+    /**
+     * Opens report, every call should be paired with a call to {@link #close(Map)}.
+     */
+    static TimingReport open(
+            RunContext runContext,
+            Path path,
+            Format format,
+            int slowestFileCount
+    ) {
+        Path absolutePath = path.toAbsolutePath().normalize();
+        return runContext.acquire(
+                List.of(TimingReport.class, absolutePath),
+                () -> new TimingReport(runContext, absolutePath, format, slowestFileCount)
+        );
+    }
+
+    private static String formatSeconds(long nanos) {
+        return String.format(Locale.ROOT, "%.6f", nanos / NANOS_PER_SECOND);
+    }
+
+    private static String quoteLabel(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    private static void writeMetric(
+            Writer writer,
+            String name,
+            String type,
+            String help
+    ) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private final RunContext runContext;
+    private final Path path;
+    private final Format format;
+    private final int slowestFileCount;
+    private final Map<String, CheckTimings> checks = new LinkedHashMap<>();
+    private final PriorityQueue<FileTiming> slowestFiles =
+            new PriorityQueue<>(SLOWEST_FIRST.reversed());
+    private long fileCount = 0;
+    private long fileNanos = 0;
+
+    private TimingReport(RunContext runContext, Path path, Format format, int slowestFileCount) {
+        this.runContext = runContext;
+        this.path = path;
+        this.format = format;
+        this.slowestFileCount = slowestFileCount;
+    }
+
+    synchronized void addFile(String file, long nanos, int violationCount) {
+        fileCount++;
+        fileNanos += nanos;
+        slowestFiles.add(new FileTiming(file, nanos, violationCount));
+        if (slowestFiles.size() > slowestFileCount) {
+            slowestFiles.remove();
+        }
+    }
+
+    /**
+     * Adds timings of checks of a single user and writes the report, when the last user closes it.
+     */
+    void close(Map<String, CheckTimings> userChecks) {
+        synchronized (this) {
+            for (CheckTimings timings : userChecks.values()) {
+                CheckTimings merged = checks.computeIfAbsent(
+                        timings.name(),
+                        name -> new CheckTimings(name, timings.className())
+                );
+                merged.addAll(timings);
+            }
+        }
+        if (runContext.release(List.of(TimingReport.class, path))) {
+            write();
+        }
+    }
+
+    private synchronized void write() {
+        List<CheckTimings> sortedChecks = new ArrayList<>(checks.values());
+        sortedChecks.sort(Comparator.comparingLong(CheckTimings::nanos).reversed());
+        List<FileTiming> sortedFiles = new ArrayList<>(slowestFiles);
+        sortedFiles.sort(SLOWEST_FIRST);
+        try {
+            Path directory = path.getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                if (format == Format.PROMETHEUS) {
+                    writePrometheus(writer, sortedChecks, sortedFiles);
+                } else {
+                    writeJson(writer, sortedChecks, sortedFiles);
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(path + ": unable to write timing report", ex);
+        }
+    }
+
+    private void writeJson(
+            Writer writer,
+            List<CheckTimings> sortedChecks,
+            List<FileTiming> sortedFiles
+    ) throws IOException {
+        writer.write("{\n");
+        writer.write("  \"fileCount\": " + fileCount + ",\n");
+        writer.write("  \"fileSeconds\": " + formatSeconds(fileNanos) + ",\n");
+        writer.write("  \"checks\": [");
+        for (int i = 0; i < sortedChecks.size(); i++) {
+            CheckTimings timings = sortedChecks.get(i);
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("    {\"name\": " + Json.quote(timings.name()));
+            writer.write(", \"class\": " + Json.quote(timings.className()));
+            writer.write(", \"files\": " + timings.fileCount());
+            writer.write(", \"seconds\": " + formatSeconds(timings.nanos()));
+            writer.write(", \"allocatedBytes\": " + timings.allocatedBytes());
+            writer.write(", \"violations\": " + timings.violationCount());
+            writer.write(", \"visits\": {");
+            long[] visits = timings.visitCounts();
+            String separator = "";
+            for (int token = 0; token < visits.length; token++) {
+                if (visits[token] > 0) {
+                    writer.write(separator + Json.quote(TokenUtil.getTokenName(token)));
+                    writer.write(": " + visits[token]);
+                    separator = ", ";
+                }
+            }
+            writer.write("}}");
+        }
+        writer.write("\n  ],\n");
+        writer.write("  \"slowestFiles\": [");
+        for (int i = 0; i < sortedFiles.size(); i++) {
+            FileTiming file = sortedFiles.get(i);
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("    {\"file\": " + Json.quote(file.file()));
+            writer.write(", \"seconds\": " + formatSeconds(file.nanos()));
+            writer.write(", \"violations\": " + file.violationCount() + "}");
+        }
+        writer.write("\n  ]\n");
+        writer.write("}\n");
+    }
+
+    private void writePrometheus(
+            Writer writer,
+            List<CheckTimings> sortedChecks,
+            List<FileTiming> sortedFiles
+    ) throws IOException {
+        writeMetric(writer, "grumpinessy_files_total", "counter", "Number of checked files.");
+        writer.write("grumpinessy_files_total " + fileCount + "\n");
+        writeMetric(writer, "grumpinessy_files_seconds_total", "counter", "Time spent on files.");
+        writer.write("grumpinessy_files_seconds_total " + formatSeconds(fileNanos) + "\n");
+        writeMetric(writer, "grumpinessy_check_seconds_total", "counter", "Time spent in check.");
+        for (CheckTimings timings : sortedChecks) {
+            writer.write("grumpinessy_check_seconds_total{check=" + quoteLabel(timings.name()));
+            writer.write("} " + formatSeconds(timings.nanos()) + "\n");
+        }
+        writeMetric(
+                writer,
+                "grumpinessy_check_allocated_bytes_total",
+                "counter",
+                "Memory allocated by check."
+        );
+        for (CheckTimings timings : sortedChecks) {
+            writer.write("grumpinessy_check_allocated_bytes_total{check=");
+            writer.write(quoteLabel(timings.name()) + "} " + timings.allocatedBytes() + "\n");
+        }
+        writeMetric(
+                writer,
+                "grumpinessy_check_violations_total",
+                "counter",
+                "Violations reported by check."
+        );
+        for (CheckTimings timings : sortedChecks) {
+            writer.write("grumpinessy_check_violations_total{check=");
+            writer.write(quoteLabel(timings.name()) + "} " + timings.violationCount() + "\n");
+        }
+        writeMetric(
+                writer,
+                "grumpinessy_check_visits_total",
+                "counter",
+                "Syntax nodes visited by check."
+        );
+        for (CheckTimings timings : sortedChecks) {
+            long[] visits = timings.visitCounts();
+            for (int token = 0; token < visits.length; token++) {
+                if (visits[token] > 0) {
+                    writer.write("grumpinessy_check_visits_total{check=");
+                    writer.write(quoteLabel(timings.name()));
+                    writer.write(",token=" + quoteLabel(TokenUtil.getTokenName(token)) + "} ");
+                    writer.write(visits[token] + "\n");
+                }
+            }
+        }
+        writeMetric(writer, "grumpinessy_file_seconds", "gauge", "Time spent on slow file.");
+        for (FileTiming file : sortedFiles) {
+            writer.write("grumpinessy_file_seconds{file=" + quoteLabel(file.file()) + "} ");
+            writer.write(formatSeconds(file.nanos()) + "\n");
+        }
+        writeMetric(writer, "grumpinessy_file_violations", "gauge", "Violations in slow file.");
+        for (FileTiming file : sortedFiles) {
+            writer.write("grumpinessy_file_violations{file=" + quoteLabel(file.file()) + "} ");
+            writer.write(file.violationCount() + "\n");
+        }
+    }
+
+    enum Format {
+        JSON, PROMETHEUS
+    }
+
+    private record FileTiming(String file, long nanos, int violationCount) {
+    }
+}
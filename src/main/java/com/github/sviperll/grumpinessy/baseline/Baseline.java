@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.baseline;
+
+import com.github.sviperll.grumpinessy.io.AtomicFiles;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fingerprints of tolerated violations, see {@link Fingerprinter}, each with
+ * the number of tolerated occurrences, since identical violations share the same fingerprint.
+ * <p>
+ * File consists of a header, of sorted 64-bit fingerprints and of 32-bit counts in the same order,
+ * so that it is read with a single bulk read and looked up with a binary search.
+ */
+public final class Baseline {
+    private static final int MAGIC = 0x4752424c;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 4;
+
+    /**
+     * Reads baseline file, non-existent file is an empty baseline.
+     */
+    public static Baseline read(Path path) throws IOException {
+        if (!Files.exists(path))
+            return new Baseline(new long[0], new int[0]);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC)
+            throw new IOException(path + ": not a baseline file");
+        if (buffer.getInt() != FORMAT_VERSION)
+            throw new IOException(path + ": unsupported baseline format, regenerate baseline");
+        int size = buffer.getInt();
+        if (size < 0 || buffer.remaining() != size * (8L + 4L))
+            throw new IOException(path + ": truncated baseline file");
+        long[] fingerprints = new long[size];
+        int[] counts = new int[size];
+        for (int i = 0; i < size; i++) {
+            fingerprints[i] = buffer.getLong();
+        }
+        for (int i = 0; i < size; i++) {
+            counts[i] = buffer.getInt();
+        }
+        for (int i = 1; i < size; i++) {
+            if (fingerprints[i - 1] >= fingerprints[i])
+                throw new IOException(path + ": baseline file is not sorted");
+        }
+        return new Baseline(fingerprints, counts);
+    }
+
+    /**
+     * Writes baseline file with the given number of tolerated occurrences of every fingerprint,
+     * the file is replaced atomically, when supported by file system.
+     */
+    public static void write(Path path, Map<Long, Integer> counts) throws IOException {
+        Map<Long, Integer> sorted = new TreeMap<>(counts);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + sorted.size() * (8 + 4));
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(sorted.size());
+        for (long fingerprint : sorted.keySet()) {
+            buffer.putLong(fingerprint);
+        }
+        for (int count : sorted.values()) {
+            buffer.putInt(count);
+        }
+        AtomicFiles.write(path, output -> output.write(buffer.array()));
+    }
+
+    private final long[] fingerprints;
+    private final int[] counts;
+
+    private Baseline(long[] fingerprints, int[] counts) {
+        this.fingerprints = fingerprints;
+        this.counts = counts;
+    }
+
+    /**
+     * Returns the number of tolerated occurrences of violations with the given fingerprint.
+     */
+    public int countOf(long fingerprint) {
+        int index = Arrays.binarySearch(fingerprints, fingerprint);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    /**
+     * Returns the number of distinct fingerprints.
+     */
+    public int size() {
+        return fingerprints.length;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.baseline;
+
+import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.ExternalResourceHolder;
+import com.puppycrawl.tools.checkstyle.api.Filter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Suppresses violations recorded in baseline file, see {@link Baseline}.
+ * <p>
+ * Violations with the same fingerprint are suppressed up to the number of recorded occurrences
+ * within a file, further occurrences are reported.
+ * Occurrences are counted in the order violations are reported.
+ */
+public class BaselineFilter extends AbstractAutomaticBean
+        implements Filter, ExternalResourceHolder {
+    private Path file = null;
+    private Path baseDirectory = Path.of("");
+    private Baseline baseline = null;
+    private Fingerprinter fingerprinter = null;
+    private String fileName = null;
+    private final Map<Long, Integer> occurrences = new HashMap<>();
+
+    public void setFile(String file) {
+        this.file = Path.of(file);
+    }
+
+    /**
+     * Sets directory that file paths of fingerprints are relative to, current directory by default.
+     */
+    public void setBaseDirectory(String baseDirectory) {
+        this.baseDirectory = Path.of(baseDirectory);
+    }
+
+    @Override
+    public Set<String> getExternalResourceLocations() {
+        return file == null ? Set.of() : Set.of(file.toString());
+    }
+
+    @Override
+    public boolean accept(AuditEvent event) {
+        if (!Objects.equals(fileName, event.getFileName())) {
+            // Violations are reported file by file and fingerprints differ between files
+            fileName = event.getFileName();
+            occurrences.clear();
+        }
+        long fingerprint = fingerprinter.fingerprintOf(event);
+        int tolerated = baseline.countOf(fingerprint);
+        if (tolerated == 0)
+            return true;
+        int occurrence = occurrences.merge(fingerprint, 1, Integer::sum);
+        return occurrence > tolerated;
+    }
+
+    @Override
+    protected void finishLocalSetup() throws CheckstyleException {
+        if (file == null)
+            throw new CheckstyleException("BaselineFilter: file property should be set");
+        try {
+            baseline = Baseline.read(file);
+        } catch (IOException ex) {
+            throw new CheckstyleException(file + ": unable to read baseline", ex);
+        }
+        fingerprinter = new Fingerprinter(baseDirectory);
+    }
+}
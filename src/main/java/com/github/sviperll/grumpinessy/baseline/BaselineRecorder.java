@@ -0,0 +1,73 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.baseline;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects fingerprints of all reported violations with the numbers of their occurrences
+ * to be written as a new {@link Baseline}.
+ */
+public class BaselineRecorder implements AuditListener {
+    private final Fingerprinter fingerprinter;
+    private final Map<Long, Integer> counts = new HashMap<>();
+
+    public BaselineRecorder(Fingerprinter fingerprinter) {
+        this.fingerprinter = fingerprinter;
+    }
+
+    /**
+     * Returns the number of occurrences of every fingerprint.
+     */
+    public Map<Long, Integer> counts() {
+        return counts;
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        if (event.getSeverityLevel() != SeverityLevel.IGNORE) {
+            counts.merge(fingerprinter.fingerprintOf(event), 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.baseline;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes line-shift tolerant fingerprints of violations.
+ * <p>
+ * Fingerprint is a hash of the source of violation, of the message key from
+ * {@code messages.properties}, of the file path relative to base directory and
+ * of the text of the violated line with all whitespace removed.
+ * Line numbers are not used, so violations survive edits above them, but
+ * identical violations on identical lines of the same file share the same fingerprint,
+ * so {@link Baseline} keeps the number of their occurrences.
+ * <p>
+ * Lines of the last file are kept, since violations are reported file by file.
+ * Files are read as ISO-8859-1, which maps every byte to a character,
+ * so that fingerprints do not depend on configured charset.
+ */
+public final class Fingerprinter {
+    private static String normalize(String line) {
+        StringBuilder builder = new StringBuilder(line.length());
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static List<String> readLines(Path path) {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.ISO_8859_1)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+            }
+        } catch (IOException ex) {
+            // Unreadable file is reported by Checker, violations are fingerprinted without lines
+            lines.clear();
+        }
+        return lines;
+    }
+
+    private final Path baseDirectory;
+    private final MessageDigest digest;
+    private String linesFileName = null;
+    private List<String> lines = List.of();
+
+    public Fingerprinter(Path baseDirectory) {
+        this.baseDirectory = baseDirectory.toAbsolutePath().normalize();
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 should always be available", ex);
+        }
+    }
+
+    public long fingerprintOf(AuditEvent event) {
+        String fileName = event.getFileName();
+        String relativePath = "";
+        String line = "";
+        if (fileName != null) {
+            Path path = Path.of(fileName).toAbsolutePath().normalize();
+            relativePath = path.startsWith(baseDirectory)
+                    ? baseDirectory.relativize(path).toString().replace('\\', '/')
+                    : path.toString().replace('\\', '/');
+            if (!fileName.equals(linesFileName)) {
+                lines = readLines(path);
+                linesFileName = fileName;
+            }
+            int lineNo = event.getLine();
+            if (lineNo > 0 && lineNo <= lines.size()) {
+                line = normalize(lines.get(lineNo - 1));
+            }
+        }
+        update(event.getSourceName());
+        update(event.getViolation().getKey());
+        update(relativePath);
+        update(line);
+        byte[] hash = digest.digest();
+        long fingerprint = 0;
+        for (int i = 0; i < 8; i++) {
+            fingerprint = (fingerprint << 8) | (hash[i] & 0xFF);
+        }
+        return fingerprint;
+    }
+
+    private void update(String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.context;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * State shared by modules of all Checkers, that check files of a single run.
+ * <p>
+ * Runner creates a context for every run and passes it to modules with
+ * {@link RunContextModuleFactory}, modules receive it through {@link RunContextAware}.
+ * Modules, that are created by Checkstyle itself, get no context from the runner and
+ * use a context of their own, so results never depend on other runs in the same JVM.
+ * <p>
+ * Context holds values given by the runner, like changed lines, keyed by their type, and
+ * resources, that modules of different Checkers share, like a package dependency graph.
+ */
+public final class RunContext {
+    private final Map<Class<?>, Object> values;
+    private final Map<Object, Resource> resources = new HashMap<>();
+
+    /**
+     * Creates context without any values.
+     */
+    public RunContext() {
+        this(Map.of());
+    }
+
+    private RunContext(Map<Class<?>, Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * Returns new context with the given value added, null value means no value.
+     */
+    public <T> RunContext with(Class<T> type, T value) {
+        Map<Class<?>, Object> result = new HashMap<>(values);
+        if (value == null) {
+            result.remove(type);
+        } else {
+            result.put(type, type.cast(value));
+        }
+        return new RunContext(Map.copyOf(result));
+    }
+
+    /**
+     * Returns value of the given type or null, when there is no such value.
+     */
+    public <T> T get(Class<T> type) {
+        return type.cast(values.get(type));
+    }
+
+    /**
+     * Returns resource shared by all modules with the given key, the resource is created
+     * by the given factory for the first module.
+     * Every call should be paired with a call to {@link #release(Object)}.
+     */
+    public synchronized <T> T acquire(Object key, Supplier<? extends T> factory) {
+        Resource resource = resources.get(key);
+        if (resource == null) {
+            resource = new Resource(factory.get());
+            resources.put(key, resource);
+        }
+        resource.userCount++;
+        @SuppressWarnings("unchecked")
+        T value = (T) resource.value;
+        return value;
+    }
+
+    /**
+     * Releases resource with the given key for a single module.
+     *
+     * @return true, when there are no more modules, that use the resource
+     */
+    public synchronized boolean release(Object key) {
+        Resource resource = resources.get(key);
+        if (resource == null)
+            throw new IllegalStateException("Resource is not acquired: " + key);
+        resource.userCount--;
+        if (resource.userCount > 0)
+            return false;
+        resources.remove(key);
+        return true;
+    }
+
+    private static class Resource {
+        private final Object value;
+        private int userCount = 0;
+
+        Resource(Object value) {
+            this.value = value;
+        }
+    }
+}
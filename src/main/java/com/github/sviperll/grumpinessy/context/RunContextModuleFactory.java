@@ -0,0 +1,64 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.context;
+
+import com.puppycrawl.tools.checkstyle.ModuleFactory;
+import com.puppycrawl.tools.checkstyle.PackageNamesLoader;
+import com.puppycrawl.tools.checkstyle.PackageObjectFactory;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+/**
+ * Module factory, that passes the given context to every created module.
+ * <p>
+ * Checker passes its module factory to TreeWalker, so
+ * checks get the context as well as modules of the Checker itself.
+ */
+public final class RunContextModuleFactory implements ModuleFactory {
+    /**
+     * Creates factory, that finds modules the same way as Checker does by default.
+     */
+    public static RunContextModuleFactory of(
+            ClassLoader classLoader,
+            RunContext runContext
+    ) throws CheckstyleException {
+        ModuleFactory factory = new PackageObjectFactory(
+                PackageNamesLoader.getPackageNames(classLoader),
+                classLoader
+        );
+        return new RunContextModuleFactory(factory, runContext);
+    }
+
+    private final ModuleFactory factory;
+    private final RunContext runContext;
+
+    public RunContextModuleFactory(ModuleFactory factory, RunContext runContext) {
+        this.factory = factory;
+        this.runContext = runContext;
+    }
+
+    @Override
+    public Object createModule(String name) throws CheckstyleException {
+        Object module = factory.createModule(name);
+        if (module instanceof RunContextAware aware) {
+            aware.setRunContext(runContext);
+        }
+        return module;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.crossfile;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * State of checks, that look at the whole project, like package dependency cycle check.
+ * <p>
+ * State is given to checks by the runner through {@code RunContext}.
+ * Process, that checks a single shard of the project, gives a collecting state:
+ * checks add contributions of the files of the shard to the state and
+ * don't report cross-file violations.
+ * Process, that merges shards, gives the state merged from all the shards:
+ * checks start with contributions of every shard and
+ * report cross-file violations once, just like a single process, that checks all files.
+ * Without any state, checks see only the files, that they check themselves.
+ * <p>
+ * Contributions are kept serialized by the checks themselves, so that the state is written to
+ * a partial report as is.
+ */
+public final class CrossFileState {
+    /**
+     * Returns an empty state, that collects contributions of a shard.
+     */
+    public static CrossFileState collecting() {
+        return new CrossFileState(true, new ArrayList<>());
+    }
+
+    /**
+     * Returns state with contributions of all the given shards, that checks start with.
+     */
+    public static CrossFileState merging(List<CrossFileState> shards) {
+        List<byte[]> packageGraphs = new ArrayList<>();
+        for (CrossFileState shard : shards) {
+            packageGraphs.addAll(shard.packageGraphs);
+        }
+        return new CrossFileState(false, packageGraphs);
+    }
+
+    /**
+     * Reads collected state written with {@link #write(DataOutputStream)}.
+     */
+    public static CrossFileState read(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        if (count < 0)
+            throw new IOException("Negative count of package graphs: " + count);
+        List<byte[]> packageGraphs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int length = input.readInt();
+            if (length < 0)
+                throw new IOException("Negative length of package graph: " + length);
+            byte[] bytes = new byte[length];
+            input.readFully(bytes);
+            packageGraphs.add(bytes);
+        }
+        return new CrossFileState(true, packageGraphs);
+    }
+
+    private final boolean isCollecting;
+
+    /**
+     * Serialized contributions of checked files to every package graph.
+     */
+    private final List<byte[]> packageGraphs;
+
+    private CrossFileState(boolean isCollecting, List<byte[]> packageGraphs) {
+        this.isCollecting = isCollecting;
+        this.packageGraphs = packageGraphs;
+    }
+
+    public synchronized void write(DataOutputStream output) throws IOException {
+        output.writeInt(packageGraphs.size());
+        for (byte[] bytes : packageGraphs) {
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Tells whether checks should collect contributions instead of reporting violations.
+     */
+    public boolean isCollecting() {
+        return isCollecting;
+    }
+
+    /**
+     * Adds serialized contributions of files, that were checked by a package graph.
+     */
+    public synchronized void addPackageGraph(byte[] bytes) {
+        packageGraphs.add(bytes);
+    }
+
+    /**
+     * Returns serialized contributions of all package graphs.
+     */
+    public synchronized List<byte[]> packageGraphs() {
+        return Collections.unmodifiableList(new ArrayList<>(packageGraphs));
+    }
+}
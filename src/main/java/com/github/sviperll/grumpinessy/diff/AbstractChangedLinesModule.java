@@ -0,0 +1,95 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.diff;
+
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextAware;
+import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Base class for modules, that read changed lines from a unified diff file or
+ * collect them from a git repository.
+ * <p>
+ * When neither diff file nor base revision is set,
+ * changed lines given by the runner are used.
+ */
+public abstract class AbstractChangedLinesModule
+        extends AbstractAutomaticBean
+        implements RunContextAware {
+    private String diffFile = null;
+    private String baseRevision = null;
+    private String repository = ".";
+    private RunContext runContext = new RunContext();
+    private ChangedLines changedLines = null;
+
+    public void setDiffFile(String diffFile) {
+        this.diffFile = diffFile;
+    }
+
+    public void setBaseRevision(String baseRevision) {
+        this.baseRevision = baseRevision;
+    }
+
+    public void setRepository(String repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public void setRunContext(RunContext runContext) {
+        this.runContext = runContext;
+    }
+
+    @Override
+    protected void finishLocalSetup() throws CheckstyleException {
+        if (diffFile != null && baseRevision != null) {
+            throw new CheckstyleException("At most one of diffFile and baseRevision should be set");
+        }
+        if (!isConfigured())
+            return;
+        try {
+            changedLines = diffFile != null
+                    ? ChangedLines.readDiffFile(Path.of(diffFile), Path.of(repository))
+                    : ChangedLines.readGitDiff(Path.of(repository), baseRevision);
+        } catch (IOException ex) {
+            throw new CheckstyleException("Unable to read changed lines", ex);
+        }
+    }
+
+    /**
+     * Tells whether either diff file or base revision is set.
+     */
+    protected final boolean isConfigured() {
+        return diffFile != null || baseRevision != null;
+    }
+
+    /**
+     * Returns changed lines of the given file.
+     *
+     * @return {@link LineRanges#ALL} when there are no changed lines at all
+     */
+    protected final LineRanges linesOf(String fileName) {
+        return changedLines != null
+                ? changedLines.linesOf(fileName)
+                : ChangedLines.scopeOf(runContext, fileName);
+    }
+}
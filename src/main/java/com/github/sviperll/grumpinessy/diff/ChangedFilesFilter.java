@@ -0,0 +1,36 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.diff;
+
+import com.puppycrawl.tools.checkstyle.api.BeforeExecutionFileFilter;
+
+/**
+ * Skips files without changed lines.
+ * <p>
+ * Changed lines are set the same way as for {@link ChangedLinesFilter},
+ * without them changed lines given by the runner are used.
+ */
+public class ChangedFilesFilter extends AbstractChangedLinesModule
+        implements BeforeExecutionFileFilter {
+    @Override
+    public boolean accept(String uri) {
+        return !linesOf(uri).isEmpty();
+    }
+}
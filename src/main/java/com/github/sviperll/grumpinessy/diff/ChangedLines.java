@@ -0,0 +1,294 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.diff;
+
+import com.github.sviperll.grumpinessy.context.RunContext;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lines of files changed by a unified diff.
+ * <p>
+ * Added and modified lines are changed lines.
+ * Removal of lines marks lines on both sides of the removal as changed,
+ * since removal can change the meaning of surrounding code.
+ * <p>
+ * Checks consult changed lines given by the runner through {@link RunContext} and
+ * skip code that doesn't intersect any changed line.
+ * When no changed lines are given all lines of all files are considered to be changed.
+ */
+public final class ChangedLines {
+    private static final Pattern HUNK_HEADER =
+            Pattern.compile("@@ -\\d+(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*");
+    private static final String NEW_FILE_PREFIX = "+++ ";
+    private static final String NO_FILE = "/dev/null";
+    private static final String OLD_FILE_NAME_PREFIX = "a/";
+    private static final String NEW_FILE_NAME_PREFIX = "b/";
+    private static final String ESCAPES = "abtnvfr\"\\";
+    private static final String UNESCAPED = "\u0007\b\t\n\u000B\f\r\"\\";
+
+    /**
+     * Returns changed lines of the given file according to changed lines of the given context.
+     *
+     * @return {@link LineRanges#ALL} when the context has no changed lines
+     */
+    public static LineRanges scopeOf(RunContext runContext, String fileName) {
+        ChangedLines changedLines = runContext.get(ChangedLines.class);
+        if (changedLines == null || fileName == null)
+            return LineRanges.ALL;
+        return changedLines.linesOf(fileName);
+    }
+
+    /**
+     * Reads unified diff, file names in diff are resolved against the given directory.
+     */
+    public static ChangedLines readDiff(Reader diff, Path root) throws IOException {
+        return new ChangedLines(parseDiff(diff, root));
+    }
+
+    /**
+     * Reads a unified diff file, file names in diff are resolved against the given directory.
+     */
+    public static ChangedLines readDiffFile(Path diff, Path root) throws IOException {
+        try (Reader reader = Files.newBufferedReader(diff, StandardCharsets.UTF_8)) {
+            return readDiff(reader, root);
+        }
+    }
+
+    /**
+     * Collects changes of the working tree of the given git repository since the given revision.
+     * <p>
+     * Untracked files, that are not ignored, are new files, all their lines are changed.
+     * Prefixes of file names are given explicitly, so that
+     * {@code diff.noprefix} and {@code diff.mnemonicPrefix} settings of git don't matter.
+     */
+    public static ChangedLines readGitDiff(
+            Path repository,
+            String baseRevision
+    ) throws IOException {
+        Path root = Path.of(runGit(repository, "rev-parse", "--show-toplevel").strip());
+        String diff = runGit(
+                repository,
+                "diff",
+                "--unified=0",
+                "--no-color",
+                "--no-ext-diff",
+                "--src-prefix=" + OLD_FILE_NAME_PREFIX,
+                "--dst-prefix=" + NEW_FILE_NAME_PREFIX,
+                baseRevision,
+                "--"
+        );
+        Map<Path, LineRanges> files = parseDiff(new StringReader(diff), root);
+        String untracked = runGit(
+                repository,
+                "ls-files",
+                "--others",
+                "--exclude-standard",
+                "--full-name",
+                "-z",
+                "--",
+                ":/"
+        );
+        for (String fileName : untracked.split("\0")) {
+            if (!fileName.isEmpty()) {
+                files.put(root.resolve(fileName).toAbsolutePath().normalize(), LineRanges.ALL);
+            }
+        }
+        return new ChangedLines(files);
+    }
+
+    private static Map<Path, LineRanges> parseDiff(Reader diff, Path root) throws IOException {
+        BufferedReader reader = new BufferedReader(diff);
+        Map<Path, LineRanges> files = new HashMap<>();
+        Path file = null;
+        int[] lines = new int[16];
+        int count = 0;
+        int oldRemaining = 0;
+        int newRemaining = 0;
+        int newLine = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (oldRemaining > 0 || newRemaining > 0) {
+                if (lines.length < count + 2) {
+                    lines = Arrays.copyOf(lines, lines.length * 2 + 2);
+                }
+                if (line.startsWith("+")) {
+                    lines[count++] = newLine;
+                    newLine++;
+                    newRemaining--;
+                } else if (line.startsWith("-")) {
+                    // Removal is between newLine - 1 and newLine
+                    lines[count++] = Math.max(1, newLine - 1);
+                    lines[count++] = newLine;
+                    oldRemaining--;
+                } else if (!line.startsWith("\\")) {
+                    newLine++;
+                    newRemaining--;
+                    oldRemaining--;
+                }
+            } else if (line.startsWith(NEW_FILE_PREFIX)) {
+                addFile(files, file, lines, count);
+                file = resolve(root, line.substring(NEW_FILE_PREFIX.length()));
+                count = 0;
+            } else {
+                Matcher matcher = HUNK_HEADER.matcher(line);
+                if (matcher.matches()) {
+                    oldRemaining = parseCount(matcher.group(1));
+                    newLine = Integer.parseInt(matcher.group(2));
+                    newRemaining = parseCount(matcher.group(3));
+                    if (newRemaining == 0) {
+                        // Pure removal, hunk header points to the line before the removal
+                        newLine++;
+                    }
+                }
+            }
+        }
+        addFile(files, file, lines, count);
+        return files;
+    }
+
+    private static String runGit(Path repository, String... args) throws IOException {
+        String[] command = new String[args.length + 3];
+        command[0] = "git";
+        command[1] = "-C";
+        command[2] = repository.toString();
+        System.arraycopy(args, 0, command, 3, args.length);
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        String output;
+        InputStreamReader stream =
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8);
+        try (Reader reader = stream) {
+            StringBuilder builder = new StringBuilder();
+            char[] buffer = new char[8192];
+            for (int read = reader.read(buffer); read >= 0; read = reader.read(buffer)) {
+                builder.append(buffer, 0, read);
+            }
+            output = builder.toString();
+        }
+        try {
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                String message = String.join(" ", command) + ": exited with code " + exitCode;
+                throw new IOException(message);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(String.join(" ", command) + ": interrupted", ex);
+        }
+        return output;
+    }
+
+    /**
+     * Parses line count of a hunk header, omitted count means a single line.
+     */
+    private static int parseCount(String count) {
+        return count == null ? 1 : Integer.parseInt(count);
+    }
+
+    private static Path resolve(Path root, String name) {
+        String fileName = name;
+        int tab = fileName.indexOf('\t');
+        if (tab >= 0) {
+            fileName = fileName.substring(0, tab);
+        }
+        if (fileName.startsWith("\"")) {
+            fileName = unquote(fileName);
+        }
+        if (fileName.equals(NO_FILE))
+            return null;
+        if (fileName.startsWith(NEW_FILE_NAME_PREFIX)) {
+            fileName = fileName.substring(NEW_FILE_NAME_PREFIX.length());
+        }
+        return root.resolve(fileName).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Decodes file name, that git quotes like a C string literal,
+     * when it has special characters: escaped bytes are octal bytes of UTF-8 encoding.
+     */
+    static String unquote(String quoted) {
+        if (quoted.length() < 2 || !quoted.endsWith("\""))
+            throw new IllegalArgumentException("Invalid quoted file name: " + quoted);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int i = 1;
+        while (i < quoted.length() - 1) {
+            char c = quoted.charAt(i++);
+            if (c != '\\') {
+                bytes.writeBytes(String.valueOf(c).getBytes(StandardCharsets.UTF_8));
+            } else if (i >= quoted.length() - 1) {
+                throw new IllegalArgumentException("Invalid quoted file name: " + quoted);
+            } else {
+                char escaped = quoted.charAt(i++);
+                int escapeIndex = ESCAPES.indexOf(escaped);
+                if (escapeIndex >= 0) {
+                    bytes.write(UNESCAPED.charAt(escapeIndex));
+                } else if (escaped >= '0' && escaped <= '3' && i + 2 < quoted.length()) {
+                    bytes.write(Integer.parseInt(quoted.substring(i - 1, i + 2), 8));
+                    i += 2;
+                } else {
+                    throw new IllegalArgumentException("Invalid quoted file name: " + quoted);
+                }
+            }
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void addFile(Map<Path, LineRanges> files, Path file, int[] lines, int count) {
+        if (file != null && count > 0) {
+            files.put(file, LineRanges.of(lines, count));
+        }
+    }
+
+    private final Map<Path, LineRanges> files;
+
+    private ChangedLines(Map<Path, LineRanges> files) {
+        this.files = files;
+    }
+
+    /**
+     * Returns changed lines of the given file, {@link LineRanges#NONE} for unchanged file.
+     */
+    public LineRanges linesOf(String fileName) {
+        LineRanges lines = files.get(Path.of(fileName).toAbsolutePath().normalize());
+        return lines == null ? LineRanges.NONE : lines;
+    }
+
+    public boolean isChanged(String fileName) {
+        return !linesOf(fileName).isEmpty();
+    }
+
+    public Set<Path> files() {
+        return files.keySet();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.diff;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Filter;
+
+/**
+ * Accepts only violations on changed lines.
+ * <p>
+ * Changed lines are read from a unified diff file or are collected from a git repository.
+ * Violations that are not bound to any line are accepted for changed files.
+ */
+public class ChangedLinesFilter extends AbstractChangedLinesModule implements Filter {
+    @Override
+    public boolean accept(AuditEvent event) {
+        String fileName = event.getFileName();
+        if (fileName == null)
+            return true;
+        LineRanges lines = linesOf(fileName);
+        return event.getLine() == 0 ? !lines.isEmpty() : lines.contains(event.getLine());
+    }
+
+    @Override
+    protected void finishLocalSetup() throws CheckstyleException {
+        if (!isConfigured()) {
+            throw new CheckstyleException("Exactly one of diffFile and baseRevision should be set");
+        }
+        super.finishLocalSetup();
+    }
+}
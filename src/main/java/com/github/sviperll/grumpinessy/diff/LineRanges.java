@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.diff;
+
+import java.util.Arrays;
+
+/**
+ * Sorted disjoint ranges of line numbers.
+ */
+public final class LineRanges {
+    /**
+     * Ranges that contain every line.
+     */
+    public static final LineRanges ALL =
+            new LineRanges(new int[] {1}, new int[] {Integer.MAX_VALUE});
+
+    /**
+     * Ranges that contain no lines.
+     */
+    public static final LineRanges NONE = new LineRanges(new int[0], new int[0]);
+
+    /**
+     * Builds ranges out of line numbers given in any order, possibly with duplicates.
+     */
+    static LineRanges of(int[] lines, int count) {
+        int[] sorted = Arrays.copyOf(lines, count);
+        Arrays.sort(sorted);
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        int size = 0;
+        for (int line : sorted) {
+            if (size > 0 && line <= ends[size - 1] + 1) {
+                ends[size - 1] = Math.max(ends[size - 1], line);
+            } else {
+                starts[size] = line;
+                ends[size] = line;
+                size++;
+            }
+        }
+        return new LineRanges(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+    }
+
+    private final int[] starts;
+    private final int[] ends;
+
+    private LineRanges(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public boolean contains(int line) {
+        return intersects(line, line);
+    }
+
+    /**
+     * Tells whether any line from {@code startLine} to {@code endLine} inclusive
+     * is in these ranges.
+     */
+    public boolean intersects(int startLine, int endLine) {
+        int index = Arrays.binarySearch(starts, endLine);
+        // Index of the last range that starts not after endLine
+        int last = index >= 0 ? index : -index - 2;
+        return last >= 0 && ends[last] >= startLine;
+    }
+
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < starts.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(starts[i]).append('-').append(ends[i]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.fix;
+
+import java.util.List;
+
+/**
+ * Edits, that together fix a single violation, edits are applied either all or none.
+ *
+ * @param fileName file name, as returned by {@code AbstractCheck.getFilePath()}
+ * @param line line of the fixed violation
+ * @param source class name of the check, that reported the violation
+ * @param key message key of the violation
+ * @param edits non-overlapping edits
+ */
+public record Fix(String fileName, int line, String source, String key, List<TextEdit> edits) {
+    public Fix {
+        edits = List.copyOf(edits);
+    }
+
+    /**
+     * Tells whether any edit of this fix conflicts with any edit of the given fix.
+     */
+    boolean conflictsWith(Fix that) {
+        for (TextEdit edit : edits) {
+            for (TextEdit thatEdit : that.edits) {
+                if (edit.conflictsWith(thatEdit))
+                    return true;
+            }
+        }
+        return false;
+    }
+}
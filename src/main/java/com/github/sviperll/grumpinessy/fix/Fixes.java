@@ -0,0 +1,60 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.fix;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixes proposed by checks.
+ * <p>
+ * Checks propose fixes along with reported violations, when
+ * an instance is given to them through {@link com.github.sviperll.grumpinessy.context.RunContext}.
+ * Otherwise checks don't build fixes at all, so usual checking costs nothing extra.
+ * Fixes can be proposed by checks running in any number of threads.
+ */
+public final class Fixes {
+    private final Map<String, List<Fix>> files = new HashMap<>();
+
+    /**
+     * Remembers the given fix, fixes without edits are ignored.
+     */
+    public synchronized void add(Fix fix) {
+        if (!fix.edits().isEmpty()) {
+            files.computeIfAbsent(fix.fileName(), fileName -> new ArrayList<>()).add(fix);
+        }
+    }
+
+    /**
+     * Returns fixes of the given file in the order of proposal.
+     */
+    public synchronized List<Fix> fixesOf(String fileName) {
+        return List.copyOf(files.getOrDefault(fileName, List.of()));
+    }
+
+    /**
+     * Forgets all fixes.
+     */
+    public synchronized void clear() {
+        files.clear();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.fix;
+
+import java.util.Comparator;
+
+/**
+ * Replacement of a span of source text.
+ * <p>
+ * Lines are numbered from one and columns from zero, like lines and columns of syntax nodes,
+ * columns count characters, so tabs are not expanded.
+ * Span includes start position and excludes end position,
+ * empty span denotes insertion.
+ *
+ * @param startLine line of the first replaced character
+ * @param startColumn column of the first replaced character
+ * @param endLine line of the position after the last replaced character
+ * @param endColumn column of the position after the last replaced character
+ * @param replacement text, that replaces the span, line breaks are written as {@code \n}
+ */
+public record TextEdit(
+        int startLine,
+        int startColumn,
+        int endLine,
+        int endColumn,
+        String replacement
+) {
+    static final Comparator<TextEdit> ORDER =
+            Comparator.comparingInt(TextEdit::startLine)
+                    .thenComparingInt(TextEdit::startColumn)
+                    .thenComparingInt(TextEdit::endLine)
+                    .thenComparingInt(TextEdit::endColumn);
+
+    public static TextEdit insert(int line, int column, String text) {
+        return new TextEdit(line, column, line, column, text);
+    }
+
+    private static int compare(int line1, int column1, int line2, int column2) {
+        return line1 != line2 ? Integer.compare(line1, line2) : Integer.compare(column1, column2);
+    }
+
+    public TextEdit {
+        if (compare(startLine, startColumn, endLine, endColumn) > 0) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Span ends before it starts: %d:%d-%d:%d",
+                            startLine,
+                            startColumn,
+                            endLine,
+                            endColumn
+                    )
+            );
+        }
+    }
+
+    boolean isInsertion() {
+        return startLine == endLine && startColumn == endColumn;
+    }
+
+    boolean startsAt(int line, int column) {
+        return startLine == line && startColumn == column;
+    }
+
+    boolean endsAt(int line, int column) {
+        return endLine == line && endColumn == column;
+    }
+
+    /**
+     * Tells whether this edit and the given edit can't be both applied.
+     * <p>
+     * Edits conflict when their spans intersect or when both insert text at the same position,
+     * since the order of inserted texts would be ambiguous.
+     */
+    boolean conflictsWith(TextEdit that) {
+        boolean isThisBefore = compare(endLine, endColumn, that.startLine, that.startColumn) <= 0;
+        boolean isThatBefore = compare(that.endLine, that.endColumn, startLine, startColumn) <= 0;
+        boolean isSamePosition = startLine == that.startLine && startColumn == that.startColumn;
+        return !(isThisBefore || isThatBefore) || isSamePosition;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.fix;
+
+import com.github.sviperll.grumpinessy.io.AtomicFiles;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies fixes to source files.
+ * <p>
+ * Text is rewritten in a single streaming pass, so
+ * the cost of applying any number of edits is the cost of copying the file once.
+ */
+public final class TextRewriter {
+    private static final int SEPARATOR_LOOKAHEAD = 64 * 1024;
+
+    /**
+     * Selects fixes, that can be applied together.
+     * <p>
+     * Fixes are considered in the given order and
+     * a fix is skipped when it conflicts with any of already selected fixes.
+     * Skipped fixes can be applied after the file is checked again.
+     */
+    public static List<Fix> selectNonConflicting(List<Fix> fixes) {
+        List<Fix> result = new ArrayList<>();
+        for (Fix fix : fixes) {
+            if (result.stream().noneMatch(fix::conflictsWith)) {
+                result.add(fix);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rewrites the given file in place, applying edits of all the given fixes.
+     * <p>
+     * Rewritten text is written with {@link AtomicFiles}, so
+     * the original file is left intact when rewriting fails.
+     */
+    public static void rewrite(Path file, Charset charset, List<Fix> fixes) throws IOException {
+        List<TextEdit> edits = new ArrayList<>();
+        for (Fix fix : fixes) {
+            edits.addAll(fix.edits());
+        }
+        AtomicFiles.write(file, output -> rewrite(file, charset, edits, output));
+    }
+
+    /**
+     * Copies text from reader to writer, applying the given non-overlapping edits.
+     * <p>
+     * Any of {@code \n}, {@code \r\n} and {@code \r} end a line, like in Checkstyle.
+     * Line breaks in replacements are written as the given line separator.
+     *
+     * @throws IllegalArgumentException when some edit is outside of the text
+     */
+    public static void rewrite(
+            Reader reader,
+            Writer writer,
+            List<TextEdit> edits,
+            String lineSeparator
+    ) throws IOException {
+        List<TextEdit> sorted = new ArrayList<>(edits);
+        sorted.sort(TextEdit.ORDER);
+        int index = 0;
+        TextEdit skipped = null;
+        int line = 1;
+        int column = 0;
+        int c = reader.read();
+        while (true) {
+            while (skipped == null
+                    && index < sorted.size()
+                    && sorted.get(index).startsAt(line, column)) {
+                TextEdit edit = sorted.get(index++);
+                writer.write(edit.replacement().replace("\n", lineSeparator));
+                if (!edit.isInsertion()) {
+                    skipped = edit;
+                }
+            }
+            if (skipped != null && skipped.endsAt(line, column)) {
+                // Another edit may start where this one ends
+                skipped = null;
+                continue;
+            }
+            if (c == -1)
+                break;
+            if (skipped == null) {
+                writer.write(c);
+            }
+            int next = reader.read();
+            if (c == '\r' && next == '\n') {
+                if (skipped == null) {
+                    writer.write(next);
+                }
+                next = reader.read();
+            }
+            if (c == '\n' || c == '\r') {
+                line++;
+                column = 0;
+            } else {
+                column++;
+            }
+            c = next;
+        }
+        if (skipped != null || index < sorted.size()) {
+            TextEdit edit = skipped != null ? skipped : sorted.get(index);
+            throw new IllegalArgumentException("Edit is outside of the text: " + edit);
+        }
+    }
+
+    private static void rewrite(
+            Path file,
+            Charset charset,
+            List<TextEdit> edits,
+            OutputStream output
+    ) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, charset)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, charset));
+            rewrite(reader, writer, edits, lineSeparatorOf(reader));
+            writer.flush();
+        }
+    }
+
+    /**
+     * Returns the first line separator of the text, without consuming any text.
+     */
+    private static String lineSeparatorOf(BufferedReader reader) throws IOException {
+        reader.mark(SEPARATOR_LOOKAHEAD);
+        try {
+            for (int i = 0; i < SEPARATOR_LOOKAHEAD; i++) {
+                int c = reader.read();
+                if (c == -1 || c == '\n')
+                    return "\n";
+                if (c == '\r')
+                    return reader.read() == '\n' ? "\r\n" : "\r";
+            }
+            return "\n";
+        } finally {
+            reader.reset();
+        }
+    }
+
+    private TextRewriter() {
+    }
+}
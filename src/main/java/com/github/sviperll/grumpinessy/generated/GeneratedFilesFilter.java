@@ -0,0 +1,230 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.generated;
+
+import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
+import com.puppycrawl.tools.checkstyle.api.BeforeExecutionFileFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Skips generated source files before they are read and parsed.
+ * <p>
+ * File is generated when its path matches one of path globs or
+ * when one of markers is found in the header of the file,
+ * that is looked for within the first {@code prefixSize} bytes.
+ * Header is everything before the body of the first type, markers are only found
+ * in comments, that precede the first declaration, and in declarations themselves,
+ * like type-level annotations.
+ * Markers in string and character literals and in comments after the first declaration,
+ * like Javadoc of the type, are ignored, so that
+ * code that merely mentions markers is not skipped.
+ * Markers are matched against raw bytes, so only ASCII markers are supported.
+ * <p>
+ * Checker doesn't report files rejected by filters,
+ * the number of files skipped by this instance is available as {@link #getSkippedFileCount()}.
+ */
+public class GeneratedFilesFilter extends AbstractAutomaticBean
+        implements BeforeExecutionFileFilter {
+    private static final int DEFAULT_PREFIX_SIZE = 16 * 1024;
+    private static final String[] DEFAULT_MARKERS = {
+        "@Generated",
+        ".Generated(",
+        "// Code generated",
+        "// Generated by",
+        "// Generated from",
+        "DO NOT EDIT"
+    };
+    private static final byte BLANK = ' ';
+
+    private static int indexOf(byte[] text, byte[] pattern) {
+        for (int start = 0; start + pattern.length <= text.length; start++) {
+            if (Arrays.equals(text, start, start + pattern.length, pattern, 0, pattern.length))
+                return start;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns header of the source, that is everything before the body of the first type,
+     * with string and character literals and non-leading comments replaced by blanks.
+     */
+    private static byte[] headerOf(byte[] source) {
+        byte[] header = source.clone();
+        boolean isLeading = true;
+        int parenthesesDepth = 0;
+        int index = 0;
+        while (index < source.length) {
+            byte character = source[index];
+            int end = index + 1;
+            boolean isComment = false;
+            boolean isBlanked = false;
+            if (startsWith(source, index, "//")) {
+                end = endOfLine(source, index);
+                isComment = true;
+            } else if (startsWith(source, index, "/*")) {
+                end = endOf(source, index + 2, "*/");
+                isComment = true;
+            } else if (startsWith(source, index, "\"\"\"")) {
+                end = endOf(source, index + 3, "\"\"\"");
+                isBlanked = true;
+            } else if (character == '"' || character == '\'') {
+                end = endOfLiteral(source, index);
+                isBlanked = true;
+            } else if (character == '{' && parenthesesDepth == 0) {
+                return Arrays.copyOf(header, index);
+            } else if (character == '(') {
+                parenthesesDepth++;
+            } else if (character == ')' && parenthesesDepth > 0) {
+                parenthesesDepth--;
+            }
+            isBlanked = isBlanked || isComment && !isLeading;
+            isLeading = isLeading && (isComment || Character.isWhitespace(character));
+            if (isBlanked) {
+                Arrays.fill(header, index, end, BLANK);
+            }
+            index = end;
+        }
+        return header;
+    }
+
+    private static boolean startsWith(byte[] text, int index, String prefix) {
+        if (index + prefix.length() > text.length)
+            return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text[index + i] != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private static int endOfLine(byte[] text, int index) {
+        int end = index;
+        while (end < text.length && text[end] != '\n') {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Returns index after the given terminator or the length of the text, when there is none.
+     */
+    private static int endOf(byte[] text, int index, String terminator) {
+        for (int end = index; end < text.length; end++) {
+            if (startsWith(text, end, terminator))
+                return end + terminator.length();
+        }
+        return text.length;
+    }
+
+    /**
+     * Returns index after the string or character literal, that starts at the given index.
+     */
+    private static int endOfLiteral(byte[] text, int index) {
+        byte quote = text[index];
+        int end = index + 1;
+        while (end < text.length && text[end] != quote && text[end] != '\n') {
+            end += text[end] == '\\' ? 2 : 1;
+        }
+        return Math.min(end + 1, text.length);
+    }
+
+    private static byte[][] toBytes(String[] markers) {
+        return Arrays.stream(markers)
+                .filter(marker -> !marker.isEmpty())
+                .map(marker -> marker.getBytes(StandardCharsets.US_ASCII))
+                .toArray(byte[][]::new);
+    }
+
+    private final List<PathMatcher> pathMatchers = new ArrayList<>();
+    private byte[][] markers = toBytes(DEFAULT_MARKERS);
+    private int prefixSize = DEFAULT_PREFIX_SIZE;
+    private long skippedFileCount = 0;
+
+    /**
+     * Sets globs of generated files, like {@code **}{@code /target/generated-sources/**}.
+     */
+    public void setPaths(String... paths) {
+        FileSystem fileSystem = FileSystems.getDefault();
+        pathMatchers.clear();
+        for (String path : paths) {
+            pathMatchers.add(fileSystem.getPathMatcher("glob:" + path));
+        }
+    }
+
+    /**
+     * Sets markers of generated files, empty list disables detection by content.
+     */
+    public void setMarkers(String... markers) {
+        this.markers = toBytes(markers);
+    }
+
+    public void setPrefixSize(int prefixSize) {
+        this.prefixSize = prefixSize;
+    }
+
+    /**
+     * Returns the number of files skipped by this filter.
+     */
+    public long getSkippedFileCount() {
+        return skippedFileCount;
+    }
+
+    @Override
+    public boolean accept(String uri) {
+        Path path = Path.of(uri);
+        boolean isGenerated = pathMatchers.stream().anyMatch(matcher -> matcher.matches(path))
+                || hasMarker(path);
+        if (isGenerated) {
+            skippedFileCount++;
+        }
+        return !isGenerated;
+    }
+
+    @Override
+    protected void finishLocalSetup() {
+    }
+
+    private boolean hasMarker(Path path) {
+        if (markers.length == 0)
+            return false;
+        byte[] header;
+        try (InputStream stream = Files.newInputStream(path)) {
+            header = headerOf(stream.readNBytes(prefixSize));
+        } catch (IOException ex) {
+            // Unreadable file is reported by Checker when it is read for checking
+            return false;
+        }
+        for (byte[] marker : markers) {
+            if (indexOf(header, marker) >= 0)
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.io;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Replaces files atomically, so that readers never see a partially written file.
+ * <p>
+ * Content is written into a uniquely named temporary file next to the target,
+ * that is created with default permissions, flushed to the storage and
+ * moved over the target.
+ * Move is atomic when supported by file system.
+ */
+public final class AtomicFiles {
+    /**
+     * Writes file, the file is replaced only when the whole content is written.
+     */
+    public static void write(Path path, Content content) throws IOException {
+        Path absolutePath = path.toAbsolutePath();
+        Path temporary = absolutePath.resolveSibling(
+                absolutePath.getFileName() + "." + UUID.randomUUID() + ".tmp"
+        );
+        try {
+            try (FileChannel channel = FileChannel.open(
+                    temporary,
+                    StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE
+            )) {
+                OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel));
+                content.writeTo(output);
+                output.flush();
+                channel.force(true);
+            }
+            move(temporary, absolutePath);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(
+                    source,
+                    target,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE
+            );
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Content of a file.
+     */
+    @FunctionalInterface
+    public interface Content {
+        /**
+         * Writes content to the given output, output is closed by the caller.
+         */
+        void writeTo(OutputStream output) throws IOException;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes JSON literals.
+ */
+public final class Json {
+    /**
+     * Writes the given string as a quoted JSON string.
+     * <p>
+     * Quotes, backslashes and control characters are escaped, all other characters are
+     * written as is.
+     */
+    public static void writeString(Appendable output, String value) throws IOException {
+        output.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                output.append('\\').append(c);
+            } else if (c < ' ') {
+                output.append(String.format("\\u%04x", (int) c));
+            } else {
+                output.append(c);
+            }
+        }
+        output.append('"');
+    }
+
+    /**
+     * Returns the given string as a quoted JSON string.
+     *
+     * @see #writeString(Appendable, String)
+     */
+    public static String quote(String value) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            writeString(builder, value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return builder.toString();
+    }
+
+    private Json() {
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.io;
+
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of violations shared by cache files and partial reports.
+ * <p>
+ * Violation is decoded with its already formatted message,
+ * so that message bundles are not consulted again.
+ */
+public final class ViolationCodec {
+    /**
+     * Writes violation to be read with {@link #readViolation(DataInput, ClassLoader)}.
+     */
+    public static void writeViolation(DataOutput output, Violation violation) throws IOException {
+        output.writeInt(violation.getLineNo());
+        output.writeInt(violation.getColumnNo());
+        output.writeInt(violation.getColumnCharIndex());
+        output.writeInt(violation.getTokenType());
+        output.writeByte(violation.getSeverityLevel().ordinal());
+        writeString(output, violation.getModuleId());
+        writeString(output, violation.getKey());
+        writeString(output, violation.getSourceName());
+        writeString(output, violation.getViolation());
+    }
+
+    /**
+     * Reads violation, source class of the violation is loaded with the given class loader.
+     *
+     * @throws IOException if input is malformed or source class is unknown
+     */
+    public static Violation readViolation(
+            DataInput input,
+            ClassLoader classLoader
+    ) throws IOException {
+        int line = input.readInt();
+        int column = input.readInt();
+        int columnCharIndex = input.readInt();
+        int tokenType = input.readInt();
+        int severity = input.readByte();
+        if (severity < 0 || severity >= SeverityLevel.values().length)
+            throw new IOException("Unknown severity level: " + severity);
+        String moduleId = readString(input);
+        String key = readString(input);
+        Class<?> sourceClass = loadClass(readString(input), classLoader);
+        String message = readString(input);
+        return new Violation(
+                line,
+                column,
+                columnCharIndex,
+                tokenType,
+                null,
+                key,
+                null,
+                SeverityLevel.values()[severity],
+                moduleId,
+                sourceClass,
+                quoteMessageFormat(message)
+        );
+    }
+
+    /**
+     * Turns an already formatted message into a message format pattern without arguments.
+     */
+    public static String quoteMessageFormat(String message) {
+        return "'" + message.replace("'", "''") + "'";
+    }
+
+    /**
+     * Loads source class of a violation with the given class loader or
+     * with the context class loader of the current thread.
+     *
+     * @throws IOException if class is not found by either of them
+     */
+    public static Class<?> loadClass(String name, ClassLoader classLoader) throws IOException {
+        try {
+            return Class.forName(name, false, classLoader);
+        } catch (ClassNotFoundException ex) {
+            try {
+                return Class.forName(name, false, Thread.currentThread().getContextClassLoader());
+            } catch (ClassNotFoundException ex1) {
+                throw new IOException(name + ": unknown source of a violation", ex1);
+            }
+        }
+    }
+
+    /**
+     * Writes UTF-8 string prefixed with its length, null is written as a negative length.
+     */
+    public static void writeString(DataOutput output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Reads string written with {@link #writeString(DataOutput, String)}.
+     */
+    public static String readString(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ViolationCodec() {
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.profile;
+
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.PropertyResolver;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tiers of a Checkstyle profile, every tier is derived from the full profile.
+ * <p>
+ * Tier keeps a subset of checks of the full profile with the same properties, all filters,
+ * file filters, listeners and {@code SuppressWarningsHolder}, so
+ * violations of a smaller tier are always a subset of violations of the full profile.
+ * Containers, like {@code TreeWalker}, are dropped when none of their checks are kept,
+ * so files are not even parsed by a tier that consists of lexical checks only.
+ * Container of {@code SuppressWarningsHolder} is kept, when the profile has
+ * {@code SuppressWarningsFilter}, since otherwise {@code @SuppressWarnings} annotations
+ * would be ignored by kept checks.
+ */
+public enum ProfileTier {
+    /**
+     * Lexical checks that do not need a syntax tree, for pre-commit hooks and editors.
+     * Import checks that read only file headers belong here too.
+     */
+    FAST(Set.of(
+            "NewlineAtEndOfFile",
+            "Translation",
+            "FileLength",
+            "LineLength",
+            "FileTabCharacter",
+            "RegexpSingleline",
+            "RegexpMultiline",
+            "com.github.sviperll.grumpinessy.HeaderImportsCheck"
+    )),
+    /**
+     * All checks of the profile, for continuous integration.
+     */
+    FULL(null);
+
+    /**
+     * System property that selects tier at run time.
+     */
+    public static final String PROPERTY = "grumpinessy.tier";
+    private static final String SUPPRESS_WARNINGS_HOLDER = "SuppressWarningsHolder";
+    private static final String SUPPRESS_WARNINGS_FILTER = "SuppressWarningsFilter";
+
+    /**
+     * Returns tier selected by {@value #PROPERTY} system property, full tier by default.
+     *
+     * @throws IllegalArgumentException if there is no such tier
+     */
+    public static ProfileTier fromSystemProperty() {
+        return of(System.getProperty(PROPERTY, FULL.name()));
+    }
+
+    /**
+     * Returns tier by case-insensitive name.
+     *
+     * @throws IllegalArgumentException if there is no such tier
+     */
+    public static ProfileTier of(String name) {
+        return valueOf(name.strip().toUpperCase(Locale.ROOT));
+    }
+
+    private static String simpleNameOf(String name) {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    private static boolean isAlwaysKept(String name) {
+        String simpleName = simpleNameOf(name);
+        return simpleName.endsWith("Filter")
+                || simpleName.endsWith("Listener")
+                || simpleName.equals(SUPPRESS_WARNINGS_HOLDER);
+    }
+
+    private static boolean hasSuppressWarningsFilter(Configuration configuration) {
+        for (Configuration child : configuration.getChildren()) {
+            if (simpleNameOf(child.getName()).equals(SUPPRESS_WARNINGS_FILTER))
+                return true;
+        }
+        return false;
+    }
+
+    private static DefaultConfiguration copyOf(Configuration configuration)
+            throws CheckstyleException {
+        DefaultConfiguration copy = new DefaultConfiguration(configuration.getName());
+        for (String name : configuration.getPropertyNames()) {
+            copy.addProperty(name, configuration.getProperty(name));
+        }
+        for (Map.Entry<String, String> message : configuration.getMessages().entrySet()) {
+            copy.addMessage(message.getKey(), message.getValue());
+        }
+        return copy;
+    }
+
+    private final Set<String> checks;
+
+    ProfileTier(Set<String> checks) {
+        this.checks = checks;
+    }
+
+    /**
+     * Loads profile and selects modules of this tier.
+     */
+    public Configuration loadConfiguration(String location, PropertyResolver resolver)
+            throws CheckstyleException {
+        Configuration configuration = ConfigurationLoader.loadConfiguration(
+                location,
+                resolver,
+                ConfigurationLoader.IgnoredModulesOptions.OMIT
+        );
+        return select(configuration);
+    }
+
+    /**
+     * Returns a copy of the full profile with modules of this tier only.
+     */
+    public Configuration select(Configuration configuration) throws CheckstyleException {
+        if (checks == null)
+            return configuration;
+        DefaultConfiguration copy = copyOf(configuration);
+        boolean isHolderNeeded = hasSuppressWarningsFilter(configuration);
+        for (Configuration child : configuration.getChildren()) {
+            Configuration selected = selectModule(child, isHolderNeeded);
+            if (selected != null) {
+                copy.addChild(selected);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns selected module or null when module is not part of this tier.
+     *
+     * @param isHolderNeeded whether container of {@code SuppressWarningsHolder} should be kept
+     */
+    private Configuration selectModule(
+            Configuration module,
+            boolean isHolderNeeded
+    ) throws CheckstyleException {
+        if (isAlwaysKept(module.getName()) || checks.contains(module.getName()))
+            return module;
+        if (module.getChildren().length == 0)
+            return null;
+        DefaultConfiguration copy = copyOf(module);
+        boolean hasChecks = false;
+        for (Configuration child : module.getChildren()) {
+            Configuration selected = selectModule(child, isHolderNeeded);
+            if (selected != null) {
+                copy.addChild(selected);
+                String name = selected.getName();
+                hasChecks = hasChecks
+                        || !isAlwaysKept(name)
+                        || isHolderNeeded && simpleNameOf(name).equals(SUPPRESS_WARNINGS_HOLDER);
+            }
+        }
+        return hasChecks ? copy : null;
+    }
+}
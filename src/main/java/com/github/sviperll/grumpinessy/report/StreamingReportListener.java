@@ -0,0 +1,378 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.report;
+
+import com.github.sviperll.grumpinessy.io.Json;
+import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes violations to SARIF or NDJSON report as soon as they are reported.
+ * <p>
+ * Nothing is kept in memory except counters, so the report can be produced for runs with
+ * any number of violations.
+ * Number of violations can be capped per rule and per file,
+ * violations over the caps are only counted.
+ * The report ends with a summary: number of checked files, violations by severity,
+ * number of dropped violations and number of exceptions.
+ * <p>
+ * SARIF report refers to files relative to the base directory through
+ * {@value #BASE_URI_ID} base URI, files outside of the base directory
+ * are referred to by absolute URIs.
+ */
+public class StreamingReportListener extends AbstractAutomaticBean implements AuditListener {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final String BASE_URI_ID = "BASEDIR";
+    private static final String SARIF_SCHEMA = "https://raw.githubusercontent.com/oasis-tcs"
+            + "/sarif-spec/master/Schemata/sarif-schema-2.1.0.json";
+
+    private static String ruleOf(AuditEvent event) {
+        String moduleId = event.getModuleId();
+        return moduleId != null ? moduleId : event.getSourceName();
+    }
+
+    private static String levelOf(SeverityLevel severity) {
+        return switch (severity) {
+            case ERROR -> "error";
+            case WARNING -> "warning";
+            default -> "note";
+        };
+    }
+
+    /**
+     * Returns URI of the directory ending with slash, so that other URIs are relativized to it.
+     */
+    private static URI directoryUriOf(Path directory) {
+        String uri = directory.toAbsolutePath().normalize().toUri().toString();
+        return URI.create(uri.endsWith("/") ? uri : uri + "/");
+    }
+
+    private static String stackTraceOf(Throwable throwable) {
+        StringWriter stackTrace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(stackTrace));
+        return stackTrace.toString();
+    }
+
+    private final Map<String, Integer> ruleViolationCounts = new HashMap<>();
+    private final Map<SeverityLevel, Long> severityCounts = new EnumMap<>(SeverityLevel.class);
+    private OutputStream output;
+    private OutputStreamOptions closing;
+    private Format format;
+    private Path file = null;
+    private URI baseDirectory = directoryUriOf(Path.of(""));
+    private int maxViolationsPerRule = Integer.MAX_VALUE;
+    private int maxViolationsPerFile = Integer.MAX_VALUE;
+    private Writer writer = null;
+    private boolean isFirstResult = true;
+    private String countedFileName = null;
+    private int fileViolationCount = 0;
+    private long fileCount = 0;
+    private long droppedViolationCount = 0;
+    private long exceptionCount = 0;
+
+    /**
+     * Creates SARIF report written to standard output, used when configured as a module.
+     */
+    public StreamingReportListener() {
+        this(System.out, OutputStreamOptions.NONE, Format.SARIF);
+    }
+
+    public StreamingReportListener(
+            OutputStream output,
+            OutputStreamOptions closing,
+            Format format
+    ) {
+        this.output = output;
+        this.closing = closing;
+        this.format = format;
+    }
+
+    /**
+     * Sets report file, report is written to standard output when no file is set.
+     */
+    public void setFile(String file) {
+        this.file = Path.of(file);
+    }
+
+    /**
+     * Sets base directory of relative file URIs of SARIF report,
+     * defaults to the working directory.
+     */
+    public void setBaseDirectory(String baseDirectory) {
+        this.baseDirectory = directoryUriOf(Path.of(baseDirectory));
+    }
+
+    /**
+     * Sets report format, {@code sarif} or {@code ndjson}.
+     */
+    public void setFormat(String format) {
+        this.format = Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public void setMaxViolationsPerRule(int maxViolationsPerRule) {
+        this.maxViolationsPerRule = maxViolationsPerRule;
+    }
+
+    public void setMaxViolationsPerFile(int maxViolationsPerFile) {
+        this.maxViolationsPerFile = maxViolationsPerFile;
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        ruleViolationCounts.clear();
+        severityCounts.clear();
+        isFirstResult = true;
+        fileCount = 0;
+        droppedViolationCount = 0;
+        exceptionCount = 0;
+        try {
+            WritableByteChannel channel = file == null
+                    ? Channels.newChannel(output)
+                    : FileChannel.open(
+                            file,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.WRITE
+                    );
+            writer = new BufferedWriter(
+                    Channels.newWriter(channel, StandardCharsets.UTF_8),
+                    BUFFER_SIZE
+            );
+            if (format == Format.SARIF) {
+                writer.write("{\"$schema\":");
+                Json.writeString(writer, SARIF_SCHEMA);
+                writer.write(",\"version\":\"2.1.0\",\"runs\":[{\"tool\":{\"driver\":");
+                writer.write("{\"name\":\"Checkstyle\",");
+                writer.write("\"informationUri\":\"https://checkstyle.org/\"}},");
+                writer.write("\"originalUriBaseIds\":{");
+                Json.writeString(writer, BASE_URI_ID);
+                writer.write(":{\"uri\":");
+                Json.writeString(writer, baseDirectory.toString());
+                writer.write("}},\"results\":[");
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(target() + ": unable to write report", ex);
+        }
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        try {
+            if (format == Format.SARIF) {
+                writer.write("\n],\"properties\":{\"summary\":");
+                writeSummary();
+                writer.write("}}]}\n");
+            } else {
+                writer.write("{\"type\":\"summary\",\"summary\":");
+                writeSummary();
+                writer.write("}\n");
+            }
+            if (file != null || closing == OutputStreamOptions.CLOSE) {
+                writer.close();
+            } else {
+                writer.flush();
+                output.flush();
+            }
+            writer = null;
+        } catch (IOException ex) {
+            throw new IllegalStateException(target() + ": unable to write report", ex);
+        }
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        countedFileName = event.getFileName();
+        fileViolationCount = 0;
+        fileCount++;
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        countedFileName = null;
+        fileViolationCount = 0;
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        SeverityLevel severity = event.getSeverityLevel();
+        if (severity == SeverityLevel.IGNORE)
+            return;
+        severityCounts.merge(severity, 1L, Long::sum);
+        int ruleViolationCount = ruleViolationCounts.merge(ruleOf(event), 1, Integer::sum);
+        if (!Objects.equals(event.getFileName(), countedFileName)) {
+            // Violation is reported outside of its file, like a cycle reported after all files
+            countedFileName = event.getFileName();
+            fileViolationCount = 0;
+        }
+        fileViolationCount++;
+        if (ruleViolationCount > maxViolationsPerRule
+                || fileViolationCount > maxViolationsPerFile) {
+            droppedViolationCount++;
+            return;
+        }
+        try {
+            writeResult(event.getFileName(), event, levelOf(severity), event.getMessage());
+        } catch (IOException ex) {
+            throw new IllegalStateException(target() + ": unable to write report", ex);
+        }
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        exceptionCount++;
+        try {
+            writeResult(event.getFileName(), null, "error", stackTraceOf(throwable));
+        } catch (IOException ex) {
+            throw new IllegalStateException(target() + ": unable to write report", ex);
+        }
+    }
+
+    @Override
+    protected void finishLocalSetup() {
+    }
+
+    /**
+     * Writes a single result, violation is null for exceptions.
+     */
+    private void writeResult(String fileName, AuditEvent violation, String level, String message)
+            throws IOException {
+        if (format == Format.SARIF) {
+            writer.write(isFirstResult ? "\n" : ",\n");
+            isFirstResult = false;
+            writer.write("{");
+            if (violation != null) {
+                writer.write("\"ruleId\":");
+                Json.writeString(writer, ruleOf(violation));
+                writer.write(",");
+            }
+            writer.write("\"level\":");
+            Json.writeString(writer, level);
+            writer.write(",\"message\":{\"text\":");
+            Json.writeString(writer, message);
+            writer.write("}");
+            if (fileName != null) {
+                writer.write(",\"locations\":[{\"physicalLocation\":");
+                writer.write("{\"artifactLocation\":");
+                writeArtifactLocation(fileName);
+                writeRegion(violation, "startLine", "startColumn");
+                writer.write("}}]");
+            }
+            writer.write("}");
+        } else {
+            writer.write(violation != null ? "{\"type\":\"violation\"" : "{\"type\":\"exception\"");
+            if (fileName != null) {
+                writer.write(",\"file\":");
+                Json.writeString(writer, fileName);
+            }
+            writeRegion(violation, "line", "column");
+            if (violation != null) {
+                writer.write(",\"rule\":");
+                Json.writeString(writer, ruleOf(violation));
+            }
+            writer.write(",\"level\":");
+            Json.writeString(writer, level);
+            writer.write(",\"message\":");
+            Json.writeString(writer, message);
+            writer.write("}\n");
+        }
+    }
+
+    private void writeArtifactLocation(String fileName) throws IOException {
+        URI uri = Path.of(fileName).toAbsolutePath().normalize().toUri();
+        URI relative = baseDirectory.relativize(uri);
+        writer.write("{\"uri\":");
+        Json.writeString(writer, relative.toString());
+        if (!relative.isAbsolute()) {
+            writer.write(",\"uriBaseId\":");
+            Json.writeString(writer, BASE_URI_ID);
+        }
+        writer.write("}");
+    }
+
+    private void writeRegion(AuditEvent violation, String lineName, String columnName)
+            throws IOException {
+        if (violation == null || violation.getLine() <= 0)
+            return;
+        boolean isSarif = format == Format.SARIF;
+        writer.write(isSarif ? ",\"region\":{\"" : ",\"");
+        writer.write(lineName);
+        writer.write("\":");
+        writer.write(Integer.toString(violation.getLine()));
+        if (violation.getColumn() > 0) {
+            writer.write(",\"");
+            writer.write(columnName);
+            writer.write("\":");
+            writer.write(Integer.toString(violation.getColumn()));
+        }
+        if (isSarif) {
+            writer.write("}");
+        }
+    }
+
+    private void writeSummary() throws IOException {
+        writer.write("{\"files\":");
+        writer.write(Long.toString(fileCount));
+        for (SeverityLevel severity : SeverityLevel.values()) {
+            if (severity != SeverityLevel.IGNORE) {
+                writer.write(",");
+                Json.writeString(writer, severity.getName());
+                writer.write(":");
+                writer.write(Long.toString(severityCounts.getOrDefault(severity, 0L)));
+            }
+        }
+        writer.write(",\"dropped\":");
+        writer.write(Long.toString(droppedViolationCount));
+        writer.write(",\"exceptions\":");
+        writer.write(Long.toString(exceptionCount));
+        writer.write("}");
+    }
+
+    private Object target() {
+        return file != null ? file : "standard output";
+    }
+
+    /**
+     * Format of the report.
+     */
+    public enum Format {
+        SARIF,
+        NDJSON
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextModuleFactory;
+import com.github.sviperll.grumpinessy.fix.Fix;
+import com.github.sviperll.grumpinessy.fix.Fixes;
+import com.github.sviperll.grumpinessy.fix.TextRewriter;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fixes violations of grumpinessy checks in place.
+ * <p>
+ * Files are checked with fixes collected, see {@link Fixes}, that
+ * are given to checks through the {@link RunContext} of the Checker.
+ * Fixes of violations, that are reported after all filters, are applied to each file
+ * in a single rewrite pass, conflicting fixes are postponed.
+ * Files that were changed are checked and fixed again, until
+ * there is nothing left to fix or the maximum number of rounds is reached.
+ * Finally all files are checked again by the same Checker and
+ * remaining violations are reported to the listener.
+ */
+public class AutoFixer {
+    private static Charset charsetOf(Configuration configuration) throws CheckstyleException {
+        for (String name : configuration.getPropertyNames()) {
+            if (name.equals("charset"))
+                return Charset.forName(configuration.getProperty(name));
+        }
+        // The same default as Checker's own
+        return Charset.forName(System.getProperty("file.encoding", StandardCharsets.UTF_8.name()));
+    }
+
+    private final Configuration configuration;
+    private final ClassLoader classLoader;
+    private final int maxRounds;
+    private final Set<File> fixedFiles = new HashSet<>();
+    private int appliedFixCount = 0;
+
+    public AutoFixer(Configuration configuration, ClassLoader classLoader, int maxRounds) {
+        if (maxRounds < 1) {
+            throw new IllegalArgumentException("Number of rounds should be positive: " + maxRounds);
+        }
+        this.configuration = configuration;
+        this.classLoader = classLoader;
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Fixes the given files and reports remaining violations to the given listener.
+     *
+     * @return the number of remaining errors, the same as {@link Checker#process(List)} returns
+     */
+    public int process(List<File> files, AuditListener listener) throws CheckstyleException {
+        Charset charset = charsetOf(configuration);
+        Fixes fixes = new Fixes();
+        Checker checker = new Checker();
+        try {
+            checker.setModuleClassLoader(classLoader);
+            RunContext runContext = new RunContext().with(Fixes.class, fixes);
+            checker.setModuleFactory(RunContextModuleFactory.of(classLoader, runContext));
+            checker.configure(configuration);
+            List<File> pending = files;
+            for (int round = 0; round < maxRounds && !pending.isEmpty(); round++) {
+                pending = fix(checker, fixes, charset, pending);
+            }
+            checker.addListener(listener);
+            return checker.process(files);
+        } finally {
+            checker.destroy();
+        }
+    }
+
+    public int appliedFixCount() {
+        return appliedFixCount;
+    }
+
+    public int fixedFileCount() {
+        return fixedFiles.size();
+    }
+
+    /**
+     * Checks and fixes the given files once.
+     *
+     * @return files that were changed
+     */
+    private List<File> fix(
+            Checker checker,
+            Fixes fixes,
+            Charset charset,
+            List<File> files
+    ) throws CheckstyleException {
+        fixes.clear();
+        ReportedViolations reported = new ReportedViolations();
+        checker.addListener(reported);
+        try {
+            checker.process(files);
+        } finally {
+            checker.removeListener(reported);
+        }
+        List<File> changed = new ArrayList<>();
+        for (File file : files) {
+            List<Fix> reportedFixes = fixes.fixesOf(file.getAbsolutePath())
+                    .stream()
+                    .filter(reported::contains)
+                    .toList();
+            List<Fix> selected = TextRewriter.selectNonConflicting(reportedFixes);
+            if (!selected.isEmpty()) {
+                try {
+                    TextRewriter.rewrite(file.toPath(), charset, selected);
+                } catch (IOException | IllegalArgumentException ex) {
+                    throw new CheckstyleException("Unable to fix " + file, ex);
+                }
+                appliedFixCount += selected.size();
+                fixedFiles.add(file);
+                changed.add(file);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Remembers violations, that passed all filters, so that
+     * suppressed violations are not fixed.
+     */
+    private static class ReportedViolations implements AuditListener {
+        private final Set<Violation> violations = new HashSet<>();
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+        }
+
+        @Override
+        public void addError(AuditEvent event) {
+            violations.add(
+                    new Violation(
+                            event.getFileName(),
+                            event.getLine(),
+                            event.getSourceName(),
+                            event.getViolation().getKey()
+                    )
+            );
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+        }
+
+        boolean contains(Fix fix) {
+            return violations.contains(
+                    new Violation(fix.fileName(), fix.line(), fix.source(), fix.key())
+            );
+        }
+    }
+
+    private record Violation(String fileName, int line, String source, String key) {
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line interface of {@link AutoFixer}.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp ... com.github.sviperll.grumpinessy.runner.AutoFixerMain \
+ *     -c checkstyle.xml [-r rounds] [-f plain|xml|sarif|ndjson] [-o report]
+ *     files or directories...
+ * </pre>
+ * Files are fixed in place, violations that remain after fixing are reported.
+ * Exit code is the number of remaining errors, like the exit code of Checkstyle's own command line.
+ */
+public class AutoFixerMain {
+    private static final int USAGE_EXIT_CODE = -1;
+    private static final int DEFAULT_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException, CheckstyleException {
+        Arguments arguments = Arguments.parse(args);
+        if (arguments == null) {
+            System.err.println(
+                    "Usage: AutoFixerMain -c <configuration> [-r <rounds>]"
+                    + " [-f plain|xml|sarif|ndjson] [-o <report>]"
+                    + " <file or directory>..."
+            );
+            System.exit(USAGE_EXIT_CODE);
+        } else {
+            System.exit(run(arguments));
+        }
+    }
+
+    private static int run(Arguments arguments) throws IOException, CheckstyleException {
+        Configuration configuration = ConfigurationLoader.loadConfiguration(
+                arguments.configuration,
+                new PropertiesExpander(System.getProperties()),
+                ConfigurationLoader.IgnoredModulesOptions.OMIT
+        );
+        AutoFixer fixer = new AutoFixer(
+                configuration,
+                AutoFixerMain.class.getClassLoader(),
+                arguments.rounds
+        );
+        OutputStream output = arguments.output == null
+                ? System.out
+                : Files.newOutputStream(Path.of(arguments.output));
+        AbstractAutomaticBean.OutputStreamOptions closing = arguments.output == null
+                ? AbstractAutomaticBean.OutputStreamOptions.NONE
+                : AbstractAutomaticBean.OutputStreamOptions.CLOSE;
+        int errorCount = fixer.process(
+                ParallelCheckerMain.listFiles(arguments.paths, configuration),
+                ParallelCheckerMain.createListener(arguments.format, output, closing)
+        );
+        System.err.printf(
+                "Applied %d fixes to %d files%n",
+                fixer.appliedFixCount(),
+                fixer.fixedFileCount()
+        );
+        return errorCount;
+    }
+
+    private static class Arguments {
+        /**
+         * Returns parsed arguments or null when arguments are invalid.
+         */
+        static Arguments parse(String[] args) {
+            Arguments arguments = new Arguments();
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                boolean isOption = args[i].startsWith("-");
+                if (isOption && value == null) {
+                    return null;
+                } else if (args[i].equals("-c")) {
+                    arguments.configuration = value;
+                    i++;
+                } else if (args[i].equals("-r")) {
+                    try {
+                        arguments.rounds = Integer.parseInt(value);
+                    } catch (NumberFormatException ex) {
+                        return null;
+                    }
+                    i++;
+                } else if (args[i].equals("-f")) {
+                    arguments.format = value;
+                    i++;
+                } else if (args[i].equals("-o")) {
+                    arguments.output = value;
+                    i++;
+                } else if (isOption) {
+                    return null;
+                } else {
+                    arguments.paths.add(args[i]);
+                }
+            }
+            boolean isValid = arguments.configuration != null
+                    && !arguments.paths.isEmpty()
+                    && arguments.rounds > 0
+                    && List.of("plain", "xml", "sarif", "ndjson").contains(arguments.format);
+            return isValid ? arguments : null;
+        }
+
+        private String configuration = null;
+        private int rounds = DEFAULT_ROUNDS;
+        private String format = "plain";
+        private String output = null;
+        private final List<String> paths = new ArrayList<>();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.github.sviperll.grumpinessy.baseline.Baseline;
+import com.github.sviperll.grumpinessy.baseline.BaselineRecorder;
+import com.github.sviperll.grumpinessy.baseline.Fingerprinter;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line to regenerate baseline file of {@code BaselineFilter}.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp ... com.github.sviperll.grumpinessy.runner.BaselineMain \
+ *     -c checkstyle.xml -o baseline.bin [-b base directory] [-t threads]
+ *     files or directories...
+ * </pre>
+ * All violations are recorded, {@code BaselineFilter} modules of configuration are ignored,
+ * so that violations of the previous baseline are recorded as well.
+ */
+public class BaselineMain {
+    private static final int USAGE_EXIT_CODE = -1;
+
+    public static void main(String[] args) throws IOException, CheckstyleException {
+        Arguments arguments = Arguments.parse(args);
+        if (arguments == null) {
+            System.err.println(
+                    "Usage: BaselineMain -c <configuration> -o <baseline>"
+                    + " [-b <base directory>] [-t <threads>]"
+                    + " <file or directory>..."
+            );
+            System.exit(USAGE_EXIT_CODE);
+        } else {
+            run(arguments);
+        }
+    }
+
+    private static void run(Arguments arguments) throws IOException, CheckstyleException {
+        Configuration configuration = ConfigurationLoader.loadConfiguration(
+                arguments.configuration,
+                new PropertiesExpander(System.getProperties()),
+                ConfigurationLoader.IgnoredModulesOptions.OMIT
+        );
+        removeBaselineFilters(configuration);
+        ParallelChecker checker = new ParallelChecker(
+                configuration,
+                BaselineMain.class.getClassLoader(),
+                arguments.threadCount
+        );
+        BaselineRecorder recorder =
+                new BaselineRecorder(new Fingerprinter(Path.of(arguments.baseDirectory)));
+        checker.process(ParallelCheckerMain.listFiles(arguments.paths, configuration), recorder);
+        Baseline.write(Path.of(arguments.output), recorder.counts());
+        int violationCount = recorder.counts()
+                .values()
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        System.err.printf(
+                "Recorded %d violations with %d distinct fingerprints to %s%n",
+                violationCount,
+                recorder.counts().size(),
+                arguments.output
+        );
+    }
+
+    private static void removeBaselineFilters(Configuration configuration) {
+        if (configuration instanceof DefaultConfiguration defaultConfiguration) {
+            for (Configuration child : configuration.getChildren()) {
+                if (child.getName().endsWith("BaselineFilter")) {
+                    defaultConfiguration.removeChild(child);
+                }
+            }
+        }
+    }
+
+    private static class Arguments {
+        /**
+         * Returns parsed arguments or null when arguments are invalid.
+         */
+        static Arguments parse(String[] args) {
+            Arguments arguments = new Arguments();
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                boolean isOption = args[i].startsWith("-");
+                if (isOption && value == null) {
+                    return null;
+                } else if (args[i].equals("-c")) {
+                    arguments.configuration = value;
+                    i++;
+                } else if (args[i].equals("-o")) {
+                    arguments.output = value;
+                    i++;
+                } else if (args[i].equals("-b")) {
+                    arguments.baseDirectory = value;
+                    i++;
+                } else if (args[i].equals("-t")) {
+                    try {
+                        arguments.threadCount = Integer.parseInt(value);
+                    } catch (NumberFormatException ex) {
+                        return null;
+                    }
+                    i++;
+                } else if (isOption) {
+                    return null;
+                } else {
+                    arguments.paths.add(args[i]);
+                }
+            }
+            boolean isValid = arguments.configuration != null
+                    && arguments.output != null
+                    && !arguments.paths.isEmpty()
+                    && arguments.threadCount > 0;
+            return isValid ? arguments : null;
+        }
+
+        private String configuration = null;
+        private String output = null;
+        private String baseDirectory = ".";
+        private int threadCount = Runtime.getRuntime().availableProcessors();
+        private final List<String> paths = new ArrayList<>();
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.DefaultLogger;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps configured Checker in memory and checks files on request.
+ * <p>
+ * The same Checker instance is reused for all requests, so
+ * modules are loaded once and the code of checks stays compiled by JIT between requests.
+ * Checker is recreated when configuration file is modified.
+ * <p>
+ * Request is a list of file or directory paths, one per line, terminated by an empty line.
+ * Response is Checkstyle's plain report followed by a line with exit code,
+ * that is the number of errors found or {@code -1} when checking failed.
+ * Request consisting of a single {@value #STOP_REQUEST} line stops the daemon.
+ * When the daemon is given a token, every request should start with
+ * a line with the token after {@value #TOKEN_PREFIX} prefix,
+ * other requests are rejected without checking any file.
+ * <p>
+ * Requests are answered one at a time.
+ * Client that doesn't send the whole request within read timeout is disconnected, so
+ * that an idle client doesn't block others.
+ * Failure to communicate with a client is logged and the daemon keeps serving other clients.
+ */
+public class CheckerDaemon {
+    static final String STOP_REQUEST = "--stop";
+    static final String EXIT_CODE_PREFIX = "exit: ";
+    static final String TOKEN_PREFIX = "token: ";
+    static final int FAILURE_EXIT_CODE = -1;
+    static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Compares token of the request in constant time, so that the token can't be guessed by timing.
+     */
+    private static boolean isToken(String line, String token) {
+        if (line == null || !line.startsWith(TOKEN_PREFIX))
+            return false;
+        return MessageDigest.isEqual(
+                line.substring(TOKEN_PREFIX.length()).getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    private final Path configurationFile;
+    private final ClassLoader classLoader;
+    private final Duration readTimeout;
+    private Checker checker = null;
+    private Configuration configuration = null;
+    private long configurationModified = 0;
+
+    /**
+     * Creates daemon with the default read timeout and loads configuration from the given file.
+     */
+    public CheckerDaemon(
+            Path configurationFile,
+            ClassLoader classLoader
+    ) throws CheckstyleException {
+        this(configurationFile, classLoader, DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * Creates daemon and loads configuration from the given file.
+     *
+     * @param readTimeout time given to a client to send the whole request
+     */
+    public CheckerDaemon(
+            Path configurationFile,
+            ClassLoader classLoader,
+            Duration readTimeout
+    ) throws CheckstyleException {
+        this.configurationFile = configurationFile;
+        this.classLoader = classLoader;
+        this.readTimeout = readTimeout;
+        checker();
+    }
+
+    /**
+     * Checks all the given files and reports results to the given listener.
+     *
+     * @return the number of errors found, the same as {@link Checker#process(List)} returns
+     */
+    public synchronized int check(
+            List<File> files,
+            AuditListener listener
+    ) throws CheckstyleException {
+        List<File> sortedFiles = new ArrayList<>(files);
+        sortedFiles.sort(Comparator.comparing(File::getPath));
+        Checker current = checker();
+        current.addListener(listener);
+        boolean isFinished = false;
+        try {
+            int errorCount = current.process(sortedFiles);
+            isFinished = true;
+            return errorCount;
+        } finally {
+            current.removeListener(listener);
+            if (!isFinished) {
+                // Modules may be left in inconsistent state, recreate them for the next request
+                current.destroy();
+                checker = null;
+            }
+        }
+    }
+
+    /**
+     * Lists files of the given files or directories, that the current configuration checks.
+     *
+     * @see ParallelCheckerMain#listFiles(List, Configuration)
+     */
+    public synchronized List<File> listFiles(
+            List<String> paths
+    ) throws IOException, CheckstyleException {
+        checker();
+        return ParallelCheckerMain.listFiles(paths, configuration);
+    }
+
+    /**
+     * Checks the given files several times and discards results, so that JIT compiles checks.
+     */
+    public void warmUp(List<File> files, int rounds) throws CheckstyleException {
+        for (int i = 0; i < rounds; i++) {
+            check(files, new RecordingListener());
+        }
+    }
+
+    /**
+     * Answers requests accepted from the given channel one by one,
+     * until stop request is received.
+     *
+     * @throws IOException when the server channel fails,
+     *                     failures of accepted channels are logged and don't stop serving
+     */
+    public void serve(ServerSocketChannel server) throws IOException {
+        serve(server, null);
+    }
+
+    /**
+     * Answers requests with the given token accepted from the given channel one by one,
+     * until stop request is received, null token means that requests have no token.
+     *
+     * @throws IOException when the server channel fails,
+     *                     failures of accepted channels are logged and don't stop serving
+     */
+    public void serve(ServerSocketChannel server, String token) throws IOException {
+        boolean isStopped = false;
+        while (!isStopped) {
+            SocketChannel accepted = server.accept();
+            try (accepted) {
+                isStopped = !answer(accepted, token);
+            } catch (IOException ex) {
+                // Client has disconnected or timed out, this shouldn't affect other clients
+                System.err.println("Unable to answer request: " + ex);
+            }
+        }
+        synchronized (this) {
+            if (checker != null) {
+                checker.destroy();
+                checker = null;
+            }
+        }
+    }
+
+    /**
+     * Answers single request.
+     *
+     * @return false when the request is a stop request
+     */
+    private boolean answer(SocketChannel channel, String token) throws IOException {
+        List<String> paths = new ArrayList<>();
+        boolean isAuthorized = true;
+        // Channel is read in non-blocking mode, since blocking reads of channels have no timeout
+        channel.configureBlocking(false);
+        try (Selector selector = Selector.open()) {
+            channel.register(selector, SelectionKey.OP_READ);
+            InputStream input = new TimedInputStream(channel, selector, readTimeout);
+            BufferedReader reader =
+                    new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line = reader.readLine();
+            if (token != null) {
+                isAuthorized = isToken(line, token);
+                line = isAuthorized ? reader.readLine() : null;
+            }
+            while (line != null && !line.isEmpty()) {
+                if (line.equals(STOP_REQUEST))
+                    return false;
+                paths.add(line);
+                line = reader.readLine();
+            }
+        }
+        channel.configureBlocking(true);
+        OutputStream output = Channels.newOutputStream(channel);
+        int exitCode;
+        if (!isAuthorized) {
+            System.err.println("Rejected request without valid token");
+            output.write("Request has no valid token\n".getBytes(StandardCharsets.UTF_8));
+            exitCode = FAILURE_EXIT_CODE;
+        } else {
+            exitCode = check(paths, output);
+        }
+        output.write((EXIT_CODE_PREFIX + exitCode + "\n").getBytes(StandardCharsets.UTF_8));
+        output.flush();
+        return true;
+    }
+
+    /**
+     * Checks the given files or directories and writes plain report to the given output.
+     */
+    private int check(List<String> paths, OutputStream output) throws IOException {
+        try {
+            List<File> files = listFiles(paths);
+            AuditListener logger = new DefaultLogger(
+                    output,
+                    AbstractAutomaticBean.OutputStreamOptions.NONE
+            );
+            return check(files, logger);
+        } catch (CheckstyleException | IOException | RuntimeException ex) {
+            // Daemon keeps running, failure is reported to the client only
+            output.write((ex + "\n").getBytes(StandardCharsets.UTF_8));
+            return FAILURE_EXIT_CODE;
+        }
+    }
+
+    private Checker checker() throws CheckstyleException {
+        long modified = configurationFile.toFile().lastModified();
+        if (checker == null || modified != configurationModified) {
+            Configuration loaded = ConfigurationLoader.loadConfiguration(
+                    configurationFile.toString(),
+                    new PropertiesExpander(System.getProperties()),
+                    ConfigurationLoader.IgnoredModulesOptions.OMIT
+            );
+            Checker created = new Checker();
+            created.setModuleClassLoader(classLoader);
+            created.configure(loaded);
+            if (checker != null) {
+                checker.destroy();
+            }
+            checker = created;
+            configuration = loaded;
+            configurationModified = modified;
+        }
+        return checker;
+    }
+
+    /**
+     * Reads non-blocking channel and fails when nothing is read until the deadline.
+     */
+    private static class TimedInputStream extends InputStream {
+        private final SocketChannel channel;
+        private final Selector selector;
+        private final Duration timeout;
+        private final long deadline;
+
+        TimedInputStream(SocketChannel channel, Selector selector, Duration timeout) {
+            this.channel = channel;
+            this.selector = selector;
+            this.timeout = timeout;
+            this.deadline = System.nanoTime() + timeout.toNanos();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+            int count = read(buffer, 0, 1);
+            return count < 0 ? -1 : buffer[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0)
+                return 0;
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+            int count = channel.read(buffer);
+            while (count == 0) {
+                long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMillis <= 0)
+                    throw new SocketTimeoutException("No request received within " + timeout);
+                selector.select(remainingMillis);
+                selector.selectedKeys().clear();
+                count = channel.read(buffer);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends check request to a running {@link CheckerDaemon} and prints the report.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp ... com.github.sviperll.grumpinessy.runner.CheckerDaemonClient \
+ *     (--socket socket-file | --port port --token-file token-file) \
+ *     (--stop | files or directories...)
+ * </pre>
+ * Token file is the file given to the daemon started with {@code --port}.
+ * Exit code is the exit code reported by the daemon, that is the number of errors found.
+ * Client doesn't load Checkstyle, so it starts faster than Checkstyle's own command line.
+ */
+public class CheckerDaemonClient {
+    private static final int USAGE_EXIT_CODE = -1;
+    private static final int FAILURE_EXIT_CODE = -1;
+
+    public static void main(String[] args) {
+        String socketFile = null;
+        String port = null;
+        String tokenFile = null;
+        List<String> request = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            boolean hasValue = i + 1 < args.length;
+            if (args[i].equals("--socket") && hasValue) {
+                socketFile = args[++i];
+            } else if (args[i].equals("--port") && hasValue) {
+                port = args[++i];
+            } else if (args[i].equals("--token-file") && hasValue) {
+                tokenFile = args[++i];
+            } else if (args[i].equals(CheckerDaemon.STOP_REQUEST)) {
+                request.add(CheckerDaemon.STOP_REQUEST);
+            } else {
+                // Daemon may run in another directory
+                request.add(Path.of(args[i]).toAbsolutePath().toString());
+            }
+        }
+        DaemonAddress address = DaemonAddress.parse(socketFile, port, tokenFile);
+        if (address == null || request.isEmpty()) {
+            System.err.println(
+                    "Usage: CheckerDaemonClient"
+                    + " (--socket <socket file> | --port <port> --token-file <token file>)"
+                    + " (--stop | <file or directory>...)"
+            );
+            System.exit(USAGE_EXIT_CODE);
+        }
+        try {
+            System.exit(send(address, request));
+        } catch (IOException ex) {
+            System.err.println("Unable to connect to checker daemon: " + ex);
+            System.exit(FAILURE_EXIT_CODE);
+        }
+    }
+
+    private static int send(DaemonAddress address, List<String> request) throws IOException {
+        String token = address.readToken();
+        try (SocketChannel channel = address.connect()) {
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            if (token != null) {
+                writer.write(CheckerDaemon.TOKEN_PREFIX + token + "\n");
+            }
+            for (String line : request) {
+                writer.write(line + "\n");
+            }
+            writer.write("\n");
+            writer.flush();
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8)
+            );
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String prefix = CheckerDaemon.EXIT_CODE_PREFIX;
+                if (line.startsWith(prefix))
+                    return Integer.parseInt(line.substring(prefix.length()));
+                System.out.println(line);
+            }
+            return request.contains(CheckerDaemon.STOP_REQUEST) ? 0 : FAILURE_EXIT_CODE;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line interface of {@link CheckerDaemon}.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp ... com.github.sviperll.grumpinessy.runner.CheckerDaemonMain \
+ *     -c checkstyle.xml (--socket socket-file | --port port --token-file token-file)
+ *     [--warmup file or directory]...
+ * </pre>
+ * With {@code --port} the daemon writes a random token to the token file and
+ * answers only requests with this token, see {@link DaemonAddress}.
+ * Files given with {@code --warmup} are checked several times before the daemon starts
+ * to accept requests, so that checks are already compiled by JIT when the first request comes.
+ * Use {@link CheckerDaemonClient} to send requests.
+ */
+public class CheckerDaemonMain {
+    private static final int USAGE_EXIT_CODE = -1;
+    private static final int WARM_UP_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException, CheckstyleException {
+        Arguments arguments = Arguments.parse(args);
+        if (arguments == null) {
+            System.err.println(
+                    "Usage: CheckerDaemonMain -c <configuration>"
+                    + " (--socket <socket file> | --port <port> --token-file <token file>)"
+                    + " [--warmup <file or directory>]..."
+            );
+            System.exit(USAGE_EXIT_CODE);
+        } else {
+            run(arguments);
+        }
+    }
+
+    private static void run(Arguments arguments) throws IOException, CheckstyleException {
+        CheckerDaemon daemon = new CheckerDaemon(
+                Path.of(arguments.configuration),
+                CheckerDaemonMain.class.getClassLoader()
+        );
+        if (!arguments.warmUpPaths.isEmpty()) {
+            daemon.warmUp(daemon.listFiles(arguments.warmUpPaths), WARM_UP_ROUNDS);
+        }
+        try (ServerSocketChannel server = arguments.address.bind()) {
+            daemon.serve(server, arguments.address.createToken());
+        } finally {
+            arguments.address.release();
+        }
+    }
+
+    private static class Arguments {
+        /**
+         * Returns parsed arguments or null when arguments are invalid.
+         */
+        static Arguments parse(String[] args) {
+            Arguments arguments = new Arguments();
+            String socketFile = null;
+            String port = null;
+            String tokenFile = null;
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                if (args[i].equals("-c")) {
+                    arguments.configuration = value;
+                } else if (args[i].equals("--socket")) {
+                    socketFile = value;
+                } else if (args[i].equals("--port")) {
+                    port = value;
+                } else if (args[i].equals("--token-file")) {
+                    tokenFile = value;
+                } else if (args[i].equals("--warmup")) {
+                    arguments.warmUpPaths.add(value);
+                } else {
+                    return null;
+                }
+            }
+            arguments.address = DaemonAddress.parse(socketFile, port, tokenFile);
+            boolean isValid = args.length % 2 == 0
+                    && arguments.configuration != null
+                    && arguments.address != null;
+            return isValid ? arguments : null;
+        }
+
+        private String configuration = null;
+        private DaemonAddress address = null;
+        private final List<String> warmUpPaths = new ArrayList<>();
+    }
+}
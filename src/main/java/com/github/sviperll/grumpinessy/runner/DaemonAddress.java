@@ -0,0 +1,159 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Address of {@link CheckerDaemon}.
+ * <p>
+ * Any local user can connect to a loopback port, so
+ * requests sent to a port are authenticated with a random token, that
+ * the daemon writes to a token file readable by its owner only.
+ * Socket file is made accessible to its owner only instead.
+ * Owner-only permissions are set where the file system supports POSIX permissions,
+ * elsewhere access is only as restricted as the directory of the files.
+ *
+ * @param socketFile Unix-domain socket file or null, when port is used
+ * @param port port on the loopback interface
+ * @param tokenFile file with the token of requests sent to the port or null, when socket is used
+ */
+record DaemonAddress(Path socketFile, int port, Path tokenFile) {
+    private static final int TOKEN_SIZE = 32;
+    private static final Set<PosixFilePermission> OWNER_ONLY =
+            PosixFilePermissions.fromString("rw-------");
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    static DaemonAddress ofSocketFile(String socketFile) {
+        return new DaemonAddress(Path.of(socketFile), 0, null);
+    }
+
+    static DaemonAddress ofPort(int port, String tokenFile) {
+        return new DaemonAddress(null, port, Path.of(tokenFile));
+    }
+
+    /**
+     * Returns address given by command line options, that are null when not given,
+     * or null when options are invalid.
+     * Port requires token file, socket file can't be given together with port.
+     */
+    static DaemonAddress parse(String socketFile, String port, String tokenFile) {
+        if (socketFile != null && port == null && tokenFile == null)
+            return ofSocketFile(socketFile);
+        if (socketFile != null || port == null || tokenFile == null || !port.matches("[0-9]+"))
+            return null;
+        try {
+            return ofPort(Integer.parseInt(port), tokenFile);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    /**
+     * Binds server channel to this address, stale socket file is removed.
+     */
+    ServerSocketChannel bind() throws IOException {
+        if (socketFile != null) {
+            Files.deleteIfExists(socketFile);
+            ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(UnixDomainSocketAddress.of(socketFile));
+            if (isPosix()) {
+                Files.setPosixFilePermissions(socketFile, OWNER_ONLY);
+            }
+            return server;
+        } else {
+            ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.INET);
+            return server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        }
+    }
+
+    SocketChannel connect() throws IOException {
+        if (socketFile != null) {
+            return SocketChannel.open(UnixDomainSocketAddress.of(socketFile));
+        } else {
+            InetAddress loopback = InetAddress.getLoopbackAddress();
+            return SocketChannel.open(new InetSocketAddress(loopback, port));
+        }
+    }
+
+    /**
+     * Writes a new random token to the token file, stale token file is removed.
+     *
+     * @return the token, that requests should have, or null, when socket file is used
+     */
+    String createToken() throws IOException {
+        if (tokenFile == null)
+            return null;
+        byte[] bytes = new byte[TOKEN_SIZE];
+        RANDOM.nextBytes(bytes);
+        String token = HexFormat.of().formatHex(bytes);
+        Files.deleteIfExists(tokenFile);
+        FileAttribute<?>[] attributes = isPosix()
+                ? new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(OWNER_ONLY)}
+                : new FileAttribute<?>[0];
+        // File is created anew, so that the token is never written to a file created by others
+        Files.createFile(tokenFile, attributes);
+        Files.writeString(tokenFile, token + "\n", StandardCharsets.UTF_8);
+        return token;
+    }
+
+    /**
+     * Reads token written by the daemon.
+     *
+     * @return the token or null, when socket file is used
+     */
+    String readToken() throws IOException {
+        if (tokenFile == null)
+            return null;
+        return Files.readString(tokenFile, StandardCharsets.UTF_8).strip();
+    }
+
+    /**
+     * Removes socket file or token file, if any, after server channel is closed.
+     */
+    void release() throws IOException {
+        if (socketFile != null) {
+            Files.deleteIfExists(socketFile);
+        }
+        if (tokenFile != null) {
+            Files.deleteIfExists(tokenFile);
+        }
+    }
+}
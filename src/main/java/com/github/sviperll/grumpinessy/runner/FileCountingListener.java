@@ -0,0 +1,81 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Passes all events to the given listener and counts distinct started files.
+ * <p>
+ * Checker starts only files accepted by file filters, so
+ * files, that are given to Checker, but are not counted, were skipped by filters,
+ * like generated files.
+ */
+class FileCountingListener implements AuditListener {
+    private final AuditListener listener;
+    private final Set<String> fileNames = new HashSet<>();
+
+    FileCountingListener(AuditListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the number of distinct files started so far.
+     */
+    int fileCount() {
+        return fileNames.size();
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        listener.auditStarted(event);
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        listener.auditFinished(event);
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        if (event.getFileName() != null) {
+            fileNames.add(event.getFileName());
+        }
+        listener.fileStarted(event);
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        listener.fileFinished(event);
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        listener.addError(event);
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        listener.addException(event, throwable);
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.github.sviperll.grumpinessy.context.RunContext;
+import com.github.sviperll.grumpinessy.context.RunContextModuleFactory;
+import com.github.sviperll.grumpinessy.crossfile.CrossFileState;
+import com.github.sviperll.grumpinessy.diff.ChangedLines;
+import com.github.sviperll.grumpinessy.diff.LineRanges;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs Checkstyle over many files using several threads.
+ * <p>
+ * Checks keep per-file state, so modules can't be shared between threads.
+ * Instead every thread gets its own Checker configured from the same configuration and
+ * hence its own instances of all modules.
+ * All Checkers are configured before any file is processed, so that modules,
+ * that collect results across files, like a package dependency graph,
+ * can share them between threads through a {@link RunContext}, that is created for every run.
+ * Files are distributed between threads by size, so that threads get similar amount of work.
+ * <p>
+ * Events are collected and replayed to the listener after all files are checked, so
+ * the report is deterministic: files are reported in the order of their paths and
+ * violations are sorted by position within each file.
+ * <p>
+ * When changed lines are given, only changed files are checked,
+ * checks skip unchanged code and only violations on changed lines are reported.
+ * <p>
+ * Project can be split into several {@link Shard}s, that are checked by separate processes,
+ * see {@link #processShard(List, Shard)}.
+ * Partial reports of all shards are merged into the same report, that
+ * {@link #process(List, AuditListener)} produces, see {@link #merge(List, AuditListener)}.
+ */
+public class ParallelChecker {
+    private static final Comparator<RecordingListener.FileReport> FILE_ORDER = Comparator
+            .comparing(
+                    RecordingListener.FileReport::fileName,
+                    Comparator.nullsFirst(Comparator.<String>naturalOrder())
+            )
+            .thenComparing(RecordingListener.FileReport::isCrossFile);
+
+    /**
+     * Distributes files between the given number of buckets, largest files first,
+     * each file goes to the least loaded bucket.
+     */
+    static List<List<File>> partition(List<File> files, int bucketCount) {
+        List<File> sorted = new ArrayList<>(files);
+        sorted.sort(Comparator.comparingLong(File::length).reversed().thenComparing(File::getPath));
+        List<Bucket> buckets = new ArrayList<>();
+        PriorityQueue<Bucket> queue = new PriorityQueue<>(
+                Comparator.comparingLong(Bucket::size).thenComparing(Bucket::index)
+        );
+        for (int i = 0; i < Math.min(bucketCount, sorted.size()); i++) {
+            Bucket bucket = new Bucket(i);
+            buckets.add(bucket);
+            queue.add(bucket);
+        }
+        for (File file : sorted) {
+            Bucket bucket = queue.remove();
+            bucket.add(file);
+            queue.add(bucket);
+        }
+        return buckets.stream().map(Bucket::files).toList();
+    }
+
+    private final Configuration configuration;
+    private final ClassLoader classLoader;
+    private final int threadCount;
+    private final ChangedLines changedLines;
+
+    public ParallelChecker(Configuration configuration, ClassLoader classLoader, int threadCount) {
+        this(configuration, classLoader, threadCount, null);
+    }
+
+    /**
+     * Creates checker limited to the given changed lines, null means that everything is checked.
+     */
+    public ParallelChecker(
+            Configuration configuration,
+            ClassLoader classLoader,
+            int threadCount,
+            ChangedLines changedLines
+    ) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count should be positive: " + threadCount);
+        }
+        this.configuration = configuration;
+        this.classLoader = classLoader;
+        this.threadCount = threadCount;
+        this.changedLines = changedLines;
+    }
+
+    /**
+     * Checks all the given files and reports results to the given listener.
+     *
+     * @return the number of errors found, the same as {@link Checker#process(List)} returns
+     */
+    public int process(List<File> files, AuditListener listener) throws CheckstyleException {
+        Result result = processChanged(files, null, runContext());
+        replay(result.reports(), listener);
+        return result.errorCount();
+    }
+
+    /**
+     * Checks files of the given shard, the same list of files should be given to every shard.
+     * <p>
+     * Cross-file violations, like package dependency cycles, are not reported,
+     * instead state of cross-file checks is kept in the partial report.
+     */
+    public ShardReport processShard(List<File> files, Shard shard) throws CheckstyleException {
+        CrossFileState state = CrossFileState.collecting();
+        RunContext runContext = runContext().with(CrossFileState.class, state);
+        Result result = processChanged(files, shard, runContext);
+        return new ShardReport(shard, result.errorCount(), result.reports(), state);
+    }
+
+    /**
+     * Merges partial reports of all shards and reports results to the given listener.
+     * <p>
+     * Cross-file checks are run once more with the state merged from all shards,
+     * so cross-file violations are reported in the same way as by
+     * {@link #process(List, AuditListener)}.
+     *
+     * @return the number of errors found in all shards
+     * @throws IllegalArgumentException if reports are not of every shard of the same split
+     */
+    public int merge(List<ShardReport> shards, AuditListener listener) throws CheckstyleException {
+        int shardCount = shards.isEmpty() ? 0 : shards.get(0).shard().count();
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (ShardReport shard : shards) {
+            if (shard.shard().count() != shardCount || !indexes.add(shard.shard().index())) {
+                throw new IllegalArgumentException("Unexpected shard " + shard.shard());
+            }
+        }
+        if (indexes.size() != shardCount || shardCount == 0) {
+            throw new IllegalArgumentException(
+                    "Expecting reports of all " + shardCount + " shards, got " + indexes
+            );
+        }
+        List<RecordingListener.FileReport> reports = new ArrayList<>();
+        List<CrossFileState> states = new ArrayList<>();
+        int errorCount = 0;
+        for (ShardReport shard : shards) {
+            reports.addAll(shard.reports());
+            states.add(shard.state());
+            errorCount += shard.errorCount();
+        }
+        RunContext runContext =
+                runContext().with(CrossFileState.class, CrossFileState.merging(states));
+        // A single Checker without files runs only finishing steps of cross-file checks
+        Result result = processBuckets(List.of(List.of()), runContext);
+        reports.addAll(result.reports());
+        errorCount += result.errorCount();
+        replay(reports, listener);
+        return errorCount;
+    }
+
+    /**
+     * Returns files, that are checked when changed lines are given, or all files otherwise.
+     */
+    List<File> changedFilesOf(List<File> files) {
+        if (changedLines == null)
+            return files;
+        return files.stream()
+                .filter(file -> changedLines.isChanged(file.getPath()))
+                .toList();
+    }
+
+    /**
+     * Checks changed files of the given shard, null shard means all files.
+     */
+    private Result processChanged(
+            List<File> files,
+            Shard shard,
+            RunContext runContext
+    ) throws CheckstyleException {
+        List<File> checkedFiles = changedFilesOf(files);
+        if (shard != null) {
+            checkedFiles = shard.select(checkedFiles);
+        }
+        return processBuckets(partition(checkedFiles, threadCount), runContext);
+    }
+
+    /**
+     * Returns context of a new run, that passes changed lines, if any, to checks.
+     */
+    private RunContext runContext() {
+        return new RunContext().with(ChangedLines.class, changedLines);
+    }
+
+    private Result processBuckets(
+            List<List<File>> buckets,
+            RunContext runContext
+    ) throws CheckstyleException {
+        List<RecordingListener.FileReport> reports = new ArrayList<>();
+        int errorCount = 0;
+        List<Checker> checkers = createCheckers(buckets.size(), runContext);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, buckets.size()));
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < buckets.size(); i++) {
+                Checker checker = checkers.get(i);
+                List<File> bucket = buckets.get(i);
+                futures.add(executor.submit(() -> check(checker, bucket)));
+            }
+            for (Future<Result> future : futures) {
+                Result result = future.get();
+                reports.addAll(result.reports());
+                errorCount += result.errorCount();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CheckstyleException("Interrupted while checking files", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof CheckstyleException cause) {
+                throw cause;
+            }
+            throw new CheckstyleException("Unable to check files", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Result(reports, errorCount);
+    }
+
+    private void replay(List<RecordingListener.FileReport> reports, AuditListener listener) {
+        List<RecordingListener.FileReport> sorted = new ArrayList<>(reports);
+        sorted.sort(FILE_ORDER);
+        listener.auditStarted(new AuditEvent(this));
+        for (RecordingListener.FileReport report : sorted) {
+            report.replay(this, listener);
+        }
+        listener.auditFinished(new AuditEvent(this));
+    }
+
+    private List<Checker> createCheckers(
+            int count,
+            RunContext runContext
+    ) throws CheckstyleException {
+        List<Checker> checkers = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                Checker checker = new Checker();
+                checkers.add(checker);
+                checker.setModuleClassLoader(classLoader);
+                checker.setModuleFactory(RunContextModuleFactory.of(classLoader, runContext));
+                checker.configure(configuration);
+                if (changedLines != null) {
+                    checker.addFilter(this::isOnChangedLine);
+                }
+            }
+            return checkers;
+        } catch (CheckstyleException | RuntimeException ex) {
+            for (Checker checker : checkers) {
+                checker.destroy();
+            }
+            throw ex;
+        }
+    }
+
+    private Result check(Checker checker, List<File> files) throws CheckstyleException {
+        try {
+            RecordingListener recorder = new RecordingListener();
+            checker.addListener(recorder);
+            int errorCount = checker.process(files);
+            return new Result(recorder.reports(), errorCount);
+        } finally {
+            checker.destroy();
+        }
+    }
+
+    private boolean isOnChangedLine(AuditEvent event) {
+        if (event.getFileName() == null)
+            return true;
+        LineRanges lines = changedLines.linesOf(event.getFileName());
+        return event.getLine() == 0 ? !lines.isEmpty() : lines.contains(event.getLine());
+    }
+
+    private record Result(List<RecordingListener.FileReport> reports, int errorCount) {
+    }
+
+    private static class Bucket {
+        private final int index;
+        private final List<File> files = new ArrayList<>();
+        private long size = 0;
+
+        Bucket(int index) {
+            this.index = index;
+        }
+
+        void add(File file) {
+            files.add(file);
+            size += file.length();
+        }
+
+        int index() {
+            return index;
+        }
+
+        long size() {
+            return size;
+        }
+
+        List<File> files() {
+            return files;
+        }
+    }
+}
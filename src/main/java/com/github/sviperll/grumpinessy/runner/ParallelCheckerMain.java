@@ -0,0 +1,290 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.github.sviperll.grumpinessy.diff.ChangedLines;
+import com.github.sviperll.grumpinessy.profile.ProfileTier;
+import com.github.sviperll.grumpinessy.report.StreamingReportListener;
+import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
+import com.puppycrawl.tools.checkstyle.DefaultLogger;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.SarifLogger;
+import com.puppycrawl.tools.checkstyle.XMLLogger;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Command line interface of {@link ParallelChecker}.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp ... com.github.sviperll.grumpinessy.runner.ParallelCheckerMain \
+ *     -c checkstyle.xml [-t threads] [-f plain|xml|sarif|ndjson] [-o report]
+ *     [--diff unified.diff | --base revision] [--repository directory] [--tier fast|full]
+ *     [--shard index/count] files or directories...
+ * java -cp ... com.github.sviperll.grumpinessy.runner.ParallelCheckerMain \
+ *     -c checkstyle.xml --merge [-f plain|xml|sarif|ndjson] [-o report]
+ *     [--diff unified.diff | --base revision] [--repository directory] [--tier fast|full]
+ *     partial reports...
+ * </pre>
+ * With {@code --diff} or {@code --base} only changed lines are checked,
+ * changed lines are read from the unified diff file or
+ * are collected from the git repository, relative to the given base revision.
+ * With {@code --tier} only checks of the given {@link ProfileTier} are run,
+ * tier defaults to the value of {@value ProfileTier#PROPERTY} system property.
+ * With {@code --shard} only files of the given {@link Shard} are checked and
+ * a partial report is written to the file given with {@code -o}.
+ * With {@code --merge} partial reports of all shards are merged into a single report,
+ * the same options should be given to every shard and to the merge.
+ * Exit code is the number of errors found, like the exit code of Checkstyle's own command line.
+ */
+public class ParallelCheckerMain {
+    private static final int USAGE_EXIT_CODE = -1;
+    private static final String FILE_EXTENSIONS = "fileExtensions";
+    private static final String DEFAULT_FILE_EXTENSION = "java";
+
+    public static void main(String[] args) throws IOException, CheckstyleException {
+        Arguments arguments = Arguments.parse(args);
+        if (arguments == null) {
+            System.err.println(
+                    "Usage: ParallelCheckerMain -c <configuration> [-t <threads>]"
+                    + " [-f plain|xml|sarif|ndjson] [-o <report>]"
+                    + " [--diff <unified diff> | --base <revision>] [--repository <directory>]"
+                    + " [--tier fast|full]"
+                    + " [--shard <index>/<count>] <file or directory>..."
+            );
+            System.err.println(
+                    "       ParallelCheckerMain -c <configuration> --merge"
+                    + " [-f plain|xml|sarif|ndjson] [-o <report>]"
+                    + " [--diff <unified diff> | --base <revision>] [--repository <directory>]"
+                    + " [--tier fast|full]"
+                    + " <partial report>..."
+            );
+            System.exit(USAGE_EXIT_CODE);
+        } else {
+            System.exit(run(arguments));
+        }
+    }
+
+    private static int run(Arguments arguments) throws IOException, CheckstyleException {
+        Configuration configuration = arguments.tier.loadConfiguration(
+                arguments.configuration,
+                new PropertiesExpander(System.getProperties())
+        );
+        ChangedLines changedLines = null;
+        Path repository = Path.of(arguments.repository);
+        if (arguments.diff != null) {
+            changedLines = ChangedLines.readDiffFile(Path.of(arguments.diff), repository);
+        } else if (arguments.baseRevision != null) {
+            changedLines = ChangedLines.readGitDiff(repository, arguments.baseRevision);
+        }
+        ParallelChecker checker = new ParallelChecker(
+                configuration,
+                ParallelCheckerMain.class.getClassLoader(),
+                arguments.threadCount,
+                changedLines
+        );
+        if (arguments.shard != null) {
+            List<File> files = listFiles(arguments.paths, configuration);
+            ShardReport report = checker.processShard(files, arguments.shard);
+            report.write(Path.of(arguments.output));
+            return report.errorCount();
+        }
+        List<ShardReport> shards = arguments.isMerge ? readShardReports(arguments.paths) : null;
+        OutputStream output = arguments.output == null
+                ? System.out
+                : Files.newOutputStream(Path.of(arguments.output));
+        AbstractAutomaticBean.OutputStreamOptions closing = arguments.output == null
+                ? AbstractAutomaticBean.OutputStreamOptions.NONE
+                : AbstractAutomaticBean.OutputStreamOptions.CLOSE;
+        AuditListener listener = createListener(arguments.format, output, closing);
+        if (shards != null)
+            return checker.merge(shards, listener);
+        List<File> files = listFiles(arguments.paths, configuration);
+        FileCountingListener counter = new FileCountingListener(listener);
+        int errorCount = checker.process(files, counter);
+        int checkedFileCount = checker.changedFilesOf(files).size();
+        int skippedFileCount = checkedFileCount - counter.fileCount();
+        if (skippedFileCount > 0) {
+            // Files are skipped by file filters, like generated files filter
+            System.err.printf("Skipped %d files of %d%n", skippedFileCount, checkedFileCount);
+        }
+        return errorCount;
+    }
+
+    static AuditListener createListener(
+            String format,
+            OutputStream output,
+            AbstractAutomaticBean.OutputStreamOptions closing
+    ) throws IOException {
+        if (format.equals("xml")) {
+            return new XMLLogger(output, closing);
+        } else if (format.equals("sarif")) {
+            return new SarifLogger(output, closing);
+        } else if (format.equals("ndjson")) {
+            return new StreamingReportListener(
+                    output,
+                    closing,
+                    StreamingReportListener.Format.NDJSON
+            );
+        } else {
+            return new DefaultLogger(output, closing);
+        }
+    }
+
+    private static List<ShardReport> readShardReports(List<String> paths) throws IOException {
+        List<ShardReport> shards = new ArrayList<>();
+        for (String path : paths) {
+            shards.add(ShardReport.read(Path.of(path)));
+        }
+        return shards;
+    }
+
+    /**
+     * Lists files of the given files or directories, that have one of the file extensions
+     * configured for the Checker module, java files are listed when no extensions are configured.
+     */
+    static List<File> listFiles(
+            List<String> paths,
+            Configuration configuration
+    ) throws IOException, CheckstyleException {
+        List<String> extensions = fileExtensionsOf(configuration);
+        List<File> files = new ArrayList<>();
+        for (String path : paths) {
+            try (Stream<Path> walk = Files.walk(Path.of(path))) {
+                walk.filter(Files::isRegularFile)
+                        .filter(file -> hasExtension(file, extensions))
+                        .map(Path::toFile)
+                        .forEach(files::add);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Returns file extensions with leading dots, like Checker does.
+     */
+    private static List<String> fileExtensionsOf(
+            Configuration configuration
+    ) throws CheckstyleException {
+        String value = List.of(configuration.getPropertyNames()).contains(FILE_EXTENSIONS)
+                ? configuration.getProperty(FILE_EXTENSIONS)
+                : DEFAULT_FILE_EXTENSION;
+        return Stream.of(value.split(","))
+                .map(String::trim)
+                .filter(extension -> !extension.isEmpty())
+                .map(extension -> extension.startsWith(".") ? extension : "." + extension)
+                .toList();
+    }
+
+    private static boolean hasExtension(Path file, List<String> extensions) {
+        String name = file.getFileName().toString();
+        return extensions.isEmpty() || extensions.stream().anyMatch(name::endsWith);
+    }
+
+    private static class Arguments {
+        /**
+         * Returns parsed arguments or null when arguments are invalid.
+         */
+        static Arguments parse(String[] args) {
+            Arguments arguments = new Arguments();
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                boolean isOption = args[i].startsWith("-");
+                if (args[i].equals("--merge")) {
+                    arguments.isMerge = true;
+                } else if (isOption && value == null) {
+                    return null;
+                } else if (args[i].equals("-c")) {
+                    arguments.configuration = value;
+                    i++;
+                } else if (args[i].equals("-t")) {
+                    try {
+                        arguments.threadCount = Integer.parseInt(value);
+                    } catch (NumberFormatException ex) {
+                        return null;
+                    }
+                    i++;
+                } else if (args[i].equals("-f")) {
+                    arguments.format = value;
+                    i++;
+                } else if (args[i].equals("-o")) {
+                    arguments.output = value;
+                    i++;
+                } else if (args[i].equals("--diff")) {
+                    arguments.diff = value;
+                    i++;
+                } else if (args[i].equals("--base")) {
+                    arguments.baseRevision = value;
+                    i++;
+                } else if (args[i].equals("--repository")) {
+                    arguments.repository = value;
+                    i++;
+                } else if (args[i].equals("--tier")) {
+                    try {
+                        arguments.tier = ProfileTier.of(value);
+                    } catch (IllegalArgumentException ex) {
+                        return null;
+                    }
+                    i++;
+                } else if (args[i].equals("--shard")) {
+                    try {
+                        arguments.shard = Shard.parse(value);
+                    } catch (IllegalArgumentException ex) {
+                        return null;
+                    }
+                    i++;
+                } else if (isOption) {
+                    return null;
+                } else {
+                    arguments.paths.add(args[i]);
+                }
+            }
+            boolean isValid = arguments.configuration != null
+                    && !arguments.paths.isEmpty()
+                    && arguments.threadCount > 0
+                    && (arguments.diff == null || arguments.baseRevision == null)
+                    && (arguments.shard == null || arguments.output != null && !arguments.isMerge)
+                    && List.of("plain", "xml", "sarif", "ndjson").contains(arguments.format);
+            return isValid ? arguments : null;
+        }
+
+        private String configuration = null;
+        private int threadCount = Runtime.getRuntime().availableProcessors();
+        private String format = "plain";
+        private String output = null;
+        private String diff = null;
+        private String baseRevision = null;
+        private String repository = ".";
+        private ProfileTier tier = ProfileTier.fromSystemProperty();
+        private Shard shard = null;
+        private boolean isMerge = false;
+        private final List<String> paths = new ArrayList<>();
+    }
+}
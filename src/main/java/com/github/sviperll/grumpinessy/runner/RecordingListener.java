@@ -0,0 +1,233 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.github.sviperll.grumpinessy.io.ViolationCodec;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Remembers audit events of a single Checker,
+ * so that they can be replayed later in a fixed order.
+ * <p>
+ * Recorded events can be written to a partial report of a {@link Shard} and
+ * read back by the process, that merges shards.
+ */
+class RecordingListener implements AuditListener {
+    private final List<FileReport> reports = new ArrayList<>();
+    private FileReport current = null;
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        current = new FileReport(event.getFileName(), false);
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        reports.add(current);
+        current = null;
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        report(event).errors.add(event);
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        report(event).exceptions.add(new ExceptionEvent(event, throwable));
+    }
+
+    List<FileReport> reports() {
+        return reports;
+    }
+
+    private FileReport report(AuditEvent event) {
+        if (current == null) {
+            // Events outside of fileStarted/fileFinished are reported as a separate pseudo-file
+            FileReport report = new FileReport(event.getFileName(), true);
+            reports.add(report);
+            return report;
+        }
+        return current;
+    }
+
+    static class FileReport {
+        /**
+         * Reads report written with {@link #write(DataOutputStream)},
+         * events of the report come from the given source.
+         */
+        static FileReport read(DataInputStream input, Object source) throws IOException {
+            String reportFileName = ViolationCodec.readString(input);
+            FileReport report = new FileReport(reportFileName, input.readBoolean());
+            int errorCount = input.readInt();
+            for (int i = 0; i < errorCount; i++) {
+                String fileName = ViolationCodec.readString(input);
+                report.errors.add(new AuditEvent(source, fileName, readViolation(input)));
+            }
+            int exceptionCount = input.readInt();
+            for (int i = 0; i < exceptionCount; i++) {
+                String fileName = ViolationCodec.readString(input);
+                Violation violation = input.readBoolean() ? readViolation(input) : null;
+                AuditEvent event = new AuditEvent(source, fileName, violation);
+                RecordedException throwable = new RecordedException(
+                        ViolationCodec.readString(input),
+                        ViolationCodec.readString(input),
+                        ViolationCodec.readString(input)
+                );
+                report.exceptions.add(new ExceptionEvent(event, throwable));
+            }
+            return report;
+        }
+
+        private static Violation readViolation(DataInputStream input) throws IOException {
+            return ViolationCodec.readViolation(input, RecordingListener.class.getClassLoader());
+        }
+
+        private final String fileName;
+        private final boolean isCrossFile;
+        private final List<AuditEvent> errors = new ArrayList<>();
+        private final List<ExceptionEvent> exceptions = new ArrayList<>();
+
+        /**
+         * Creates report of a file.
+         *
+         * @param isCrossFile tells whether events were reported after all files were processed,
+         *                    by modules that look at several files
+         */
+        FileReport(String fileName, boolean isCrossFile) {
+            this.fileName = fileName;
+            this.isCrossFile = isCrossFile;
+        }
+
+        String fileName() {
+            return fileName;
+        }
+
+        boolean isCrossFile() {
+            return isCrossFile;
+        }
+
+        /**
+         * Replays events of this file, errors are sorted by position.
+         */
+        void replay(Object source, AuditListener listener) {
+            boolean isFile = fileName != null;
+            if (isFile) {
+                listener.fileStarted(new AuditEvent(source, fileName));
+            }
+            errors.sort(Comparator.comparing(AuditEvent::getViolation));
+            for (AuditEvent error : errors) {
+                String errorFileName = error.getFileName();
+                listener.addError(new AuditEvent(source, errorFileName, error.getViolation()));
+            }
+            for (ExceptionEvent exception : exceptions) {
+                AuditEvent event = exception.event();
+                listener.addException(
+                        new AuditEvent(source, event.getFileName(), event.getViolation()),
+                        exception.throwable()
+                );
+            }
+            if (isFile) {
+                listener.fileFinished(new AuditEvent(source, fileName));
+            }
+        }
+
+        /**
+         * Writes events of this file, exceptions are written as their stack traces.
+         */
+        void write(DataOutputStream output) throws IOException {
+            ViolationCodec.writeString(output, fileName);
+            output.writeBoolean(isCrossFile);
+            output.writeInt(errors.size());
+            for (AuditEvent error : errors) {
+                ViolationCodec.writeString(output, error.getFileName());
+                ViolationCodec.writeViolation(output, error.getViolation());
+            }
+            output.writeInt(exceptions.size());
+            for (ExceptionEvent exception : exceptions) {
+                AuditEvent event = exception.event();
+                ViolationCodec.writeString(output, event.getFileName());
+                output.writeBoolean(event.getViolation() != null);
+                if (event.getViolation() != null) {
+                    ViolationCodec.writeViolation(output, event.getViolation());
+                }
+                Throwable throwable = exception.throwable();
+                StringWriter stackTrace = new StringWriter();
+                throwable.printStackTrace(new PrintWriter(stackTrace));
+                ViolationCodec.writeString(output, throwable.getMessage());
+                ViolationCodec.writeString(output, throwable.toString());
+                ViolationCodec.writeString(output, stackTrace.toString());
+            }
+        }
+    }
+
+    private record ExceptionEvent(AuditEvent event, Throwable throwable) {
+    }
+
+    /**
+     * Exception read from a partial report, that prints the stack trace of the original one.
+     */
+    private static class RecordedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final String description;
+        private final String stackTrace;
+
+        RecordedException(String message, String description, String stackTrace) {
+            super(message, null, false, false);
+            this.description = description;
+            this.stackTrace = stackTrace;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+
+        @Override
+        public void printStackTrace(PrintStream output) {
+            output.print(stackTrace);
+        }
+
+        @Override
+        public void printStackTrace(PrintWriter output) {
+            output.print(stackTrace);
+        }
+    }
+}
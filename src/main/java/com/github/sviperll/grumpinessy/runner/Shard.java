@@ -0,0 +1,136 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One of several shards, that together check all files of a project.
+ * <p>
+ * Every shard lists the same files and
+ * computes the same assignment of files to shards on its own:
+ * files are ordered by a stable hash of their paths and
+ * this order is cut into ranges of similar total size, one range per shard.
+ * Since the order of files doesn't depend on other files,
+ * adding or removing a file moves only a few files near the boundaries of ranges
+ * to the neighbouring shards, while most files stay in their shards.
+ * Paths are relative to the working directory, so
+ * assignment doesn't depend on the location of the checkout, as long as
+ * every shard is started from the same directory of the project with the same arguments.
+ *
+ * @param index number of this shard, starting from one
+ * @param count number of all shards
+ */
+public record Shard(int index, int count) {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final Path WORKING_DIRECTORY = Path.of("").toAbsolutePath();
+
+    /**
+     * Parses shard written as {@code index/count}.
+     *
+     * @throws IllegalArgumentException if shard is invalid
+     */
+    public static Shard parse(String shard) {
+        int slash = shard.indexOf('/');
+        if (slash < 0)
+            throw new IllegalArgumentException("Shard should be written as index/count: " + shard);
+        return new Shard(
+                Integer.parseInt(shard.substring(0, slash)),
+                Integer.parseInt(shard.substring(slash + 1))
+        );
+    }
+
+    /**
+     * Returns path of the file relative to the working directory with {@code /} as separator.
+     */
+    private static String keyOf(File file) {
+        Path path = WORKING_DIRECTORY.relativize(file.toPath().toAbsolutePath().normalize());
+        return path.toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Returns FNV-1a hash of the path, that is the same for every JVM.
+     */
+    private static long hashOf(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Returns size of the file, empty files still take some time to check.
+     */
+    private static long weightOf(File file) {
+        return Math.max(1, file.length());
+    }
+
+    public Shard {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Invalid shard " + index + " of " + count);
+        }
+    }
+
+    /**
+     * Returns files of this shard, in the order of the given list.
+     */
+    public List<File> select(List<File> files) {
+        List<Entry> entries = new ArrayList<>();
+        long totalWeight = 0;
+        for (int i = 0; i < files.size(); i++) {
+            String key = keyOf(files.get(i));
+            Entry entry = new Entry(i, weightOf(files.get(i)), hashOf(key), key);
+            entries.add(entry);
+            totalWeight += entry.weight();
+        }
+        entries.sort(Comparator.comparingLong(Entry::hash).thenComparing(Entry::key));
+        boolean[] isSelected = new boolean[files.size()];
+        long weightBefore = 0;
+        for (Entry entry : entries) {
+            // File goes to the shard, that the middle of the file falls into
+            long middle = 2 * weightBefore + entry.weight();
+            int shard = (int) Math.min(count - 1, middle * count / (2 * totalWeight));
+            isSelected[entry.position()] = shard == index - 1;
+            weightBefore += entry.weight();
+        }
+        List<File> result = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            if (isSelected[i]) {
+                result.add(files.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+
+    private record Entry(int position, long weight, long hash, String key) {
+    }
+}
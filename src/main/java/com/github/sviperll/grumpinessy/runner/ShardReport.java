@@ -0,0 +1,125 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.github.sviperll.grumpinessy.crossfile.CrossFileState;
+import com.github.sviperll.grumpinessy.io.AtomicFiles;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Partial report of a single {@link Shard}, see {@link ParallelChecker#processShard}.
+ * <p>
+ * Report keeps recorded events of the files of the shard, the number of errors and
+ * the state of checks, that look at the whole project, see {@link CrossFileState}.
+ * Reports of all shards are merged with {@link ParallelChecker#merge}.
+ */
+public final class ShardReport {
+    private static final int MAGIC = 0x47525348;
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Reads report written with {@link #write(Path)}.
+     */
+    public static ShardReport read(Path path) throws IOException {
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path))
+        )) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION)
+                throw new IOException(path + ": not a shard report");
+            Shard shard = new Shard(input.readInt(), input.readInt());
+            int errorCount = input.readInt();
+            int reportCount = input.readInt();
+            List<RecordingListener.FileReport> reports = new ArrayList<>();
+            for (int i = 0; i < reportCount; i++) {
+                reports.add(RecordingListener.FileReport.read(input, ShardReport.class));
+            }
+            CrossFileState state = CrossFileState.read(input);
+            return new ShardReport(shard, errorCount, reports, state);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(path + ": not a shard report", ex);
+        }
+    }
+
+    private final Shard shard;
+    private final int errorCount;
+    private final List<RecordingListener.FileReport> reports;
+    private final CrossFileState state;
+
+    ShardReport(
+            Shard shard,
+            int errorCount,
+            List<RecordingListener.FileReport> reports,
+            CrossFileState state
+    ) {
+        this.shard = shard;
+        this.errorCount = errorCount;
+        this.reports = reports;
+        this.state = state;
+    }
+
+    public Shard shard() {
+        return shard;
+    }
+
+    /**
+     * Returns the number of errors found in the files of the shard.
+     */
+    public int errorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Writes report, the file is replaced atomically, when supported by file system.
+     */
+    public void write(Path path) throws IOException {
+        AtomicFiles.write(path, this::writeTo);
+    }
+
+    private void writeTo(OutputStream stream) throws IOException {
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(shard.index());
+        output.writeInt(shard.count());
+        output.writeInt(errorCount);
+        output.writeInt(reports.size());
+        for (RecordingListener.FileReport report : reports) {
+            report.write(output);
+        }
+        state.write(output);
+        output.flush();
+    }
+
+    List<RecordingListener.FileReport> reports() {
+        return reports;
+    }
+
+    CrossFileState state() {
+        return state;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.github.sviperll.grumpinessy.suppression.SuppressionsConverter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command line to convert Checkstyle's suppression file for {@code IndexedSuppressionFilter}.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp ... com.github.sviperll.grumpinessy.runner.SuppressionsConverterMain \
+ *     [-o suppressions.txt] checkstyle-xpath-suppressions.xml
+ * </pre>
+ * Converted suppressions are printed to standard output, when no output file is given.
+ * Suppressions that can't be converted are printed to standard error.
+ * Exit code is the number of suppressions that can't be converted.
+ */
+public class SuppressionsConverterMain {
+    private static final int USAGE_EXIT_CODE = -1;
+
+    public static void main(String[] args) throws IOException {
+        Arguments arguments = Arguments.parse(args);
+        if (arguments == null) {
+            System.err.println(
+                    "Usage: SuppressionsConverterMain [-o <suppressions>] <suppressions xml>"
+            );
+            System.exit(USAGE_EXIT_CODE);
+        } else {
+            System.exit(run(arguments));
+        }
+    }
+
+    private static int run(Arguments arguments) throws IOException {
+        SuppressionsConverter.Conversion conversion =
+                SuppressionsConverter.convert(Path.of(arguments.input));
+        StringBuilder text = new StringBuilder();
+        text.append("# Converted from ").append(arguments.input).append('\n');
+        for (String suppression : conversion.suppressions()) {
+            text.append(suppression).append('\n');
+        }
+        if (arguments.output == null) {
+            System.out.print(text);
+        } else {
+            Files.writeString(Path.of(arguments.output), text, StandardCharsets.UTF_8);
+        }
+        for (String skipped : conversion.skipped()) {
+            System.err.println("Unable to convert: " + skipped);
+        }
+        return conversion.skipped().size();
+    }
+
+    private static class Arguments {
+        /**
+         * Returns parsed arguments or null when arguments are invalid.
+         */
+        static Arguments parse(String[] args) {
+            Arguments arguments = new Arguments();
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                boolean isOption = args[i].startsWith("-");
+                if (isOption && value == null) {
+                    return null;
+                } else if (args[i].equals("-o")) {
+                    arguments.output = value;
+                    i++;
+                } else if (isOption || arguments.input != null) {
+                    return null;
+                } else {
+                    arguments.input = args[i];
+                }
+            }
+            return arguments.input != null ? arguments : null;
+        }
+
+        private String input = null;
+        private String output = null;
+    }
+}
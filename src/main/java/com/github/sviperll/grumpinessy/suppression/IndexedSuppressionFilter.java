@@ -0,0 +1,118 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.suppression;
+
+import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
+import com.puppycrawl.tools.checkstyle.TreeWalkerAuditEvent;
+import com.puppycrawl.tools.checkstyle.TreeWalkerFilter;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.ExternalResourceHolder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Suppresses violations selected by {@link Suppressions} read from a file.
+ * <p>
+ * Members of a file are only collected when some suppression of the violated check
+ * selects a member, and they are collected once per file.
+ */
+public class IndexedSuppressionFilter extends AbstractAutomaticBean
+        implements TreeWalkerFilter, ExternalResourceHolder {
+    private static final String CHECK_SUFFIX = "Check";
+
+    private static List<String> checkNamesOf(TreeWalkerAuditEvent event) {
+        List<String> names = new ArrayList<>(4);
+        if (event.getModuleId() != null) {
+            names.add(event.getModuleId());
+        }
+        String sourceName = event.getViolation().getSourceName();
+        names.add(sourceName);
+        String simpleName = sourceName.substring(sourceName.lastIndexOf('.') + 1);
+        names.add(simpleName);
+        if (simpleName.endsWith(CHECK_SUFFIX)) {
+            names.add(simpleName.substring(0, simpleName.length() - CHECK_SUFFIX.length()));
+        }
+        return names;
+    }
+
+    private String file = null;
+    private boolean isOptional = false;
+    private Suppressions suppressions = null;
+    private DetailAST membersRoot = null;
+    private Members members = null;
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    /**
+     * Sets whether non-existent file is an empty list of suppressions.
+     */
+    public void setOptional(boolean isOptional) {
+        this.isOptional = isOptional;
+    }
+
+    @Override
+    public Set<String> getExternalResourceLocations() {
+        return file == null ? Set.of() : Set.of(file);
+    }
+
+    @Override
+    public boolean accept(TreeWalkerAuditEvent event) {
+        if (suppressions.size() == 0 || event.getFileName() == null)
+            return true;
+        return !suppressions.isSuppressed(
+                event.getFileName(),
+                checkNamesOf(event),
+                event.getLine(),
+                () -> membersOf(event.getRootAst())
+        );
+    }
+
+    @Override
+    protected void finishLocalSetup() throws CheckstyleException {
+        if (file == null)
+            throw new CheckstyleException("IndexedSuppressionFilter: file property should be set");
+        Path path = Path.of(file);
+        if (isOptional && !Files.exists(path)) {
+            suppressions = Suppressions.parse("");
+            return;
+        }
+        try {
+            suppressions = Suppressions.parse(Files.readString(path, StandardCharsets.UTF_8));
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new CheckstyleException(file + ": unable to read suppressions", ex);
+        }
+    }
+
+    private Members membersOf(DetailAST root) {
+        if (members == null || membersRoot != root) {
+            members = Members.of(root);
+            membersRoot = root;
+        }
+        return members;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.suppression;
+
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Line ranges of named members of a single file.
+ * <p>
+ * Classes, interfaces, enums, records, annotations, their methods, constructors, fields and
+ * enum constants are members.
+ * Ranges are computed by a single walk of the syntax tree.
+ */
+public final class Members {
+    private static final Members EMPTY = new Members();
+
+    /**
+     * Collects members of the given syntax tree, null tree has no members.
+     */
+    public static Members of(DetailAST root) {
+        if (root == null)
+            return EMPTY;
+        Members members = new Members();
+        for (DetailAST node = root; node != null; node = node.getNextSibling()) {
+            members.collect(node);
+        }
+        return members;
+    }
+
+    private static boolean isMember(DetailAST node) {
+        return switch (node.getType()) {
+            case TokenTypes.CLASS_DEF, TokenTypes.INTERFACE_DEF, TokenTypes.ENUM_DEF,
+                    TokenTypes.RECORD_DEF, TokenTypes.ANNOTATION_DEF, TokenTypes.METHOD_DEF,
+                    TokenTypes.CTOR_DEF, TokenTypes.COMPACT_CTOR_DEF, TokenTypes.ENUM_CONSTANT_DEF,
+                    TokenTypes.ANNOTATION_FIELD_DEF -> true;
+            case TokenTypes.VARIABLE_DEF -> node.getParent() != null
+                    && node.getParent().getType() == TokenTypes.OBJBLOCK;
+            default -> false;
+        };
+    }
+
+    private static int lastLineOf(DetailAST node) {
+        DetailAST last = node;
+        while (last.getLastChild() != null) {
+            last = last.getLastChild();
+        }
+        return last.getLineNo();
+    }
+
+    private final Map<String, List<int[]>> ranges = new HashMap<>();
+
+    private Members() {
+    }
+
+    /**
+     * Tells if the given line belongs to some member with the given name.
+     */
+    public boolean encloses(String name, int line) {
+        List<int[]> nameRanges = ranges.get(name);
+        if (nameRanges == null)
+            return false;
+        for (int[] range : nameRanges) {
+            if (line >= range[0] && line <= range[1])
+                return true;
+        }
+        return false;
+    }
+
+    private void collect(DetailAST node) {
+        if (isMember(node)) {
+            DetailAST ident = node.findFirstToken(TokenTypes.IDENT);
+            if (ident != null) {
+                ranges.computeIfAbsent(ident.getText(), key -> new ArrayList<>())
+                        .add(new int[] {node.getLineNo(), lastLineOf(node)});
+            }
+        }
+        DetailAST child = node.getFirstChild();
+        while (child != null) {
+            collect(child);
+            child = child.getNextSibling();
+        }
+    }
+}
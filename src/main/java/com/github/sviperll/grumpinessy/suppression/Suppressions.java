@@ -0,0 +1,176 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.suppression;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Suppressions indexed by file name and by check name.
+ * <p>
+ * Each suppression has the following form:
+ * <pre>
+ * &lt;path&gt; &lt;check&gt; [lines &lt;from&gt;[-&lt;to&gt;]] [in &lt;member&gt;]
+ * </pre>
+ * Path matches files that end with it, {@code *} matches any file.
+ * Check is matched against module id, against class name of the check and
+ * against class name without the {@code Check} suffix, {@code *} matches any check.
+ * Member is the name of a class, a method, a constructor or a field that
+ * encloses the violation, see {@link Members}.
+ * <p>
+ * Violation is resolved by a fixed number of hash lookups,
+ * only suppressions of the same file name and of the same check are compared.
+ */
+public final class Suppressions {
+    private static final String ANY = "*";
+    private static final Pattern SUPPRESSION_PATTERN = Pattern.compile(
+            "(\\S+)\\s+(\\S+)(?:\\s+lines\\s+(\\d+)(?:-(\\d+))?)?(?:\\s+in\\s+(\\S+))?"
+    );
+    private static final Pattern COMMENT_PATTERN = Pattern.compile("#[^\\n]*");
+
+    /**
+     * Parses suppressions, one per line.
+     * Blank lines and comments, starting with {@code #} and going to the end of line, are ignored.
+     *
+     * @throws IllegalArgumentException if some suppression is not valid
+     */
+    public static Suppressions parse(String text) {
+        Suppressions suppressions = new Suppressions();
+        for (String line : COMMENT_PATTERN.matcher(text).replaceAll("").split("\\n")) {
+            String suppression = line.strip();
+            if (!suppression.isEmpty()) {
+                suppressions.add(parseSuppression(suppression));
+            }
+        }
+        return suppressions;
+    }
+
+    private static Suppression parseSuppression(String text) {
+        Matcher matcher = SUPPRESSION_PATTERN.matcher(text);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(
+                    text + ": suppression should have form"
+                    + " \"<path> <check> [lines <from>[-<to>]] [in <member>]\""
+            );
+        }
+        int fromLine = 0;
+        int toLine = Integer.MAX_VALUE;
+        if (matcher.group(3) != null) {
+            fromLine = Integer.parseInt(matcher.group(3));
+            toLine = matcher.group(4) == null ? fromLine : Integer.parseInt(matcher.group(4));
+            if (toLine < fromLine)
+                throw new IllegalArgumentException(text + ": line range is empty");
+        }
+        String path = matcher.group(1).replace('\\', '/');
+        return new Suppression(path, matcher.group(2), fromLine, toLine, matcher.group(5));
+    }
+
+    private static String fileNameOf(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private final Map<String, Map<String, List<Suppression>>> index = new HashMap<>();
+    private int size = 0;
+
+    private Suppressions() {
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tells if violation is suppressed.
+     *
+     * @param path path of the file with violation
+     * @param checkNames names of the check, that reported violation
+     * @param line line of violation
+     * @param members members of the file, only requested when some suppression selects a member
+     */
+    public boolean isSuppressed(
+            String path,
+            List<String> checkNames,
+            int line,
+            Supplier<Members> members
+    ) {
+        String normalizedPath = path.replace('\\', '/');
+        for (String fileName : List.of(fileNameOf(normalizedPath), ANY)) {
+            Map<String, List<Suppression>> checks = index.get(fileName);
+            if (checks != null) {
+                for (String checkName : checkNames) {
+                    if (isSuppressed(checks.get(checkName), normalizedPath, line, members))
+                        return true;
+                }
+                if (isSuppressed(checks.get(ANY), normalizedPath, line, members))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSuppressed(
+            List<Suppression> suppressions,
+            String path,
+            int line,
+            Supplier<Members> members
+    ) {
+        if (suppressions == null)
+            return false;
+        for (Suppression suppression : suppressions) {
+            if (suppression.matches(path, line)
+                    && (suppression.member() == null
+                            || members.get().encloses(suppression.member(), line))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(Suppression suppression) {
+        String fileName = suppression.path().equals(ANY) ? ANY : fileNameOf(suppression.path());
+        index.computeIfAbsent(fileName, key -> new HashMap<>())
+                .computeIfAbsent(suppression.check(), key -> new ArrayList<>())
+                .add(suppression);
+        size++;
+    }
+
+    /**
+     * Single parsed suppression.
+     *
+     * @param path path suffix of suppressed files or {@code *}
+     * @param check name of suppressed check or {@code *}
+     * @param fromLine first suppressed line
+     * @param toLine last suppressed line
+     * @param member name of enclosing member or null, when any member matches
+     */
+    private record Suppression(String path, String check, int fromLine, int toLine, String member) {
+        boolean matches(String filePath, int line) {
+            boolean isPathMatched = path.equals(ANY)
+                    || filePath.equals(path)
+                    || filePath.endsWith("/" + path);
+            return isPathMatched && line >= fromLine && line <= toLine;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.suppression;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+/**
+ * Converts Checkstyle's suppression files, as read by {@code SuppressionFilter} and
+ * {@code SuppressionXpathFilter}, into {@link Suppressions}.
+ * <p>
+ * Only suppressions expressible as {@link Suppressions} are converted.
+ * Checkstyle finds {@code files} and {@code checks} regular expressions anywhere in
+ * the path and in the class name of the check, so they are converted only when
+ * they are anchored and match exactly the same files and checks:
+ * <ul>
+ * <li>{@code files} should be a path separator followed by a literal path and {@code $},
+ * optionally prefixed with {@code .*}, like {@code .*[\\/]service[\\/]Sample\.java$},
+ * it is converted into a path suffix;
+ * <li>{@code checks} should be a literal class name of the check ending with {@code Check},
+ * preceded by {@code \.} and followed by {@code $}, like {@code \.MagicNumberCheck$},
+ * or a literal fully qualified class name between {@code ^} and {@code $};
+ * alternatives of such names are converted too, like {@code \.(FooCheck|BarCheck)$};
+ * <li>{@code id} is converted as is, since it is compared exactly;
+ * <li>{@code query} should select a named member, like
+ * {@code //METHOD_DEF[./IDENT[@text='parse']]}, optionally followed by {@code //*},
+ * any steps before the member are dropped;
+ * <li>{@code message} and {@code columns} are not supported.
+ * </ul>
+ * Path separators {@code /}, {@code \\} and {@code [\\/]} are considered the same.
+ * Directory patterns and partial names, like {@code [\\/]generated[\\/]} or {@code MagicNumber},
+ * are not converted.
+ * Converted suppressions select the member together with everything inside it, so
+ * they can be broader than original XPath queries.
+ */
+public final class SuppressionsConverter {
+    private static final String MEMBER_STEP = "(?:CLASS_DEF|INTERFACE_DEF|ENUM_DEF|RECORD_DEF"
+            + "|ANNOTATION_DEF|METHOD_DEF|CTOR_DEF|COMPACT_CTOR_DEF|VARIABLE_DEF|ENUM_CONSTANT_DEF"
+            + "|ANNOTATION_FIELD_DEF)\\[\\./IDENT\\[@text='([^']+)'\\]\\]";
+    private static final Pattern QUERY_PATTERN = Pattern.compile(
+            "(?:/{1,2}[A-Z_]+(?:\\[\\./IDENT\\[@text='[^']+'\\]\\])?)*?"
+            + "/{1,2}" + MEMBER_STEP
+            + "(?://\\*|//descendant-or-self::node\\(\\)|/descendant::\\*)?"
+    );
+    private static final Pattern LINES_PATTERN = Pattern.compile("(\\d+)(?:-(\\d+))?");
+    private static final Pattern PATH_PATTERN = Pattern.compile("[\\w.-]+(?:/[\\w.-]+)*");
+    private static final Pattern CHECK_NAME_PATTERN = Pattern.compile("\\w+Check");
+    private static final Pattern CLASS_NAME_PATTERN = Pattern.compile("\\w+(?:\\.\\w+)+");
+    private static final List<String> ANY_PATTERNS = List.of("", ".*", "^.*", ".*$", "^.*$");
+    private static final List<String> ANY_PREFIXES = List.of("^.*", ".*");
+    private static final List<String> SEPARATORS = List.of("[\\\\/]", "[/\\\\]", "\\\\", "/");
+    private static final List<String> DOTS = List.of("\\.", "[.]");
+
+    /**
+     * Converts suppression file.
+     *
+     * @throws IOException if file can't be read or parsed
+     */
+    public static Conversion convert(Path path) throws IOException {
+        Document document;
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(
+                    "http://apache.org/xml/features/nonvalidating/load-external-dtd",
+                    false
+            );
+            factory.setExpandEntityReferences(false);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            document = builder.parse(path.toFile());
+        } catch (ParserConfigurationException | SAXException ex) {
+            throw new IOException(path + ": unable to parse suppressions", ex);
+        }
+        List<String> suppressions = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        Node node = document.getDocumentElement().getFirstChild();
+        while (node != null) {
+            if (node instanceof Element element
+                    && (element.getTagName().equals("suppress")
+                            || element.getTagName().equals("suppress-xpath"))) {
+                List<String> converted = convert(element);
+                if (converted == null) {
+                    skipped.add(describe(element));
+                } else {
+                    suppressions.addAll(converted);
+                }
+            }
+            node = node.getNextSibling();
+        }
+        return new Conversion(suppressions, skipped);
+    }
+
+    /**
+     * Returns converted suppressions or null if element is not expressible.
+     */
+    private static List<String> convert(Element element) {
+        if (element.hasAttribute("message") || element.hasAttribute("columns"))
+            return null;
+        String path = element.hasAttribute("files") ? pathOf(element.getAttribute("files")) : "*";
+        List<String> checks = checksOf(element);
+        List<String> lines = linesOf(element);
+        String member = null;
+        if (element.hasAttribute("query")) {
+            Matcher matcher = QUERY_PATTERN.matcher(element.getAttribute("query").strip());
+            if (!matcher.matches())
+                return null;
+            member = matcher.group(1);
+        }
+        if (path == null || checks == null || lines == null)
+            return null;
+        List<String> suppressions = new ArrayList<>();
+        for (String check : checks) {
+            for (String line : lines) {
+                StringBuilder suppression = new StringBuilder(path).append(' ').append(check);
+                if (line != null) {
+                    suppression.append(" lines ").append(line);
+                }
+                if (member != null) {
+                    suppression.append(" in ").append(member);
+                }
+                suppressions.add(suppression.toString());
+            }
+        }
+        return suppressions;
+    }
+
+    /**
+     * Returns path suffix matching exactly the same files as the given regular expression or null.
+     */
+    private static String pathOf(String files) {
+        String regex = files.strip();
+        if (ANY_PATTERNS.contains(regex))
+            return "*";
+        regex = withoutAnyPrefix(regex);
+        if (regex.startsWith("^") || !regex.endsWith("$"))
+            return null;
+        String literal = literalOf(regex.substring(0, regex.length() - 1));
+        if (literal == null || !literal.startsWith("/"))
+            return null;
+        String path = literal.substring(1);
+        return PATH_PATTERN.matcher(path).matches() ? path : null;
+    }
+
+    /**
+     * Returns check names matching exactly the same checks as the element or null.
+     */
+    private static List<String> checksOf(Element element) {
+        if (element.hasAttribute("id")) {
+            if (element.hasAttribute("checks"))
+                return null;
+            return List.of(element.getAttribute("id").strip());
+        }
+        if (!element.hasAttribute("checks"))
+            return List.of("*");
+        String checks = element.getAttribute("checks").strip();
+        if (ANY_PATTERNS.contains(checks))
+            return List.of("*");
+        List<String> alternatives = alternativesOf(checks);
+        if (alternatives == null)
+            return null;
+        List<String> names = new ArrayList<>();
+        for (String alternative : alternatives) {
+            String name = checkOf(alternative);
+            if (name == null)
+                return null;
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * Returns alternatives of the regular expression, each with a single name, or null.
+     * <p>
+     * Alternatives are either at the top level or inside of the only group,
+     * common prefix and suffix of the group are added to every alternative.
+     */
+    private static List<String> alternativesOf(String regex) {
+        int groupStart = regex.indexOf('(');
+        if (groupStart < 0)
+            return List.of(regex.split("\\|", -1));
+        int groupEnd = regex.indexOf(')');
+        boolean isSingleGroup = groupEnd > groupStart
+                && groupStart == regex.lastIndexOf('(')
+                && groupEnd == regex.lastIndexOf(')');
+        if (!isSingleGroup)
+            return null;
+        String prefix = regex.substring(0, groupStart);
+        String suffix = regex.substring(groupEnd + 1);
+        if (prefix.contains("|") || suffix.contains("|"))
+            return null;
+        String group = regex.substring(groupStart + 1, groupEnd);
+        if (group.startsWith("?:")) {
+            group = group.substring(2);
+        }
+        List<String> alternatives = new ArrayList<>();
+        for (String alternative : group.split("\\|", -1)) {
+            alternatives.add(prefix + alternative + suffix);
+        }
+        return alternatives;
+    }
+
+    /**
+     * Returns check name matching exactly the same checks as the given regular expression or null.
+     */
+    private static String checkOf(String regex) {
+        if (regex.startsWith("^") && regex.endsWith("$")) {
+            String className = literalOf(regex.substring(1, regex.length() - 1));
+            boolean isClassName = className != null
+                    && CLASS_NAME_PATTERN.matcher(className).matches();
+            return isClassName ? className : null;
+        }
+        String withoutPrefix = withoutAnyPrefix(regex);
+        if (withoutPrefix.startsWith("^") || !withoutPrefix.endsWith("$"))
+            return null;
+        String literal = literalOf(withoutPrefix.substring(0, withoutPrefix.length() - 1));
+        if (literal == null || !literal.startsWith("."))
+            return null;
+        String name = literal.substring(1);
+        return CHECK_NAME_PATTERN.matcher(name).matches() ? name : null;
+    }
+
+    private static String withoutAnyPrefix(String regex) {
+        for (String prefix : ANY_PREFIXES) {
+            if (regex.startsWith(prefix))
+                return regex.substring(prefix.length());
+        }
+        return regex;
+    }
+
+    /**
+     * Returns the only text matched by the regular expression or null.
+     * <p>
+     * Path separators are returned as {@code /}.
+     */
+    private static String literalOf(String regex) {
+        StringBuilder literal = new StringBuilder();
+        int index = 0;
+        while (index < regex.length()) {
+            String separator = startingToken(regex, index, SEPARATORS);
+            String dot = startingToken(regex, index, DOTS);
+            char character = regex.charAt(index);
+            boolean isLiteral = Character.isLetterOrDigit(character)
+                    || character == '_'
+                    || character == '-';
+            if (separator != null) {
+                literal.append('/');
+                index += separator.length();
+            } else if (dot != null) {
+                literal.append('.');
+                index += dot.length();
+            } else if (isLiteral) {
+                literal.append(character);
+                index++;
+            } else {
+                return null;
+            }
+        }
+        return literal.toString();
+    }
+
+    private static String startingToken(String regex, int index, List<String> tokens) {
+        for (String token : tokens) {
+            if (regex.startsWith(token, index))
+                return token;
+        }
+        return null;
+    }
+
+    /**
+     * Returns line ranges, list with null when all lines are suppressed, or null.
+     */
+    private static List<String> linesOf(Element element) {
+        if (!element.hasAttribute("lines")) {
+            List<String> lines = new ArrayList<>();
+            lines.add(null);
+            return lines;
+        }
+        List<String> lines = new ArrayList<>();
+        for (String range : element.getAttribute("lines").split(",")) {
+            String line = range.strip();
+            if (!LINES_PATTERN.matcher(line).matches())
+                return null;
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    private static String describe(Element element) {
+        StringBuilder description = new StringBuilder("<").append(element.getTagName());
+        for (int i = 0; i < element.getAttributes().getLength(); i++) {
+            Node attribute = element.getAttributes().item(i);
+            description.append(' ')
+                    .append(attribute.getNodeName())
+                    .append("=\"")
+                    .append(attribute.getNodeValue())
+                    .append('"');
+        }
+        return description.append("/>").toString();
+    }
+
+    private SuppressionsConverter() {
+    }
+
+    /**
+     * Result of conversion.
+     *
+     * @param suppressions converted suppressions in the format of {@link Suppressions}
+     * @param skipped elements of suppression file that can't be expressed
+     */
+    public record Conversion(List<String> suppressions, List<String> skipped) {
+    }
+}
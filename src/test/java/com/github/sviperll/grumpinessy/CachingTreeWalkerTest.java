@@ -0,0 +1,174 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.underTreeWalker;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CachingTreeWalkerTest {
+    private static final int ENTRIES_OFFSET = 20;
+    private static final int KEY_SIZE = 16;
+
+    private Path directory;
+    private Path sources;
+
+    private Configuration cachingConfiguration(String checks) throws Exception {
+        return configuration(
+                underTreeWalker(
+                        "com.github.sviperll.grumpinessy.CachingTreeWalker",
+                        "<property name=\"cacheFile\" value=\"%s\"/>\n"
+                                .formatted(directory.resolve("cache.bin"))
+                                + checks
+                )
+        );
+    }
+
+    @BeforeEach
+    void writeSources(@TempDir Path directory) throws Exception {
+        this.directory = directory;
+        sources = directory.resolve("src");
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        write(sources, SampleSources.CLEAN_PATH, SampleSources.CLEAN);
+    }
+
+    @Test
+    void replaysSameViolationsFromCache() throws Exception {
+        List<String> expected = check(
+                configuration(underTreeWalker("TreeWalker", SampleSources.SEPARATE_CHECKS)),
+                sources
+        );
+        Configuration configuration = cachingConfiguration(SampleSources.SEPARATE_CHECKS);
+        assertEquals(expected, check(configuration, sources));
+        assertEquals(expected, check(configuration, sources));
+    }
+
+    @Test
+    void checksFilesWhenCacheFileCannotBeWritten() throws Exception {
+        Path notDirectory = Files.writeString(directory.resolve("file"), "");
+        Configuration configuration = configuration(
+                underTreeWalker(
+                        "com.github.sviperll.grumpinessy.CachingTreeWalker",
+                        "<property name=\"cacheFile\" value=\"%s\"/>\n"
+                                .formatted(notDirectory.resolve("cache.bin"))
+                                + SampleSources.SEPARATE_CHECKS
+                )
+        );
+        List<String> expected = check(
+                configuration(underTreeWalker("TreeWalker", SampleSources.SEPARATE_CHECKS)),
+                sources
+        );
+        assertEquals(expected, check(configuration, sources));
+        assertEquals(expected, check(configuration, sources));
+    }
+
+    @Test
+    void checksModifiedFilesAgain() throws Exception {
+        Configuration configuration = cachingConfiguration(SampleSources.SEPARATE_CHECKS);
+        check(configuration, sources);
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.CLEAN);
+        assertEquals(List.of(), check(configuration, sources));
+    }
+
+    @Test
+    void keepsResultsOfDifferentConfigurationsApart() throws Exception {
+        check(cachingConfiguration(SampleSources.SEPARATE_CHECKS), sources);
+        List<String> actual = check(
+                cachingConfiguration(
+                        "<module name=\"com.github.sviperll.grumpinessy.MembersOrderCheck\"/>\n"
+                ),
+                sources
+        );
+        assertEquals(1, actual.size(), () -> actual.toString());
+    }
+
+    @Test
+    void appendsNewEntriesWithDefaultPermissions() throws Exception {
+        Configuration configuration = cachingConfiguration(SampleSources.SEPARATE_CHECKS);
+        check(configuration, sources);
+        Path cacheFile = directory.resolve("cache.bin");
+        byte[] before = Files.readAllBytes(cacheFile);
+        write(sources, SampleSources.CLEAN_PATH, SampleSources.CLEAN + "\n");
+        List<String> expected = check(
+                configuration(underTreeWalker("TreeWalker", SampleSources.SEPARATE_CHECKS)),
+                sources
+        );
+        assertEquals(expected, check(configuration, sources));
+        byte[] after = Files.readAllBytes(cacheFile);
+        assertTrue(after.length > before.length);
+        // Appended file starts with the same entries, rewritten file starts with the new entry
+        assertArrayEquals(
+                Arrays.copyOfRange(before, ENTRIES_OFFSET, ENTRIES_OFFSET + KEY_SIZE),
+                Arrays.copyOfRange(after, ENTRIES_OFFSET, ENTRIES_OFFSET + KEY_SIZE)
+        );
+        assertEquals(expected, check(configuration, sources));
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path reference = Files.createFile(directory.resolve("reference.bin"));
+        assertEquals(
+                Files.getPosixFilePermissions(reference),
+                Files.getPosixFilePermissions(cacheFile)
+        );
+    }
+
+    @Test
+    void runsHoldersForReplayedViolations() throws Exception {
+        write(
+                sources,
+                SampleSources.CLEAN_PATH,
+                SampleSources.VIOLATING
+                        .replace("package com.example.app.service;", "package com.example.app;")
+                        .replace(
+                                "class Sample {",
+                                "@SuppressWarnings(\"checkstyle:membersorder\")\nclass Sample {"
+                        )
+        );
+        Configuration configuration = configuration(
+                """
+                <module name="Checker">
+                    <module name="SuppressWarningsFilter"/>
+                    <module name="com.github.sviperll.grumpinessy.CachingTreeWalker">
+                        <property name="cacheFile" value="%s"/>
+                        <module name="SuppressWarningsHolder"/>
+                        <module name="com.github.sviperll.grumpinessy.MembersOrderCheck"/>
+                    </module>
+                </module>
+                """.formatted(directory.resolve("cache.bin"))
+        );
+        List<String> expected = check(configuration, sources);
+        assertEquals(1, expected.size(), () -> expected.toString());
+        assertEquals(expected, check(configuration, sources));
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.testing.CheckDriver;
+import com.puppycrawl.tools.checkstyle.JavaParser;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.FileContents;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Guards against super-linear behaviour of grumpinessy checks.
+ * <p>
+ * Every check is run over every {@link PathologicalCorpus} source at growing sizes,
+ * each size is twice as large as the previous one.
+ * Check is run directly over a pre-parsed tree, so parsing is not measured.
+ * Test fails when allocation of a check grows faster than the size, with some tolerance
+ * for noise, which is still far below the growth of a quadratic algorithm.
+ * Allocation is measured per thread, where the JVM supports it, and
+ * the test is skipped otherwise.
+ * <p>
+ * Time is only judged with the {@code timing} profile, since
+ * it is reliable only on an otherwise idle machine.
+ * Measurements that are too small to be meaningful are not judged.
+ */
+class ComplexityTest {
+    private static final List<String> CHECKS = List.of(
+            "MembersOrderCheck",
+            "MethodCallLineBreaksCheck",
+            "MethodCallChainLineBreaksCheck",
+            "NessesaryBracesCheck",
+            "IfElseSameBracesCheck",
+            "NoImportsOfHigherPackagesCheck",
+            "GrumpinessyCheck"
+    );
+    private static final int SIZE_STEPS = 4;
+    private static final int WARMUP_RUNS = 5;
+    private static final int TIME_RUNS = 5;
+    // Allocation doesn't depend on the load of the machine once the code is compiled
+    private static final int ALLOCATION_RUNS = 2;
+    private static final double TIME_TOLERANCE = 3;
+    private static final double ALLOCATION_TOLERANCE = 1.5;
+    private static final long MIN_SIGNIFICANT_NANOS = 1_000_000;
+    private static final long MIN_SIGNIFICANT_BYTES = 64 * 1024;
+    // Parser and checks recurse over deeply nested sources
+    private static final long STACK_SIZE = 1L << 30;
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+    private static final Map<PathologicalCorpus, List<Source>> SOURCES =
+            new EnumMap<>(PathologicalCorpus.class);
+
+    static Stream<Arguments> checksAndSources() {
+        return Stream.of(PathologicalCorpus.values())
+                .flatMap(corpus -> CHECKS.stream().map(check -> Arguments.of(check, corpus)));
+    }
+
+    /**
+     * Returns bean, that counts bytes allocated by a thread, or null when JVM provides none.
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean counter
+                    && counter.isThreadAllocatedMemorySupported())
+                return counter;
+            return null;
+        } catch (LinkageError ex) {
+            // Management extensions are not part of every JVM
+            return null;
+        }
+    }
+
+    /**
+     * Runs the given task on a thread with a large stack.
+     */
+    private static <T> T withLargeStack(Callable<T> task) throws Exception {
+        FutureTask<T> future = new FutureTask<>(task);
+        Thread thread = new Thread(null, future, "complexity", STACK_SIZE);
+        thread.start();
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception cause)
+                throw cause;
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns sources of growing sizes, the last one is of the largest size of the corpus.
+     */
+    private static synchronized List<Source> sourcesOf(PathologicalCorpus corpus)
+            throws CheckstyleException {
+        List<Source> sources = SOURCES.get(corpus);
+        if (sources == null) {
+            sources = new ArrayList<>();
+            for (int i = 0; i < SIZE_STEPS; i++) {
+                sources.add(Source.generate(corpus, corpus.maxSize() >> (SIZE_STEPS - 1 - i)));
+            }
+            SOURCES.put(corpus, sources);
+        }
+        return sources;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Returns the best of several measurements of the check over every source of the corpus.
+     *
+     * @param counter returns current value of the measured quantity
+     */
+    private static List<Long> measureAll(
+            String check,
+            PathologicalCorpus corpus,
+            int runs,
+            LongSupplier counter
+    ) throws CheckstyleException {
+        CheckDriver driver = CheckDriver.of(check);
+        List<Source> sources = sourcesOf(corpus);
+        // Warm up on the largest source, so that every code path is compiled before measuring
+        Source largest = sources.get(SIZE_STEPS - 1);
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            driver.run(largest.contents(), largest.root());
+        }
+        List<Long> result = new ArrayList<>();
+        for (Source source : sources) {
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < runs; i++) {
+                long start = counter.getAsLong();
+                driver.run(source.contents(), source.root());
+                best = Math.min(best, counter.getAsLong() - start);
+            }
+            result.add(best);
+        }
+        return result;
+    }
+
+    /**
+     * Asserts that measured quantity grows no faster than the size.
+     */
+    private static void assertLinear(
+            String quantity,
+            PathologicalCorpus corpus,
+            List<Long> measurements,
+            long minSignificant,
+            double tolerance
+    ) throws CheckstyleException {
+        List<Source> sources = sourcesOf(corpus);
+        long first = measurements.get(0);
+        long last = measurements.get(SIZE_STEPS - 1);
+        double sizeGrowth = (double) sources.get(SIZE_STEPS - 1).size() / sources.get(0).size();
+        assertTrue(
+                last < minSignificant || last <= first * sizeGrowth * tolerance,
+                () -> String.format(
+                        "%s grows %.1f times while size grows %.1f times: %s",
+                        quantity,
+                        (double) last / Math.max(first, 1),
+                        sizeGrowth,
+                        measurements
+                )
+        );
+    }
+
+    @ParameterizedTest(name = "{0} on {1}")
+    @MethodSource("checksAndSources")
+    void allocationGrowsLinearly(String check, PathologicalCorpus corpus) throws Exception {
+        assumeTrue(THREADS != null, "JVM doesn't count allocated bytes");
+        List<Long> bytes = withLargeStack(
+                () -> measureAll(check, corpus, ALLOCATION_RUNS, ComplexityTest::allocatedBytes)
+        );
+        assertLinear("Allocation", corpus, bytes, MIN_SIGNIFICANT_BYTES, ALLOCATION_TOLERANCE);
+    }
+
+    @ParameterizedTest(name = "{0} on {1}")
+    @MethodSource("checksAndSources")
+    @EnabledIfSystemProperty(named = "grumpinessy.timing", matches = "true")
+    void timeGrowsLinearly(String check, PathologicalCorpus corpus) throws Exception {
+        List<Long> nanos = withLargeStack(
+                () -> measureAll(check, corpus, TIME_RUNS, System::nanoTime)
+        );
+        assertLinear("Time", corpus, nanos, MIN_SIGNIFICANT_NANOS, TIME_TOLERANCE);
+    }
+
+    /**
+     * Parsed source of some size.
+     *
+     * @param size size that the source was generated with
+     * @param contents contents of the source
+     * @param root parsed syntax tree
+     */
+    private record Source(int size, FileContents contents, DetailAST root) {
+        static Source generate(PathologicalCorpus corpus, int size) throws CheckstyleException {
+            String text = corpus.generate(size);
+            FileContents contents =
+                    new FileContents(new FileText(new File("Source.java"), text.lines().toList()));
+            return new Source(size, contents, JavaParser.parse(contents));
+        }
+    }
+}
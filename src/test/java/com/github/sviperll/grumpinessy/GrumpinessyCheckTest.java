@@ -0,0 +1,122 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.module;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.underTreeWalker;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class GrumpinessyCheckTest {
+    private Path sources;
+
+    @BeforeEach
+    void createDirectory(@TempDir Path sources) {
+        this.sources = sources;
+    }
+
+    @Test
+    void reportsSameViolationsAsSeparateChecks() throws Exception {
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        write(sources, SampleSources.CLEAN_PATH, SampleSources.CLEAN);
+        List<String> expected = check(
+                configuration(underTreeWalker("TreeWalker", SampleSources.SEPARATE_CHECKS)),
+                sources
+        );
+        List<String> actual = check(
+                configuration(
+                        underTreeWalker(
+                                "TreeWalker",
+                                module("com.github.sviperll.grumpinessy.GrumpinessyCheck")
+                        )
+                ),
+                sources
+        );
+        assertEquals(6, expected.size(), () -> expected.toString());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void skipsDisabledChecks() throws Exception {
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        List<String> actual = check(
+                configuration(
+                        underTreeWalker(
+                                "TreeWalker",
+                                """
+                                <module name="com.github.sviperll.grumpinessy.GrumpinessyCheck">
+                                    <property name="checkMembersOrder" value="false"/>
+                                    <property name="checkNessesaryBraces" value="false"/>
+                                </module>
+                                """
+                        )
+                ),
+                sources
+        );
+        assertEquals(4, actual.size(), () -> actual.toString());
+        for (String line : actual) {
+            assertFalse(line.endsWith("[MembersOrder]"), line);
+            assertFalse(line.endsWith("[NessesaryBraces]"), line);
+        }
+    }
+
+    @Test
+    void passesBreakWholeChainToChainCheck() throws Exception {
+        write(
+                sources,
+                MethodCallChainLineBreaksCheckTest.CHAINS_PATH,
+                MethodCallChainLineBreaksCheckTest.CHAINS
+        );
+        List<String> expected = check(
+                configuration(
+                        underTreeWalker(
+                                "TreeWalker",
+                                MethodCallChainLineBreaksCheckTest.chainCheck(true)
+                        )
+                ),
+                sources
+        );
+        List<String> actual = check(
+                configuration(
+                        underTreeWalker(
+                                "TreeWalker",
+                                """
+                                <module name="com.github.sviperll.grumpinessy.GrumpinessyCheck">
+                                    <property name="breakWholeChain" value="true"/>
+                                </module>
+                                """
+                        )
+                ),
+                sources
+        );
+        assertEquals(4, expected.size(), () -> expected.toString());
+        assertEquals(expected, actual);
+    }
+}
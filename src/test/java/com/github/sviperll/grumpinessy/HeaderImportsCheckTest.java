@@ -0,0 +1,94 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.underTreeWalker;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HeaderImportsCheckTest {
+    private static final String RULES = "**.service.** must not import java.util.**";
+    private static final String TREE_WALKER_CHECKS = """
+            <module name="com.github.sviperll.grumpinessy.NoImportsOfHigherPackagesCheck"/>
+            <module name="com.github.sviperll.grumpinessy.PackageLayeringCheck">
+                <property name="rules" value="%s"/>
+            </module>
+            """;
+
+    private Path sources;
+
+    @BeforeEach
+    void createDirectory(@TempDir Path sources) {
+        this.sources = sources;
+    }
+
+    @Test
+    void reportsSameViolationsAsTreeWalkerChecks() throws Exception {
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        write(sources, SampleSources.CLEAN_PATH, SampleSources.CLEAN);
+        write(
+                sources,
+                "com/example/app/service/Annotated.java",
+                """
+                /*
+                 * import com.example.app.Commented;
+                 */
+                @Deprecated(since = "import")
+                package com.example.app.service;
+
+                import static com.example.app.Constants.VALUE;
+                import java.util.Map;
+
+                class Annotated {
+                    // import com.example.app.Ignored;
+                }
+                """
+        );
+        List<String> expected = check(
+                configuration(
+                        underTreeWalker("TreeWalker", TREE_WALKER_CHECKS.formatted(RULES))
+                ),
+                sources
+        );
+        List<String> actual = check(
+                configuration(
+                        """
+                        <module name="Checker">
+                            <module name="com.github.sviperll.grumpinessy.HeaderImportsCheck">
+                                <property name="rules" value="%s"/>
+                            </module>
+                        </module>
+                        """.formatted(RULES)
+                ),
+                sources
+        );
+        assertEquals(3, expected.size(), () -> expected.toString());
+        assertEquals(expected, actual);
+    }
+}
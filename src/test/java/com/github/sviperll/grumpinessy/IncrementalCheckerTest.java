@@ -0,0 +1,217 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.fix.TextEdit;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalCheckerTest {
+    private static final File FILE = new File("Sample.java");
+    private static final int EDIT_COUNT = 500;
+    // Checks, that depend on the whole file, are not included, since they make re-checks incomplete
+    private static final String CONFIGURATION = """
+            <module name="Checker">
+                <module name="TreeWalker">
+                    <module name="Indentation"/>
+                    <module name="LeftCurly"/>
+                    <module name="RightCurly"/>
+                    <module name="NeedBraces"/>
+                    <module name="WhitespaceAround"/>
+                    <module name="WhitespaceAfter"/>
+                    <module name="MethodLength">
+                        <property name="max" value="3"/>
+                    </module>
+                    <module name="VisibilityModifier"/>
+                    <module name="EmptyBlock"/>
+                    <module name="com.github.sviperll.grumpinessy.GrumpinessyCheck"/>
+                </module>
+            </module>
+            """;
+    private static final String SOURCE = """
+            package com.example;
+
+            import java.util.List;
+
+            class Sample {
+                static int counter;
+
+                private int field;
+
+                Sample(int field) {
+                    this.field = field;
+                }
+
+                int call(int x) {
+                    return Math.max(x,
+                            1);
+                }
+
+                int q;    @Override public String toString() {
+                    return "Sample";
+                }
+
+                Object chain(StringBuilder builder) {
+                    return builder.append("a")
+                            .append("b").append("c");
+                }
+
+                int branches(int x) {
+                    if (x > 0)
+                        return 1;
+                    else {
+                        return 2;
+                    }
+                }
+
+                static class Nested {
+                    void loop(int x) {
+                        while (x > 0)
+                            x--;
+                    }
+                }
+            }
+            """;
+    private static final List<String> SNIPPETS = List.of(
+            "\n",
+            " ",
+            "    ",
+            "x",
+            "int y = 1;",
+            "if (x > 0)\n    x++;",
+            "foo(1,\n2);",
+            "a.b()\n.c();",
+            "{",
+            "}",
+            "// comment\n"
+    );
+
+    private static List<String> describe(Iterable<Violation> violations) {
+        List<String> result = new ArrayList<>();
+        for (Violation violation : violations) {
+            result.add(
+                    violation.getLineNo() + ":" + violation.getColumnNo() + " "
+                            + violation.getViolation() + " [" + violation.getSourceName() + "]"
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Returns a random edit of the given text, that doesn't cross line ends.
+     */
+    private static TextEdit randomEdit(Random random, String text) {
+        List<String> lines = text.lines().toList();
+        int line = 1 + random.nextInt(lines.size());
+        int length = lines.get(line - 1).length();
+        int start = random.nextInt(length + 1);
+        int end = Math.min(length, start + (random.nextBoolean() ? 0 : random.nextInt(8)));
+        String replacement = random.nextInt(4) == 0
+                ? ""
+                : SNIPPETS.get(random.nextInt(SNIPPETS.size()));
+        return new TextEdit(line, start, line, end, replacement);
+    }
+
+    private IncrementalChecker checker;
+
+    @BeforeEach
+    void createChecker() throws Exception {
+        checker = new IncrementalChecker(configuration(CONFIGURATION), getClass().getClassLoader());
+    }
+
+    @AfterEach
+    void closeChecker() {
+        checker.close();
+    }
+
+    @Test
+    void agreesWithFullCheckAfterRandomEdits() throws Exception {
+        Random random = new Random(20231017);
+        IncrementalChecker.Result result = checker.check(FILE, SOURCE);
+        int comparedCount = 0;
+        for (int i = 0; i < EDIT_COUNT; i++) {
+            TextEdit edit = randomEdit(random, result.text());
+            IncrementalChecker.Result rechecked;
+            try {
+                rechecked = checker.recheck(result, edit);
+            } catch (CheckstyleException ex) {
+                continue;
+            }
+            IncrementalChecker.Result full = checker.check(FILE, rechecked.text());
+            if (rechecked.isComplete()) {
+                comparedCount++;
+                assertEquals(
+                        describe(full.violations()),
+                        describe(rechecked.violations()),
+                        () -> "After " + edit + " of\n" + rechecked.text()
+                );
+                result = rechecked;
+            } else {
+                result = full;
+            }
+        }
+        assertTrue(comparedCount > EDIT_COUNT / 10, "Compared " + comparedCount);
+    }
+
+    @Test
+    void checksWholeFileWhenUnitStartsAfterAnotherMember() throws Exception {
+        IncrementalChecker.Result result = checker.check(FILE, SOURCE);
+        int line = SOURCE.lines().toList().indexOf("        return \"Sample\";") + 1;
+        IncrementalChecker.Result rechecked =
+                checker.recheck(result, new TextEdit(line, 8, line, 8, "  "));
+        IncrementalChecker.Result full = checker.check(FILE, rechecked.text());
+        assertEquals(describe(full.violations()), describe(rechecked.violations()));
+    }
+
+    @Test
+    void keepsResultIncompleteUntilFullCheck() throws Exception {
+        IncrementalChecker.Result result = checker.check(FILE, SOURCE);
+        int line = SOURCE.lines().toList().indexOf("        this.field = field;") + 1;
+        IncrementalChecker.Result moved =
+                checker.recheck(result, new TextEdit(line, 0, line, 0, "\n"));
+        assertFalse(moved.isComplete());
+        IncrementalChecker.Result rechecked =
+                checker.recheck(moved, new TextEdit(line, 0, line, 0, " "));
+        assertFalse(rechecked.isComplete());
+        assertTrue(checker.check(FILE, rechecked.text()).isComplete());
+    }
+
+    @Test
+    void failsOnEditOutsideOfText() throws Exception {
+        IncrementalChecker.Result result = checker.check(FILE, SOURCE);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> checker.recheck(result, new TextEdit(1000, 0, 1000, 0, "x"))
+        );
+    }
+}
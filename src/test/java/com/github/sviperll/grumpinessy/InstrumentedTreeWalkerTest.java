@@ -0,0 +1,71 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.underTreeWalker;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstrumentedTreeWalkerTest {
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory(@TempDir Path directory) {
+        this.directory = directory;
+    }
+
+    @Test
+    void reportsSameViolationsAndWritesTimings() throws Exception {
+        Path sources = directory.resolve("src");
+        Path reportFile = directory.resolve("timings.json");
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        write(sources, SampleSources.CLEAN_PATH, SampleSources.CLEAN);
+        List<String> expected = check(
+                configuration(underTreeWalker("TreeWalker", SampleSources.SEPARATE_CHECKS)),
+                sources
+        );
+        List<String> actual = check(
+                configuration(
+                        underTreeWalker(
+                                "com.github.sviperll.grumpinessy.InstrumentedTreeWalker",
+                                "<property name=\"reportFile\" value=\"%s\"/>\n"
+                                        .formatted(reportFile)
+                                        + SampleSources.SEPARATE_CHECKS
+                        )
+                ),
+                sources
+        );
+        assertEquals(expected, actual);
+        String report = Files.readString(reportFile);
+        assertTrue(report.contains("\"MembersOrderCheck\""), report);
+        assertTrue(report.contains("Sample.java"), report);
+    }
+}
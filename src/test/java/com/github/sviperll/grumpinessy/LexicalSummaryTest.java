@@ -0,0 +1,74 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LexicalSummaryTest {
+    @Test
+    void findsChainLineBreaks() {
+        assertTrue(LexicalSummary.scan("Object o = a.b()\n.c();").hasChainLineBreak());
+        assertFalse(LexicalSummary.scan("Object o = a.b();\nx.c();").hasChainLineBreak());
+    }
+
+    @Test
+    void separatesChainsByOperators() {
+        String conditional = "boolean x = a.b() ?\nc.d() : e.f();";
+        assertFalse(LexicalSummary.scan(conditional).hasChainLineBreak());
+        assertFalse(LexicalSummary.scan("boolean x = a.b() &&\nc.d();").hasChainLineBreak());
+    }
+
+    @Test
+    void findsChainLineBreaksAfterTypeArguments() {
+        String wildcard = "Object o = a.b().<Map<String, ?>>c()\n.d();";
+        assertTrue(LexicalSummary.scan(wildcard).hasChainLineBreak());
+        String bound = "Object o = a.<T & U>b()\n.c();";
+        assertTrue(LexicalSummary.scan(bound).hasChainLineBreak());
+    }
+
+    @Test
+    void skipsCommentsAndLiterals() {
+        LexicalSummary summary = LexicalSummary.scan(
+                """
+                package com.example;
+
+                import java.util.List;
+
+                class A {
+                    // if (x) y();
+                    String s = "else (\\n)";
+                    /* a.b()
+                       .c() */
+                }
+                """
+        );
+        assertFalse(summary.hasChainLineBreak());
+        assertFalse(summary.hasElse());
+        assertFalse(summary.hasMultilineParentheses());
+        assertFalse(summary.hasBracelessStatement());
+        assertEquals("com.example", summary.packageName());
+        assertEquals(List.of("java.util.List"), summary.imports());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.module;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.underTreeWalker;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MembersOrderCheckTest {
+    private static final String SOURCE = """
+            package com.example;
+
+            interface Api {
+                void run();
+            }
+
+            class Visibility {
+                private int hidden;
+                public int shown;
+
+                private Visibility() {
+                }
+
+                public Visibility(int shown) {
+                    this.shown = shown;
+                }
+
+                void packagePrivate() {
+                }
+
+                protected void inherited() {
+                }
+            }
+            """;
+
+    private static String visibilityOrdinals(String publicOrdinal, String privateOrdinal) {
+        return """
+                <module name="com.github.sviperll.grumpinessy.MembersOrderCheck">
+                    <property name="publicOrdinal" value="%s"/>
+                    <property name="protectedOrdinal" value="2"/>
+                    <property name="packagePrivateOrdinal" value="3"/>
+                    <property name="privateOrdinal" value="%s"/>
+                </module>
+                """.formatted(publicOrdinal, privateOrdinal);
+    }
+
+    private Path sources;
+
+    @BeforeEach
+    void createDirectory(@TempDir Path sources) {
+        this.sources = sources;
+    }
+
+    @Test
+    void ignoresVisibilityByDefault() throws Exception {
+        write(sources, "com/example/Visibility.java", SOURCE);
+        List<String> actual = check(
+                configuration(
+                        underTreeWalker(
+                                "TreeWalker",
+                                module("com.github.sviperll.grumpinessy.MembersOrderCheck")
+                        )
+                ),
+                sources
+        );
+        assertEquals(List.of(), actual);
+    }
+
+    @Test
+    void ordersMembersOfSameKindByVisibility() throws Exception {
+        write(sources, "com/example/Visibility.java", SOURCE);
+        List<String> actual = check(
+                configuration(underTreeWalker("TreeWalker", visibilityOrdinals("1", "4"))),
+                sources
+        );
+        assertEquals(3, actual.size(), () -> actual.toString());
+        assertTrue(actual.get(0).contains("Visibility.java:9:"), () -> actual.toString());
+        assertTrue(actual.get(1).contains("Visibility.java:14:"), () -> actual.toString());
+        assertTrue(actual.get(2).contains("Visibility.java:21:"), () -> actual.toString());
+    }
+
+    @Test
+    void followsConfiguredOrderOfVisibility() throws Exception {
+        write(sources, "com/example/Visibility.java", SOURCE);
+        List<String> actual = check(
+                configuration(underTreeWalker("TreeWalker", visibilityOrdinals("4", "1"))),
+                sources
+        );
+        assertEquals(1, actual.size(), () -> actual.toString());
+        assertTrue(actual.get(0).contains("Visibility.java:21:"), () -> actual.toString());
+    }
+}
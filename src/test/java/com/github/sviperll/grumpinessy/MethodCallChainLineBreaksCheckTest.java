@@ -0,0 +1,117 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.underTreeWalker;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MethodCallChainLineBreaksCheckTest {
+    static final String CHAINS_PATH = "Chains.java";
+
+    /**
+     * Chains, that are broken in different ways, line numbers are given in comments.
+     */
+    static final String CHAINS = """
+            class Chains {
+                Object singleLine(StringBuilder builder) {
+                    return builder.append("a").append("b").append("c"); // 3
+                }
+
+                Object brokenAfterFirstCall(StringBuilder builder) {
+                    return builder.append("a")
+                            .append("b")
+                            .append("c"); // 9
+                }
+
+                Object brokenEverywhere(StringBuilder builder) {
+                    return builder
+                            .append("a")
+                            .append("b"); // 15
+                }
+
+                Object brokenOnce(StringBuilder builder) {
+                    return builder.append("a").append("b").append("c") // 19
+                            .append("d"); // 20
+                }
+
+                Object brokenInTheMiddle(StringBuilder builder) {
+                    return builder.append("a") // 24
+                            .append("b").append("c").append("d") // 25
+                            .append("e"); // 26
+                }
+            }
+            """;
+
+    private static String violation(int line, int column) {
+        return "[ERROR] " + CHAINS_PATH + ":" + line + ":" + column
+                + ": Each method call in a chain should be on its own line."
+                + " [MethodCallChainLineBreaks]";
+    }
+
+    static String chainCheck(boolean breakWholeChain) {
+        return """
+                <module name="com.github.sviperll.grumpinessy.MethodCallChainLineBreaksCheck">
+                    <property name="breakWholeChain" value="%s"/>
+                </module>
+                """.formatted(breakWholeChain);
+    }
+
+    private Path sources;
+
+    @BeforeEach
+    void writeSources(@TempDir Path sources) throws Exception {
+        this.sources = sources;
+        write(sources, CHAINS_PATH, CHAINS);
+    }
+
+    @Test
+    void checksNeighbourhoodOfLineBreaksByDefault() throws Exception {
+        List<String> actual = check(
+                configuration(underTreeWalker("TreeWalker", chainCheck(false))),
+                sources
+        );
+        // Calls, that are not next to a line break, are allowed to share a line
+        assertEquals(
+                List.of(violation(19, 54), violation(25, 36), violation(25, 48)),
+                actual
+        );
+    }
+
+    @Test
+    void requiresEveryCallOfBrokenChainOnItsOwnLine() throws Exception {
+        List<String> actual = check(
+                configuration(underTreeWalker("TreeWalker", chainCheck(true))),
+                sources
+        );
+        assertEquals(
+                List.of(violation(19, 42), violation(19, 54), violation(25, 36), violation(25, 48)),
+                actual
+        );
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.runner.ParallelChecker;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.filesOf;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.listener;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.reportedLines;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PackageCycleCheckTest {
+    private static final String CHECKER = """
+            <module name="Checker">
+                <module name="com.github.sviperll.grumpinessy.PackageCycleCheck">
+                    %s
+                </module>
+            </module>
+            """;
+
+    private static String source(String packageName, String className, String... imports) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("package ").append(packageName).append(";\n\n");
+        for (String imported : imports) {
+            builder.append("import ").append(imported).append(";\n");
+        }
+        builder.append("\nclass ").append(className).append(" {\n}\n");
+        return builder.toString();
+    }
+
+    private Path directory;
+    private Path sources;
+
+    @BeforeEach
+    void writeSources(@TempDir Path directory) throws Exception {
+        this.directory = directory;
+        sources = directory.resolve("src");
+        write(sources, "com/example/a/A.java", source("com.example.a", "A", "com.example.b.B"));
+        write(
+                sources,
+                "com/example/b/B.java",
+                source("com.example.b", "B", "com.example.c.C.Inner", "java.util.List")
+        );
+        write(sources, "com/example/c/C.java", source("com.example.c", "C", "com.example.a.A"));
+        write(sources, "com/example/d/D.java", source("com.example.d", "D", "com.example.a.A"));
+    }
+
+    @Test
+    void reportsEveryCycleOnce() throws Exception {
+        List<String> actual = check(configuration(CHECKER.formatted("")), sources);
+        assertEquals(
+                List.of(
+                        "[ERROR] com/example/a/A.java:3: Packages form a dependency cycle: "
+                                + "com.example.a -> com.example.b -> com.example.c -> com.example.a"
+                                + " [PackageCycle]"
+                ),
+                actual
+        );
+    }
+
+    @Test
+    void reportsEveryCycleOnceWhenFilesAreCheckedInParallel() throws Exception {
+        ParallelChecker checker = new ParallelChecker(
+                configuration(CHECKER.formatted("")),
+                ParallelChecker.class.getClassLoader(),
+                4
+        );
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        checker.process(filesOf(sources), listener(output));
+        List<String> expected = check(configuration(CHECKER.formatted("")), sources);
+        assertEquals(1, expected.size(), () -> expected.toString());
+        assertEquals(expected, reportedLines(output, sources));
+    }
+
+    @Test
+    void reportsNothingWithoutCycles() throws Exception {
+        write(sources, "com/example/c/C.java", source("com.example.c", "C", "java.util.List"));
+        List<String> actual = check(configuration(CHECKER.formatted("")), sources);
+        assertEquals(List.of(), actual);
+    }
+
+    @Test
+    void keepsImportsOfFilesThatAreNotCheckedAgain() throws Exception {
+        String cacheFile = "<property name=\"cacheFile\" value=\"%s\"/>"
+                .formatted(directory.resolve("packages.bin"));
+        check(configuration(CHECKER.formatted(cacheFile)), sources);
+        Path moved = directory.resolve("moved");
+        Files.createDirectories(moved.resolve("com/example/b"));
+        Files.move(sources.resolve("com/example/b/B.java"), moved.resolve("com/example/b/B.java"));
+        List<String> actual = check(configuration(CHECKER.formatted(cacheFile)), moved);
+        assertEquals(1, actual.size(), () -> actual.toString());
+    }
+}
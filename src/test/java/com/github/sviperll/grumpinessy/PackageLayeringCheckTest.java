@@ -0,0 +1,118 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.underTreeWalker;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackageLayeringCheckTest {
+    private Path sources;
+
+    @BeforeEach
+    void writeSources(@TempDir Path sources) throws Exception {
+        this.sources = sources;
+        write(
+                sources,
+                "com/example/shop/domain/Order.java",
+                """
+                package com.example.shop.domain;
+
+                import com.example.shop.infra.Database;
+                import com.example.shop.web.Page;
+                import java.util.List;
+
+                class Order {
+                }
+                """
+        );
+        write(
+                sources,
+                "com/example/shop/api/Endpoint.java",
+                """
+                package com.example.shop.api;
+
+                import com.example.shop.api.model.Request;
+                import com.example.shop.domain.Order;
+                import java.util.List;
+                import static java.util.Objects.requireNonNull;
+
+                class Endpoint {
+                }
+                """
+        );
+    }
+
+    @Test
+    void reportsForbiddenImports() throws Exception {
+        List<String> actual = check(
+                configuration(
+                        underTreeWalker(
+                                "TreeWalker",
+                                """
+                                <module name="com.github.sviperll.grumpinessy.PackageLayeringCheck">
+                                    <property name="rules" value="%s"/>
+                                </module>
+                                """.formatted("**.domain.** must not import **.infra.**, **.web.**")
+                        )
+                ),
+                sources
+        );
+        assertEquals(2, actual.size(), () -> actual.toString());
+        assertTrue(actual.get(0).contains("Order.java:3:"), () -> actual.toString());
+        assertTrue(actual.get(1).contains("Order.java:4:"), () -> actual.toString());
+    }
+
+    @Test
+    void reportsImportsOutsideOfAllowedPackages() throws Exception {
+        Path rules = write(
+                sources.resolveSibling(sources.getFileName() + "-rules"),
+                "rules.txt",
+                """
+                # api is self-contained
+                **.api.** may only import **.api.**, java.**
+                """
+        );
+        List<String> actual = check(
+                configuration(
+                        underTreeWalker(
+                                "TreeWalker",
+                                """
+                                <module name="com.github.sviperll.grumpinessy.PackageLayeringCheck">
+                                    <property name="file" value="%s"/>
+                                </module>
+                                """.formatted(rules)
+                        )
+                ),
+                sources
+        );
+        assertEquals(1, actual.size(), () -> actual.toString());
+        assertTrue(actual.get(0).contains("Endpoint.java:4:"), () -> actual.toString());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+/**
+ * Generated worst-case Java sources, each stresses a single dimension of the syntax tree.
+ * <p>
+ * Every source is generated for the given size and is meant to be checked at growing sizes,
+ * see {@link ComplexityTest}.
+ * A fixed number of constructs of every source violate grumpinessy checks,
+ * so that reporting code paths are exercised too.
+ */
+enum PathologicalCorpus {
+    ELSE_IF_LADDER(1_000) {
+        @Override
+        String generate(int size) {
+            StringBuilder builder = new StringBuilder();
+            builder.append("class Ladder {\n");
+            builder.append("    int ladder(int x) {\n");
+            builder.append("        if (x == -1) {\n");
+            builder.append("            return -1;\n");
+            for (int i = 0; i < size; i++) {
+                if (i < VIOLATION_COUNT) {
+                    builder.append("        } else if (x == ").append(i).append(")\n");
+                    builder.append("            return ").append(i).append(";\n");
+                    builder.append("        else if (x == -").append(i).append(") {\n");
+                    builder.append("            return -").append(i).append(";\n");
+                } else {
+                    builder.append("        } else if (x == ").append(i).append(") {\n");
+                    builder.append("            return ").append(i).append(";\n");
+                }
+            }
+            builder.append("        }\n");
+            builder.append("        return 0;\n");
+            builder.append("    }\n");
+            builder.append("}\n");
+            return builder.toString();
+        }
+    },
+    DEEP_NESTING(1_000) {
+        @Override
+        String generate(int size) {
+            StringBuilder builder = new StringBuilder();
+            builder.append("class Nesting {\n");
+            builder.append("    int nesting(int x) {\n");
+            for (int i = 0; i < size; i++) {
+                builder.append("if (x > ").append(i).append(") {\n");
+                builder.append("x = Math.max(\n");
+                if (i < VIOLATION_COUNT) {
+                    builder.append("x, ").append(i).append(");\n");
+                } else {
+                    builder.append("x,\n");
+                    builder.append(i).append("\n");
+                    builder.append(");\n");
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                builder.append("}\n");
+            }
+            builder.append("        return x;\n");
+            builder.append("    }\n");
+            builder.append("}\n");
+            return builder.toString();
+        }
+    },
+    CALL_CHAIN(500) {
+        @Override
+        String generate(int size) {
+            StringBuilder builder = new StringBuilder();
+            builder.append("class Chain {\n");
+            builder.append("    Object chain(Builder builder) {\n");
+            builder.append("        return builder");
+            for (int i = 0; i < size; i++) {
+                builder.append(i < VIOLATION_COUNT && i % 2 == 0 ? " " : "\n                ");
+                builder.append(".step").append(i).append("(\n");
+                builder.append("                        ").append(i);
+                builder.append(i < VIOLATION_COUNT ? ")" : "\n                )");
+            }
+            builder.append(";\n");
+            builder.append("    }\n");
+            builder.append("}\n");
+            return builder.toString();
+        }
+    },
+    MEMBERS(8_000) {
+        @Override
+        String generate(int size) {
+            StringBuilder builder = new StringBuilder();
+            builder.append("class Members {\n");
+            for (int i = 0; i < VIOLATION_COUNT; i++) {
+                builder.append("    private int late").append(i).append(";\n");
+                builder.append("    static int lateStatic").append(i).append(";\n");
+            }
+            int groupSize = size / 4;
+            for (int i = 0; i < groupSize; i++) {
+                builder.append("    static int staticField").append(i).append(";\n");
+            }
+            for (int i = 0; i < groupSize; i++) {
+                builder.append("    private int field").append(i).append(";\n");
+            }
+            for (int i = 0; i < groupSize; i++) {
+                builder.append("    int method").append(i).append("() {\n");
+                builder.append("        return ").append(i).append(";\n");
+                builder.append("    }\n");
+            }
+            for (int i = 0; i < groupSize; i++) {
+                builder.append("    static class Nested").append(i).append(" {\n");
+                builder.append("    }\n");
+            }
+            builder.append("}\n");
+            return builder.toString();
+        }
+    },
+    IMPORTS(20_000) {
+        @Override
+        String generate(int size) {
+            StringBuilder builder = new StringBuilder();
+            builder.append("package com.example.imports.deep;\n\n");
+            for (int i = 0; i < size; i++) {
+                String enclosing = i < VIOLATION_COUNT
+                        ? "com.example.imports"
+                        : "com.example.other" + i;
+                builder.append("import ").append(enclosing).append(".Type").append(i).append(";\n");
+            }
+            builder.append("\nclass Imports {\n");
+            builder.append("}\n");
+            return builder.toString();
+        }
+    };
+
+    // Checkstyle copies all lines of the file for every reported violation,
+    // so the number of violations is fixed to keep the measurement about checks themselves
+    private static final int VIOLATION_COUNT = 10;
+
+    private final int maxSize;
+
+    PathologicalCorpus(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * The largest size that the source is checked at.
+     */
+    int maxSize() {
+        return maxSize;
+    }
+
+    abstract String generate(int size);
+}
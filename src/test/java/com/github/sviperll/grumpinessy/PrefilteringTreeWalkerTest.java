@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy;
+
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.underTreeWalker;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrefilteringTreeWalkerTest {
+    private static final String PREFILTERING_TREE_WALKER =
+            "com.github.sviperll.grumpinessy.PrefilteringTreeWalker";
+
+    private Path sources;
+
+    @BeforeEach
+    void createDirectory(@TempDir Path sources) {
+        this.sources = sources;
+    }
+
+    @Test
+    void reportsSameViolationsAsTreeWalker() throws Exception {
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        write(sources, SampleSources.CLEAN_PATH, SampleSources.CLEAN);
+        List<String> expected = check(
+                configuration(underTreeWalker("TreeWalker", SampleSources.SEPARATE_CHECKS)),
+                sources
+        );
+        List<String> actual = check(
+                configuration(
+                        underTreeWalker(PREFILTERING_TREE_WALKER, SampleSources.SEPARATE_CHECKS)
+                ),
+                sources
+        );
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void skipsFilesThatCanNotViolateChecks() throws Exception {
+        write(sources, "com/example/Broken.java", "class Broken { void m() { int x = ; } }\n");
+        String checks = """
+                <module name="com.github.sviperll.grumpinessy.MethodCallLineBreaksCheck"/>
+                <module name="com.github.sviperll.grumpinessy.NessesaryBracesCheck"/>
+                """;
+        List<String> actual = check(
+                configuration(underTreeWalker(PREFILTERING_TREE_WALKER, checks)),
+                sources
+        );
+        assertEquals(List.of(), actual);
+    }
+
+    @Test
+    void keepsSeverityAndMessagesOfChecks() throws Exception {
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        String checks = """
+                <module name="com.github.sviperll.grumpinessy.MethodCallLineBreaksCheck">
+                    <property name="severity" value="warning"/>
+                    <message key="multiple.arguments.on.one.line" value="CUSTOM"/>
+                </module>
+                """;
+        List<String> actual = check(
+                configuration(underTreeWalker(PREFILTERING_TREE_WALKER, checks)),
+                sources
+        );
+        assertEquals(
+                List.of(
+                        "[WARN] com/example/app/service/Sample.java:14:24: CUSTOM"
+                                + " [MethodCallLineBreaks]"
+                ),
+                actual
+        );
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.baseline;
+
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.filesOf;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.listener;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.reportedLines;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaselineFilterTest {
+    private Path directory;
+    private Path sources;
+    private Path baselineFile;
+
+    private void process(Configuration configuration, AuditListener listener) throws Exception {
+        Checker checker = new Checker();
+        try {
+            checker.setModuleClassLoader(Checker.class.getClassLoader());
+            checker.configure(configuration);
+            checker.addListener(listener);
+            checker.process(filesOf(sources));
+        } finally {
+            checker.destroy();
+        }
+    }
+
+    private List<String> checkWithBaseline() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        process(
+                configuration(
+                        """
+                        <module name="Checker">
+                            <module name="com.github.sviperll.grumpinessy.baseline.BaselineFilter">
+                                <property name="file" value="%s"/>
+                                <property name="baseDirectory" value="%s"/>
+                            </module>
+                            <module name="TreeWalker">
+                                %s
+                            </module>
+                        </module>
+                        """.formatted(baselineFile, sources, SampleSources.SEPARATE_CHECKS)
+                ),
+                listener(output)
+        );
+        return reportedLines(output, sources);
+    }
+
+    @BeforeEach
+    void recordBaseline(@TempDir Path directory) throws Exception {
+        this.directory = directory;
+        sources = directory.resolve("src");
+        baselineFile = directory.resolve("baseline.bin");
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        BaselineRecorder recorder = new BaselineRecorder(new Fingerprinter(sources));
+        process(
+                configuration(
+                        """
+                        <module name="Checker">
+                            <module name="TreeWalker">
+                                %s
+                            </module>
+                        </module>
+                        """.formatted(SampleSources.SEPARATE_CHECKS)
+                ),
+                recorder
+        );
+        Baseline.write(baselineFile, recorder.counts());
+    }
+
+    @Test
+    void suppressesRecordedViolations() throws Exception {
+        assertEquals(List.of(), checkWithBaseline());
+    }
+
+    @Test
+    void suppressesRecordedViolationsOnMovedLines() throws Exception {
+        write(
+                sources,
+                SampleSources.VIOLATING_PATH,
+                SampleSources.VIOLATING.replace("class Sample {\n", "class Sample {\n\n\n")
+        );
+        assertEquals(List.of(), checkWithBaseline());
+    }
+
+    @Test
+    void reportsNewViolations() throws Exception {
+        write(
+                sources,
+                SampleSources.VIOLATING_PATH,
+                SampleSources.VIOLATING.replace(
+                        "    Sample() {\n    }\n",
+                        """
+                            Sample() {
+                            }
+
+                            static int late;
+                        """
+                )
+        );
+        List<String> actual = checkWithBaseline();
+        assertEquals(1, actual.size(), () -> actual.toString());
+        assertTrue(actual.get(0).contains("Sample.java:13:"), () -> actual.toString());
+    }
+
+    @Test
+    void reportsOccurrencesBeyondRecordedCount() throws Exception {
+        write(
+                sources,
+                SampleSources.VIOLATING_PATH,
+                SampleSources.VIOLATING.replace(
+                        "    Object chain(",
+                        """
+                            int again(int x) {
+                                return Math.max(x,
+                                        1);
+                            }
+
+                            Object chain("""
+                )
+        );
+        List<String> actual = checkWithBaseline();
+        assertEquals(1, actual.size(), () -> actual.toString());
+        assertTrue(actual.get(0).contains("[MethodCallLineBreaks]"), () -> actual.toString());
+    }
+}
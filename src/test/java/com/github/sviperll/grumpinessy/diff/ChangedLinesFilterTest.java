@@ -0,0 +1,133 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.diff;
+
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangedLinesFilterTest {
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory(@TempDir Path directory) {
+        this.directory = directory;
+    }
+
+    @Test
+    void reportsViolationsOnChangedLinesOfChangedFilesOnly() throws Exception {
+        Path sources = writeSources();
+        Path diff = writeDiff();
+        List<String> actual = check(
+                configuration(
+                        """
+                        <module name="Checker">
+                            <module name="com.github.sviperll.grumpinessy.diff.ChangedLinesFilter">
+                                <property name="diffFile" value="%s"/>
+                                <property name="repository" value="%s"/>
+                            </module>
+                            <module name="com.github.sviperll.grumpinessy.diff.ChangedFilesFilter"/>
+                            <module name="TreeWalker">
+                                %s
+                            </module>
+                        </module>
+                        """.formatted(diff, directory, SampleSources.SEPARATE_CHECKS)
+                ),
+                sources
+        );
+        assertEquals(2, actual.size(), () -> actual.toString());
+        assertTrue(actual.get(0).contains("Sample.java:14:"), () -> actual.toString());
+        assertTrue(actual.get(1).contains("Sample.java:26:"), () -> actual.toString());
+    }
+
+    @Test
+    void skipsUnchangedFiles() throws Exception {
+        Path sources = writeSources();
+        Path diff = writeDiff();
+        List<String> all = check(
+                configuration(
+                        """
+                        <module name="Checker">
+                            <module name="TreeWalker">
+                                %s
+                            </module>
+                        </module>
+                        """.formatted(SampleSources.SEPARATE_CHECKS)
+                ),
+                sources
+        );
+        List<String> actual = check(
+                configuration(
+                        """
+                        <module name="Checker">
+                            <module name="com.github.sviperll.grumpinessy.diff.ChangedFilesFilter">
+                                <property name="diffFile" value="%s"/>
+                                <property name="repository" value="%s"/>
+                            </module>
+                            <module name="TreeWalker">
+                                %s
+                            </module>
+                        </module>
+                        """.formatted(diff, directory, SampleSources.SEPARATE_CHECKS)
+                ),
+                sources
+        );
+        List<String> expected = all.stream()
+                .filter(line -> line.contains(SampleSources.VIOLATING_PATH))
+                .toList();
+        assertTrue(expected.size() > 2 && expected.size() < all.size(), () -> all.toString());
+        assertEquals(expected, actual);
+    }
+
+    private Path writeSources() throws IOException {
+        Path sources = directory.resolve("src");
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        write(sources, "com/example/app/service/Unchanged.java", SampleSources.VIOLATING);
+        return sources;
+    }
+
+    private Path writeDiff() throws IOException {
+        return write(
+                directory,
+                "changes.diff",
+                """
+                diff --git a/src/%1$s b/src/%1$s
+                --- a/src/%1$s
+                +++ b/src/%1$s
+                @@ -14,1 +14,1 @@ class Sample {
+                -        return Math.min(x,
+                +        return Math.max(x,
+                @@ -26,1 +26,1 @@ class Sample {
+                -        else  {
+                +        else {
+                """.formatted(SampleSources.VIOLATING_PATH)
+        );
+    }
+}
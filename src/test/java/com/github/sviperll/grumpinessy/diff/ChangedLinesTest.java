@@ -0,0 +1,161 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.diff;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ChangedLinesTest {
+    private static final String ORIGINAL = "class A {\n    int a;\n    int b;\n}\n";
+    private static final String CHANGED = "class A {\n    int a;\n    int c;\n}\n";
+
+    private static boolean isGitAvailable() {
+        try {
+            return new ProcessBuilder("git", "--version").start().waitFor() == 0;
+        } catch (IOException ex) {
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory(@TempDir Path directory) {
+        this.directory = directory;
+    }
+
+    @Test
+    void readsQuotedFileNames() throws Exception {
+        String diff = """
+                --- "a/with \\"quotes\\".java"
+                +++ "b/with \\"quotes\\".java"
+                @@ -2,0 +3 @@
+                +    int c;
+                --- a/with space.java\t
+                +++ b/with space.java\t
+                @@ -1 +1 @@
+                -class B {
+                +class C {
+                --- "a/with\\ttab\\056java"
+                +++ "b/with\\ttab\\056java"
+                @@ -1 +1 @@
+                -class D {
+                +class E {
+                """;
+        ChangedLines changedLines = ChangedLines.readDiff(new StringReader(diff), directory);
+        assertTrue(changedLines.linesOf(file("with \"quotes\".java")).contains(3));
+        assertTrue(changedLines.linesOf(file("with space.java")).contains(1));
+        assertTrue(changedLines.linesOf(file("with\ttab.java")).contains(1));
+        assertEquals(3, changedLines.files().size());
+    }
+
+    @Test
+    void unquotesEscapeSequences() {
+        assertEquals("a\tb\\c\"d\u00e9", ChangedLines.unquote("\"a\\tb\\\\c\\\"d\\303\\251\""));
+        assertThrows(IllegalArgumentException.class, () -> ChangedLines.unquote("\"a\\"));
+        assertThrows(IllegalArgumentException.class, () -> ChangedLines.unquote("\"a\\q\""));
+    }
+
+    @Test
+    void readsGitDiffWhateverPrefixesAreConfigured() throws Exception {
+        assumeTrue(isGitAvailable(), "git is not available");
+        Path repository = createRepository();
+        List<String> names =
+                List.of("src/A.java", "src/with space.java", "src/with \"quote\".java");
+        for (String name : names) {
+            write(repository, name, ORIGINAL);
+        }
+        git(repository, "add", "--all");
+        git(repository, "commit", "-q", "-m", "Add files");
+        for (String name : names) {
+            write(repository, name, CHANGED);
+        }
+        for (String option : List.of("diff.noprefix", "diff.mnemonicPrefix")) {
+            git(repository, "config", option, "true");
+            ChangedLines changedLines = ChangedLines.readGitDiff(repository, "HEAD");
+            for (String name : names) {
+                LineRanges lines = changedLines.linesOf(repository.resolve(name).toString());
+                assertTrue(lines.contains(3) && !lines.contains(1), option + ": " + name);
+            }
+            git(repository, "config", "--unset", option);
+        }
+    }
+
+    @Test
+    void treatsUntrackedFilesAsNew() throws Exception {
+        assumeTrue(isGitAvailable(), "git is not available");
+        Path repository = createRepository();
+        write(repository, "src/A.java", ORIGINAL);
+        git(repository, "add", "--all");
+        git(repository, "commit", "-q", "-m", "Add files");
+        write(repository, "src/B.java", ORIGINAL);
+        write(repository, "src/Ignored.java", ORIGINAL);
+        write(repository, ".gitignore", "Ignored.java\n");
+        // Untracked files of the whole repository are listed, not only of the given directory
+        ChangedLines changedLines = ChangedLines.readGitDiff(repository.resolve("src"), "HEAD");
+        assertEquals(
+                Set.of(repository.resolve("src/B.java"), repository.resolve(".gitignore")),
+                changedLines.files()
+        );
+        Path added = repository.resolve("src/B.java");
+        assertEquals(LineRanges.ALL, changedLines.linesOf(added.toString()));
+    }
+
+    private String file(String name) {
+        return directory.resolve(name).toString();
+    }
+
+    private Path createRepository() throws Exception {
+        Path repository = directory.toRealPath().resolve("repository");
+        Files.createDirectories(repository);
+        git(repository, "init", "-q");
+        git(repository, "config", "user.name", "Test");
+        git(repository, "config", "user.email", "test@example.com");
+        git(repository, "config", "commit.gpgSign", "false");
+        return repository;
+    }
+
+    private void git(Path repository, String... args) throws Exception {
+        List<String> command = new ArrayList<>(List.of("git", "-C", repository.toString()));
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        assertEquals(0, process.waitFor(), () -> String.join(" ", command));
+    }
+}
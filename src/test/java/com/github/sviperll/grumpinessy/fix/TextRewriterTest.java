@@ -0,0 +1,85 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.fix;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TextRewriterTest {
+    private static Fix fix(TextEdit... edits) {
+        return new Fix("Fixed.java", 1, "Check", "key", List.of(edits));
+    }
+
+    private static String rewrite(String text, String lineSeparator, TextEdit... edits)
+            throws IOException {
+        StringWriter writer = new StringWriter();
+        TextRewriter.rewrite(new StringReader(text), writer, List.of(edits), lineSeparator);
+        return writer.toString();
+    }
+
+    @Test
+    void selectsFixesInOrderSkippingConflictingOnes() {
+        Fix insertion = fix(TextEdit.insert(1, 2, "{"));
+        Fix samePosition = fix(new TextEdit(1, 2, 1, 3, "c"));
+        Fix overlapping = fix(new TextEdit(2, 0, 2, 5, "x"), new TextEdit(1, 1, 2, 1, "y"));
+        Fix adjacent = fix(new TextEdit(2, 0, 2, 2, "z"), TextEdit.insert(2, 2, "w"));
+        assertEquals(
+                List.of(insertion, adjacent),
+                TextRewriter.selectNonConflicting(
+                        List.of(insertion, samePosition, overlapping, adjacent)
+                )
+        );
+    }
+
+    @Test
+    void appliesAdjacentEdits() throws IOException {
+        assertEquals(
+                "XYbc\n",
+                rewrite("abc\n", "\n", new TextEdit(1, 0, 1, 1, "X"), TextEdit.insert(1, 1, "Y"))
+        );
+    }
+
+    @Test
+    void keepsLineSeparatorsOfTheFile() throws IOException {
+        assertEquals(
+                "if (x) {\r\n    y();\r\n}\r\nz();\r\n",
+                rewrite(
+                        "if (x)\r\n    y();\r\nz();\r\n",
+                        "\r\n",
+                        TextEdit.insert(1, 6, " {"),
+                        TextEdit.insert(2, 8, "\n}")
+                )
+        );
+    }
+
+    @Test
+    void rejectsEditOutsideOfText() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> rewrite("abc\n", "\n", TextEdit.insert(3, 0, "x"))
+        );
+    }
+}
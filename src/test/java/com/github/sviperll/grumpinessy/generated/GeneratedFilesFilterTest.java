@@ -0,0 +1,152 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.generated;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneratedFilesFilterTest {
+    private static final String VIOLATING_CLASS = """
+            class %s {
+                private int field;
+                static int counter;
+            }
+            """;
+    private static final String MENTIONING_MARKERS = """
+            package com.example;
+
+            /**
+             * Skips files with @Generated annotation or "// Code generated" comment.
+             */
+            class Mentioning {
+                private static final String[] MARKERS = {"@Generated", "DO NOT EDIT"};
+                private static final char AT = '@';
+                private int field;
+                static int counter;
+
+                @Generated("processor")
+                void method() {
+                    // Generated by hand
+                }
+            }
+            """;
+    private static final String CONFIGURATION = """
+            <module name="Checker">
+                <module name="com.github.sviperll.grumpinessy.generated.GeneratedFilesFilter">
+                    %s
+                </module>
+                <module name="TreeWalker">
+                    <module name="com.github.sviperll.grumpinessy.MembersOrderCheck"/>
+                </module>
+            </module>
+            """;
+
+    private Path sources;
+
+    private List<String> checkWithFilter(String properties) throws Exception {
+        return check(configuration(CONFIGURATION.formatted(properties)), sources);
+    }
+
+    @BeforeEach
+    void createDirectory(@TempDir Path sources) {
+        this.sources = sources;
+    }
+
+    @Test
+    void skipsFilesWithMarkers() throws Exception {
+        write(sources, "Handwritten.java", VIOLATING_CLASS.formatted("Handwritten"));
+        write(
+                sources,
+                "Commented.java",
+                "// Code generated by protoc. DO NOT EDIT.\n"
+                        + VIOLATING_CLASS.formatted("Commented")
+        );
+        write(
+                sources,
+                "Annotated.java",
+                """
+                import javax.annotation.processing.Generated;
+
+                @Generated("processor")
+                """ + VIOLATING_CLASS.formatted("Annotated")
+        );
+        List<String> actual = checkWithFilter("");
+        assertEquals(1, actual.size(), () -> actual.toString());
+        assertTrue(actual.get(0).contains("Handwritten.java"), () -> actual.toString());
+    }
+
+    @Test
+    void skipsFilesMatchingPaths() throws Exception {
+        write(sources, "main/Handwritten.java", VIOLATING_CLASS.formatted("Handwritten"));
+        write(sources, "generated/Model.java", VIOLATING_CLASS.formatted("Model"));
+        write(sources, "main/ServiceGrpc.java", VIOLATING_CLASS.formatted("ServiceGrpc"));
+        List<String> actual = checkWithFilter(
+                "<property name=\"paths\" value=\"**/generated/**, **/*Grpc.java\"/>"
+        );
+        assertEquals(1, actual.size(), () -> actual.toString());
+        assertTrue(actual.get(0).contains("Handwritten.java"), () -> actual.toString());
+    }
+
+    @Test
+    void checksFilesMentioningMarkers() throws Exception {
+        write(sources, "Mentioning.java", MENTIONING_MARKERS);
+        write(
+                sources,
+                "Literal.java",
+                "@SuppressWarnings(\"@Generated\")\n" + VIOLATING_CLASS.formatted("Literal")
+        );
+        List<String> actual = checkWithFilter("");
+        assertEquals(2, actual.size(), () -> actual.toString());
+    }
+
+    @Test
+    void countsSkippedFiles() throws Exception {
+        Path generated = write(
+                sources,
+                "Generated.java",
+                "/* DO NOT EDIT */\n" + VIOLATING_CLASS.formatted("Generated")
+        );
+        Path handwritten = write(sources, "Handwritten.java", MENTIONING_MARKERS);
+        GeneratedFilesFilter filter = new GeneratedFilesFilter();
+        assertFalse(filter.accept(generated.toString()));
+        assertTrue(filter.accept(handwritten.toString()));
+        assertFalse(filter.accept(generated.toString()));
+        assertEquals(2, filter.getSkippedFileCount());
+    }
+
+    @Test
+    void checksItself() {
+        Path source = Path.of("src/main/java")
+                .resolve(GeneratedFilesFilter.class.getName().replace('.', '/') + ".java");
+        assertTrue(Files.exists(source));
+        assertTrue(new GeneratedFilesFilter().accept(source.toString()));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.profile;
+
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProfileTierTest {
+    private static final String PROFILE = """
+            <module name="Checker">
+                %s
+                <module name="LineLength">
+                    <property name="max" value="40"/>
+                </module>
+                <module name="TreeWalker">
+                    <module name="SuppressWarningsHolder"/>
+                    <module name="UpperEll"/>
+                </module>
+            </module>
+            """;
+    private static final String SOURCE = """
+            class Suppressed {
+                @SuppressWarnings("checkstyle:linelength")
+                long value = 1L + 2L + 3L + 4L + 5L + 6L + 7L + 8L;
+                long other = 1l;
+            }
+            """;
+
+    private static List<String> childNamesOf(Configuration configuration) {
+        return Arrays.stream(configuration.getChildren())
+                .map(Configuration::getName)
+                .toList();
+    }
+
+    private Path sources;
+
+    @BeforeEach
+    void writeSources(@TempDir Path sources) throws Exception {
+        this.sources = sources;
+        write(sources, "Suppressed.java", SOURCE);
+    }
+
+    @Test
+    void keepsSuppressWarningsHolderForSuppressWarningsFilter() throws Exception {
+        Configuration full =
+                configuration(PROFILE.formatted("<module name=\"SuppressWarningsFilter\"/>"));
+        Configuration fast = ProfileTier.FAST.select(full);
+        assertEquals(
+                List.of("SuppressWarningsFilter", "LineLength", "TreeWalker"),
+                childNamesOf(fast)
+        );
+        assertEquals(1, check(full, sources).size());
+        assertEquals(List.of(), check(fast, sources));
+    }
+
+    @Test
+    void dropsContainersWithoutChecks() throws Exception {
+        Configuration full = configuration(PROFILE.formatted(""));
+        Configuration fast = ProfileTier.FAST.select(full);
+        assertEquals(List.of("LineLength"), childNamesOf(fast));
+        assertEquals(2, check(fast, sources).size());
+    }
+}
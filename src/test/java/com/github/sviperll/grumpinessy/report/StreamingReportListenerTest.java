@@ -0,0 +1,242 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.report;
+
+import com.github.sviperll.grumpinessy.testing.JsonParser;
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingReportListenerTest {
+    private static final int COPY_COUNT = 3;
+    private static final int RULE_COUNT = 6;
+    private static final String PACKAGE_CYCLE_CHECK =
+            "com.github.sviperll.grumpinessy.PackageCycleCheck";
+    private static final String CHECKER = """
+            <module name="Checker">
+                <module name="com.github.sviperll.grumpinessy.report.StreamingReportListener">
+                    <property name="file" value="%s"/>
+                    %s
+                </module>
+                %s
+                <module name="TreeWalker">
+                    %s
+                </module>
+            </module>
+            """;
+
+    private static String property(String name, Object value) {
+        return "<property name=\"" + name + "\" value=\"" + value + "\"/>";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T get(Object json, Object... path) {
+        Object result = json;
+        for (Object key : path) {
+            result = key instanceof Integer index
+                    ? ((List<Object>) result).get(index)
+                    : ((Map<String, Object>) result).get(key);
+        }
+        return (T) result;
+    }
+
+    private static Map<String, Long> countByRule(List<Object> results, String ruleName) {
+        return results.stream()
+                .collect(
+                        Collectors.groupingBy(
+                                result -> get(result, ruleName),
+                                Collectors.counting()
+                        )
+                );
+    }
+
+    private Path directory;
+    private Path sources;
+    private Path report;
+
+    @BeforeEach
+    void writeSources(@TempDir Path directory) throws Exception {
+        this.directory = directory;
+        sources = directory.resolve("src");
+        report = directory.resolve("report.json");
+        write(sources, SampleSources.CLEAN_PATH, SampleSources.CLEAN);
+        for (int i = 0; i < COPY_COUNT; i++) {
+            String path = SampleSources.VIOLATING_PATH.replace("Sample", "Sample" + i);
+            write(sources, path, SampleSources.VIOLATING.replace("Sample", "Sample" + i));
+        }
+    }
+
+    @Test
+    void writesSarifReport() throws Exception {
+        Object sarif = checkWith(property("baseDirectory", sources), "");
+        assertEquals("2.1.0", get(sarif, "version"));
+        assertEquals("Checkstyle", get(sarif, "runs", 0, "tool", "driver", "name"));
+        Map<String, Object> baseUris = get(sarif, "runs", 0, "originalUriBaseIds");
+        assertEquals(
+                sources.toUri().toString(),
+                get(baseUris, StreamingReportListener.BASE_URI_ID, "uri")
+        );
+        List<Object> results = get(sarif, "runs", 0, "results");
+        assertEquals(COPY_COUNT * RULE_COUNT, results.size());
+        for (Object result : results) {
+            Object location = get(result, "locations", 0, "physicalLocation");
+            String uri = get(location, "artifactLocation", "uri");
+            assertTrue(uri.matches("com/example/app/service/Sample[0-9]\\.java"), uri);
+            assertEquals(
+                    StreamingReportListener.BASE_URI_ID,
+                    get(location, "artifactLocation", "uriBaseId")
+            );
+            assertTrue(get(location, "region", "startLine") instanceof Long, () -> "" + location);
+            assertEquals("error", get(result, "level"));
+            assertTrue(get(result, "message", "text") instanceof String, () -> "" + result);
+        }
+        assertEquals(RULE_COUNT, countByRule(results, "ruleId").size());
+        Object summary = get(sarif, "runs", 0, "properties", "summary");
+        assertEquals((long) COPY_COUNT + 1, (Long) get(summary, "files"));
+        assertEquals((long) COPY_COUNT * RULE_COUNT, (Long) get(summary, "error"));
+        assertEquals(0L, (Long) get(summary, "warning"));
+        assertEquals(0L, (Long) get(summary, "info"));
+        assertEquals(0L, (Long) get(summary, "dropped"));
+        assertEquals(0L, (Long) get(summary, "exceptions"));
+    }
+
+    @Test
+    void writesAbsoluteUrisOfFilesOutsideOfBaseDirectory() throws Exception {
+        Object sarif = checkWith(property("baseDirectory", directory.resolve("other")), "");
+        List<Object> results = get(sarif, "runs", 0, "results");
+        for (Object result : results) {
+            Map<String, Object> location =
+                    get(result, "locations", 0, "physicalLocation", "artifactLocation");
+            String uri = get(location, "uri");
+            assertTrue(uri.startsWith(sources.toUri().toString()), uri);
+            assertFalse(location.containsKey("uriBaseId"), () -> "" + location);
+        }
+    }
+
+    @Test
+    void writesNdjsonReport() throws Exception {
+        List<Object> lines = checkForText(property("format", "ndjson"), "")
+                .lines()
+                .map(JsonParser::parse)
+                .toList();
+        List<Object> violations = lines.subList(0, lines.size() - 1);
+        assertEquals(COPY_COUNT * RULE_COUNT, violations.size());
+        for (Object violation : violations) {
+            assertEquals("violation", get(violation, "type"));
+            String file = get(violation, "file");
+            assertTrue(file.startsWith(sources.toString()), file);
+            assertTrue(get(violation, "line") instanceof Long, () -> "" + violation);
+            assertEquals("error", get(violation, "level"));
+        }
+        assertEquals(RULE_COUNT, countByRule(violations, "rule").size());
+        Object summary = lines.get(lines.size() - 1);
+        assertEquals("summary", get(summary, "type"));
+        assertEquals((long) COPY_COUNT * RULE_COUNT, (Long) get(summary, "summary", "error"));
+        assertEquals(0L, (Long) get(summary, "summary", "dropped"));
+    }
+
+    @Test
+    void capsViolationsPerRule() throws Exception {
+        int cap = 2;
+        Object sarif = checkWith(property("maxViolationsPerRule", cap), "");
+        List<Object> results = get(sarif, "runs", 0, "results");
+        Map<String, Long> counts = countByRule(results, "ruleId");
+        assertEquals(RULE_COUNT, counts.size());
+        assertTrue(counts.values().stream().allMatch(count -> count == cap), "" + counts);
+        Object summary = get(sarif, "runs", 0, "properties", "summary");
+        assertEquals((long) COPY_COUNT * RULE_COUNT, (Long) get(summary, "error"));
+        assertEquals((long) (COPY_COUNT - cap) * RULE_COUNT, (Long) get(summary, "dropped"));
+    }
+
+    @Test
+    void capsViolationsPerFile() throws Exception {
+        int cap = 4;
+        Object sarif = checkWith(property("maxViolationsPerFile", cap), "");
+        List<Object> results = get(sarif, "runs", 0, "results");
+        Map<String, Long> counts = results.stream()
+                .collect(
+                        Collectors.groupingBy(
+                                result -> get(
+                                        result,
+                                        "locations",
+                                        0,
+                                        "physicalLocation",
+                                        "artifactLocation",
+                                        "uri"
+                                ),
+                                Collectors.counting()
+                        )
+                );
+        assertEquals(COPY_COUNT, counts.size());
+        assertTrue(counts.values().stream().allMatch(count -> count == cap), "" + counts);
+        Object summary = get(sarif, "runs", 0, "properties", "summary");
+        assertEquals((long) COPY_COUNT * (RULE_COUNT - cap), (Long) get(summary, "dropped"));
+    }
+
+    @Test
+    void capsViolationsReportedAfterAllFilesSeparately() throws Exception {
+        write(sources, "com/example/a/A.java", "package com.example.a;\nimport com.example.b.B;\n");
+        write(sources, "com/example/b/B.java", "package com.example.b;\nimport com.example.a.A;\n");
+        // The last checked file reaches the cap before the cycle is reported
+        write(sources, "com/example/z/Sample.java", SampleSources.VIOLATING);
+        Object sarif = checkWith(
+                property("maxViolationsPerFile", RULE_COUNT),
+                "<module name=\"" + PACKAGE_CYCLE_CHECK + "\"/>"
+        );
+        List<Object> results = get(sarif, "runs", 0, "results");
+        assertEquals(1L, countByRule(results, "ruleId").get(PACKAGE_CYCLE_CHECK));
+        assertEquals(0L, (Long) get(sarif, "runs", 0, "properties", "summary", "dropped"));
+    }
+
+    /**
+     * Checks sources with every grumpinessy check and returns the report parsed as a single JSON.
+     */
+    private Object checkWith(String listenerProperties, String modules) throws Exception {
+        return JsonParser.parse(checkForText(listenerProperties, modules));
+    }
+
+    /**
+     * Checks sources with every grumpinessy check and returns text of the report.
+     */
+    private String checkForText(String listenerProperties, String modules) throws Exception {
+        String checker = CHECKER.formatted(
+                report,
+                listenerProperties,
+                modules,
+                SampleSources.SEPARATE_CHECKS
+        );
+        check(configuration(checker), sources);
+        return Files.readString(report, StandardCharsets.UTF_8);
+    }
+}
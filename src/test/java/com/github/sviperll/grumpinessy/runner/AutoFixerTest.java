@@ -0,0 +1,342 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.github.sviperll.grumpinessy.testing.CheckstyleRunner;
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.module;
+import static com.github.sviperll.grumpinessy.testing.SampleSources.underTreeWalker;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutoFixerTest {
+    private static final String PATH = "com/example/Fixed.java";
+
+    private static Configuration checks(String checkName) throws CheckstyleException {
+        return configuration(
+                underTreeWalker(
+                        "TreeWalker",
+                        module("com.github.sviperll.grumpinessy." + checkName)
+                )
+        );
+    }
+
+    private Path sources;
+
+    @BeforeEach
+    void createDirectory(@TempDir Path sources) {
+        this.sources = sources;
+    }
+
+    @Test
+    void breaksLinesOfMethodCall() throws Exception {
+        assertFixed(
+                "MethodCallLineBreaksCheck",
+                """
+                package com.example;
+
+                class Fixed {
+                    int call(int x) {
+                        return Math.max(x,
+                                1);
+                    }
+                }
+                """,
+                """
+                package com.example;
+
+                class Fixed {
+                    int call(int x) {
+                        return Math.max(
+                                x,
+                                1
+                        );
+                    }
+                }
+                """
+        );
+    }
+
+    @Test
+    void breaksLinesOfMethodCallChain() throws Exception {
+        assertFixed(
+                "MethodCallChainLineBreaksCheck",
+                """
+                package com.example;
+
+                class Fixed {
+                    Object chain(StringBuilder builder) {
+                        return builder.append("a")
+                                .append("b").append("c");
+                    }
+                }
+                """,
+                """
+                package com.example;
+
+                class Fixed {
+                    Object chain(StringBuilder builder) {
+                        return builder.append("a")
+                                .append("b")
+                                .append("c");
+                    }
+                }
+                """
+        );
+    }
+
+    @Test
+    void addsBracesToIfWhenElseHasThem() throws Exception {
+        assertFixed(
+                "IfElseSameBracesCheck",
+                """
+                package com.example;
+
+                class Fixed {
+                    int branches(int x) {
+                        if (x > 0)
+                            return 1;
+                        else {
+                            return 2;
+                        }
+                    }
+                }
+                """,
+                """
+                package com.example;
+
+                class Fixed {
+                    int branches(int x) {
+                        if (x > 0) {
+                            return 1;
+                        } else {
+                            return 2;
+                        }
+                    }
+                }
+                """
+        );
+    }
+
+    @Test
+    void addsBracesToMultilineBody() throws Exception {
+        assertFixed(
+                "NessesaryBracesCheck",
+                """
+                package com.example;
+
+                class Fixed {
+                    int loop(int x) {
+                        while (x > 0)
+                            for (int i = 0; i < x; i++)
+                                x--;
+                        return x;
+                    }
+                }
+                """,
+                """
+                package com.example;
+
+                class Fixed {
+                    int loop(int x) {
+                        while (x > 0) {
+                            for (int i = 0; i < x; i++)
+                                x--;
+                        }
+                        return x;
+                    }
+                }
+                """
+        );
+    }
+
+    @Test
+    void movesMembersTogetherWithTheirComments() throws Exception {
+        assertFixed(
+                "MembersOrderCheck",
+                """
+                package com.example;
+
+                class Fixed {
+                    int get() {
+                        return field;
+                    }
+
+                    // Comment of the field
+                    private int field;
+
+                    /**
+                     * Counter.
+                     */
+                    static int counter;
+                }
+                """,
+                """
+                package com.example;
+
+                class Fixed {
+                    /**
+                     * Counter.
+                     */
+                    static int counter;
+
+                    // Comment of the field
+                    private int field;
+
+                    int get() {
+                        return field;
+                    }
+                }
+                """
+        );
+    }
+
+    @Test
+    void fixesEveryViolationThatHasFix() throws Exception {
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        Configuration configuration =
+                configuration(underTreeWalker("TreeWalker", SampleSources.SEPARATE_CHECKS));
+        assertEquals(6, check(configuration, sources).size());
+        fix(configuration, AutoFixerMain.class.getClassLoader(), 5);
+        List<String> remaining = check(configuration, sources);
+        // Imports of higher packages can't be fixed automatically
+        assertEquals(1, remaining.size(), () -> remaining.toString());
+        assertTrue(remaining.get(0).endsWith("[NoImportsOfHigherPackages]"), remaining.get(0));
+    }
+
+    @Test
+    void postponesConflictingFixesToTheNextRound() throws Exception {
+        String source = """
+                package com.example;
+
+                class Fixed {
+                    int loop(int x) {
+                        while (x > 0)
+                            for (int i = 0; i < x; i++)
+                                x = x
+                                        - 1;
+                        return x;
+                    }
+                }
+                """;
+        Configuration configuration = checks("NessesaryBracesCheck");
+        write(sources, PATH, source);
+        assertEquals(1, fix(configuration, AutoFixerMain.class.getClassLoader(), 1));
+        assertEquals(
+                """
+                package com.example;
+
+                class Fixed {
+                    int loop(int x) {
+                        while (x > 0) {
+                            for (int i = 0; i < x; i++)
+                                x = x
+                                        - 1;
+                        }
+                        return x;
+                    }
+                }
+                """,
+                read()
+        );
+        write(sources, PATH, source);
+        assertEquals(0, fix(configuration, AutoFixerMain.class.getClassLoader(), 2));
+        assertEquals(List.of(), check(configuration, sources));
+    }
+
+    @Test
+    void leavesSuppressedViolationsUnfixed() throws Exception {
+        String source = """
+                package com.example;
+
+                class Fixed {
+                    @SuppressWarnings("checkstyle:nessesarybraces")
+                    int suppressed(int x) {
+                        while (x > 0)
+                            for (int i = 0; i < x; i++)
+                                x--;
+                        return x;
+                    }
+                }
+                """;
+        write(sources, PATH, source);
+        Configuration configuration = configuration(
+                """
+                <module name="Checker">
+                    <module name="SuppressWarningsFilter"/>
+                    <module name="TreeWalker">
+                        <module name="SuppressWarningsHolder"/>
+                        <module name="com.github.sviperll.grumpinessy.NessesaryBracesCheck"/>
+                    </module>
+                </module>
+                """
+        );
+        assertEquals(0, fix(configuration, AutoFixerMain.class.getClassLoader(), 5));
+        assertEquals(source, read());
+    }
+
+    /**
+     * Asserts that violations of the source are fixed and that fixed source is clean.
+     */
+    private void assertFixed(String checkName, String source, String fixed) throws Exception {
+        Configuration configuration = checks(checkName);
+        write(sources, PATH, source);
+        assertNotEquals(List.of(), check(configuration, sources));
+        assertEquals(0, fix(configuration, AutoFixerMain.class.getClassLoader(), 5));
+        assertEquals(fixed, read());
+        assertEquals(List.of(), check(configuration, sources));
+    }
+
+    /**
+     * Fixes all sources and returns the number of remaining errors.
+     */
+    private int fix(
+            Configuration configuration,
+            ClassLoader classLoader,
+            int rounds
+    ) throws CheckstyleException, IOException {
+        AutoFixer fixer = new AutoFixer(configuration, classLoader, rounds);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        return fixer.process(
+                CheckstyleRunner.filesOf(sources),
+                CheckstyleRunner.listener(output)
+        );
+    }
+
+    private String read() throws IOException {
+        return Files.readString(sources.resolve(PATH), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.github.sviperll.grumpinessy.testing.CheckstyleRunner;
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(60)
+class CheckerDaemonTest {
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(500);
+    private static final String CONFIGURATION = SampleSources.underTreeWalker(
+            "TreeWalker",
+            SampleSources.module("com.github.sviperll.grumpinessy.MembersOrderCheck")
+    );
+
+    private static List<String> responseOf(SocketChannel channel) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8)
+        );
+        List<String> response = new ArrayList<>();
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            response.add(line);
+        }
+        return response;
+    }
+
+    @TempDir
+    private Path directory;
+    private Path sources;
+    private CheckerDaemon daemon;
+    private DaemonAddress address;
+    private String token;
+    private ServerSocketChannel server;
+    private Thread serving;
+
+    @BeforeEach
+    void startDaemon() throws Exception {
+        sources = directory.resolve("src");
+        CheckstyleRunner.write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        Path configurationFile =
+                CheckstyleRunner.writeConfiguration(directory, "checkstyle.xml", CONFIGURATION);
+        daemon = new CheckerDaemon(
+                configurationFile,
+                CheckerDaemon.class.getClassLoader(),
+                READ_TIMEOUT
+        );
+        start(DaemonAddress.ofSocketFile(directory.resolve("daemon.sock").toString()));
+    }
+
+    @AfterEach
+    void stopDaemon() throws Exception {
+        try (SocketChannel channel = send(CheckerDaemon.STOP_REQUEST)) {
+            responseOf(channel);
+        }
+        serving.join(TimeUnit.SECONDS.toMillis(10));
+        server.close();
+        address.release();
+        assertFalse(serving.isAlive());
+    }
+
+    @Test
+    void answersWhileIdleClientIsConnected() throws Exception {
+        try (SocketChannel idle = address.connect()) {
+            try (SocketChannel channel = send(sources.toString())) {
+                List<String> response = responseOf(channel);
+                assertEquals(CheckerDaemon.EXIT_CODE_PREFIX + 1, response.get(response.size() - 1));
+            }
+            // Idle client is disconnected without a response
+            assertEquals(List.of(), responseOf(idle));
+        }
+    }
+
+    @Test
+    void keepsServingAfterClientDisconnects() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            send(sources.toString()).close();
+        }
+        try (SocketChannel channel = send(sources.toString())) {
+            List<String> response = responseOf(channel);
+            assertEquals(CheckerDaemon.EXIT_CODE_PREFIX + 1, response.get(response.size() - 1));
+        }
+    }
+
+    @Test
+    void rejectsPortRequestsWithoutToken() throws Exception {
+        stopDaemon();
+        start(DaemonAddress.ofPort(0, directory.resolve("daemon.token").toString()));
+        for (String request : List.of(sources.toString(), CheckerDaemon.STOP_REQUEST)) {
+            try (SocketChannel channel = address.connect()) {
+                Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+                writer.write(request + "\n\n");
+                writer.flush();
+                List<String> response = responseOf(channel);
+                assertEquals(
+                        List.of(
+                                "Request has no valid token",
+                                CheckerDaemon.EXIT_CODE_PREFIX + CheckerDaemon.FAILURE_EXIT_CODE
+                        ),
+                        response
+                );
+            }
+        }
+        assertTrue(serving.isAlive());
+        try (SocketChannel channel = send(sources.toString())) {
+            List<String> response = responseOf(channel);
+            assertEquals(CheckerDaemon.EXIT_CODE_PREFIX + 1, response.get(response.size() - 1));
+        }
+    }
+
+    @Test
+    void writesTokenReadableByOwnerOnly() throws Exception {
+        stopDaemon();
+        start(DaemonAddress.ofPort(0, directory.resolve("daemon.token").toString()));
+        assertEquals(token, address.readToken());
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(
+                    Set.copyOf(PosixFilePermissions.fromString("rw-------")),
+                    Files.getPosixFilePermissions(address.tokenFile())
+            );
+        }
+    }
+
+    /**
+     * Starts serving at the given address, port 0 is replaced by a free port.
+     */
+    private void start(DaemonAddress requestedAddress) throws IOException {
+        server = requestedAddress.bind();
+        address = requestedAddress.tokenFile() == null
+                ? requestedAddress
+                : DaemonAddress.ofPort(
+                        server.socket().getLocalPort(),
+                        requestedAddress.tokenFile().toString()
+                );
+        token = address.createToken();
+        serving = new Thread(this::serve);
+        serving.start();
+    }
+
+    private void serve() {
+        try {
+            daemon.serve(server, token);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private SocketChannel send(String line) throws IOException {
+        SocketChannel channel = address.connect();
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        if (token != null) {
+            writer.write(CheckerDaemon.TOKEN_PREFIX + token + "\n");
+        }
+        writer.write(line + "\n\n");
+        writer.flush();
+        return channel;
+    }
+}
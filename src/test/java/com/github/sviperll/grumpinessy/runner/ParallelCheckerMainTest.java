@@ -0,0 +1,88 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelCheckerMainTest {
+    private Path directory;
+
+    @BeforeEach
+    void writeFiles(@TempDir Path directory) throws Exception {
+        this.directory = directory;
+        write(directory, "src/A.java", "class A {\n}\n");
+        write(directory, "src/b/B.java", "class B {\n}\n");
+        write(directory, "src/b/messages.properties", "a=b\n");
+        write(directory, "src/README", "Readme\n");
+        write(directory, "pom.xml", "<project/>\n");
+    }
+
+    @Test
+    void listsJavaFilesByDefault() throws Exception {
+        assertEquals(
+                List.of("src/A.java", "src/b/B.java"),
+                relativePaths(
+                        ParallelCheckerMain.listFiles(
+                                List.of(directory.resolve("src").toString()),
+                                configuration("<module name=\"Checker\"/>")
+                        )
+                )
+        );
+    }
+
+    @Test
+    void listsFilesWithConfiguredExtensions() throws Exception {
+        String checker = """
+                <module name="Checker">
+                    <property name="fileExtensions" value="java, .properties,xml"/>
+                </module>
+                """;
+        List<String> paths = List.of(
+                directory.resolve("src").toString(),
+                directory.resolve("pom.xml").toString()
+        );
+        assertEquals(
+                List.of("pom.xml", "src/A.java", "src/b/B.java", "src/b/messages.properties"),
+                relativePaths(
+                        ParallelCheckerMain.listFiles(
+                                paths,
+                                configuration(checker)
+                        )
+                )
+        );
+    }
+
+    private List<String> relativePaths(List<File> files) {
+        return files.stream()
+                .map(file -> directory.relativize(file.toPath()).toString())
+                .map(path -> path.replace(File.separatorChar, '/'))
+                .sorted()
+                .toList();
+    }
+}
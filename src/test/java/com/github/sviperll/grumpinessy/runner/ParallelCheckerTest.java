@@ -0,0 +1,216 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import com.github.sviperll.grumpinessy.testing.FailingCheck;
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.filesOf;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.listener;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.reportedLines;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelCheckerTest {
+    private static final int THREAD_COUNT = 4;
+    private static final int COPY_COUNT = 6;
+    private static final String CONFIGURATION =
+            SampleSources.underTreeWalker("TreeWalker", SampleSources.SEPARATE_CHECKS);
+    private static final int SHARD_COUNT = 3;
+    private static final String SHARDED_CONFIGURATION = "<module name=\"Checker\">\n"
+            + SampleSources.module("com.github.sviperll.grumpinessy.PackageCycleCheck")
+            + "<module name=\"TreeWalker\">\n"
+            + SampleSources.SEPARATE_CHECKS
+            + "</module>\n"
+            + "</module>\n";
+
+    private static String cleanSource(int index) {
+        return SampleSources.CLEAN.replace("class Clean", "class Clean" + index);
+    }
+
+    private static String importingSource(String packageName, String imported) {
+        String className = packageName.substring(packageName.lastIndexOf('.') + 1).toUpperCase();
+        return "package " + packageName + ";\n\n"
+                + "import " + imported + ";\n\n"
+                + "class " + className + " {\n"
+                + "}\n";
+    }
+
+    private Path directory;
+
+    private Path sources;
+
+    @BeforeEach
+    void writeSources(@TempDir Path directory) throws Exception {
+        this.directory = directory;
+        sources = directory.resolve("src");
+        write(sources, SampleSources.CLEAN_PATH, SampleSources.CLEAN);
+        for (int i = 0; i < COPY_COUNT; i++) {
+            String path = SampleSources.VIOLATING_PATH.replace("Sample", "Sample" + i);
+            write(sources, path, SampleSources.VIOLATING.replace("Sample", "Sample" + i));
+            write(sources, "com/example/app/Clean" + i + ".java", cleanSource(i));
+        }
+    }
+
+    @Test
+    void reportsTheSameAsSingleChecker() throws Exception {
+        Configuration configuration = configuration(CONFIGURATION);
+        List<String> expected = check(configuration, sources);
+        assertEquals(COPY_COUNT * 6, expected.size(), () -> expected.toString());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ParallelChecker checker = new ParallelChecker(
+                configuration,
+                ParallelChecker.class.getClassLoader(),
+                THREAD_COUNT
+        );
+        int errorCount = checker.process(filesOf(sources), listener(output));
+        assertEquals(expected, reportedLines(output, sources));
+        assertEquals(expected.size(), errorCount);
+    }
+
+    @Test
+    void attributesViolationsToTheirFiles() throws Exception {
+        write(sources, "com/example/app/service/Sample.java", SampleSources.VIOLATING);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ParallelChecker checker = new ParallelChecker(
+                configuration(CONFIGURATION),
+                ParallelChecker.class.getClassLoader(),
+                THREAD_COUNT
+        );
+        checker.process(filesOf(sources), listener(output));
+        List<String> lines = reportedLines(output, sources);
+        for (int i = 0; i < COPY_COUNT; i++) {
+            String path = SampleSources.VIOLATING_PATH.replace("Sample", "Sample" + i);
+            long count = lines.stream().filter(line -> line.contains(" " + path + ":")).count();
+            assertEquals(6, count, path);
+        }
+        long count = lines.stream()
+                .filter(line -> line.contains(" " + SampleSources.VIOLATING_PATH + ":"))
+                .count();
+        assertEquals(6, count, () -> lines.toString());
+        assertTrue(
+                lines.stream().noneMatch(line -> line.contains("Clean")),
+                () -> lines.toString()
+        );
+    }
+
+    @Test
+    void propagatesExceptionsOfChecks() throws Exception {
+        write(sources, "com/example/app/" + FailingCheck.FILE_NAME, cleanSource(COPY_COUNT));
+        ParallelChecker checker = new ParallelChecker(
+                configuration(
+                        SampleSources.underTreeWalker(
+                                "TreeWalker",
+                                SampleSources.module(FailingCheck.class.getName())
+                        )
+                ),
+                ParallelChecker.class.getClassLoader(),
+                THREAD_COUNT
+        );
+        CheckstyleException exception = assertThrows(
+                CheckstyleException.class,
+                () -> checker.process(filesOf(sources), listener(new ByteArrayOutputStream()))
+        );
+        assertTrue(exception.getMessage().contains(FailingCheck.FILE_NAME), exception::getMessage);
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() throws Exception {
+        ParallelChecker checker = new ParallelChecker(
+                configuration(
+                        SampleSources.underTreeWalker("TreeWalker", SampleSources.module("No"))
+                ),
+                ParallelChecker.class.getClassLoader(),
+                THREAD_COUNT
+        );
+        assertThrows(
+                CheckstyleException.class,
+                () -> checker.process(filesOf(sources), listener(new ByteArrayOutputStream()))
+        );
+    }
+
+    @Test
+    void mergedShardsReportTheSameAsSingleRun() throws Exception {
+        write(sources, "com/example/a/A.java", importingSource("com.example.a", "com.example.b.B"));
+        write(sources, "com/example/b/B.java", importingSource("com.example.b", "com.example.c.C"));
+        write(sources, "com/example/c/C.java", importingSource("com.example.c", "com.example.a.A"));
+        List<File> files = filesOf(sources);
+        ParallelChecker checker = new ParallelChecker(
+                configuration(SHARDED_CONFIGURATION),
+                ParallelChecker.class.getClassLoader(),
+                THREAD_COUNT
+        );
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        int expectedErrorCount = checker.process(files, listener(expected));
+        List<String> expectedLines = reportedLines(expected, sources);
+        assertEquals(
+                1,
+                expectedLines.stream().filter(line -> line.endsWith("[PackageCycle]")).count(),
+                () -> expectedLines.toString()
+        );
+
+        List<ShardReport> shards = new ArrayList<>();
+        // Reports are merged in any order
+        for (int i = SHARD_COUNT; i >= 1; i--) {
+            Path report = directory.resolve("shard-" + i + ".bin");
+            checker.processShard(files, new Shard(i, SHARD_COUNT)).write(report);
+            shards.add(ShardReport.read(report));
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(expectedErrorCount, checker.merge(shards, listener(output)));
+        assertEquals(expectedLines, reportedLines(output, sources));
+    }
+
+    @Test
+    void rejectsReportsOfSomeShards() throws Exception {
+        ParallelChecker checker = new ParallelChecker(
+                configuration(SHARDED_CONFIGURATION),
+                ParallelChecker.class.getClassLoader(),
+                THREAD_COUNT
+        );
+        List<File> files = filesOf(sources);
+        ShardReport first = checker.processShard(files, new Shard(1, SHARD_COUNT));
+        ShardReport second = checker.processShard(files, new Shard(2, SHARD_COUNT));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> checker.merge(List.of(first, second), listener(output))
+        );
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> checker.merge(List.of(first, second, second), listener(output))
+        );
+    }
+}
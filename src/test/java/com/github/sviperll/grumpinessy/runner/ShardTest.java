@@ -0,0 +1,137 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.runner;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardTest {
+    private static final int SHARD_COUNT = 4;
+    private static final int FILE_COUNT = 200;
+    private static final int MAX_SIZE = 1000;
+
+    private static Map<File, Integer> assignmentOf(List<File> files) {
+        Map<File, Integer> assignment = new HashMap<>();
+        for (int i = 1; i <= SHARD_COUNT; i++) {
+            for (File file : new Shard(i, SHARD_COUNT).select(files)) {
+                Integer previous = assignment.put(file, i);
+                assertNull(previous, () -> file + " is selected by several shards");
+            }
+        }
+        return assignment;
+    }
+
+    private Path directory;
+    private final Random random = new Random(1);
+    private final List<File> files = new ArrayList<>();
+
+    @BeforeEach
+    void writeFiles(@TempDir Path directory) throws Exception {
+        this.directory = directory;
+        for (int i = 0; i < FILE_COUNT; i++) {
+            files.add(writeFile("com/example/p" + i % 7 + "/F" + i + ".java"));
+        }
+    }
+
+    @Test
+    void selectsEveryFileOnce() {
+        Map<File, Integer> assignment = assignmentOf(files);
+        assertEquals(new HashSet<>(files), assignment.keySet());
+    }
+
+    @Test
+    void keepsOrderOfGivenFiles() {
+        for (int i = 1; i <= SHARD_COUNT; i++) {
+            List<File> selected = new Shard(i, SHARD_COUNT).select(files);
+            List<File> expected = new ArrayList<>(files);
+            expected.retainAll(selected);
+            assertEquals(expected, selected);
+        }
+    }
+
+    @Test
+    void doesNotDependOnOrderOfGivenFiles() {
+        List<File> shuffled = new ArrayList<>(files);
+        Collections.shuffle(shuffled, random);
+        assertEquals(assignmentOf(files), assignmentOf(shuffled));
+    }
+
+    @Test
+    void balancesTotalSizeOfFiles() {
+        long total = files.stream().mapToLong(File::length).sum();
+        for (int i = 1; i <= SHARD_COUNT; i++) {
+            long size = new Shard(i, SHARD_COUNT).select(files)
+                    .stream()
+                    .mapToLong(File::length)
+                    .sum();
+            long expected = total / SHARD_COUNT;
+            assertTrue(Math.abs(size - expected) <= MAX_SIZE, "Shard " + i + " has " + size);
+        }
+    }
+
+    @Test
+    void movesFewFilesWhenFileIsAdded() throws Exception {
+        Map<File, Integer> before = assignmentOf(files);
+        File added = writeFile("com/example/Added.java");
+        List<File> changed = new ArrayList<>(files);
+        changed.add(added);
+        Map<File, Integer> after = assignmentOf(changed);
+        Set<File> moved = new HashSet<>();
+        for (File file : files) {
+            if (!before.get(file).equals(after.get(file))) {
+                moved.add(file);
+            }
+        }
+        long movedSize = moved.stream().mapToLong(File::length).sum();
+        // Every boundary between shards shifts by at most the size of the added file
+        long limit = (SHARD_COUNT - 1) * (added.length() + 2L * MAX_SIZE);
+        assertTrue(movedSize <= limit, () -> moved.size() + " files moved: " + movedSize);
+        assertTrue(moved.size() < FILE_COUNT / SHARD_COUNT, () -> moved.size() + " files moved");
+    }
+
+    @Test
+    void rejectsInvalidShards() {
+        assertEquals(new Shard(2, 3), Shard.parse("2/3"));
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("0/3"));
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("4/3"));
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("3"));
+    }
+
+    private File writeFile(String path) throws Exception {
+        return write(directory, path, "x".repeat(1 + random.nextInt(MAX_SIZE))).toFile();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.suppression;
+
+import com.github.sviperll.grumpinessy.testing.SampleSources;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.check;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.configuration;
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndexedSuppressionFilterTest {
+    private static final String CONFIGURATION = """
+            <module name="Checker">
+              <module name="TreeWalker">
+                %s
+                <module name="com.github.sviperll.grumpinessy.suppression.IndexedSuppressionFilter">
+                  <property name="file" value="%s"/>
+                </module>
+              </module>
+            </module>
+            """;
+
+    private Path directory;
+
+    private List<String> checkWithSuppressions(String suppressions) throws Exception {
+        Path sources = directory.resolve("src");
+        write(sources, SampleSources.VIOLATING_PATH, SampleSources.VIOLATING);
+        Path file = write(directory, "suppressions.txt", suppressions);
+        return check(
+                configuration(CONFIGURATION.formatted(SampleSources.SEPARATE_CHECKS, file)),
+                sources
+        );
+    }
+
+    @BeforeEach
+    void createDirectory(@TempDir Path directory) {
+        this.directory = directory;
+    }
+
+    @Test
+    void suppressesChecksOfFiles() throws Exception {
+        List<String> actual = checkWithSuppressions(
+                """
+                # whole file
+                service/Sample.java MembersOrder
+                Sample.java com.github.sviperll.grumpinessy.NessesaryBracesCheck
+                Other.java *
+                """
+        );
+        assertEquals(4, actual.size(), () -> actual.toString());
+    }
+
+    @Test
+    void suppressesLinesAndMembers() throws Exception {
+        List<String> actual = checkWithSuppressions(
+                """
+                * * lines 1-8
+                Sample.java MethodCallLineBreaks in call
+                Sample.java * in loop
+                """
+        );
+        assertEquals(2, actual.size(), () -> actual.toString());
+    }
+
+    @Test
+    void suppressesNothingForOtherFiles() throws Exception {
+        List<String> actual = checkWithSuppressions("app/Sample.java *\n");
+        assertEquals(6, actual.size(), () -> actual.toString());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.suppression;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static com.github.sviperll.grumpinessy.testing.CheckstyleRunner.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SuppressionsConverterTest {
+    private static final String SUPPRESSIONS = """
+            <?xml version="1.0"?>
+            <suppressions>
+            %s
+            </suppressions>
+            """;
+
+    private Path directory;
+
+    private SuppressionsConverter.Conversion convert(String suppressions) throws Exception {
+        Path file = write(directory, "suppressions.xml", SUPPRESSIONS.formatted(suppressions));
+        return SuppressionsConverter.convert(file);
+    }
+
+    @BeforeEach
+    void createDirectory(@TempDir Path directory) {
+        this.directory = directory;
+    }
+
+    @Test
+    void convertsAnchoredPathsAndNames() throws Exception {
+        SuppressionsConverter.Conversion conversion = convert(
+                """
+                <suppress files=".*[\\\\/]service[\\\\/]Sample\\.java$"
+                    checks="\\.MagicNumberCheck$"/>
+                <suppress files="[/\\\\]Other[.]java$" checks="^com\\.example\\.FooCheck$"/>
+                <suppress files="/Third\\.java$" checks=".*\\.(?:FooCheck|BarCheck)$" lines="3-5"/>
+                <suppress files="^.*/Fourth\\.java$" id="custom"/>
+                <suppress checks=".*"/>
+                """
+        );
+        assertEquals(List.of(), conversion.skipped());
+        assertEquals(
+                List.of(
+                        "service/Sample.java MagicNumberCheck",
+                        "Other.java com.example.FooCheck",
+                        "Third.java FooCheck lines 3-5",
+                        "Third.java BarCheck lines 3-5",
+                        "Fourth.java custom",
+                        "* *"
+                ),
+                conversion.suppressions()
+        );
+    }
+
+    @Test
+    void convertsMemberQueries() throws Exception {
+        SuppressionsConverter.Conversion conversion = convert(
+                """
+                <suppress-xpath files="[\\\\/]Sample\\.java$" checks="\\.MagicNumberCheck$"
+                    query="//CLASS_DEF//METHOD_DEF[./IDENT[@text='parse']]//*"/>
+                """
+        );
+        assertEquals(List.of("Sample.java MagicNumberCheck in parse"), conversion.suppressions());
+    }
+
+    @Test
+    void skipsPatternsMatchingMoreThanExactNames() throws Exception {
+        List<String> patterns = List.of(
+                "<suppress files=\"[\\\\/]generated[\\\\/]\"/>",
+                "<suppress files=\".*[\\\\/]generated[\\\\/].*\"/>",
+                "<suppress files=\"Sample\\.java\"/>",
+                "<suppress files=\"Sample\\.java$\"/>",
+                "<suppress files=\"[\\\\/]Sample.java$\"/>",
+                "<suppress files=\"^/src/Sample\\.java$\"/>",
+                "<suppress files=\"[\\\\/]Sample\\.java$\" checks=\"MagicNumber\"/>",
+                "<suppress files=\"[\\\\/]Sample\\.java$\" checks=\"\\.MagicNumber$\"/>",
+                "<suppress files=\"[\\\\/]Sample\\.java$\" checks=\"\\.MagicNumberCheck\"/>",
+                "<suppress files=\"[\\\\/]Sample\\.java$\" checks=\"Magic|\\.FooCheck$\"/>",
+                "<suppress files=\"[\\\\/]Sample\\.java$\" checks=\"\\.Magic.*Check$\"/>"
+        );
+        SuppressionsConverter.Conversion conversion = convert(String.join("\n", patterns));
+        assertEquals(List.of(), conversion.suppressions());
+        assertEquals(patterns.size(), conversion.skipped().size(), () -> conversion.toString());
+    }
+}
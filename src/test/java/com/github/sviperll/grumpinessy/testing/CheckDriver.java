@@ -0,0 +1,115 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.testing;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.FileContents;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+
+/**
+ * Drives a single check over a pre-parsed tree the same way as Checkstyle's TreeWalker does.
+ * <p>
+ * Running a check without TreeWalker excludes parsing and
+ * the dispatch to other modules from the measurement.
+ * Driver is shared by complexity tests and benchmarks.
+ */
+public final class CheckDriver {
+    private static final String CHECKS_PACKAGE = "com.github.sviperll.grumpinessy";
+
+    /**
+     * Creates driver of the grumpinessy check with the given simple class name.
+     */
+    public static CheckDriver of(String checkName) throws CheckstyleException {
+        AbstractCheck check = instantiate(CHECKS_PACKAGE + "." + checkName);
+        check.configure(new DefaultConfiguration(checkName));
+        check.init();
+        int[] defaultTokens = check.getDefaultTokens();
+        boolean[] tokens = new boolean[Arrays.stream(defaultTokens).max().orElse(0) + 1];
+        for (int token : defaultTokens) {
+            tokens[token] = true;
+        }
+        return new CheckDriver(check, tokens);
+    }
+
+    private static AbstractCheck instantiate(String className) throws CheckstyleException {
+        try {
+            return Class.forName(className)
+                    .asSubclass(AbstractCheck.class)
+                    .getConstructor()
+                    .newInstance();
+        } catch (ClassNotFoundException
+                 | NoSuchMethodException
+                 | InstantiationException
+                 | IllegalAccessException
+                 | InvocationTargetException ex) {
+            throw new CheckstyleException(className + ": unable to instantiate check", ex);
+        }
+    }
+
+    private final AbstractCheck check;
+    private final boolean[] tokens;
+
+    private CheckDriver(AbstractCheck check, boolean[] tokens) {
+        this.check = check;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Runs the check over the given tree.
+     *
+     * @return the number of violations reported
+     */
+    public int run(FileContents contents, DetailAST root) {
+        check.clearViolations();
+        check.setFileContents(contents);
+        check.beginTree(root);
+        DetailAST node = root;
+        while (node != null) {
+            visit(node);
+            DetailAST next = node.getFirstChild();
+            while (node != null && next == null) {
+                leave(node);
+                next = node.getNextSibling();
+                node = node.getParent();
+            }
+            node = next;
+        }
+        check.finishTree(root);
+        return check.getViolations().size();
+    }
+
+    private void visit(DetailAST node) {
+        int type = node.getType();
+        if (type < tokens.length && tokens[type]) {
+            check.visitToken(node);
+        }
+    }
+
+    private void leave(DetailAST node) {
+        int type = node.getType();
+        if (type < tokens.length && tokens[type]) {
+            check.leaveToken(node);
+        }
+    }
+}
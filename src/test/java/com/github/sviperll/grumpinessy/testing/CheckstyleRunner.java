@@ -0,0 +1,141 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.testing;
+
+import com.puppycrawl.tools.checkstyle.AbstractAutomaticBean;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.DefaultLogger;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.xml.sax.InputSource;
+
+/**
+ * Runs Checkstyle over sources written into a directory, usually a temporary one.
+ * <p>
+ * Results are the lines of Checkstyle's plain report, that start with severity,
+ * paths are relative to the checked directory.
+ */
+public final class CheckstyleRunner {
+    private static final String DOCTYPE = """
+            <?xml version="1.0"?>
+            <!DOCTYPE module PUBLIC
+                    "-//Checkstyle//DTD Checkstyle Configuration 1.3//EN"
+                    "https://checkstyle.org/dtds/configuration_1_3.dtd">
+            """;
+
+    /**
+     * Parses configuration given without XML declaration and DOCTYPE.
+     */
+    public static Configuration configuration(String xml) throws CheckstyleException {
+        return ConfigurationLoader.loadConfiguration(
+                new InputSource(new StringReader(DOCTYPE + xml)),
+                new PropertiesExpander(System.getProperties()),
+                ConfigurationLoader.IgnoredModulesOptions.OMIT
+        );
+    }
+
+    /**
+     * Writes file into the directory, creating missing parent directories.
+     */
+    public static Path write(Path directory, String path, String text) throws IOException {
+        Path file = directory.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Writes configuration given without XML declaration and DOCTYPE into the directory.
+     */
+    public static Path writeConfiguration(
+            Path directory,
+            String path,
+            String xml
+    ) throws IOException {
+        return write(directory, path, DOCTYPE + xml);
+    }
+
+    /**
+     * Lists all regular files of the directory sorted by path.
+     */
+    public static List<File> filesOf(Path directory) throws IOException {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            return walk.filter(Files::isRegularFile)
+                    .sorted()
+                    .map(Path::toFile)
+                    .toList();
+        }
+    }
+
+    /**
+     * Checks all files of the directory with a single Checker.
+     */
+    public static List<String> check(
+            Configuration configuration,
+            Path directory
+    ) throws CheckstyleException, IOException {
+        List<File> files = filesOf(directory);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Checker checker = new Checker();
+        try {
+            checker.setModuleClassLoader(Checker.class.getClassLoader());
+            checker.configure(configuration);
+            checker.addListener(listener(output));
+            checker.process(files);
+        } finally {
+            checker.destroy();
+        }
+        return reportedLines(output, directory);
+    }
+
+    /**
+     * Returns listener, that writes plain report into the given output.
+     */
+    public static AuditListener listener(ByteArrayOutputStream output) {
+        return new DefaultLogger(output, AbstractAutomaticBean.OutputStreamOptions.NONE);
+    }
+
+    /**
+     * Returns lines of plain report written into the given output with paths relative to directory.
+     */
+    public static List<String> reportedLines(ByteArrayOutputStream output, Path directory) {
+        String prefix = directory.toAbsolutePath() + File.separator;
+        return output.toString(StandardCharsets.UTF_8)
+                .lines()
+                .filter(line -> line.startsWith("["))
+                .map(line -> line.replace(prefix, "").replace(File.separatorChar, '/'))
+                .toList();
+    }
+
+    private CheckstyleRunner() {
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.testing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses JSON into maps, lists, strings, numbers as {@link Long} or {@link Double},
+ * booleans and nulls.
+ * <p>
+ * Parsing is strict, so tests fail on malformed reports.
+ */
+public final class JsonParser {
+    /**
+     * Parses a single JSON value, that should take the whole text, except surrounding whitespace.
+     *
+     * @throws IllegalArgumentException if the text is not valid JSON
+     */
+    public static Object parse(String text) {
+        JsonParser parser = new JsonParser(text);
+        Object value = parser.value();
+        parser.skipWhitespace();
+        if (parser.position != text.length())
+            throw parser.error("end of text");
+        return value;
+    }
+
+    private final String text;
+    private int position = 0;
+
+    private JsonParser(String text) {
+        this.text = text;
+    }
+
+    private Object value() {
+        skipWhitespace();
+        if (position >= text.length())
+            throw error("value");
+        char c = text.charAt(position);
+        if (c == '{') {
+            return object();
+        } else if (c == '[') {
+            return array();
+        } else if (c == '"') {
+            return string();
+        } else if (text.startsWith("true", position)) {
+            position += "true".length();
+            return true;
+        } else if (text.startsWith("false", position)) {
+            position += "false".length();
+            return false;
+        } else if (text.startsWith("null", position)) {
+            position += "null".length();
+            return null;
+        } else {
+            return number();
+        }
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        expect('{');
+        skipWhitespace();
+        if (tryExpect('}'))
+            return result;
+        do {
+            skipWhitespace();
+            String key = string();
+            if (result.containsKey(key))
+                throw error("unique key instead of " + key);
+            skipWhitespace();
+            expect(':');
+            result.put(key, value());
+            skipWhitespace();
+        } while (tryExpect(','));
+        expect('}');
+        return result;
+    }
+
+    private List<Object> array() {
+        List<Object> result = new ArrayList<>();
+        expect('[');
+        skipWhitespace();
+        if (tryExpect(']'))
+            return result;
+        do {
+            result.add(value());
+            skipWhitespace();
+        } while (tryExpect(','));
+        expect(']');
+        return result;
+    }
+
+    private String string() {
+        expect('"');
+        StringBuilder result = new StringBuilder();
+        while (position < text.length() && text.charAt(position) != '"') {
+            char c = text.charAt(position++);
+            if (c < ' ')
+                throw error("escaped control character");
+            if (c != '\\') {
+                result.append(c);
+            } else if (position >= text.length()) {
+                throw error("escape sequence");
+            } else {
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> result.append(escaped);
+                    case 'b' -> result.append('\b');
+                    case 'f' -> result.append('\f');
+                    case 'n' -> result.append('\n');
+                    case 'r' -> result.append('\r');
+                    case 't' -> result.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length())
+                            throw error("unicode escape");
+                        result.append((char) Integer.parseInt(text, position, position + 4, 16));
+                        position += 4;
+                    }
+                    default -> throw error("escape sequence");
+                }
+            }
+        }
+        expect('"');
+        return result.toString();
+    }
+
+    private Number number() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        String number = text.substring(start, position);
+        if (!number.matches("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?"))
+            throw error("number instead of '" + number + "'");
+        if (number.matches("-?[0-9]+"))
+            return Long.parseLong(number);
+        return Double.parseDouble(number);
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && " \t\r\n".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+    }
+
+    private boolean tryExpect(char c) {
+        if (position >= text.length() || text.charAt(position) != c)
+            return false;
+        position++;
+        return true;
+    }
+
+    private void expect(char c) {
+        if (!tryExpect(c))
+            throw error("'" + c + "'");
+    }
+
+    private IllegalArgumentException error(String expected) {
+        return new IllegalArgumentException("Expecting " + expected + " at position " + position);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2023 Victor Nazarov <asviraspossible@gmail.com>
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package com.github.sviperll.grumpinessy.testing;
+
+/**
+ * Sources shared by tests of checks and tree walkers.
+ */
+public final class SampleSources {
+    /**
+     * Path of {@link #VIOLATING} source relative to the source root.
+     */
+    public static final String VIOLATING_PATH = "com/example/app/service/Sample.java";
+
+    /**
+     * Source that violates every grumpinessy check exactly once.
+     */
+    public static final String VIOLATING = """
+            package com.example.app.service;
+
+            import com.example.app.Helper;
+            import java.util.List;
+
+            class Sample {
+                private int field;
+                static int counter;
+
+                Sample() {
+                }
+
+                int call(int x) {
+                    return Math.max(x,
+                            1);
+                }
+
+                Object chain(StringBuilder builder) {
+                    return builder.append("a")
+                            .append("b").append("c");
+                }
+
+                int branches(int x) {
+                    if (x > 0)
+                        return 1;
+                    else {
+                        return 2;
+                    }
+                }
+
+                int loop(int x) {
+                    while (x > 0)
+                        for (int i = 0; i < x; i++)
+                            x--;
+                    return x;
+                }
+            }
+            """;
+
+    /**
+     * Path of {@link #CLEAN} source relative to the source root.
+     */
+    public static final String CLEAN_PATH = "com/example/app/Clean.java";
+
+    /**
+     * Source that violates no grumpinessy check.
+     */
+    public static final String CLEAN = """
+            package com.example.app;
+
+            import java.util.List;
+
+            class Clean {
+                static int counter;
+
+                private int field;
+
+                int call(int x) {
+                    return Math.max(x, 1);
+                }
+            }
+            """;
+
+    /**
+     * Configuration with every grumpinessy check as a separate module.
+     */
+    public static final String SEPARATE_CHECKS = """
+            <module name="com.github.sviperll.grumpinessy.NoImportsOfHigherPackagesCheck"/>
+            <module name="com.github.sviperll.grumpinessy.MembersOrderCheck"/>
+            <module name="com.github.sviperll.grumpinessy.MethodCallLineBreaksCheck"/>
+            <module name="com.github.sviperll.grumpinessy.MethodCallChainLineBreaksCheck"/>
+            <module name="com.github.sviperll.grumpinessy.IfElseSameBracesCheck"/>
+            <module name="com.github.sviperll.grumpinessy.NessesaryBracesCheck"/>
+            """;
+
+    /**
+     * Returns configuration of a module without properties.
+     */
+    public static String module(String name) {
+        return "<module name=\"" + name + "\"/>\n";
+    }
+
+    /**
+     * Wraps checks into a Checker with a single tree walker module of the given name.
+     */
+    public static String underTreeWalker(String treeWalker, String checks) {
+        return "<module name=\"Checker\">\n"
+                + "<module name=\"" + treeWalker + "\">\n"
+                + checks
+                + "</module>\n"
+                + "</module>\n";
+    }
+
+    private SampleSources() {
+    }
+}